@@ -0,0 +1,44 @@
+package br.com.urbana.connect.benchmark;
+
+import br.com.urbana.connect.application.config.FaqConfig;
+import br.com.urbana.connect.domain.service.FaqAnswerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o custo da consulta à base local de perguntas frequentes, tanto para
+ * perguntas reconhecidas quanto para mensagens que seguem para o GPT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FaqAnswerBenchmark {
+
+    @Param({
+            "Quanto custa o Decor Interiores?",
+            "Vocês atendem em Recife? Queria reformar a fachada da minha casa antes do natal"
+    })
+    private String message;
+
+    private FaqAnswerService faqAnswerService;
+
+    @Setup
+    public void setUp() {
+        faqAnswerService = new FaqAnswerService(new FaqConfig(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Optional<String> findAnswer() {
+        return faqAnswerService.findAnswer(message);
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.urbana.connect.benchmark;
+
+import br.com.urbana.connect.domain.enums.KeywordCategory;
+import br.com.urbana.connect.domain.service.KeywordMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o autômato de palavras-chave com a detecção anterior, que montava a lista
+ * de palavras-chave a cada chamada, fazia um {@code contains} por palavra e compilava
+ * uma expressão regular por padrão de saudação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KeywordMatcherBenchmark {
+
+    private static final List<String> GREETING_PATTERNS = List.of(
+            "\\boi\\b", "\\bolá\\b", "\\bola\\b", "\\bhello\\b", "\\bhi\\b",
+            "\\bbom dia\\b", "\\bboa tarde\\b", "\\bboa noite\\b", "\\bboa\\b",
+            "\\btudo bem\\b", "\\bcomo vai\\b", "\\bhey\\b"
+    );
+
+    @Param({
+            "Boa tarde!",
+            "Gostaria de saber quanto custa o Decor Interiores para uma sala de 18m² e se vocês atendem em Recife",
+            "Não quero falar com robô, quero falar com atendente"
+    })
+    private String message;
+
+    private KeywordMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        matcher = KeywordMatcher.getDefault();
+    }
+
+    @Benchmark
+    public int automatonAllCategories() {
+        return matcher.scan(message);
+    }
+
+    @Benchmark
+    public boolean legacyGreetingAndHandoff() {
+        return legacyIsGreeting(message) | legacyContainsHandoffKeywords(message);
+    }
+
+    @Benchmark
+    public boolean automatonGreetingAndHandoff() {
+        int found = matcher.scan(message);
+        boolean greeting = KeywordMatcher.countWords(message) <= 3
+                && (found & KeywordCategory.GREETING.mask()) != 0;
+        return greeting | (found & KeywordCategory.HANDOFF.mask()) != 0;
+    }
+
+    private boolean legacyIsGreeting(String message) {
+        String normalized = message.toLowerCase().trim();
+        if (normalized.split("\\s+").length <= 3) {
+            for (String pattern : GREETING_PATTERNS) {
+                if (normalized.matches(".*" + pattern + ".*")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean legacyContainsHandoffKeywords(String message) {
+        String normalized = message.toLowerCase().trim();
+        List<String> handoffKeywords = Arrays.asList(
+                "falar com atendente", "falar com humano", "atendente humano",
+                "quero atendente", "quero falar com pessoa", "falar com pessoa",
+                "atendente por favor", "preciso de atendente", "pessoa real",
+                "quero falar com alguém", "falar com gente", "atendimento humano",
+                "ajuda de verdade", "suporte", "falar com suporte",
+                "pessoa de verdade", "sem bot", "não quero falar com robô"
+        );
+        return handoffKeywords.stream().anyMatch(normalized::contains);
+    }
+}
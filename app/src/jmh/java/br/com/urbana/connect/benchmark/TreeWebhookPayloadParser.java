@@ -0,0 +1,80 @@
+package br.com.urbana.connect.benchmark;
+
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.enums.MessageType;
+import br.com.urbana.connect.domain.model.Message;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementação anterior do parser de webhook, baseada na árvore {@link JsonNode}.
+ * Mantida apenas como referência de comparação nos benchmarks.
+ */
+public class TreeWebhookPayloadParser {
+
+    private final ObjectMapper objectMapper;
+
+    public TreeWebhookPayloadParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Comportamento original: lê apenas entry[0].changes[0].messages[0].
+     */
+    public Message parseFirstMessage(String payload) throws IOException {
+        JsonNode rootNode = objectMapper.readTree(payload);
+        JsonNode messageNode = rootNode.path("entry").path(0)
+                .path("changes").path(0).path("value").path("messages").path(0);
+
+        if (!messageNode.path("type").asText().equals("text")) {
+            return null;
+        }
+        return toMessage(messageNode);
+    }
+
+    /**
+     * Variante em árvore que percorre todas as mensagens, para comparar
+     * o mesmo trabalho realizado pelo parser em streaming.
+     */
+    public List<Message> parseAllMessages(String payload) throws IOException {
+        List<Message> messages = new ArrayList<>();
+        JsonNode rootNode = objectMapper.readTree(payload);
+
+        for (JsonNode entry : rootNode.path("entry")) {
+            for (JsonNode change : entry.path("changes")) {
+                for (JsonNode messageNode : change.path("value").path("messages")) {
+                    if (messageNode.path("type").asText().equals("text")) {
+                        messages.add(toMessage(messageNode));
+                    }
+                }
+            }
+        }
+        return messages;
+    }
+
+    private Message toMessage(JsonNode messageNode) {
+        LocalDateTime messageTime = LocalDateTime.ofInstant(
+                Instant.ofEpochSecond(messageNode.path("timestamp").asLong()),
+                ZoneId.systemDefault());
+
+        return Message.builder()
+                .id(UUID.randomUUID().toString())
+                .whatsappMessageId(messageNode.path("id").asText())
+                .direction(MessageDirection.INBOUND)
+                .customerId(messageNode.path("from").asText())
+                .type(MessageType.TEXT)
+                .content(messageNode.path("text").path("body").asText())
+                .status(MessageStatus.SENT)
+                .timestamp(messageTime)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.urbana.connect.benchmark;
+
+import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.WebhookEvent;
+import br.com.urbana.connect.infrastructure.client.WebhookPayloadProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o parser em streaming do webhook com a implementação anterior em árvore.
+ * Os payloads seguem o formato real do WhatsApp Cloud API, com contatos,
+ * metadata e lotes de mensagens de tamanhos variados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WebhookPayloadParserBenchmark {
+
+    /**
+     * Quantidade de mensagens no payload (1 = entrega simples, demais = lotes).
+     */
+    @Param({"1", "10", "50"})
+    private int messagesPerPayload;
+
+    private String payload;
+    private WebhookPayloadProcessor streamingParser;
+    private TreeWebhookPayloadParser treeParser;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        streamingParser = new WebhookPayloadProcessor(objectMapper);
+        treeParser = new TreeWebhookPayloadParser(objectMapper);
+        payload = buildPayload(messagesPerPayload);
+    }
+
+    @Benchmark
+    public List<WebhookEvent> streamingAllEvents() {
+        return streamingParser.extractEvents(payload);
+    }
+
+    @Benchmark
+    public Message treeFirstMessage() throws IOException {
+        return treeParser.parseFirstMessage(payload);
+    }
+
+    @Benchmark
+    public List<Message> treeAllMessages() throws IOException {
+        return treeParser.parseAllMessages(payload);
+    }
+
+    private static String buildPayload(int messageCount) {
+        StringBuilder messages = new StringBuilder();
+        for (int i = 0; i < messageCount; i++) {
+            if (i > 0) {
+                messages.append(',');
+            }
+            messages.append(String.format("""
+                {
+                    "from": "55119%08d",
+                    "id": "wamid.HBgNNTUxMTk5OTk5OTk5ORUCABIYFjNFQjBDN0ZCNzY%04d",
+                    "timestamp": "%d",
+                    "text": {
+                        "body": "Olá, gostaria de saber quanto custa o projeto de decoração para uma sala pequena de %d m²?"
+                    },
+                    "context": {
+                        "from": "5511111111111",
+                        "id": "wamid.HBgNNTUxMTExMTExMTExMRUCABEYEjQ2QjM3"
+                    },
+                    "type": "text"
+                }""", i, i, 1700000000L + i, 10 + i));
+        }
+
+        return String.format("""
+            {
+                "object": "whatsapp_business_account",
+                "entry": [{
+                    "id": "102290129340398",
+                    "changes": [{
+                        "value": {
+                            "messaging_product": "whatsapp",
+                            "metadata": {
+                                "display_phone_number": "5511111111111",
+                                "phone_number_id": "106540352242922"
+                            },
+                            "contacts": [{
+                                "profile": {
+                                    "name": "Cliente Urbana"
+                                },
+                                "wa_id": "5511999999999"
+                            }],
+                            "messages": [%s]
+                        },
+                        "field": "messages"
+                    }]
+                }]
+            }
+            """, messages);
+    }
+}
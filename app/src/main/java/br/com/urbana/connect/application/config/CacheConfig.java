@@ -1,5 +1,6 @@
 package br.com.urbana.connect.application.config;
 
+import br.com.urbana.connect.infrastructure.cache.CustomerCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -7,8 +8,7 @@ import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
 /**
  * Configuração de cache para a aplicação.
@@ -19,23 +19,18 @@ public class CacheConfig {
     
     /**
      * Configura o gerenciador de cache com Caffeine.
+     * O cache de clientes tem tamanho e validade próprios, definidos em {@link CustomerCacheConfig}.
      */
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CustomerCacheConfig customerCacheConfig) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCacheNames(Arrays.asList("gpt-responses", "customer-data"));
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+        // Apenas os caches registrados abaixo; as respostas do GPT ficam no SemanticResponseCache
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(CustomerCache.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(customerCacheConfig.getMaxSize())
+                .expireAfterWrite(customerCacheConfig.getTtl())
+                .recordStats()
+                .build());
         return cacheManager;
     }
-    
-    /**
-     * Configura o builder do Caffeine com políticas de expiração e tamanho.
-     */
-    private Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .initialCapacity(100)
-                .maximumSize(500)
-                .expireAfterWrite(30, TimeUnit.MINUTES)
-                .recordStats();
-    }
 } 
\ No newline at end of file
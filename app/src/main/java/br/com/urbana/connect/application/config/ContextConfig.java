@@ -14,6 +14,7 @@ public class ContextConfig {
     
     /**
      * Número máximo de mensagens a serem utilizadas no histórico da conversa.
+     * Também limita as mensagens recentes guardadas no próprio documento da conversa.
      */
     private int maxMessages = 10;
     
@@ -26,4 +27,9 @@ public class ContextConfig {
      * Indica se o resumo automático da conversa está habilitado.
      */
     private boolean summaryEnabled = false;
+    
+    /**
+     * Número máximo de entidades identificadas mantidas no contexto; as mais antigas são descartadas.
+     */
+    private int maxIdentifiedEntities = 50;
 } 
\ No newline at end of file
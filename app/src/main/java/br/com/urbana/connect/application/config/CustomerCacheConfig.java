@@ -0,0 +1,28 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações do cache de clientes (customer-data).
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.customer-cache")
+@Data
+public class CustomerCacheConfig {
+
+    /**
+     * Quantidade máxima de entradas no cache. Cada cliente ocupa duas entradas:
+     * uma pelo ID e outra pelo número de telefone.
+     */
+    private long maxSize = 20_000;
+
+    /**
+     * Tempo de vida de uma entrada. Limita por quanto tempo uma alteração feita
+     * por outra instância pode deixar de ser vista aqui.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+}
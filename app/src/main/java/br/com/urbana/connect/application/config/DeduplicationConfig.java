@@ -0,0 +1,27 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações da deduplicação de mensagens recebidas pelo webhook.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.dedup")
+@Data
+public class DeduplicationConfig {
+
+    /**
+     * Quantidade máxima de IDs de mensagens do WhatsApp mantidos em memória.
+     */
+    private long maxSize = 100_000;
+
+    /**
+     * Tempo durante o qual um ID recebido é lembrado. Reentregas mais antigas
+     * são barradas pelo índice único no MongoDB.
+     */
+    private Duration ttl = Duration.ofHours(24);
+}
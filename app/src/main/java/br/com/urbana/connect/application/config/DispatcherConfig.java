@@ -0,0 +1,26 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configurações do despachante assíncrono de notificações do webhook.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.dispatcher")
+@Data
+public class DispatcherConfig {
+
+    /**
+     * Número de partições (filas com uma thread cada). Mensagens de um mesmo
+     * cliente sempre caem na mesma partição e são processadas em ordem.
+     */
+    private int partitions = 8;
+
+    /**
+     * Capacidade máxima de cada fila de partição. Quando cheia, novas
+     * notificações são recusadas para que o WhatsApp as reenvie depois.
+     */
+    private int queueCapacity = 200;
+}
@@ -0,0 +1,26 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configurações das respostas locais de perguntas frequentes.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.faq")
+@Data
+public class FaqConfig {
+
+    /**
+     * Se habilitado, perguntas frequentes reconhecidas com alta confiança
+     * são respondidas sem chamar o GPT.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Similaridade mínima (0 a 1) entre a mensagem e a pergunta cadastrada
+     * para responder localmente. Abaixo disso a mensagem segue para o GPT.
+     */
+    private double threshold = 0.8;
+}
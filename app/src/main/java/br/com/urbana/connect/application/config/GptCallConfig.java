@@ -0,0 +1,22 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações das chamadas paralelas de análise ao GPT. O limite de chamadas
+ * simultâneas fica no cliente da OpenAI ({@code urbana.openai-client}).
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.gpt-calls")
+@Data
+public class GptCallConfig {
+
+    /**
+     * Prazo compartilhado por todas as chamadas de uma mesma mensagem.
+     */
+    private Duration deadline = Duration.ofSeconds(20);
+}
@@ -0,0 +1,34 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações do agrupamento de mensagens recebidas em sequência (cliente digitando
+ * várias mensagens curtas seguidas) em um único turno de resposta.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.inbound-coalescing")
+@Data
+public class InboundCoalescingConfig {
+
+    /**
+     * Habilita o agrupamento. Desabilitado, cada mensagem é respondida individualmente.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Tempo de silêncio do cliente que encerra o turno. Cada nova mensagem
+     * recebida dentro desse intervalo reinicia a contagem.
+     */
+    private Duration window = Duration.ofMillis(1500);
+
+    /**
+     * Espera máxima desde a primeira mensagem do turno, mesmo que o cliente
+     * continue enviando mensagens.
+     */
+    private Duration maxWait = Duration.ofSeconds(5);
+}
@@ -0,0 +1,60 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações da caixa de entrada durável do webhook.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.inbox")
+@Data
+public class InboxConfig {
+
+    /**
+     * Identificador desta instância (por padrão, o hostname do pod).
+     * <p>
+     * Na inicialização, a instância retoma na hora as notificações reservadas com este
+     * mesmo identificador. Isso só acontece se ele sobreviver ao reinício (ex.: pods de
+     * um StatefulSet ou URBANA_INBOX_INSTANCE_ID fixo por réplica); com nomes aleatórios,
+     * como os de um Deployment, as notificações da instância anterior só são retomadas,
+     * por qualquer instância, depois que a reserva expira ({@link #leaseDuration}).
+     */
+    private String instanceId = "local";
+
+    /**
+     * Tempo de reserva de uma notificação. Deve ser maior que o tempo máximo
+     * de processamento de uma mensagem; após esse prazo outra instância a reprocessa.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(5);
+
+    /**
+     * Intervalo entre as buscas por notificações pendentes, em milissegundos.
+     */
+    private long pollInterval = 1000;
+
+    /**
+     * Quantidade máxima de notificações reservadas por busca.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Número máximo de tentativas antes de marcar a notificação como falha.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Espera antes da primeira nova tentativa de uma notificação que falhou; dobra a cada
+     * tentativa seguinte. Também é a espera de uma notificação devolvida por filas cheias,
+     * que não conta como tentativa.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Espera máxima entre tentativas.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(1);
+}
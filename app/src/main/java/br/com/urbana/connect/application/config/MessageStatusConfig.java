@@ -0,0 +1,30 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações da gravação das atualizações de status (enviada, entregue, lida)
+ * recebidas pelo webhook.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.message-status")
+@Data
+public class MessageStatusConfig {
+
+    /**
+     * Intervalo entre as gravações das atualizações acumuladas, em milissegundos.
+     * Dentro desse intervalo, apenas o status mais recente de cada mensagem é gravado.
+     */
+    private long flushInterval = 1000;
+
+    /**
+     * Prazo durante o qual a atualização de uma mensagem ainda não encontrada é repetida
+     * nas gravações seguintes. Cobre o status que chega antes de o envio gravar o ID do
+     * WhatsApp na mensagem.
+     */
+    private Duration unmatchedGracePeriod = Duration.ofSeconds(30);
+}
@@ -0,0 +1,43 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações da gravação em lote das mensagens (write-behind).
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.message-writes")
+@Data
+public class MessageWriteConfig {
+
+    /**
+     * Agrupa as gravações de mensagens em lotes. Desligado, cada mensagem é gravada
+     * individualmente, na hora.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Quantidade máxima de gravações por lote.
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * Tempo máximo que a primeira gravação de um lote espera por outras antes de ir ao banco.
+     */
+    private Duration maxLatency = Duration.ofMillis(10);
+
+    /**
+     * Quantidade máxima de gravações aguardando lote. Acima disso, as gravações
+     * são feitas diretamente, sem passar pelo lote.
+     */
+    private int maxBacklog = 5000;
+
+    /**
+     * Tempo máximo que quem grava aguarda a confirmação do banco.
+     */
+    private Duration confirmTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,31 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configurações das migrações de dados executadas na inicialização.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.migration")
+@Data
+public class MigrationConfig {
+
+    /**
+     * Indica se as conversas antigas devem ter a lista de IDs de mensagens
+     * substituída pelo contador e pelas referências à primeira e à última mensagem.
+     */
+    private boolean compactMessageIds = true;
+
+    /**
+     * Indica se os documentos repetidos que impedem a criação dos índices únicos devem
+     * ser removidos na inicialização, antes da criação dos índices.
+     */
+    private boolean removeDuplicates = true;
+
+    /**
+     * Quantidade de conversas migradas por lote.
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,52 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações do cliente HTTP assíncrono da API da OpenAI.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.openai-client")
+@Data
+public class OpenAiClientConfig {
+
+    /**
+     * URL base da API.
+     */
+    private String baseUrl = "https://api.openai.com/v1";
+
+    /**
+     * Número máximo de chamadas em andamento ao mesmo tempo. As excedentes
+     * aguardam em fila, sem ocupar threads.
+     */
+    private int maxConcurrentRequests = 200;
+
+    /**
+     * Threads que processam as respostas e os reagendamentos do cliente.
+     */
+    private int ioThreads = 4;
+
+    /**
+     * Tempo máximo para estabelecer a conexão.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Tempo máximo de cada chamada, da requisição à resposta.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Novas tentativas após falhas de rede, limite de uso (429) ou erros 5xx.
+     */
+    private int maxRetries = 2;
+
+    /**
+     * Espera antes da primeira nova tentativa; dobra a cada tentativa seguinte.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(1);
+}
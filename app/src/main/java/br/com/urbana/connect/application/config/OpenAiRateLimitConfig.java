@@ -0,0 +1,32 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cotas da conta na API da OpenAI, aplicadas localmente antes de cada chamada.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.openai-limits")
+@Data
+public class OpenAiRateLimitConfig {
+
+    /**
+     * Requisições por minuto (RPM) permitidas para o modelo.
+     */
+    private int requestsPerMinute = 500;
+
+    /**
+     * Tokens por minuto (TPM) permitidos para o modelo, somando prompt e resposta.
+     */
+    private int tokensPerMinute = 200_000;
+
+    /**
+     * Tempo máximo que uma chamada pode aguardar na fila antes de ser recusada. Limitado
+     * à metade do prazo das análises de uma mensagem ({@code urbana.gpt-calls.deadline}).
+     */
+    private Duration maxQueueWait = Duration.ofSeconds(10);
+}
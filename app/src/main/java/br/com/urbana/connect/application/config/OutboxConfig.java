@@ -0,0 +1,80 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações da fila de saída de mensagens para o WhatsApp.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.outbox")
+@Data
+public class OutboxConfig {
+
+    /**
+     * Identificador desta instância (por padrão, o hostname do pod).
+     */
+    private String instanceId = "local";
+
+    /**
+     * Tempo de reserva de uma mensagem em envio; após esse prazo outra instância a envia.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(1);
+
+    /**
+     * Intervalo entre as buscas por mensagens prontas para envio ou reenvio, em milissegundos.
+     */
+    private long pollInterval = 1000;
+
+    /**
+     * Envios simultâneos por instância. Mensagens para o mesmo destinatário nunca são
+     * enviadas em paralelo, para preservar a ordem.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Mensagens por segundo permitidas para cada número remetente (phone-number-id).
+     */
+    private double messagesPerSecond = 20;
+
+    /**
+     * Número máximo de tentativas antes de marcar a mensagem como falha.
+     */
+    private int maxAttempts = 8;
+
+    /**
+     * Espera antes da primeira nova tentativa; dobra a cada tentativa seguinte.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Espera máxima entre tentativas.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    /**
+     * Intervalo entre as varreduras por mensagens de saída gravadas e não colocadas na fila,
+     * em milissegundos.
+     */
+    private long recoveryInterval = 60000;
+
+    /**
+     * Idade mínima de uma mensagem para a varredura: abaixo dela, a mensagem ainda pode
+     * estar sendo colocada na fila por quem a gravou.
+     */
+    private Duration recoveryDelay = Duration.ofMinutes(1);
+
+    /**
+     * Idade máxima de uma mensagem para a varredura. Deve ser menor que o prazo de remoção
+     * das entradas enviadas (7 dias), para que uma mensagem enviada não volte à fila.
+     */
+    private Duration recoveryMaxAge = Duration.ofDays(1);
+
+    /**
+     * Quantidade máxima de mensagens recolocadas na fila por varredura.
+     */
+    private int recoveryBatchSize = 100;
+}
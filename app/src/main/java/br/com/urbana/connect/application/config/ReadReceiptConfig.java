@@ -0,0 +1,42 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações do envio em segundo plano das confirmações de leitura para o WhatsApp.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.read-receipts")
+@Data
+public class ReadReceiptConfig {
+
+    /**
+     * Intervalo entre os envios. Dentro desse intervalo, apenas a mensagem mais recente
+     * de cada cliente é confirmada (o WhatsApp marca as anteriores como lidas junto).
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /**
+     * Número máximo de tentativas de cada confirmação.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Espera antes da primeira nova tentativa; dobra a cada tentativa seguinte.
+     */
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    /**
+     * Quantidade de confirmações enviadas em paralelo.
+     */
+    private int concurrency = 8;
+
+    /**
+     * Prazo de cada chamada ao WhatsApp; depois dele, a confirmação conta como falha.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(5);
+}
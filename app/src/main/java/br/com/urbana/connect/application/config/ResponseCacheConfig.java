@@ -0,0 +1,49 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações do cache semântico de respostas do GPT para mensagens sem contexto.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.response-cache")
+@Data
+public class ResponseCacheConfig {
+
+    /**
+     * Se habilitado, mensagens semelhantes a uma já respondida, em conversas sem
+     * histórico, reaproveitam a resposta sem chamar o GPT.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Similaridade de cosseno mínima (0 a 1) entre a mensagem e a mensagem já respondida.
+     */
+    private double threshold = 0.9;
+
+    /**
+     * Tamanho máximo do histórico (incluindo a própria mensagem) para que a conversa
+     * seja considerada sem contexto.
+     */
+    private int maxHistoryMessages = 1;
+
+    /**
+     * Quantidade máxima de respostas guardadas. As mais antigas são descartadas primeiro.
+     */
+    private int maxEntries = 2000;
+
+    /**
+     * Tempo de vida de uma resposta guardada.
+     */
+    private Duration ttl = Duration.ofHours(6);
+
+    /**
+     * Dimensão do vetor de características (potência de dois). Valores maiores
+     * reduzem colisões entre n-gramas diferentes.
+     */
+    private int dimensions = 1 << 18;
+}
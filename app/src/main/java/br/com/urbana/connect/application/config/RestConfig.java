@@ -1,17 +1,35 @@
 package br.com.urbana.connect.application.config;
 
+import br.com.urbana.connect.infrastructure.client.TimedConnectionSocketFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Configuração de componentes relacionados a REST.
@@ -19,6 +37,8 @@ import java.time.Duration;
 @Configuration
 public class RestConfig {
     
+    private static final String HTTP_METRIC_PREFIX = "urbana.whatsapp.http";
+    
     /**
      * Configura o ObjectMapper para lidar com datas no formato ISO.
      */
@@ -31,33 +51,100 @@ public class RestConfig {
     }
     
     /**
-     * Configura o RestTemplate com timeouts adequados.
+     * Cliente HTTP com pool de conexões persistentes (keep-alive) para a API do WhatsApp,
+     * evitando um novo handshake TLS a cada envio ou confirmação de leitura.
+     * Conexões ociosas ou expiradas são fechadas por uma thread de limpeza do próprio cliente.
      */
-    @Bean
-    public RestTemplate restTemplate(ObjectMapper objectMapper) {
-        RestTemplateBuilder builder = new RestTemplateBuilder();
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient whatsappHttpClient(WhatsappHttpConfig config, MeterRegistry meterRegistry) {
+        Timer connectTimer = Timer.builder(HTTP_METRIC_PREFIX + ".connect")
+                .description("Tempo de abertura de novas conexões com a API do WhatsApp (TCP e TLS)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
         
-        // Configurar timeouts
-        builder = builder
-                .setConnectTimeout(Duration.ofSeconds(10))
-                .setReadTimeout(Duration.ofSeconds(30));
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", new TimedConnectionSocketFactory(
+                                SSLConnectionSocketFactory.getSocketFactory(), connectTimer))
+                        .build());
+        connectionManager.setMaxTotal(config.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnections());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(toTimeout(config.getConnectTimeout()))
+                .setSocketTimeout(toTimeout(config.getResponseTimeout()))
+                .setTimeToLive(TimeValue.ofMilliseconds(config.getTimeToLive().toMillis()))
+                .build());
         
+        registerPoolGauge(meterRegistry, connectionManager, "leased", 
+                "Conexões em uso com a API do WhatsApp", PoolStats::getLeased);
+        registerPoolGauge(meterRegistry, connectionManager, "available", 
+                "Conexões ociosas disponíveis para reaproveitamento", PoolStats::getAvailable);
+        registerPoolGauge(meterRegistry, connectionManager, "pending", 
+                "Chamadas aguardando uma conexão livre (pool saturado)", PoolStats::getPending);
+        registerPoolGauge(meterRegistry, connectionManager, "max", 
+                "Limite de conexões do pool", PoolStats::getMax);
+        
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(toTimeout(config.getConnectionRequestTimeout()))
+                        .setResponseTimeout(toTimeout(config.getResponseTimeout()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(config.getMaxIdleTime().toMillis()))
+                .evictExpiredConnections()
+                .build();
+    }
+    
+    /**
+     * Configura o RestTemplate sobre o cliente HTTP com pool de conexões.
+     */
+    @Bean
+    public RestTemplate restTemplate(ObjectMapper objectMapper, CloseableHttpClient whatsappHttpClient,
+                                     MeterRegistry meterRegistry) {
         // Configurar converter JSON
         MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
         converter.setObjectMapper(objectMapper);
         
-        return builder
+        return new RestTemplateBuilder()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(whatsappHttpClient))
+                .additionalInterceptors(requestTimingInterceptor(meterRegistry))
                 .additionalMessageConverters(converter)
                 .build();
     }
     
     /**
-     * Configura factory para requisições HTTP.
+     * Mede a duração de cada chamada, do envio da requisição ao recebimento da resposta,
+     * incluindo a espera por uma conexão livre no pool.
      */
-    private ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000);
-        factory.setReadTimeout(30000);
-        return factory;
+    private ClientHttpRequestInterceptor requestTimingInterceptor(MeterRegistry meterRegistry) {
+        return (request, body, execution) -> {
+            long startedAt = System.nanoTime();
+            String status = "IO_ERROR";
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                status = String.valueOf(response.getStatusCode().value());
+                return response;
+            } finally {
+                Timer.builder(HTTP_METRIC_PREFIX + ".request")
+                        .description("Duração das chamadas à API do WhatsApp")
+                        .tag("method", request.getMethod().name())
+                        .tag("status", status)
+                        .register(meterRegistry)
+                        .record(Duration.ofNanos(System.nanoTime() - startedAt));
+            }
+        };
+    }
+    
+    private void registerPoolGauge(MeterRegistry meterRegistry, PoolingHttpClientConnectionManager connectionManager,
+                                   String name, String description, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(HTTP_METRIC_PREFIX + ".pool." + name, connectionManager, 
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .description(description)
+                .register(meterRegistry);
+    }
+    
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package br.com.urbana.connect.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações do pool de conexões HTTP usado nas chamadas à API do WhatsApp.
+ */
+@Component
+@ConfigurationProperties(prefix = "urbana.whatsapp-http")
+@Data
+public class WhatsappHttpConfig {
+
+    /**
+     * Número máximo de conexões abertas no pool. Todas as chamadas vão para o mesmo
+     * host (graph.facebook.com), então o limite por rota é o mesmo.
+     */
+    private int maxConnections = 50;
+
+    /**
+     * Tempo máximo para estabelecer a conexão (TCP e TLS).
+     */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Tempo máximo de espera pela resposta de cada chamada.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Tempo máximo que uma chamada aguarda por uma conexão livre quando o pool está cheio.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Conexões ociosas por mais tempo que isso são fechadas.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Tempo máximo de vida de uma conexão, mesmo em uso contínuo.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
@@ -1,8 +1,11 @@
 package br.com.urbana.connect.application.controller;
 
 import br.com.urbana.connect.application.dto.ConversationDTO;
+import br.com.urbana.connect.application.dto.MessageDTO;
+import br.com.urbana.connect.application.dto.MessagePageDTO;
 import br.com.urbana.connect.domain.port.input.ConversationManagementUseCase;
 import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.Message;
 import br.com.urbana.connect.domain.enums.ConversationStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +27,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ConversationController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ConversationManagementUseCase conversationService;
 
     /**
@@ -79,6 +84,44 @@ public class ConversationController {
                 });
     }
 
+    /**
+     * Lista as mensagens de uma conversa de forma paginada, em ordem cronológica.
+     *
+     * @param id   ID da conversa
+     * @param page Número da página, começando em zero
+     * @param size Quantidade de mensagens por página (máximo de 100)
+     * @return A página de mensagens ou 404 se a conversa não for encontrada
+     */
+    @GetMapping("/{id}/messages")
+    public ResponseEntity<MessagePageDTO> getConversationMessages(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            log.warn("Paginação inválida para as mensagens da conversa {}: página {}, tamanho {}", id, page, size);
+            return ResponseEntity.badRequest().build();
+        }
+        
+        Optional<Conversation> conversation = conversationService.findById(id);
+        if (conversation.isEmpty()) {
+            log.warn("Conversa com ID {} não encontrada", id);
+            return ResponseEntity.notFound().build();
+        }
+        
+        log.info("Buscando página {} das mensagens da conversa {}", page, id);
+        List<MessageDTO> messages = conversationService.getConversationMessages(id, page, size).stream()
+                .map(this::convertMessageToDTO)
+                .collect(Collectors.toList());
+        
+        return ResponseEntity.ok(MessagePageDTO.builder()
+                .messages(messages)
+                .page(page)
+                .size(size)
+                .totalMessages(conversation.get().getMessageCount())
+                .build());
+    }
+
     /**
      * Lista todas as conversas de um cliente específico.
      *
@@ -172,10 +215,30 @@ public class ConversationController {
                 .id(conversation.getId())
                 .customerId(conversation.getCustomerId())
                 .status(conversation.getStatus().name())
-                .messageIds(conversation.getMessageIds())
+                .messageCount(conversation.getMessageCount())
+                .firstMessageAt(conversation.getFirstMessageAt())
+                .lastMessageId(conversation.getLastMessageId())
+                .lastMessageAt(conversation.getLastMessageAt())
                 .createdAt(conversation.getStartTime())
                 .updatedAt(conversation.getLastActivityTime())
                 .closedAt(conversation.getEndTime())
                 .build();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Converte uma entidade Message para DTO.
+     *
+     * @param message A entidade Message
+     * @return O DTO correspondente
+     */
+    private MessageDTO convertMessageToDTO(Message message) {
+        return MessageDTO.builder()
+                .id(message.getId())
+                .direction(message.getDirection() != null ? message.getDirection().name() : null)
+                .type(message.getType() != null ? message.getType().name() : null)
+                .content(message.getContent())
+                .status(message.getStatus() != null ? message.getStatus().name() : null)
+                .timestamp(message.getTimestamp())
+                .build();
+    }
+}
\ No newline at end of file
@@ -48,10 +48,11 @@ public class WhatsappWebhookController {
 
     /**
      * Endpoint POST para receber notificações de mensagens do WhatsApp.
-     * Processa os eventos recebidos e encaminha para o caso de uso apropriado.
+     * Os eventos são apenas armazenados e enfileirados; o processamento ocorre de forma
+     * assíncrona para que o WhatsApp receba a confirmação imediatamente.
      *
      * @param payload Payload JSON recebido do webhook do WhatsApp
-     * @return HTTP 200 OK para confirmar recebimento
+     * @return HTTP 200 OK para confirmar recebimento, ou HTTP 503 se não foi possível armazená-lo
      */
     @PostMapping
     public ResponseEntity<String> receiveNotification(@RequestBody String payload) {
@@ -59,7 +60,12 @@ public class WhatsappWebhookController {
             log.info("Recebida notificação do webhook WhatsApp");
             log.debug("Payload do webhook: {}", payload);
             
-            webhookService.processWebhookNotification(payload);
+            boolean accepted = webhookService.enqueueWebhookNotification(payload);
+            if (!accepted) {
+                // Não foi possível armazenar: o WhatsApp reenviará a notificação mais tarde
+                log.warn("Notificação não armazenada. Recusada temporariamente");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("RETRY_LATER");
+            }
             
             return ResponseEntity.ok("EVENT_RECEIVED");
         } catch (Exception e) {
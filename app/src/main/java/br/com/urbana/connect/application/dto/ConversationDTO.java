@@ -6,7 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * DTO para transferência de dados de conversas entre camadas.
@@ -33,9 +32,24 @@ public class ConversationDTO {
     private String status;
     
     /**
-     * Lista de IDs de mensagens pertencentes a esta conversa
+     * Quantidade de mensagens da conversa; as mensagens são consultadas de forma paginada
      */
-    private List<String> messageIds;
+    private long messageCount;
+    
+    /**
+     * Data e hora da primeira mensagem da conversa
+     */
+    private LocalDateTime firstMessageAt;
+    
+    /**
+     * ID da mensagem mais recente da conversa
+     */
+    private String lastMessageId;
+    
+    /**
+     * Data e hora da mensagem mais recente da conversa
+     */
+    private LocalDateTime lastMessageAt;
     
     /**
      * Data e hora de criação da conversa
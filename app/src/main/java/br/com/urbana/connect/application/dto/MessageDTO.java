@@ -0,0 +1,48 @@
+package br.com.urbana.connect.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para transferência de dados de mensagens entre camadas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageDTO {
+    
+    /**
+     * ID único da mensagem
+     */
+    private String id;
+    
+    /**
+     * Direção da mensagem (INBOUND, OUTBOUND)
+     */
+    private String direction;
+    
+    /**
+     * Tipo da mensagem (TEXT, IMAGE, ...)
+     */
+    private String type;
+    
+    /**
+     * Conteúdo textual da mensagem
+     */
+    private String content;
+    
+    /**
+     * Status de entrega da mensagem
+     */
+    private String status;
+    
+    /**
+     * Data e hora da mensagem
+     */
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,38 @@
+package br.com.urbana.connect.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de uma página do histórico de mensagens de uma conversa.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDTO {
+    
+    /**
+     * Mensagens da página, em ordem cronológica
+     */
+    private List<MessageDTO> messages;
+    
+    /**
+     * Número da página, começando em zero
+     */
+    private int page;
+    
+    /**
+     * Quantidade máxima de mensagens por página
+     */
+    private int size;
+    
+    /**
+     * Total de mensagens da conversa
+     */
+    private long totalMessages;
+}
@@ -1,5 +1,8 @@
 package br.com.urbana.connect.domain.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Status possíveis para uma conversa.
  */
@@ -8,5 +11,14 @@ public enum ConversationStatus {
     WAITING_FOR_CUSTOMER,
     WAITING_FOR_AGENT,
     WAITING_HUMAN,
-    CLOSED
+    CLOSED;
+    
+    /**
+     * Status em que a conversa ainda está em andamento (todos, exceto CLOSED).
+     * 
+     * @return Conjunto de status de conversas em andamento
+     */
+    public static Set<ConversationStatus> openStatuses() {
+        return EnumSet.complementOf(EnumSet.of(CLOSED));
+    }
 } 
\ No newline at end of file
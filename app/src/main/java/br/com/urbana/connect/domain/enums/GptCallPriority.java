@@ -0,0 +1,11 @@
+package br.com.urbana.connect.domain.enums;
+
+/**
+ * Prioridade de uma chamada ao GPT na fila de cota da API.
+ */
+public enum GptCallPriority {
+    /** Respostas que o cliente está aguardando. */
+    INTERACTIVE,
+    /** Tarefas de fundo, como resumos de conversa, que cedem a vez às respostas. */
+    BACKGROUND
+}
@@ -0,0 +1,17 @@
+package br.com.urbana.connect.domain.enums;
+
+/**
+ * Categorias de palavras-chave detectadas nas mensagens.
+ */
+public enum KeywordCategory {
+    GREETING,
+    HANDOFF,
+    FAREWELL;
+
+    /**
+     * Bit da categoria na máscara devolvida pelo {@code KeywordMatcher}.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
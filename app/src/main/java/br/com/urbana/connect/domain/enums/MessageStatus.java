@@ -4,8 +4,12 @@ package br.com.urbana.connect.domain.enums;
  * Status da mensagem.
  */
 public enum MessageStatus {
+    /**
+     * Mensagem de saída gravada e aguardando envio pela fila de saída.
+     */
+    PENDING,
     SENT,
     DELIVERED,
     READ,
     FAILED
-} 
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package br.com.urbana.connect.domain.enums;
+
+/**
+ * Estado de envio de uma mensagem na fila de saída para o WhatsApp.
+ */
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
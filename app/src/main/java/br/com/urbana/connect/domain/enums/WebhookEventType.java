@@ -0,0 +1,9 @@
+package br.com.urbana.connect.domain.enums;
+
+/**
+ * Tipo de evento recebido pelo webhook do WhatsApp.
+ */
+public enum WebhookEventType {
+    MESSAGE,
+    STATUS
+}
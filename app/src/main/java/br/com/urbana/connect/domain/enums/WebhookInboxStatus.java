@@ -0,0 +1,11 @@
+package br.com.urbana.connect.domain.enums;
+
+/**
+ * Estado de processamento de uma notificação armazenada na caixa de entrada do webhook.
+ */
+public enum WebhookInboxStatus {
+    PENDING,
+    PROCESSING,
+    DONE,
+    FAILED
+}
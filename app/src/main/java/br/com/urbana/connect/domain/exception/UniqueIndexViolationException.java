@@ -0,0 +1,44 @@
+package br.com.urbana.connect.domain.exception;
+
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * Violação de um índice único ao gravar um documento, com o código do erro devolvido
+ * pelo MongoDB e o nome do índice violado.
+ */
+public class UniqueIndexViolationException extends DuplicateKeyException {
+
+    /**
+     * Código do erro no MongoDB (11000 para chave duplicada).
+     */
+    private final int code;
+
+    /**
+     * Nome do índice violado; null quando o erro não o informa.
+     */
+    private final String indexName;
+
+    public UniqueIndexViolationException(int code, String indexName, String message, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+        this.indexName = indexName;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    /**
+     * Verifica se a violação foi do índice informado.
+     *
+     * @param name Nome do índice
+     * @return true se o índice violado for o informado
+     */
+    public boolean isViolationOf(String name) {
+        return name.equals(indexName);
+    }
+}
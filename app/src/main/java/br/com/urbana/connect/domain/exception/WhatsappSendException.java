@@ -0,0 +1,35 @@
+package br.com.urbana.connect.domain.exception;
+
+/**
+ * Falha no envio de uma mensagem pela API do WhatsApp.
+ */
+public class WhatsappSendException extends RuntimeException {
+
+    /**
+     * Status HTTP da resposta; zero quando não houve resposta (falha de rede ou timeout).
+     */
+    private final int statusCode;
+
+    public WhatsappSendException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public WhatsappSendException(int statusCode, String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Indica se vale a pena tentar novamente: falhas de rede, limite de uso (429) e erros 5xx.
+     *
+     * @return true se o envio pode ser repetido
+     */
+    public boolean isRetryable() {
+        return statusCode == 0 || statusCode == 429 || statusCode >= 500;
+    }
+}
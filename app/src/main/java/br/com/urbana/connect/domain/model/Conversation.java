@@ -6,7 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,19 +16,25 @@ import java.util.List;
 
 /**
  * Representa uma conversa entre um cliente e o sistema.
- * Contém metadados da conversa e referências às mensagens.
+ * Contém metadados da conversa e um resumo das mensagens (quantidade, primeira e última);
+ * as mensagens em si ficam na coleção de mensagens e são consultadas de forma paginada.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "conversations")
+@CompoundIndexes({
+    @CompoundIndex(name = "customer_status_start_idx", def = "{'customerId': 1, 'status': 1, 'startTime': -1}"),
+    // Impede que duas requisições simultâneas criem duas conversas ativas para o mesmo cliente
+    @CompoundIndex(name = "customer_active_unique_idx", def = "{'customerId': 1, 'status': 1}",
+            unique = true, partialFilter = "{'status': 'ACTIVE'}")
+})
 public class Conversation {
     
     @Id
     private String id;
     
-    @Indexed
     private String customerId;
     
     private ConversationStatus status;
@@ -42,8 +49,33 @@ public class Conversation {
     
     private boolean handedOffToHuman;
     
+    /**
+     * Quantidade de mensagens registradas na conversa.
+     */
+    private long messageCount;
+    
+    /**
+     * Data e hora da primeira mensagem da conversa.
+     */
+    private LocalDateTime firstMessageAt;
+    
+    /**
+     * ID da mensagem mais recente da conversa.
+     */
+    private String lastMessageId;
+    
+    /**
+     * Data e hora da mensagem mais recente da conversa.
+     */
+    private LocalDateTime lastMessageAt;
+    
+    /**
+     * Últimas mensagens da conversa, da mais antiga para a mais recente, limitadas a
+     * {@code urbana.context.max-messages}. Permite montar o histórico sem consultar
+     * a coleção de mensagens.
+     */
     @Builder.Default
-    private List<String> messageIds = new ArrayList<>();
+    private List<RecentMessage> recentMessages = new ArrayList<>();
     
     @Builder.Default
     private ConversationContext context = new ConversationContext();
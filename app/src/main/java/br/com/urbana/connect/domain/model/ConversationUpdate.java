@@ -0,0 +1,251 @@
+package br.com.urbana.connect.domain.model;
+
+import br.com.urbana.connect.domain.enums.ConversationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Alterações pontuais em uma conversa.
+ * <p>
+ * O repositório grava apenas os campos registrados aqui, em vez de regravar o documento
+ * inteiro: o tráfego e o oplog ficam menores e processamentos simultâneos da mesma
+ * conversa não sobrescrevem os campos alterados um pelo outro. As mesmas alterações
+ * podem ser aplicadas ao objeto em memória com {@link #applyTo(Conversation)}.
+ */
+public class ConversationUpdate {
+
+    private final Map<String, Object> fieldsToSet = new LinkedHashMap<>();
+    private final Map<String, Number> fieldsToIncrement = new LinkedHashMap<>();
+    private final Map<String, Object> fieldsToMinimize = new LinkedHashMap<>();
+    private final Map<String, Push> valuesToPush = new LinkedHashMap<>();
+    private final List<Consumer<Conversation>> changes = new ArrayList<>();
+
+    /**
+     * Cria um conjunto vazio de alterações.
+     *
+     * @return Nova instância
+     */
+    public static ConversationUpdate create() {
+        return new ConversationUpdate();
+    }
+
+    public ConversationUpdate status(ConversationStatus status) {
+        return set("status", status, conversation -> conversation.setStatus(status));
+    }
+
+    public ConversationUpdate endTime(LocalDateTime endTime) {
+        return set("endTime", endTime, conversation -> conversation.setEndTime(endTime));
+    }
+
+    public ConversationUpdate lastActivityTime(LocalDateTime lastActivityTime) {
+        return set("lastActivityTime", lastActivityTime, conversation -> conversation.setLastActivityTime(lastActivityTime));
+    }
+
+    public ConversationUpdate handedOffToHuman(boolean handedOffToHuman) {
+        return set("handedOffToHuman", handedOffToHuman, conversation -> conversation.setHandedOffToHuman(handedOffToHuman));
+    }
+
+    public ConversationUpdate customerIntent(String customerIntent) {
+        return set("context.customerIntent", customerIntent,
+                conversation -> conversation.getContext().setCustomerIntent(customerIntent));
+    }
+
+    public ConversationUpdate lastDetectedTopic(String lastDetectedTopic) {
+        return set("context.lastDetectedTopic", lastDetectedTopic,
+                conversation -> conversation.getContext().setLastDetectedTopic(lastDetectedTopic));
+    }
+
+    public ConversationUpdate needsHumanIntervention(boolean needsHumanIntervention) {
+        return set("context.needsHumanIntervention", needsHumanIntervention,
+                conversation -> conversation.getContext().setNeedsHumanIntervention(needsHumanIntervention));
+    }
+
+    public ConversationUpdate lastInteractionTime(LocalDateTime lastInteractionTime) {
+        return set("context.lastInteractionTime", lastInteractionTime,
+                conversation -> conversation.getContext().setLastInteractionTime(lastInteractionTime));
+    }
+
+    public ConversationUpdate conversationSummary(String conversationSummary) {
+        return set("context.conversationSummary", conversationSummary,
+                conversation -> conversation.getContext().setConversationSummary(conversationSummary));
+    }
+
+    public ConversationUpdate conversationState(String conversationState) {
+        return set("context.conversationState", conversationState,
+                conversation -> conversation.getContext().setConversationState(conversationState));
+    }
+
+    /**
+     * Registra uma nova mensagem na conversa: incrementa o contador e atualiza as
+     * referências à primeira e à última mensagem, sem guardar a lista de IDs no documento.
+     *
+     * @param messageId ID da mensagem
+     * @param timestamp Data e hora da mensagem
+     * @return Esta instância
+     */
+    public ConversationUpdate recordMessage(String messageId, LocalDateTime timestamp) {
+        fieldsToIncrement.merge("messageCount", 1L, (current, increment) -> current.longValue() + increment.longValue());
+        fieldsToMinimize.put("firstMessageAt", timestamp);
+        fieldsToSet.put("lastMessageId", messageId);
+        fieldsToSet.put("lastMessageAt", timestamp);
+        changes.add(conversation -> {
+            conversation.setMessageCount(conversation.getMessageCount() + 1);
+            if (conversation.getFirstMessageAt() == null || timestamp.isBefore(conversation.getFirstMessageAt())) {
+                conversation.setFirstMessageAt(timestamp);
+            }
+            conversation.setLastMessageId(messageId);
+            conversation.setLastMessageAt(timestamp);
+        });
+        return this;
+    }
+
+    /**
+     * Acrescenta uma mensagem ao histórico recente embutido na conversa, mantendo apenas as mais recentes.
+     *
+     * @param message Mensagem a acrescentar
+     * @param keepLast Quantidade máxima de mensagens mantidas; zero ou negativo para não acrescentar
+     * @return Esta instância
+     */
+    public ConversationUpdate addRecentMessage(RecentMessage message, int keepLast) {
+        if (keepLast <= 0) {
+            return this;
+        }
+        return push("recentMessages", List.of(message), keepLast,
+                conversation -> appendKeepingLast(conversation.getRecentMessages(), List.of(message), keepLast));
+    }
+
+    /**
+     * Acrescenta entidades identificadas, mantendo apenas as mais recentes.
+     *
+     * @param entities Entidades a acrescentar
+     * @param keepLast Quantidade máxima de entidades mantidas; zero ou negativo para não limitar
+     * @return Esta instância
+     */
+    public ConversationUpdate addIdentifiedEntities(List<String> entities, int keepLast) {
+        if (entities == null || entities.isEmpty()) {
+            return this;
+        }
+        return push("context.identifiedEntities", entities, keepLast,
+                conversation -> appendKeepingLast(conversation.getContext().getIdentifiedEntities(), entities, keepLast));
+    }
+
+    /**
+     * Acrescenta as alterações de outra instância a esta, para gravá-las em uma única operação.
+     * Campos substituídos prevalecem na ordem de chegada, incrementos são somados,
+     * mínimos mantêm o menor valor e listas concatenam os valores acrescentados.
+     *
+     * @param other Alterações a acrescentar
+     * @return Esta instância
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConversationUpdate merge(ConversationUpdate other) {
+        fieldsToSet.putAll(other.fieldsToSet);
+        other.fieldsToIncrement.forEach((path, increment) -> fieldsToIncrement.merge(path, increment,
+                (current, added) -> current.longValue() + added.longValue()));
+        other.fieldsToMinimize.forEach((path, value) -> fieldsToMinimize.merge(path, value,
+                (current, candidate) -> ((Comparable) candidate).compareTo(current) < 0 ? candidate : current));
+        other.valuesToPush.forEach((path, push) -> {
+            Push previous = valuesToPush.get(path);
+            List<Object> merged = new ArrayList<>(previous != null ? previous.getValues() : List.of());
+            merged.addAll(push.getValues());
+            valuesToPush.put(path, new Push(merged, push.getKeepLast()));
+        });
+        changes.addAll(other.changes);
+        return this;
+    }
+
+    /**
+     * Aplica as alterações ao objeto em memória.
+     *
+     * @param conversation Conversa a ser alterada
+     * @return A própria conversa, alterada
+     */
+    public Conversation applyTo(Conversation conversation) {
+        changes.forEach(change -> change.accept(conversation));
+        return conversation;
+    }
+
+    /**
+     * @return Campos a serem substituídos, indexados pelo caminho no documento
+     */
+    public Map<String, Object> getFieldsToSet() {
+        return Collections.unmodifiableMap(fieldsToSet);
+    }
+
+    /**
+     * @return Incrementos de campos numéricos, indexados pelo caminho no documento
+     */
+    public Map<String, Number> getFieldsToIncrement() {
+        return Collections.unmodifiableMap(fieldsToIncrement);
+    }
+
+    /**
+     * @return Valores gravados apenas se forem menores que o atual, indexados pelo caminho no documento
+     */
+    public Map<String, Object> getFieldsToMinimize() {
+        return Collections.unmodifiableMap(fieldsToMinimize);
+    }
+
+    /**
+     * @return Valores a serem acrescentados a listas, indexados pelo caminho no documento
+     */
+    public Map<String, Push> getValuesToPush() {
+        return Collections.unmodifiableMap(valuesToPush);
+    }
+
+    /**
+     * @return true se nenhuma alteração foi registrada
+     */
+    public boolean isEmpty() {
+        return fieldsToSet.isEmpty() && fieldsToIncrement.isEmpty()
+                && fieldsToMinimize.isEmpty() && valuesToPush.isEmpty();
+    }
+
+    private ConversationUpdate set(String path, Object value, Consumer<Conversation> change) {
+        fieldsToSet.put(path, value);
+        changes.add(change);
+        return this;
+    }
+
+    private ConversationUpdate push(String path, List<?> values, int keepLast, Consumer<Conversation> change) {
+        Push previous = valuesToPush.get(path);
+        List<Object> merged = new ArrayList<>(previous != null ? previous.getValues() : List.of());
+        merged.addAll(values);
+        valuesToPush.put(path, new Push(merged, keepLast));
+        changes.add(change);
+        return this;
+    }
+
+    private static <T> void appendKeepingLast(List<T> current, List<T> values, int keepLast) {
+        current.addAll(values);
+        if (keepLast > 0 && current.size() > keepLast) {
+            current.subList(0, current.size() - keepLast).clear();
+        }
+    }
+
+    /**
+     * Valores acrescentados ao fim de uma lista.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Push {
+        
+        /**
+         * Valores, na ordem em que serão acrescentados.
+         */
+        private final List<Object> values;
+        
+        /**
+         * Quantidade de itens mantidos no fim da lista; zero ou negativo para não limitar.
+         */
+        private final int keepLast;
+    }
+}
@@ -18,7 +18,7 @@ import java.util.Map;
  * Armazena informações de contato e preferências.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "customers")
@@ -8,6 +8,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -20,8 +23,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "messages")
+@CompoundIndexes({
+    @CompoundIndex(name = "conversation_timestamp_idx", def = "{'conversationId': 1, 'timestamp': -1}"),
+    // Mensagens de saída aguardando envio, consultadas pela varredura da fila de saída
+    @CompoundIndex(name = "pending_outbound_idx", def = "{'status': 1, 'direction': 1, 'timestamp': 1}",
+            partialFilter = "{'status': 'PENDING'}"),
+    // Mensagens recebidas ainda sem resposta, retomadas quando a notificação é reprocessada
+    @CompoundIndex(name = "awaiting_response_idx", def = "{'conversationId': 1, 'timestamp': 1}",
+            partialFilter = "{'awaitingResponse': true}")
+})
 public class Message {
     
+    /**
+     * Nome do índice único do ID do WhatsApp, que barra as reentregas do webhook.
+     */
+    public static final String WHATSAPP_MESSAGE_ID_INDEX = "whatsapp_message_id_unique_idx";
+    
     @Id
     private String id;
     
@@ -39,10 +56,23 @@ public class Message {
     
     private MessageStatus status;
     
+    @Indexed(name = WHATSAPP_MESSAGE_ID_INDEX, unique = true, sparse = true)
     private String whatsappMessageId;
     
     @Builder.Default
     private boolean read = false;
     
     private LocalDateTime readAt;
+    
+    /**
+     * Indica uma mensagem recebida ainda não respondida. Mensagens gravadas antes deste
+     * campo não o têm e são tratadas como respondidas.
+     */
+    private boolean awaitingResponse;
+    
+    /**
+     * Momento em que a mensagem recebida foi respondida, ou tratada sem resposta
+     * (como em conversas já transferidas para um atendente).
+     */
+    private LocalDateTime respondedAt;
 } 
\ No newline at end of file
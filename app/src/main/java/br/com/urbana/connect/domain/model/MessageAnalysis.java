@@ -0,0 +1,29 @@
+package br.com.urbana.connect.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado da análise estruturada de uma mensagem do usuário, obtido em uma
+ * única chamada ao GPT: resposta, intenção, entidades e necessidade de atendimento humano.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageAnalysis {
+    
+    private String reply;
+    
+    private String intent;
+    
+    @Builder.Default
+    private List<String> entities = new ArrayList<>();
+    
+    private boolean needsHuman;
+}
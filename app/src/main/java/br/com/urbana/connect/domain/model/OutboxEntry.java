@@ -0,0 +1,83 @@
+package br.com.urbana.connect.domain.model;
+
+import br.com.urbana.connect.domain.enums.OutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mensagem de saída aguardando envio para o WhatsApp.
+ * <p>
+ * O ID da entrada é o próprio ID da mensagem: cada mensagem entra na fila uma única
+ * vez e é enviada por uma única instância de cada vez, mesmo com várias réplicas.
+ * Uma mensagem só é enviada depois que as anteriores do mesmo destinatário forem
+ * enviadas ou falharem.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "message_outbox")
+// Entradas não concluídas em ordem de gravação, para achar a mais antiga de cada destinatário
+@CompoundIndex(name = "status_created_idx", def = "{'status': 1, 'createdAt': 1}")
+public class OutboxEntry {
+    
+    /**
+     * ID da mensagem a enviar.
+     */
+    @Id
+    private String id;
+    
+    /**
+     * Número remetente (phone-number-id) na API do WhatsApp; os limites de vazão são por número.
+     */
+    private String phoneNumberId;
+    
+    /**
+     * Telefone do destinatário.
+     */
+    private String recipient;
+    
+    private String content;
+    
+    private OutboxStatus status;
+    
+    private int attempts;
+    
+    /**
+     * Momento a partir do qual a mensagem pode ser enviada (ou reenviada, após uma falha).
+     */
+    private LocalDateTime nextAttemptAt;
+    
+    /**
+     * Instância que detém o envio da mensagem.
+     */
+    private String leaseOwner;
+    
+    /**
+     * Até quando a instância detém a mensagem. Após esse momento, outra instância pode enviá-la.
+     */
+    private LocalDateTime leaseUntil;
+    
+    private LocalDateTime createdAt;
+    
+    /**
+     * Momento do envio. Entradas enviadas são removidas automaticamente pelo MongoDB.
+     */
+    @Indexed(expireAfter = "7d")
+    private LocalDateTime sentAt;
+    
+    /**
+     * ID da mensagem no WhatsApp, após o envio.
+     */
+    private String whatsappMessageId;
+    
+    private String lastError;
+}
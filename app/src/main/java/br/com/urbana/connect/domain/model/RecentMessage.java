@@ -0,0 +1,57 @@
+package br.com.urbana.connect.domain.model;
+
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cópia resumida de uma mensagem mantida no próprio documento da conversa,
+ * com apenas o necessário para montar a janela de contexto enviada ao GPT.
+ * A coleção de mensagens continua sendo a fonte oficial.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecentMessage {
+    
+    private MessageDirection direction;
+    
+    private String content;
+    
+    private LocalDateTime timestamp;
+    
+    /**
+     * Cria a cópia resumida de uma mensagem.
+     * 
+     * @param message Mensagem original
+     * @return Cópia com direção, conteúdo e horário
+     */
+    public static RecentMessage from(Message message) {
+        return RecentMessage.builder()
+                .direction(message.getDirection())
+                .content(message.getContent())
+                .timestamp(message.getTimestamp())
+                .build();
+    }
+    
+    /**
+     * Converte a cópia de volta em mensagem, para uso na montagem do histórico.
+     * 
+     * @param conversation Conversa à qual a mensagem pertence
+     * @return Mensagem com direção, conteúdo e horário
+     */
+    public Message toMessage(Conversation conversation) {
+        return Message.builder()
+                .conversationId(conversation.getId())
+                .customerId(conversation.getCustomerId())
+                .direction(direction)
+                .content(content)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.urbana.connect.domain.model;
+
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.enums.WebhookEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Representa um evento individual extraído de uma notificação do webhook.
+ * Uma mesma notificação pode conter várias mensagens recebidas e
+ * várias atualizações de status.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookEvent {
+    
+    private WebhookEventType type;
+    
+    /**
+     * ID do número de telefone do WhatsApp Business que recebeu o evento.
+     */
+    private String phoneNumberId;
+    
+    /**
+     * Mensagem recebida (apenas para eventos do tipo MESSAGE).
+     */
+    private Message message;
+    
+    /**
+     * ID da mensagem no WhatsApp à qual o evento se refere.
+     */
+    private String whatsappMessageId;
+    
+    /**
+     * Novo status da mensagem (apenas para eventos do tipo STATUS).
+     */
+    private MessageStatus status;
+    
+    /**
+     * Telefone do destinatário da mensagem (apenas para eventos do tipo STATUS).
+     */
+    private String recipientId;
+    
+    private LocalDateTime timestamp;
+    
+    public boolean isMessageEvent() {
+        return type == WebhookEventType.MESSAGE;
+    }
+    
+    public boolean isStatusEvent() {
+        return type == WebhookEventType.STATUS;
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.urbana.connect.domain.model;
+
+import br.com.urbana.connect.domain.enums.WebhookInboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificação bruta recebida pelo webhook do WhatsApp, persistida antes da
+ * confirmação para garantir processamento ao menos uma vez, mesmo que a
+ * aplicação seja reiniciada durante o processamento.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "webhook_inbox")
+@CompoundIndex(name = "status_lease_idx", def = "{'status': 1, 'leaseUntil': 1, 'receivedAt': 1}")
+public class WebhookInboxEntry {
+    
+    @Id
+    private String id;
+    
+    private String payload;
+    
+    private WebhookInboxStatus status;
+    
+    private int attempts;
+    
+    /**
+     * Instância que detém o processamento da notificação.
+     */
+    private String leaseOwner;
+    
+    private LocalDateTime claimedAt;
+    
+    /**
+     * Até quando a instância detém a notificação. Após esse momento,
+     * outra instância pode reprocessá-la.
+     */
+    private LocalDateTime leaseUntil;
+    
+    private LocalDateTime receivedAt;
+    
+    /**
+     * Momento a partir do qual uma notificação devolvida pode ser reservada de novo.
+     */
+    private LocalDateTime nextAttemptAt;
+    
+    /**
+     * Momento da conclusão. Entradas concluídas são removidas automaticamente pelo MongoDB.
+     */
+    @Indexed(expireAfter = "7d")
+    private LocalDateTime processedAt;
+    
+    private String lastError;
+}
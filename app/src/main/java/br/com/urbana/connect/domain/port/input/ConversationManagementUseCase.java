@@ -1,6 +1,7 @@
 package br.com.urbana.connect.domain.port.input;
 
 import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
 import br.com.urbana.connect.domain.model.Message;
 import br.com.urbana.connect.domain.enums.ConversationStatus;
 
@@ -63,6 +64,15 @@ public interface ConversationManagementUseCase {
      */
     Conversation updateConversation(Conversation conversation);
     
+    /**
+     * Grava apenas os campos alterados da conversa, sem regravar o documento inteiro.
+     * 
+     * @param conversationId ID da conversa
+     * @param update Alterações a serem gravadas
+     * @throws IllegalArgumentException se a conversa não existir
+     */
+    void updateConversation(String conversationId, ConversationUpdate update);
+    
     /**
      * Fecha uma conversa.
      * 
@@ -87,6 +97,16 @@ public interface ConversationManagementUseCase {
      */
     List<Message> getConversationMessages(String conversationId);
     
+    /**
+     * Recupera uma página do histórico de mensagens de uma conversa, em ordem cronológica.
+     * 
+     * @param conversationId ID da conversa
+     * @param page Número da página, começando em zero
+     * @param size Quantidade de mensagens por página
+     * @return Mensagens da página solicitada
+     */
+    List<Message> getConversationMessages(String conversationId, int page, int size);
+    
     /**
      * Busca todas as conversas.
      * 
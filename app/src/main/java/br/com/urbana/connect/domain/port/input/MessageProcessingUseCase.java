@@ -18,12 +18,13 @@ public interface MessageProcessingUseCase {
     Message processInboundMessage(Message inboundMessage);
     
     /**
-     * Processa uma mensagem recebida pelo número de telefone.
+     * Processa uma mensagem recebida pelo número de telefone. A resposta é enviada
+     * ao cliente pela fila de saída e não deve ser reenviada pelo chamador.
      *
      * @param phoneNumber Número de telefone do cliente
      * @param messageContent Conteúdo da mensagem
      * @param whatsappMessageId ID da mensagem no WhatsApp (opcional)
-     * @return Resposta gerada para a mensagem
+     * @return Resposta gerada para a mensagem, já colocada na fila de saída
      */
     String processIncomingMessage(String phoneNumber, String messageContent, String whatsappMessageId);
     
@@ -1,5 +1,7 @@
 package br.com.urbana.connect.domain.port.input;
 
+import br.com.urbana.connect.domain.model.WebhookInboxEntry;
+
 /**
  * Interface que define os casos de uso para processamento de webhooks.
  * Seguindo o padrão de arquitetura hexagonal, esta é uma porta de entrada.
@@ -14,6 +16,24 @@ public interface WebhookUseCase {
      */
     boolean processWebhookNotification(String payload);
     
+    /**
+     * Armazena uma notificação do webhook na caixa de entrada durável e a
+     * enfileira para processamento assíncrono.
+     * Mensagens de um mesmo cliente são processadas em ordem de chegada.
+     * 
+     * @param payload Payload JSON recebido
+     * @return true se a notificação foi armazenada, false se não pôde ser aceita
+     */
+    boolean enqueueWebhookNotification(String payload);
+    
+    /**
+     * Processa uma notificação reservada da caixa de entrada, marcando-a como
+     * concluída quando todas as suas mensagens tiverem sido processadas.
+     * 
+     * @param entry Entrada reservada da caixa de entrada
+     */
+    void processInboxEntry(WebhookInboxEntry entry);
+    
     /**
      * Verifica o token do webhook para validação.
      * 
@@ -0,0 +1,78 @@
+package br.com.urbana.connect.domain.port.output;
+
+import br.com.urbana.connect.domain.enums.GptCallPriority;
+import br.com.urbana.connect.domain.model.MessageAnalysis;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Variante assíncrona de {@link GptServicePort}.
+ * Na arquitetura hexagonal, representa uma porta de saída.
+ * <p>
+ * Nenhuma thread fica bloqueada aguardando a API: os resultados chegam pelos futures.
+ * Assim como na versão síncrona, falhas são convertidas nos mesmos valores de
+ * contingência, e os futures completam normalmente, exceto o da análise estruturada.
+ * Cancelar um future cancela a chamada à API correspondente.
+ */
+public interface AsyncGptServicePort {
+
+    /**
+     * Gera uma resposta baseada no contexto e na mensagem do usuário.
+     *
+     * @param conversationHistory Histórico da conversa formatado
+     * @param userMessage Mensagem atual do usuário
+     * @param systemPrompt Instruções de sistema para o GPT
+     * @return Future com a resposta gerada pelo GPT
+     */
+    CompletableFuture<String> generateResponseAsync(String conversationHistory, String userMessage, String systemPrompt);
+
+    /**
+     * Gera uma resposta com a prioridade informada na fila de cota da API.
+     *
+     * @param conversationHistory Histórico da conversa formatado
+     * @param userMessage Mensagem atual do usuário
+     * @param systemPrompt Instruções de sistema para o GPT
+     * @param priority Prioridade da chamada; tarefas de fundo cedem a vez às respostas
+     * @return Future com a resposta gerada pelo GPT
+     */
+    CompletableFuture<String> generateResponseAsync(String conversationHistory, String userMessage, String systemPrompt,
+                                                    GptCallPriority priority);
+
+    /**
+     * Analisa a intenção do usuário a partir de uma mensagem.
+     *
+     * @param message Mensagem do usuário
+     * @return Future com a intenção detectada
+     */
+    CompletableFuture<String> analyzeIntentAsync(String message);
+
+    /**
+     * Verifica se uma mensagem requer intervenção humana.
+     *
+     * @param message Mensagem do usuário
+     * @param conversationHistory Histórico formatado da conversa
+     * @return Future com true se a mensagem requer intervenção humana
+     */
+    CompletableFuture<Boolean> requiresHumanInterventionAsync(String message, String conversationHistory);
+
+    /**
+     * Extrai entidades de uma mensagem (nomes, produtos, serviços, etc.).
+     *
+     * @param message Mensagem a ser analisada
+     * @return Future com a lista de entidades extraídas
+     */
+    CompletableFuture<List<String>> extractEntitiesAsync(String message);
+
+    /**
+     * Gera a resposta e analisa a mensagem em uma única chamada estruturada.
+     *
+     * @param conversationHistory Histórico formatado da conversa
+     * @param userMessage Mensagem atual do usuário
+     * @param prompt Prompt de análise estruturada
+     * @return Future com a análise completa, ou vazio se a resposta não seguir o formato esperado;
+     *         falha se a API não puder ser consultada (comunicação ou cota esgotada)
+     */
+    CompletableFuture<Optional<MessageAnalysis>> analyzeMessageAsync(String conversationHistory, String userMessage, String prompt);
+}
@@ -1,6 +1,7 @@
 package br.com.urbana.connect.domain.port.output;
 
 import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
 import br.com.urbana.connect.domain.enums.ConversationStatus;
 
 import java.util.List;
@@ -46,22 +47,39 @@ public interface ConversationRepository {
     List<Conversation> findByCustomerIdAndStatus(String customerId, ConversationStatus status);
     
     /**
-     * Atualiza o status de uma conversa.
+     * Busca a conversa em andamento (qualquer status exceto CLOSED) mais recente de um cliente.
      * 
-     * @param id ID da conversa
-     * @param status Novo status
-     * @return Conversa atualizada
+     * @param customerId ID do cliente
+     * @return Conversa em andamento ou vazio se não existir
      */
-    Conversation updateStatus(String id, ConversationStatus status);
+    Optional<Conversation> findActiveByCustomerId(String customerId);
+    
+    /**
+     * Retorna a conversa em andamento do cliente ou cria a informada, de forma atômica.
+     * Requisições simultâneas do mesmo cliente recebem sempre a mesma conversa.
+     * 
+     * @param newConversation Conversa a ser criada caso não exista nenhuma em andamento
+     * @return Conversa em andamento existente ou a recém-criada
+     */
+    Conversation findOrCreateActive(Conversation newConversation);
     
     /**
-     * Adiciona um ID de mensagem a uma conversa.
+     * Grava apenas os campos alterados de uma conversa, sem regravar o documento inteiro.
      * 
      * @param conversationId ID da conversa
-     * @param messageId ID da mensagem
+     * @param update Alterações a serem aplicadas
+     * @return true se a conversa foi encontrada e atualizada
+     */
+    boolean update(String conversationId, ConversationUpdate update);
+    
+    /**
+     * Atualiza o status de uma conversa.
+     * 
+     * @param id ID da conversa
+     * @param status Novo status
      * @return Conversa atualizada
      */
-    Conversation addMessageId(String conversationId, String messageId);
+    Conversation updateStatus(String id, ConversationStatus status);
     
     /**
      * Marca uma conversa como finalizada.
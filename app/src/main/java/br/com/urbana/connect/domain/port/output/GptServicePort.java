@@ -1,5 +1,7 @@
 package br.com.urbana.connect.domain.port.output;
 
+import br.com.urbana.connect.domain.enums.GptCallPriority;
+
 import java.util.List;
 
 /**
@@ -18,6 +20,18 @@ public interface GptServicePort {
      */
     String generateResponse(String conversationHistory, String userMessage, String systemPrompt);
     
+    /**
+     * Gera uma resposta com a prioridade informada na fila de cota da API.
+     * 
+     * @param conversationHistory Histórico da conversa formatado
+     * @param userMessage Mensagem atual do usuário
+     * @param systemPrompt Instruções de sistema para o GPT
+     * @param priority Prioridade da chamada; tarefas de fundo cedem a vez às respostas
+     * @return Resposta gerada pelo GPT
+     */
+    String generateResponse(String conversationHistory, String userMessage, String systemPrompt,
+                            GptCallPriority priority);
+    
     /**
      * Analisa a intenção do usuário a partir de uma mensagem.
      * 
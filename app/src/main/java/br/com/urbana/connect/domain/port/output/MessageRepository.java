@@ -3,6 +3,8 @@ package br.com.urbana.connect.domain.port.output;
 import br.com.urbana.connect.domain.model.Message;
 import br.com.urbana.connect.domain.enums.MessageStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +22,15 @@ public interface MessageRepository {
      */
     Message save(Message message);
     
+    /**
+     * Insere uma nova mensagem no repositório. Inserções simultâneas podem ser
+     * agrupadas em lote; o retorno só ocorre após a confirmação da gravação.
+     * 
+     * @param message Mensagem a ser inserida
+     * @return Mensagem inserida com ID gerado
+     */
+    Message insert(Message message);
+    
     /**
      * Busca uma mensagem pelo ID.
      * 
@@ -36,6 +47,16 @@ public interface MessageRepository {
      */
     List<Message> findByConversationId(String conversationId);
     
+    /**
+     * Lista uma página das mensagens de uma conversa em ordem cronológica.
+     * 
+     * @param conversationId ID da conversa
+     * @param page Número da página, começando em zero
+     * @param size Quantidade de mensagens por página
+     * @return Mensagens da página solicitada
+     */
+    List<Message> findByConversationId(String conversationId, int page, int size);
+    
     /**
      * Lista todas as mensagens de um cliente.
      * 
@@ -53,6 +74,14 @@ public interface MessageRepository {
      */
     Message updateStatus(String id, MessageStatus status);
     
+    /**
+     * Registra o envio de uma mensagem de saída, gravando o ID recebido do WhatsApp.
+     * 
+     * @param id ID da mensagem
+     * @param whatsappMessageId ID da mensagem no WhatsApp
+     */
+    void markSent(String id, String whatsappMessageId);
+    
     /**
      * Busca uma mensagem pelo ID recebido do WhatsApp.
      * 
@@ -60,4 +89,20 @@ public interface MessageRepository {
      * @return Mensagem encontrada ou vazio se não existir
      */
     Optional<Message> findByWhatsappMessageId(String whatsappMessageId);
+    
+    /**
+     * Lista as mensagens recebidas de uma conversa que ainda aguardam resposta.
+     * 
+     * @param conversationId ID da conversa
+     * @return Mensagens sem resposta, em ordem cronológica
+     */
+    List<Message> findAwaitingResponse(String conversationId);
+    
+    /**
+     * Marca mensagens recebidas como respondidas.
+     * 
+     * @param ids IDs das mensagens
+     * @param respondedAt Momento da resposta
+     */
+    void markResponded(Collection<String> ids, LocalDateTime respondedAt);
 } 
\ No newline at end of file
@@ -0,0 +1,74 @@
+package br.com.urbana.connect.domain.port.output;
+
+import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.OutboxEntry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interface para persistência da fila de saída de mensagens para o WhatsApp.
+ * Na arquitetura hexagonal, representa uma porta de saída.
+ */
+public interface OutboxRepository {
+    
+    /**
+     * Adiciona uma mensagem à fila. Uma mensagem que já está na fila é ignorada.
+     * 
+     * @param entry Entrada a adicionar, com o ID da mensagem
+     * @return true se a entrada foi adicionada, false se a mensagem já estava na fila
+     */
+    boolean enqueue(OutboxEntry entry);
+    
+    /**
+     * Reserva atomicamente a próxima mensagem pronta para envio: pendente e com a
+     * próxima tentativa vencida, ou em envio com reserva expirada. Uma mensagem não é
+     * reservada enquanto houver outra mais antiga, ainda não enviada nem falha, para o
+     * mesmo destinatário, mesmo que essa aguarde uma nova tentativa.
+     * 
+     * @param owner Identificador da instância
+     * @param lease Duração da reserva
+     * @param excludedRecipients Destinatários ignorados (com envio em andamento nesta instância)
+     * @return Entrada reservada, ou vazio se não houver nenhuma disponível
+     */
+    Optional<OutboxEntry> claimNext(String owner, Duration lease, Collection<String> excludedRecipients);
+    
+    /**
+     * Marca uma mensagem como enviada.
+     * 
+     * @param id ID da entrada
+     * @param whatsappMessageId ID da mensagem no WhatsApp
+     */
+    void markSent(String id, String whatsappMessageId);
+    
+    /**
+     * Devolve uma mensagem para a fila, para nova tentativa a partir do momento indicado.
+     * 
+     * @param id ID da entrada
+     * @param error Motivo da falha
+     * @param nextAttemptAt Momento da próxima tentativa
+     */
+    void reschedule(String id, String error, LocalDateTime nextAttemptAt);
+    
+    /**
+     * Marca uma mensagem como falha definitiva.
+     * 
+     * @param id ID da entrada
+     * @param error Motivo da falha
+     */
+    void markFailed(String id, String error);
+    
+    /**
+     * Busca mensagens de saída gravadas como PENDING que não estão na fila, como as
+     * de uma instância que caiu entre a gravação da mensagem e a da entrada na fila.
+     * 
+     * @param from Início do período, pelo horário da mensagem (inclusivo)
+     * @param until Fim do período (exclusivo)
+     * @param limit Quantidade máxima de mensagens
+     * @return Mensagens fora da fila, da mais antiga para a mais nova
+     */
+    List<Message> findUnqueuedMessages(LocalDateTime from, LocalDateTime until, int limit);
+}
@@ -0,0 +1,79 @@
+package br.com.urbana.connect.domain.port.output;
+
+import br.com.urbana.connect.domain.model.WebhookInboxEntry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Interface para persistência da caixa de entrada de notificações do webhook.
+ * Na arquitetura hexagonal, representa uma porta de saída.
+ */
+public interface WebhookInboxRepository {
+    
+    /**
+     * Armazena uma notificação recebida já reservada para a instância atual.
+     * 
+     * @param payload Payload JSON recebido
+     * @param owner Identificador da instância
+     * @param lease Duração da reserva
+     * @return Entrada armazenada
+     */
+    WebhookInboxEntry append(String payload, String owner, Duration lease);
+    
+    /**
+     * Reserva atomicamente a próxima notificação pendente, cuja nova tentativa já pode
+     * ser feita, ou com reserva expirada.
+     * 
+     * @param owner Identificador da instância
+     * @param lease Duração da reserva
+     * @return Entrada reservada, ou vazio se não houver nenhuma disponível
+     */
+    Optional<WebhookInboxEntry> claimNext(String owner, Duration lease);
+    
+    /**
+     * Reserva novamente uma notificação que a própria instância havia reservado
+     * antes de um reinício, sem esperar a reserva expirar.
+     * 
+     * @param owner Identificador da instância
+     * @param claimedBefore Considera apenas reservas feitas antes deste momento
+     * @param lease Duração da nova reserva
+     * @return Entrada reservada, ou vazio se não houver nenhuma
+     */
+    Optional<WebhookInboxEntry> reclaimOwned(String owner, LocalDateTime claimedBefore, Duration lease);
+    
+    /**
+     * Marca uma notificação como processada.
+     * 
+     * @param id ID da entrada
+     */
+    void markDone(String id);
+    
+    /**
+     * Devolve uma notificação para a fila após uma falha, liberando a reserva.
+     * 
+     * @param id ID da entrada
+     * @param error Motivo da devolução
+     * @param nextAttemptAt Momento a partir do qual ela pode ser reservada de novo
+     */
+    void release(String id, String error, LocalDateTime nextAttemptAt);
+    
+    /**
+     * Devolve uma notificação que não chegou a ser processada (filas do despachante cheias),
+     * sem consumir a tentativa contada na reserva.
+     * 
+     * @param id ID da entrada
+     * @param error Motivo da devolução
+     * @param nextAttemptAt Momento a partir do qual ela pode ser reservada de novo
+     */
+    void defer(String id, String error, LocalDateTime nextAttemptAt);
+    
+    /**
+     * Marca uma notificação como falha definitiva.
+     * 
+     * @param id ID da entrada
+     * @param error Motivo da falha
+     */
+    void markFailed(String id, String error);
+}
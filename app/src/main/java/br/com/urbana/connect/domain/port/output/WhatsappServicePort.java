@@ -1,6 +1,10 @@
 package br.com.urbana.connect.domain.port.output;
 
+import br.com.urbana.connect.domain.exception.WhatsappSendException;
 import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.WebhookEvent;
+
+import java.util.List;
 
 /**
  * Interface para operações de comunicação com a API do WhatsApp.
@@ -17,6 +21,17 @@ public interface WhatsappServicePort {
      */
     String sendTextMessage(String phoneNumber, String textContent);
     
+    /**
+     * Envia uma mensagem de texto via WhatsApp, propagando a falha para que o
+     * chamador decida se deve tentar novamente.
+     * 
+     * @param phoneNumber Número de telefone do destinatário
+     * @param textContent Conteúdo da mensagem
+     * @return ID da mensagem no WhatsApp
+     * @throws WhatsappSendException se a API recusar a mensagem ou não responder
+     */
+    String deliverTextMessage(String phoneNumber, String textContent);
+    
     /**
      * Envia uma mensagem para um número de telefone via WhatsApp.
      * 
@@ -50,4 +65,13 @@ public interface WhatsappServicePort {
      * @return Mensagem processada ou null se não for uma mensagem
      */
     Message processWebhookNotification(String payload);
+    
+    /**
+     * Extrai todos os eventos (mensagens recebidas e atualizações de status)
+     * de uma notificação do webhook do WhatsApp.
+     * 
+     * @param payload Payload JSON da notificação
+     * @return Lista de eventos encontrados, vazia se não houver nenhum
+     */
+    List<WebhookEvent> processWebhookEvents(String payload);
 } 
\ No newline at end of file
@@ -3,12 +3,17 @@ package br.com.urbana.connect.domain.service;
 import br.com.urbana.connect.application.config.ContextConfig;
 import br.com.urbana.connect.domain.enums.ConversationStatus;
 import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.enums.MessageStatus;
 import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
 import br.com.urbana.connect.domain.model.Customer;
 import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.RecentMessage;
+import br.com.urbana.connect.infrastructure.cache.CustomerCache;
 import br.com.urbana.connect.infrastructure.persistence.ConversationMongoRepository;
 import br.com.urbana.connect.infrastructure.persistence.CustomerMongoRepository;
 import br.com.urbana.connect.infrastructure.persistence.MessageMongoRepository;
+import br.com.urbana.connect.infrastructure.persistence.MessageWriteBuffer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -16,10 +21,12 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Serviço responsável pela gestão de contexto de conversas.
@@ -34,7 +41,9 @@ public class ConversationContextService {
     private final CustomerMongoRepository customerRepository;
     private final ConversationMongoRepository conversationRepository;
     private final MessageMongoRepository messageRepository;
+    private final MessageWriteBuffer messageWriteBuffer;
     private final ContextConfig contextConfig;
+    private final CustomerCache customerCache;
     
     /**
      * Recupera ou cria um cliente com base no número de telefone.
@@ -45,16 +54,11 @@ public class ConversationContextService {
     public Customer getOrCreateCustomer(String phoneNumber) {
         log.debug("Buscando cliente com número de telefone: {}", phoneNumber);
         
-        return customerRepository.findByPhoneNumber(phoneNumber)
-                .orElseGet(() -> {
-                    log.info("Cliente não encontrado. Criando novo cliente com número: {}", phoneNumber);
-                    Customer newCustomer = Customer.builder()
-                            .id(UUID.randomUUID().toString())
-                            .phoneNumber(phoneNumber)
-                            .createdAt(LocalDateTime.now())
-                            .build();
-                    return customerRepository.save(newCustomer);
-                });
+        // Clientes já conhecidos vêm do cache; os demais são buscados ou criados
+        // em uma única operação atômica, segura com requisições simultâneas
+        return customerCache.findByPhoneNumber(phoneNumber,
+                        number -> Optional.of(customerRepository.findOrCreateByPhoneNumber(number)))
+                .orElseThrow();
     }
     
     /**
@@ -66,35 +70,34 @@ public class ConversationContextService {
     public Conversation getOrCreateActiveConversation(Customer customer) {
         log.debug("Buscando conversa ativa para cliente: {}", customer.getId());
         
-        // Buscar conversa ativa existente
-        Optional<Conversation> activeConversation = conversationRepository
-                .findByCustomerIdOrderByStartTimeDesc(customer.getId())
-                .stream()
-                .filter(conv -> conv.getStatus() != ConversationStatus.CLOSED)
-                .findFirst();
+        // Conversa usada apenas se o cliente não tiver nenhuma em andamento
+        Conversation newConversation = Conversation.builder()
+                .id(UUID.randomUUID().toString())
+                .customerId(customer.getId())
+                .startTime(LocalDateTime.now())
+                .status(ConversationStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build();
         
-        // Retornar existente ou criar nova
-        return activeConversation.orElseGet(() -> {
-            log.info("Conversa ativa não encontrada. Criando nova conversa para cliente: {}", customer.getId());
-            Conversation newConversation = Conversation.builder()
-                    .id(UUID.randomUUID().toString())
-                    .customerId(customer.getId())
-                    .startTime(LocalDateTime.now())
-                    .status(ConversationStatus.ACTIVE)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            
-            // Inicializa o contexto da conversa
-            newConversation.getContext().setLastInteractionTime(LocalDateTime.now());
-            newConversation.getContext().setConversationState("INICIADA");
-            
-            return conversationRepository.save(newConversation);
-        });
+        // Inicializa o contexto da conversa
+        newConversation.getContext().setLastInteractionTime(LocalDateTime.now());
+        newConversation.getContext().setConversationState("INICIADA");
+        
+        // Busca e criação em uma única operação atômica no banco
+        Conversation activeConversation = conversationRepository.findOrCreateActive(newConversation);
+        if (newConversation.getId().equals(activeConversation.getId())) {
+            log.info("Conversa ativa não encontrada. Nova conversa criada para cliente: {}", customer.getId());
+        }
+        return activeConversation;
     }
     
     /**
      * Recupera o histórico de mensagens de uma conversa, limitado pelo número
      * configurado de mensagens máximas.
+     * <p>
+     * O histórico vem das mensagens recentes embutidas na própria conversa, sem consulta
+     * ao banco. A coleção de mensagens só é consultada quando essa cópia não cobre a janela,
+     * como em conversas anteriores à sua criação.
      * 
      * @param conversation Conversa da qual recuperar o histórico
      * @return Lista de mensagens ordenadas cronologicamente
@@ -102,18 +105,33 @@ public class ConversationContextService {
     public List<Message> getConversationHistory(Conversation conversation) {
         log.debug("Recuperando histórico da conversa: {}", conversation.getId());
         
-        // Recuperar as últimas mensagens, ordenadas cronologicamente
-        // Limitamos a recuperar apenas as últimas N mensagens conforme configuração
         int messageLimit = contextConfig.getMaxMessages();
         log.debug("Limite de mensagens configurado: {}", messageLimit);
+        if (messageLimit <= 0) {
+            return Collections.emptyList();
+        }
         
-        List<Message> messages = messageRepository.findByConversationIdOrderByTimestampAsc(conversation.getId());
-        
-        // Se houver mais mensagens que o limite, pegamos apenas as mais recentes
-        if (messages.size() > messageLimit) {
-            messages = messages.subList(messages.size() - messageLimit, messages.size());
+        List<RecentMessage> recentMessages = conversation.getRecentMessages() != null
+                ? conversation.getRecentMessages()
+                : Collections.emptyList();
+        if (recentMessages.size() >= Math.min(messageLimit, conversation.getMessageCount())) {
+            List<Message> messages = recentMessages
+                    .subList(Math.max(0, recentMessages.size() - messageLimit), recentMessages.size())
+                    .stream()
+                    .map(recentMessage -> recentMessage.toMessage(conversation))
+                    .collect(Collectors.toList());
+            log.debug("Recuperadas {} mensagens do histórico embutido na conversa", messages.size());
+            return messages;
         }
         
+        // Recuperar apenas as últimas N mensagens conforme configuração,
+        // da mais recente para a mais antiga, direto do banco
+        List<Message> messages = new ArrayList<>(
+                messageRepository.findRecentHistory(conversation.getId(), PageRequest.of(0, messageLimit)));
+        
+        // Reordenar cronologicamente para a montagem do histórico
+        Collections.reverse(messages);
+        
         log.debug("Recuperadas {} mensagens do histórico da conversa", messages.size());
         return messages;
     }
@@ -184,6 +202,23 @@ public class ConversationContextService {
      * @return Mensagem salva
      */
     public Message saveUserMessage(Conversation conversation, String content, String whatsappMessageId) {
+        MessageProcessingContext context = new MessageProcessingContext(null, conversation);
+        Message savedMessage = saveUserMessage(context, content, whatsappMessageId);
+        flush(context);
+        return savedMessage;
+    }
+    
+    /**
+     * Salva uma mensagem recebida do usuário, acumulando as alterações da conversa
+     * no contexto de processamento para a gravação final.
+     * 
+     * @param context Contexto de processamento da mensagem
+     * @param content Conteúdo da mensagem
+     * @param whatsappMessageId ID da mensagem no WhatsApp (opcional)
+     * @return Mensagem salva
+     */
+    public Message saveUserMessage(MessageProcessingContext context, String content, String whatsappMessageId) {
+        Conversation conversation = context.getConversation();
         log.debug("Salvando mensagem do usuário na conversa: {}", conversation.getId());
         
         Message message = Message.builder()
@@ -194,15 +229,23 @@ public class ConversationContextService {
                 .content(content)
                 .direction(MessageDirection.INBOUND)
                 .timestamp(LocalDateTime.now())
+                .awaitingResponse(true)
                 .build();
         
-        // Atualiza o timestamp da última interação no contexto
-        conversation.getContext().setLastInteractionTime(LocalDateTime.now());
-        conversation.getContext().setConversationState("AGUARDANDO_RESPOSTA");
-        conversation.setLastActivityTime(LocalDateTime.now());
-        conversationRepository.save(conversation);
+        // A mensagem é salva primeiro: uma reentrega barrada pelo índice único
+        // não chega a alterar a conversa
+        Message savedMessage = messageWriteBuffer.insert(message);
+        
+        // Registra a mensagem e atualiza o timestamp da última interação no contexto
+        LocalDateTime now = LocalDateTime.now();
+        context.update(ConversationUpdate.create()
+                .recordMessage(message.getId(), message.getTimestamp())
+                .addRecentMessage(RecentMessage.from(message), contextConfig.getMaxMessages())
+                .lastInteractionTime(now)
+                .conversationState("AGUARDANDO_RESPOSTA")
+                .lastActivityTime(now));
         
-        return messageRepository.save(message);
+        return savedMessage;
     }
     
     /**
@@ -213,24 +256,47 @@ public class ConversationContextService {
      * @return Mensagem salva
      */
     public Message saveAssistantResponse(Conversation conversation, String content) {
+        MessageProcessingContext context = new MessageProcessingContext(null, conversation);
+        Message savedMessage = saveAssistantResponse(context, content, null);
+        flush(context);
+        return savedMessage;
+    }
+    
+    /**
+     * Salva uma resposta do assistente, acumulando as alterações da conversa no contexto
+     * de processamento para a gravação final. Sem o ID do WhatsApp, a mensagem é gravada
+     * como PENDING, aguardando o envio pela fila de saída.
+     * 
+     * @param context Contexto de processamento da mensagem
+     * @param content Conteúdo da resposta
+     * @param whatsappMessageId ID da mensagem no WhatsApp, ou null se ainda não foi enviada
+     * @return Mensagem salva
+     */
+    public Message saveAssistantResponse(MessageProcessingContext context, String content, String whatsappMessageId) {
+        Conversation conversation = context.getConversation();
         log.debug("Salvando resposta do assistente na conversa: {}", conversation.getId());
         
         Message message = Message.builder()
                 .id(UUID.randomUUID().toString())
+                .whatsappMessageId(whatsappMessageId)
                 .conversationId(conversation.getId())
                 .customerId(conversation.getCustomerId())
                 .content(content)
                 .direction(MessageDirection.OUTBOUND)
+                .status(whatsappMessageId != null ? MessageStatus.SENT : MessageStatus.PENDING)
                 .timestamp(LocalDateTime.now())
                 .build();
         
-        // Atualiza o timestamp da última interação no contexto
-        conversation.getContext().setLastInteractionTime(LocalDateTime.now());
-        conversation.getContext().setConversationState("AGUARDANDO_USUARIO");
-        conversation.setLastActivityTime(LocalDateTime.now());
-        conversationRepository.save(conversation);
+        // Registra a resposta e atualiza o timestamp da última interação no contexto
+        LocalDateTime now = LocalDateTime.now();
+        context.update(ConversationUpdate.create()
+                .recordMessage(message.getId(), message.getTimestamp())
+                .addRecentMessage(RecentMessage.from(message), contextConfig.getMaxMessages())
+                .lastInteractionTime(now)
+                .conversationState("AGUARDANDO_USUARIO")
+                .lastActivityTime(now));
         
-        return messageRepository.save(message);
+        return messageWriteBuffer.insert(message);
     }
     
     /**
@@ -252,11 +318,10 @@ public class ConversationContextService {
     public Conversation endConversation(Conversation conversation) {
         log.debug("Encerrando conversa: {}", conversation.getId());
         
-        conversation.setStatus(ConversationStatus.CLOSED);
-        conversation.setEndTime(LocalDateTime.now());
-        conversation.getContext().setConversationState("FINALIZADA");
-        
-        return conversationRepository.save(conversation);
+        return applyUpdate(conversation, ConversationUpdate.create()
+                .status(ConversationStatus.CLOSED)
+                .endTime(LocalDateTime.now())
+                .conversationState("FINALIZADA"));
     }
     
     /**
@@ -270,21 +335,37 @@ public class ConversationContextService {
     public Conversation updateConversationContext(Conversation conversation, 
                                                 String detectedTopic,
                                                 String identifiedEntities) {
-        log.debug("Atualizando contexto da conversa: {}", conversation.getId());
+        MessageProcessingContext context = new MessageProcessingContext(null, conversation);
+        updateConversationContext(context, detectedTopic, identifiedEntities);
+        flush(context);
+        return conversation;
+    }
+    
+    /**
+     * Atualiza o contexto da conversa com um novo tópico e entidades identificadas,
+     * acumulando as alterações no contexto de processamento para a gravação final.
+     *
+     * @param context Contexto de processamento da mensagem
+     * @param detectedTopic Tópico detectado
+     * @param identifiedEntities Entidades identificadas
+     */
+    public void updateConversationContext(MessageProcessingContext context,
+                                          String detectedTopic,
+                                          String identifiedEntities) {
+        log.debug("Atualizando contexto da conversa: {}", context.getConversation().getId());
         
-        // Atualiza o tópico detectado
-        conversation.getContext().setLastDetectedTopic(detectedTopic);
+        LocalDateTime now = LocalDateTime.now();
+        ConversationUpdate update = ConversationUpdate.create()
+                .lastDetectedTopic(detectedTopic)
+                .lastInteractionTime(now)
+                .lastActivityTime(now);
         
-        // Atualiza as entidades identificadas
+        // Acrescenta as entidades identificadas, mantendo apenas as mais recentes
         if (identifiedEntities != null && !identifiedEntities.isEmpty()) {
-            conversation.getContext().getIdentifiedEntities().add(identifiedEntities);
+            update.addIdentifiedEntities(List.of(identifiedEntities), contextConfig.getMaxIdentifiedEntities());
         }
         
-        // Atualiza a data da última interação
-        conversation.getContext().setLastInteractionTime(LocalDateTime.now());
-        conversation.setLastActivityTime(LocalDateTime.now());
-        
-        return conversationRepository.save(conversation);
+        context.update(update);
     }
     
     /**
@@ -296,12 +377,58 @@ public class ConversationContextService {
      * @return Conversa atualizada
      */
     public Conversation updateConversationSummary(Conversation conversation, String summary) {
+        MessageProcessingContext context = new MessageProcessingContext(null, conversation);
+        updateConversationSummary(context, summary);
+        flush(context);
+        return conversation;
+    }
+    
+    /**
+     * Atualiza o resumo da conversa, acumulando a alteração no contexto de processamento
+     * para a gravação final.
+     *
+     * @param context Contexto de processamento da mensagem
+     * @param summary Resumo gerado (pode ser pelo GPT ou outro método)
+     */
+    public void updateConversationSummary(MessageProcessingContext context, String summary) {
         if (!contextConfig.isSummaryEnabled() || summary == null || summary.trim().isEmpty()) {
-            return conversation;
+            return;
         }
         
-        log.debug("Atualizando resumo da conversa: {}", conversation.getId());
-        conversation.getContext().setConversationSummary(summary);
-        return conversationRepository.save(conversation);
+        log.debug("Atualizando resumo da conversa: {}", context.getConversation().getId());
+        context.update(ConversationUpdate.create().conversationSummary(summary));
+    }
+    
+    /**
+     * Grava de uma só vez as alterações acumuladas no contexto de processamento,
+     * apenas nos campos alterados. Sem alterações pendentes, não acessa o banco.
+     *
+     * @param context Contexto de processamento da mensagem
+     */
+    public void flush(MessageProcessingContext context) {
+        ConversationUpdate update = context.drainPendingUpdate();
+        if (update.isEmpty()) {
+            return;
+        }
+        
+        String conversationId = context.getConversation().getId();
+        if (!conversationRepository.applyUpdate(conversationId, update)) {
+            log.warn("Conversa não encontrada ao gravar alterações: {}", conversationId);
+        }
+    }
+    
+    /**
+     * Aplica as alterações ao objeto em memória e grava apenas os campos alterados.
+     *
+     * @param conversation Conversa a ser atualizada
+     * @param update Alterações a serem aplicadas
+     * @return Conversa atualizada
+     */
+    private Conversation applyUpdate(Conversation conversation, ConversationUpdate update) {
+        update.applyTo(conversation);
+        if (!conversationRepository.applyUpdate(conversation.getId(), update)) {
+            log.warn("Conversa não encontrada ao gravar alterações: {}", conversation.getId());
+        }
+        return conversation;
     }
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package br.com.urbana.connect.domain.service;
 
 import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
 import br.com.urbana.connect.domain.enums.ConversationStatus;
 import br.com.urbana.connect.domain.model.Message;
 import br.com.urbana.connect.domain.port.input.ConversationManagementUseCase;
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -31,15 +33,9 @@ public class ConversationService implements ConversationManagementUseCase {
     public Conversation createConversation(String customerId) {
         log.debug("Criando nova conversa para o cliente: {}", customerId);
         
-        // Verificar se já existe uma conversa ativa
-        Optional<Conversation> activeConversation = findActiveConversation(customerId);
-        if (activeConversation.isPresent()) {
-            log.info("Cliente já possui uma conversa ativa. ID: {}", activeConversation.get().getId());
-            return activeConversation.get();
-        }
-        
-        // Criar nova conversa
+        // Nova conversa, criada apenas se o cliente ainda não tiver uma em andamento
         Conversation conversation = Conversation.builder()
+                .id(UUID.randomUUID().toString())
                 .customerId(customerId)
                 .status(ConversationStatus.ACTIVE)
                 .startTime(LocalDateTime.now())
@@ -47,10 +43,14 @@ public class ConversationService implements ConversationManagementUseCase {
                 .handedOffToHuman(false)
                 .build();
         
-        Conversation savedConversation = conversationRepository.save(conversation);
-        log.info("Conversa criada com sucesso. ID: {}", savedConversation.getId());
+        Conversation activeConversation = conversationRepository.findOrCreateActive(conversation);
+        if (conversation.getId().equals(activeConversation.getId())) {
+            log.info("Conversa criada com sucesso. ID: {}", activeConversation.getId());
+        } else {
+            log.info("Cliente já possui uma conversa ativa. ID: {}", activeConversation.getId());
+        }
         
-        return savedConversation;
+        return activeConversation;
     }
     
     @Override
@@ -62,12 +62,7 @@ public class ConversationService implements ConversationManagementUseCase {
     @Override
     public Optional<Conversation> findActiveConversation(String customerId) {
         log.debug("Buscando conversa ativa para o cliente: {}", customerId);
-        List<Conversation> activeConversations = conversationRepository
-                .findByCustomerIdAndStatus(customerId, ConversationStatus.ACTIVE);
-        
-        return activeConversations.isEmpty() 
-                ? Optional.empty() 
-                : Optional.of(activeConversations.get(0));
+        return conversationRepository.findActiveByCustomerId(customerId);
     }
     
     @Override
@@ -78,13 +73,17 @@ public class ConversationService implements ConversationManagementUseCase {
                 .orElseThrow(() -> new IllegalArgumentException("Conversa não encontrada"));
         
         // Salvar a mensagem
+        LocalDateTime now = LocalDateTime.now();
         message.setConversationId(conversationId);
-        message.setTimestamp(LocalDateTime.now());
+        message.setTimestamp(now);
         Message savedMessage = messageRepository.save(message);
         
-        // Atualizar a conversa
-        conversation.setLastActivityTime(LocalDateTime.now());
-        conversationRepository.addMessageId(conversationId, savedMessage.getId());
+        // Atualizar contador e referências da conversa, sem regravar o documento
+        ConversationUpdate update = ConversationUpdate.create()
+                .recordMessage(savedMessage.getId(), now)
+                .lastActivityTime(now);
+        update.applyTo(conversation);
+        conversationRepository.update(conversationId, update);
         
         log.info("Mensagem adicionada à conversa com sucesso. Conversa ID: {}, Mensagem ID: {}", 
                 conversationId, savedMessage.getId());
@@ -131,6 +130,17 @@ public class ConversationService implements ConversationManagementUseCase {
         return updatedConversation;
     }
     
+    @Override
+    public void updateConversation(String conversationId, ConversationUpdate update) {
+        log.debug("Atualizando campos da conversa: {}", conversationId);
+        
+        if (!conversationRepository.update(conversationId, update)) {
+            throw new IllegalArgumentException("Conversa não encontrada");
+        }
+        
+        log.info("Conversa atualizada com sucesso. ID: {}", conversationId);
+    }
+    
     @Override
     public Conversation closeConversation(String conversationId) {
         log.debug("Fechando conversa: {}", conversationId);
@@ -166,6 +176,12 @@ public class ConversationService implements ConversationManagementUseCase {
         return messageRepository.findByConversationId(conversationId);
     }
     
+    @Override
+    public List<Message> getConversationMessages(String conversationId, int page, int size) {
+        log.debug("Buscando página {} (tamanho {}) das mensagens da conversa: {}", page, size, conversationId);
+        return messageRepository.findByConversationId(conversationId, page, size);
+    }
+    
     // Implementações para os métodos adicionados de ConversationQueryUseCase
     
     @Override
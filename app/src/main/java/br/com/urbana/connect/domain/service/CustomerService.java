@@ -4,6 +4,7 @@ import br.com.urbana.connect.domain.model.Customer;
 import br.com.urbana.connect.domain.enums.CustomerStatus;
 import br.com.urbana.connect.domain.port.input.CustomerManagementUseCase;
 import br.com.urbana.connect.domain.port.output.CustomerRepository;
+import br.com.urbana.connect.infrastructure.cache.CustomerCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,6 +16,8 @@ import java.util.Optional;
 
 /**
  * Implementação do caso de uso de gerenciamento de clientes.
+ * As buscas por ID e por telefone passam pelo {@link CustomerCache}; toda alteração
+ * remove o cliente do cache antes e depois de salvá-lo.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,6 +25,7 @@ import java.util.Optional;
 public class CustomerService implements CustomerManagementUseCase {
     
     private final CustomerRepository customerRepository;
+    private final CustomerCache customerCache;
     
     @Override
     public Customer registerCustomer(Customer customer) {
@@ -47,7 +51,7 @@ public class CustomerService implements CustomerManagementUseCase {
     @Override
     public Optional<Customer> findCustomerByPhoneNumber(String phoneNumber) {
         log.debug("Buscando cliente pelo número: {}", phoneNumber);
-        return customerRepository.findByPhoneNumber(phoneNumber);
+        return customerCache.findByPhoneNumber(phoneNumber, customerRepository::findByPhoneNumber);
     }
     
     @Override
@@ -55,11 +59,13 @@ public class CustomerService implements CustomerManagementUseCase {
         log.debug("Atualizando cliente: {}", customer.getId());
         
         // Verificar se o cliente existe
-        customerRepository.findById(customer.getId())
+        Customer existingCustomer = customerRepository.findById(customer.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Cliente não encontrado"));
         
         customer.setUpdatedAt(LocalDateTime.now());
-        Customer updatedCustomer = customerRepository.save(customer);
+        
+        // O telefone pode ter mudado: remover as chaves antigas e as novas
+        Customer updatedCustomer = saveEvicting(customer, existingCustomer);
         
         log.info("Cliente atualizado com sucesso. ID: {}", updatedCustomer.getId());
         return updatedCustomer;
@@ -75,7 +81,7 @@ public class CustomerService implements CustomerManagementUseCase {
         customer.setStatus(status);
         customer.setUpdatedAt(LocalDateTime.now());
         
-        Customer updatedCustomer = customerRepository.save(customer);
+        Customer updatedCustomer = saveEvicting(customer, customer);
         log.info("Status do cliente atualizado com sucesso. ID: {}, Status: {}", 
                 updatedCustomer.getId(), updatedCustomer.getStatus());
         
@@ -92,7 +98,7 @@ public class CustomerService implements CustomerManagementUseCase {
         customer.setOptedIn(optIn);
         customer.setUpdatedAt(LocalDateTime.now());
         
-        Customer updatedCustomer = customerRepository.save(customer);
+        Customer updatedCustomer = saveEvicting(customer, customer);
         log.info("Opt-in do cliente atualizado com sucesso. ID: {}, Opt-in: {}", 
                 updatedCustomer.getId(), updatedCustomer.isOptedIn());
         
@@ -114,7 +120,7 @@ public class CustomerService implements CustomerManagementUseCase {
     @Override
     public Optional<Customer> findById(String id) {
         log.debug("Buscando cliente pelo ID: {}", id);
-        return customerRepository.findById(id);
+        return customerCache.findById(id, customerRepository::findById);
     }
     
     @Override
@@ -138,6 +144,31 @@ public class CustomerService implements CustomerManagementUseCase {
         }
         customer.setUpdatedAt(LocalDateTime.now());
         
-        return customerRepository.save(customer);
+        Customer updatedCustomer = saveEvicting(customer, customer);
+        
+        return updatedCustomer;
+    }
+    
+    /**
+     * Grava o cliente removendo-o do cache antes e depois da gravação. A remoção anterior
+     * cobre a gravação aplicada no banco mas concluída com erro (ex.: tempo esgotado); a
+     * posterior descarta a versão antiga lida por outra thread durante a gravação.
+     *
+     * @param customer Cliente a ser gravado
+     * @param stored Versão gravada do cliente, cujas chaves também são removidas
+     * @return Cliente gravado
+     */
+    private Customer saveEvicting(Customer customer, Customer stored) {
+        evict(customer, stored);
+        Customer saved = customerRepository.save(customer);
+        evict(customer, stored);
+        return saved;
+    }
+    
+    private void evict(Customer customer, Customer stored) {
+        customerCache.evict(customer);
+        if (stored != customer) {
+            customerCache.evict(stored);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package br.com.urbana.connect.domain.service;
+
+import br.com.urbana.connect.application.config.FaqConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Responde localmente, sem chamar o GPT, perguntas frequentes reconhecidas com alta confiança.
+ * <p>
+ * As perguntas da base de conhecimento ({@link PromptBuilderService#FAQ_KNOWLEDGE_BASE})
+ * são indexadas em memória em um índice invertido de termos normalizados (sem acentos,
+ * sem palavras vazias e com sinônimos unificados), com pesos TF-IDF. A mensagem do
+ * usuário é comparada por similaridade de cosseno apenas com as perguntas que
+ * compartilham algum termo com ela.
+ */
+@Service
+@Slf4j
+public class FaqAnswerService {
+
+    /**
+     * Intenção registrada no contexto quando a resposta vem da base local.
+     */
+    public static final String FAQ_INTENT = "DUVIDA_SERVICO";
+
+    private static final Pattern FAQ_ENTRY_PATTERN =
+            Pattern.compile("\\[PERGUNTA]:\\s*(.+?)\\s*\\n\\s*\\[RESPOSTA]:\\s*(.+)");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "de", "do", "da", "dos", "das", "e", "em", "no", "na",
+            "nos", "nas", "por", "para", "pra", "com", "que", "qual", "quais", "quanto", "quanta",
+            "como", "voce", "voces", "vc", "vcs", "eu", "me", "meu", "minha", "se", "ao", "ou",
+            "oi", "ola", "tem", "sobre", "gostaria", "queria", "quero", "saber", "favor");
+
+    private static final Map<String, String> SYNONYMS = Map.of(
+            "custa", "preco",
+            "custam", "preco",
+            "custo", "preco",
+            "valor", "preco",
+            "valore", "preco",
+            "cobram", "preco",
+            "cobra", "preco");
+
+    private final FaqConfig faqConfig;
+    private final List<FaqEntry> entries = new ArrayList<>();
+    private final Map<String, List<Posting>> invertedIndex = new HashMap<>();
+    private final Map<String, Double> idf = new HashMap<>();
+    private final double unknownTermIdf;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public FaqAnswerService(FaqConfig faqConfig, MeterRegistry meterRegistry) {
+        this.faqConfig = faqConfig;
+
+        Matcher matcher = FAQ_ENTRY_PATTERN.matcher(PromptBuilderService.FAQ_KNOWLEDGE_BASE);
+        while (matcher.find()) {
+            entries.add(new FaqEntry(matcher.group(1), matcher.group(2).trim()));
+        }
+        this.unknownTermIdf = Math.log(1.0 + entries.size());
+        buildIndex();
+
+        this.hitCounter = Counter.builder("urbana.faq.lookup")
+                .description("Consultas à base local de perguntas frequentes")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("urbana.faq.lookup")
+                .description("Consultas à base local de perguntas frequentes")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("urbana.faq.hit.ratio", this, FaqAnswerService::hitRatio)
+                .description("Fração das consultas respondidas localmente")
+                .register(meterRegistry);
+
+        log.info("Base local de FAQ indexada com {} perguntas e {} termos", entries.size(), invertedIndex.size());
+    }
+
+    /**
+     * Busca uma resposta local para a mensagem do usuário.
+     *
+     * @param userMessage Mensagem do usuário
+     * @return Resposta da pergunta frequente correspondente, ou vazio se a confiança
+     *         estiver abaixo do limite configurado (ou se o recurso estiver desabilitado)
+     */
+    public Optional<String> findAnswer(String userMessage) {
+        if (!faqConfig.isEnabled() || userMessage == null || userMessage.isBlank()) {
+            return Optional.empty();
+        }
+
+        Map<String, Double> query = weigh(tokenize(userMessage));
+        double[] scores = score(query);
+
+        int best = -1;
+        for (int i = 0; i < scores.length; i++) {
+            if (best < 0 || scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+
+        if (best >= 0 && scores[best] >= faqConfig.getThreshold()) {
+            hitCounter.increment();
+            log.debug("Pergunta frequente reconhecida localmente (similaridade {}): {}",
+                    String.format("%.2f", scores[best]), entries.get(best).question);
+            return Optional.of(entries.get(best).answer);
+        }
+
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Similaridade de cosseno entre a mensagem e cada pergunta cadastrada, na ordem da base.
+     */
+    private double[] score(Map<String, Double> query) {
+        double[] scores = new double[entries.size()];
+        double queryNorm = norm(query);
+        if (queryNorm == 0) {
+            return scores;
+        }
+
+        for (Map.Entry<String, Double> term : query.entrySet()) {
+            List<Posting> postings = invertedIndex.get(term.getKey());
+            if (postings == null) {
+                continue;
+            }
+            for (Posting posting : postings) {
+                scores[posting.entry] += term.getValue() * posting.weight;
+            }
+        }
+
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] /= queryNorm;
+        }
+        return scores;
+    }
+
+    /**
+     * Similaridade da pergunta cadastrada mais próxima da mensagem.
+     */
+    double bestScore(String userMessage) {
+        double best = 0;
+        for (double score : score(weigh(tokenize(userMessage)))) {
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    /**
+     * Normaliza o texto em termos: minúsculas, sem acentos, sem palavras vazias,
+     * com plural simples removido e sinônimos unificados.
+     */
+    static List<String> tokenize(String text) {
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD))
+                .replaceAll("");
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(normalized)) {
+            if (token.isEmpty() || STOPWORDS.contains(token)) {
+                continue;
+            }
+            if (token.length() > 4 && token.endsWith("s")) {
+                token = token.substring(0, token.length() - 1);
+            }
+            tokens.add(SYNONYMS.getOrDefault(token, token));
+        }
+        return tokens;
+    }
+
+    private void buildIndex() {
+        List<Map<String, Integer>> termFrequencies = new ArrayList<>();
+        Map<String, Integer> documentFrequency = new HashMap<>();
+
+        for (FaqEntry entry : entries) {
+            Map<String, Integer> tf = new HashMap<>();
+            for (String token : tokenize(entry.question)) {
+                tf.merge(token, 1, Integer::sum);
+            }
+            tf.keySet().forEach(token -> documentFrequency.merge(token, 1, Integer::sum));
+            termFrequencies.add(tf);
+        }
+
+        documentFrequency.forEach((token, df) ->
+                idf.put(token, Math.log(1.0 + (double) entries.size() / df)));
+
+        // Vetores das perguntas já normalizados, para o cosseno ser só o produto escalar
+        for (int i = 0; i < entries.size(); i++) {
+            Map<String, Double> vector = new HashMap<>();
+            termFrequencies.get(i).forEach((token, tf) -> vector.put(token, tf * idf.get(token)));
+            double norm = norm(vector);
+            for (Map.Entry<String, Double> term : vector.entrySet()) {
+                invertedIndex.computeIfAbsent(term.getKey(), key -> new ArrayList<>())
+                        .add(new Posting(i, term.getValue() / norm));
+            }
+        }
+    }
+
+    private Map<String, Double> weigh(List<String> tokens) {
+        Map<String, Double> vector = new HashMap<>();
+        for (String token : tokens) {
+            // Termos fora da base recebem o peso máximo: palavras novas reduzem a confiança
+            vector.merge(token, idf.getOrDefault(token, unknownTermIdf), Double::sum);
+        }
+        return vector;
+    }
+
+    private double norm(Map<String, Double> vector) {
+        double sum = 0;
+        for (double weight : vector.values()) {
+            sum += weight * weight;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private double hitRatio() {
+        double total = hitCounter.count() + missCounter.count();
+        return total == 0 ? 0 : hitCounter.count() / total;
+    }
+
+    private static final class FaqEntry {
+        private final String question;
+        private final String answer;
+
+        private FaqEntry(String question, String answer) {
+            this.question = question;
+            this.answer = answer;
+        }
+    }
+
+    private static final class Posting {
+        private final int entry;
+        private final double weight;
+
+        private Posting(int entry, double weight) {
+            this.entry = entry;
+            this.weight = weight;
+        }
+    }
+}
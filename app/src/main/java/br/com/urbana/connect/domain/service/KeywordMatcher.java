@@ -0,0 +1,289 @@
+package br.com.urbana.connect.domain.service;
+
+import br.com.urbana.connect.domain.enums.KeywordCategory;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Detector de palavras-chave baseado em um autômato de Aho–Corasick pré-compilado.
+ * <p>
+ * Todas as palavras-chave (saudações, pedidos de atendimento humano e despedidas)
+ * são reconhecidas em uma única passada pela mensagem, sem diferenciar maiúsculas
+ * de minúsculas nem letras acentuadas. Pontuação e espaços consecutivos contam como
+ * um único separador. A varredura não aloca memória: cada caractere é normalizado por
+ * tabela e o autômato avança por um array de transições.
+ */
+public final class KeywordMatcher {
+
+    private static final int LETTERS = 26;
+    private static final int DIGITS = 10;
+    private static final int SEPARATOR = LETTERS + DIGITS;
+    private static final int ALPHABET = SEPARATOR + 1;
+
+    /**
+     * Símbolo de cada caractere até o fim do bloco Latin Extended-B; os demais são separadores.
+     */
+    private static final byte[] FOLD = buildFoldTable(0x250);
+
+    private static final KeywordMatcher DEFAULT = builder()
+            .words(KeywordCategory.GREETING,
+                    "oi", "olá", "ola", "hello", "hi",
+                    "bom dia", "boa tarde", "boa noite", "boa",
+                    "tudo bem", "como vai", "hey")
+            .phrases(KeywordCategory.HANDOFF,
+                    "falar com atendente", "falar com humano", "atendente humano",
+                    "quero atendente", "quero falar com pessoa", "falar com pessoa",
+                    "atendente por favor", "preciso de atendente", "pessoa real",
+                    "quero falar com alguém", "falar com gente", "atendimento humano",
+                    "ajuda de verdade", "suporte", "falar com suporte",
+                    "quero falar com atendente", "por favor atendente", "chat humano",
+                    "pessoa de verdade", "sem bot", "não quero falar com robô")
+            .phrases(KeywordCategory.FAREWELL,
+                    "até logo", "adeus", "tchau")
+            .build();
+
+    private final int[] transitions;
+    private final int[] outputs;
+
+    private KeywordMatcher(List<Keyword> keywords) {
+        // Trie das palavras-chave
+        List<int[]> children = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        children.add(newRow());
+        terminal.add(0);
+
+        for (Keyword keyword : keywords) {
+            int state = 0;
+            for (int symbol : keyword.symbols) {
+                if (children.get(state)[symbol] < 0) {
+                    children.get(state)[symbol] = children.size();
+                    children.add(newRow());
+                    terminal.add(0);
+                }
+                state = children.get(state)[symbol];
+            }
+            terminal.set(state, terminal.get(state) | keyword.mask);
+        }
+
+        // Links de falha em largura, já resolvidos em uma tabela de transições completa
+        int states = children.size();
+        this.transitions = new int[states * ALPHABET];
+        this.outputs = new int[states];
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int child = children.get(0)[symbol];
+            if (child > 0) {
+                transitions[symbol] = child;
+                queue.add(child);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = terminal.get(state) | outputs[fail[state]];
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int child = children.get(state)[symbol];
+                int fallback = transitions[fail[state] * ALPHABET + symbol];
+                if (child < 0) {
+                    transitions[state * ALPHABET + symbol] = fallback;
+                } else {
+                    fail[child] = fallback;
+                    transitions[state * ALPHABET + symbol] = child;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Detector compartilhado com as palavras-chave padrão do atendimento.
+     */
+    public static KeywordMatcher getDefault() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Varre a mensagem uma única vez e devolve as categorias encontradas.
+     *
+     * @param text Texto a ser analisado (pode ser null)
+     * @return Máscara de bits das categorias ({@link KeywordCategory#mask()})
+     */
+    public int scan(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+
+        // O texto é lido como se estivesse entre separadores, para casar palavras inteiras nas pontas
+        int state = transitions[SEPARATOR];
+        int found = outputs[state];
+        boolean afterSeparator = true;
+
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int symbol = fold(text.charAt(i));
+            if (symbol == SEPARATOR) {
+                if (afterSeparator) {
+                    continue;
+                }
+                afterSeparator = true;
+            } else {
+                afterSeparator = false;
+            }
+            state = transitions[state * ALPHABET + symbol];
+            found |= outputs[state];
+        }
+
+        if (!afterSeparator) {
+            found |= outputs[transitions[state * ALPHABET + SEPARATOR]];
+        }
+        return found;
+    }
+
+    /**
+     * Verifica se a mensagem contém alguma palavra-chave da categoria.
+     */
+    public boolean matches(CharSequence text, KeywordCategory category) {
+        return (scan(text) & category.mask()) != 0;
+    }
+
+    /**
+     * Categorias encontradas na mensagem, para uso fora do caminho crítico.
+     */
+    public EnumSet<KeywordCategory> categories(CharSequence text) {
+        int found = scan(text);
+        EnumSet<KeywordCategory> categories = EnumSet.noneOf(KeywordCategory.class);
+        for (KeywordCategory category : KeywordCategory.values()) {
+            if ((found & category.mask()) != 0) {
+                categories.add(category);
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Conta as palavras do texto (sequências separadas por espaços em branco), sem alocar memória.
+     */
+    public static int countWords(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+            }
+        }
+        return words;
+    }
+
+    private static int fold(char c) {
+        return c < FOLD.length ? FOLD[c] : SEPARATOR;
+    }
+
+    private static byte[] buildFoldTable(int size) {
+        byte[] table = new byte[size];
+        for (char c = 0; c < size; c++) {
+            char base = Character.toLowerCase(Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0));
+            if (base >= 'a' && base <= 'z') {
+                table[c] = (byte) (base - 'a');
+            } else if (base >= '0' && base <= '9') {
+                table[c] = (byte) (LETTERS + base - '0');
+            } else {
+                table[c] = SEPARATOR;
+            }
+        }
+        return table;
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * Monta um detector com palavras-chave próprias.
+     */
+    public static final class Builder {
+
+        private final List<Keyword> keywords = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Palavras-chave reconhecidas em qualquer posição, inclusive dentro de outras palavras.
+         */
+        public Builder phrases(KeywordCategory category, String... phrases) {
+            for (String phrase : phrases) {
+                add(category, phrase, false);
+            }
+            return this;
+        }
+
+        /**
+         * Palavras-chave reconhecidas apenas como palavras inteiras.
+         */
+        public Builder words(KeywordCategory category, String... words) {
+            for (String word : words) {
+                add(category, word, true);
+            }
+            return this;
+        }
+
+        public KeywordMatcher build() {
+            return new KeywordMatcher(keywords);
+        }
+
+        private void add(KeywordCategory category, String keyword, boolean wholeWord) {
+            List<Integer> symbols = new ArrayList<>();
+            if (wholeWord) {
+                symbols.add(SEPARATOR);
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = fold(keyword.charAt(i));
+                boolean repeatedSeparator = symbol == SEPARATOR
+                        && (symbols.isEmpty() || symbols.get(symbols.size() - 1) == SEPARATOR);
+                if (!repeatedSeparator) {
+                    symbols.add(symbol);
+                }
+            }
+            if (symbols.isEmpty() || symbols.get(symbols.size() - 1) != SEPARATOR) {
+                if (wholeWord) {
+                    symbols.add(SEPARATOR);
+                }
+            } else if (!wholeWord) {
+                symbols.remove(symbols.size() - 1);
+            }
+            if (symbols.stream().allMatch(symbol -> symbol == SEPARATOR)) {
+                throw new IllegalArgumentException("Palavra-chave sem letras ou números: " + keyword);
+            }
+            keywords.add(new Keyword(symbols.stream().mapToInt(Integer::intValue).toArray(), category.mask()));
+        }
+    }
+
+    private static final class Keyword {
+        private final int[] symbols;
+        private final int mask;
+
+        private Keyword(int[] symbols, int mask) {
+            this.symbols = symbols;
+            this.mask = mask;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.urbana.connect.domain.service;
+
+import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
+import br.com.urbana.connect.domain.model.Customer;
+import br.com.urbana.connect.domain.model.Message;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Estado do processamento de uma mensagem recebida.
+ * <p>
+ * O cliente e a conversa são carregados uma única vez e compartilhados por todas as
+ * etapas do processamento (mensagem do usuário, handoff, resposta, envio e contexto).
+ * As alterações na conversa são aplicadas ao objeto em memória na hora e acumuladas,
+ * para serem gravadas de uma só vez ao final, por
+ * {@link ConversationContextService#flush(MessageProcessingContext)}.
+ */
+@Getter
+public class MessageProcessingContext {
+
+    /**
+     * Cliente que enviou a mensagem; null se não puder ser carregado.
+     */
+    private final Customer customer;
+
+    /**
+     * Conversa à qual a mensagem pertence.
+     */
+    private final Conversation conversation;
+
+    /**
+     * Alterações na conversa ainda não gravadas.
+     */
+    private ConversationUpdate pendingUpdate = ConversationUpdate.create();
+
+    /**
+     * IDs das mensagens recebidas respondidas por este processamento e ainda não
+     * marcadas como respondidas.
+     */
+    private List<String> respondingTo = List.of();
+
+    public MessageProcessingContext(Customer customer, Conversation conversation) {
+        this.customer = customer;
+        this.conversation = conversation;
+    }
+
+    /**
+     * Aplica as alterações à conversa em memória e as acumula para a gravação final.
+     *
+     * @param update Alterações a aplicar
+     */
+    public void update(ConversationUpdate update) {
+        update.applyTo(conversation);
+        pendingUpdate.merge(update);
+    }
+
+    /**
+     * Registra as mensagens recebidas que este processamento responde.
+     *
+     * @param messages Mensagens recebidas, já gravadas
+     */
+    public void respondTo(List<Message> messages) {
+        respondingTo = messages.stream().map(Message::getId).toList();
+    }
+
+    /**
+     * Retira as mensagens recebidas ainda não marcadas como respondidas.
+     *
+     * @return IDs das mensagens; vazio se já foram marcadas
+     */
+    List<String> drainRespondingTo() {
+        List<String> drained = respondingTo;
+        respondingTo = List.of();
+        return drained;
+    }
+
+    /**
+     * Retira as alterações acumuladas, deixando o contexto sem pendências.
+     *
+     * @return Alterações acumuladas desde a última retirada
+     */
+    ConversationUpdate drainPendingUpdate() {
+        ConversationUpdate drained = pendingUpdate;
+        pendingUpdate = ConversationUpdate.create();
+        return drained;
+    }
+}
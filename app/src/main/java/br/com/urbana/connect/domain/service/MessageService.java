@@ -2,21 +2,31 @@ package br.com.urbana.connect.domain.service;
 
 import br.com.urbana.connect.application.config.ContextConfig;
 import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationContext;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
 import br.com.urbana.connect.domain.enums.ConversationStatus;
+import br.com.urbana.connect.domain.enums.GptCallPriority;
+import br.com.urbana.connect.domain.enums.KeywordCategory;
 import br.com.urbana.connect.domain.model.Customer;
 import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.MessageAnalysis;
+import br.com.urbana.connect.domain.model.RecentMessage;
 import br.com.urbana.connect.domain.enums.MessageDirection;
 import br.com.urbana.connect.domain.enums.MessageStatus;
 import br.com.urbana.connect.domain.enums.MessageType;
 import br.com.urbana.connect.domain.port.input.ConversationManagementUseCase;
 import br.com.urbana.connect.domain.port.input.CustomerManagementUseCase;
 import br.com.urbana.connect.domain.port.input.MessageProcessingUseCase;
+import br.com.urbana.connect.domain.port.output.AsyncGptServicePort;
 import br.com.urbana.connect.domain.port.output.GptServicePort;
 import br.com.urbana.connect.domain.port.output.MessageRepository;
 import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import br.com.urbana.connect.infrastructure.cache.SemanticResponseCache;
+import br.com.urbana.connect.infrastructure.dispatch.GptCallOrchestrator;
+import br.com.urbana.connect.infrastructure.dispatch.OutboxDispatcher;
+import br.com.urbana.connect.infrastructure.dispatch.ReadReceiptSender;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.slf4j.MDC;
 
@@ -24,7 +34,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Optional;
-import java.util.Arrays;
+import java.util.UUID;
 
 /**
  * Implementação do caso de uso de processamento de mensagens.
@@ -38,10 +48,16 @@ public class MessageService implements MessageProcessingUseCase {
     private final CustomerManagementUseCase customerService;
     private final ConversationManagementUseCase conversationService;
     private final GptServicePort gptService;
+    private final AsyncGptServicePort asyncGptService;
     private final WhatsappServicePort whatsappService;
     private final ConversationContextService contextService;
     private final PromptBuilderService promptBuilderService;
     private final ContextConfig contextConfig;
+    private final GptCallOrchestrator gptCallOrchestrator;
+    private final FaqAnswerService faqAnswerService;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ReadReceiptSender readReceiptSender;
+    private final SemanticResponseCache responseCache;
     
     private static final String SYSTEM_PROMPT = "Você é Urba 😉, assistente virtual da Urbana do Brasil, " +
             "uma empresa de Arquitetura e Decoração. Seja amigável, entusiasmada, " +
@@ -50,12 +66,8 @@ public class MessageService implements MessageProcessingUseCase {
             "Se não souber a resposta ou se o cliente solicitar falar com um humano, " +
             "informe que irá transferir para um atendente. 💜";
     
-    // Expressões regulares para detecção de saudações
-    private static final List<String> GREETING_PATTERNS = List.of(
-            "\\boi\\b", "\\bolá\\b", "\\bola\\b", "\\bhello\\b", "\\bhi\\b",
-            "\\bbom dia\\b", "\\bboa tarde\\b", "\\bboa noite\\b", "\\bboa\\b",
-            "\\btudo bem\\b", "\\bcomo vai\\b", "\\bhey\\b"
-    );
+    // Detector compartilhado de saudações, pedidos de atendimento humano e despedidas
+    private static final KeywordMatcher KEYWORDS = KeywordMatcher.getDefault();
     
     @Override
     public Message processInboundMessage(Message inboundMessage) {
@@ -67,22 +79,128 @@ public class MessageService implements MessageProcessingUseCase {
         // Buscar ou criar conversa ativa
         Conversation conversation = contextService.getOrCreateActiveConversation(customer);
         
-        // Salvar mensagem de entrada
+        // Cliente e conversa carregados uma única vez para todo o processamento
+        MessageProcessingContext context = new MessageProcessingContext(customer, conversation);
+        try {
+            // Salvar mensagem de entrada
+            Message savedMessage = saveUserMessage(context, inboundMessage);
+            context.respondTo(List.of(savedMessage));
+            
+            // Gerar resposta
+            Message response = generateResponse(context, savedMessage);
+            markResponded(context);
+            return response;
+        } finally {
+            // Gravar todas as alterações da conversa de uma só vez
+            contextService.flush(context);
+        }
+    }
+    
+    /**
+     * Persiste uma mensagem recebida sem gerar resposta. Usado quando as mensagens
+     * enviadas em sequência pelo cliente são respondidas juntas, em um único turno.
+     * 
+     * @param inboundMessage Mensagem recebida do cliente via WhatsApp
+     * @return A mensagem salva
+     */
+    public Message saveInboundMessage(Message inboundMessage) {
+        log.debug("Salvando mensagem recebida do cliente: {}", inboundMessage.getCustomerId());
+        
+        Customer customer = contextService.getOrCreateCustomer(inboundMessage.getCustomerId());
+        Conversation conversation = contextService.getOrCreateActiveConversation(customer);
+        MessageProcessingContext context = new MessageProcessingContext(customer, conversation);
+        try {
+            return saveUserMessage(context, inboundMessage);
+        } finally {
+            contextService.flush(context);
+        }
+    }
+    
+    /**
+     * Gera uma única resposta para um turno de mensagens já persistidas com
+     * {@link #saveInboundMessage(Message)}. O conteúdo das mensagens é unido, na ordem
+     * de chegada, e tratado como uma só mensagem do cliente.
+     * 
+     * @param phoneNumber Número de telefone do cliente
+     * @param savedMessages Mensagens do turno, na ordem de chegada
+     * @return A mensagem de resposta gerada, ou null se nenhuma resposta for necessária
+     */
+    public Message respondToInboundMessages(String phoneNumber, List<Message> savedMessages) {
+        if (savedMessages.isEmpty()) {
+            return null;
+        }
+        log.debug("Respondendo turno de {} mensagens do cliente: {}", savedMessages.size(), phoneNumber);
+        
+        Customer customer = contextService.getOrCreateCustomer(phoneNumber);
+        Conversation conversation = contextService.getOrCreateActiveConversation(customer);
+        MessageProcessingContext context = new MessageProcessingContext(customer, conversation);
+        context.respondTo(savedMessages);
+        try {
+            Message response = generateResponse(context, mergeTurn(savedMessages));
+            markResponded(context);
+            return response;
+        } finally {
+            contextService.flush(context);
+        }
+    }
+    
+    /**
+     * Busca as mensagens recebidas que aguardam resposta na conversa de uma mensagem já
+     * persistida, para retomar a resposta de uma entrega anterior que falhou antes de
+     * respondê-la.
+     * 
+     * @param whatsappMessageId ID do WhatsApp da mensagem entregue novamente
+     * @return Mensagens da conversa ainda sem resposta, na ordem de chegada; vazio se a
+     *         mensagem já foi respondida
+     */
+    public List<Message> findAwaitingResponse(String whatsappMessageId) {
+        return messageRepository.findByWhatsappMessageId(whatsappMessageId)
+                .filter(Message::isAwaitingResponse)
+                .map(stored -> messageRepository.findAwaitingResponse(stored.getConversationId()))
+                .orElse(List.of());
+    }
+    
+    /**
+     * Salva a mensagem do cliente e agenda sua confirmação de leitura.
+     */
+    private Message saveUserMessage(MessageProcessingContext context, Message inboundMessage) {
         Message savedMessage = contextService.saveUserMessage(
-                conversation, 
+                context, 
                 inboundMessage.getContent(), 
                 inboundMessage.getWhatsappMessageId()
         );
         
-        // Marcar como lida no WhatsApp
+        // Marcar como lida no WhatsApp, em segundo plano
         if (inboundMessage.getWhatsappMessageId() != null) {
-            whatsappService.markMessageAsRead(inboundMessage.getWhatsappMessageId());
+            readReceiptSender.submit(inboundMessage.getCustomerId(), inboundMessage.getWhatsappMessageId());
+        }
+        return savedMessage;
+    }
+    
+    /**
+     * Une as mensagens de um turno em uma só, identificada pela última mensagem recebida.
+     */
+    private Message mergeTurn(List<Message> messages) {
+        Message last = messages.get(messages.size() - 1);
+        if (messages.size() == 1) {
+            return last;
         }
         
-        // Gerar resposta
-        Message response = generateResponse(conversation, savedMessage);
-        
-        return response;
+        String content = messages.stream()
+                .map(Message::getContent)
+                .filter(text -> text != null && !text.isBlank())
+                .collect(Collectors.joining("\n"));
+        
+        return Message.builder()
+                .id(last.getId())
+                .conversationId(last.getConversationId())
+                .customerId(last.getCustomerId())
+                .type(last.getType())
+                .direction(MessageDirection.INBOUND)
+                .content(content)
+                .timestamp(last.getTimestamp())
+                .whatsappMessageId(last.getWhatsappMessageId())
+                .build();
     }
     
     /**
@@ -94,6 +212,28 @@ public class MessageService implements MessageProcessingUseCase {
      * @return A mensagem de resposta gerada
      */
     public Message generateResponse(Conversation conversation, Message userMessage) {
+        Customer customer = customerService.findById(userMessage.getCustomerId()).orElse(null);
+        MessageProcessingContext context = new MessageProcessingContext(customer, conversation);
+        context.respondTo(List.of(userMessage));
+        try {
+            Message response = generateResponse(context, userMessage);
+            markResponded(context);
+            return response;
+        } finally {
+            contextService.flush(context);
+        }
+    }
+    
+    /**
+     * Gera uma resposta para a mensagem do usuário, acumulando as alterações da conversa
+     * no contexto de processamento.
+     * 
+     * @param context Contexto de processamento da mensagem
+     * @param userMessage A mensagem do usuário
+     * @return A mensagem de resposta gerada
+     */
+    private Message generateResponse(MessageProcessingContext context, Message userMessage) {
+        Conversation conversation = context.getConversation();
         log.debug("Gerando resposta para a mensagem: {} na conversa: {}", 
                 userMessage.getId(), conversation.getId());
         
@@ -104,7 +244,7 @@ public class MessageService implements MessageProcessingUseCase {
             // Enviar mensagem leve de lembrete, se estiver aguardando há muito tempo
             if (conversation.getLastActivityTime() != null &&
                 conversation.getLastActivityTime().plusMinutes(2).isBefore(LocalDateTime.now())) {
-                return createHandoffReminderMessage(conversation, userMessage.getCustomerId());
+                return createHandoffReminderMessage(context);
             }
             
             return null;
@@ -112,59 +252,106 @@ public class MessageService implements MessageProcessingUseCase {
         
         // Recuperar histórico de mensagens
         List<Message> messageHistory = contextService.getConversationHistory(conversation);
-        
-        // Verificar se requer intervenção humana via detecção com GPT
         String formattedHistory = contextService.formatConversationHistory(messageHistory);
-        boolean needsHuman = gptService.requiresHumanIntervention(userMessage.getContent(), formattedHistory);
-        
-        // Verificar palavras-chave explícitas para handoff
-        boolean containsHandoffKeywords = containsHandoffKeywords(userMessage.getContent());
         
-        // Se precisar de intervenção humana (por GPT ou palavras-chave)
-        if ((needsHuman || containsHandoffKeywords) && !conversation.isHandedOffToHuman()) {
-            log.info("Transferindo para atendimento humano. Detectado por: {}", 
-                    containsHandoffKeywords ? "palavras-chave" : "análise GPT");
-            return createHumanTransferMessage(conversation, userMessage.getCustomerId());
+        // Palavras-chave explícitas de handoff dispensam qualquer chamada ao GPT
+        if (containsHandoffKeywords(userMessage.getContent())) {
+            log.info("Transferindo para atendimento humano. Detectado por: palavras-chave");
+            return createHumanTransferMessage(context);
         }
         
         // Verificar se é uma saudação para uma conversa nova ou se é a primeira mensagem
+        boolean initialGreeting = isGreeting(userMessage.getContent()) && 
+            (messageHistory.size() <= 1 || isFirstMessageInNewSession(conversation, messageHistory));
+        
+        // Perguntas frequentes reconhecidas com alta confiança são respondidas sem o GPT
+        Optional<String> faqAnswer = initialGreeting 
+                ? Optional.empty() 
+                : faqAnswerService.findAnswer(userMessage.getContent());
+        
+        // Conversas sem contexto podem reaproveitar a resposta dada a uma mensagem semelhante
+        boolean cacheable = !initialGreeting && faqAnswer.isEmpty() 
+                && isContextFree(conversation, messageHistory);
+        Optional<MessageAnalysis> cachedAnalysis = cacheable
+                ? responseCache.find(userMessage.getContent(), promptBuilderService.getPromptVersion())
+                : Optional.empty();
+        
         String responseContent;
-        if (isGreeting(userMessage.getContent()) && 
-            (messageHistory.size() <= 1 || isFirstMessageInNewSession(conversation, messageHistory))) {
+        MessageAnalysis analysis = null;
+        if (initialGreeting) {
             log.info("Detectada saudação inicial, gerando resposta de boas-vindas");
             
             // Para saudações, utilizamos um prompt específico (sem histórico necessário)
             String greetingPrompt = promptBuilderService.buildGreetingPrompt();
             responseContent = gptService.generateResponse("", "", greetingPrompt);
+        } else if (faqAnswer.isPresent()) {
+            log.info("Pergunta frequente respondida pela base local, sem chamada ao GPT");
+            responseContent = faqAnswer.get();
+            analysis = MessageAnalysis.builder()
+                    .reply(responseContent)
+                    .intent(FaqAnswerService.FAQ_INTENT)
+                    .build();
+        } else if (cachedAnalysis.isPresent()) {
+            log.info("Mensagem semelhante já respondida, resposta reaproveitada do cache sem chamada ao GPT");
+            analysis = cachedAnalysis.get();
+            responseContent = analysis.getReply();
         } else {
-            // Para outras mensagens, usamos o prompt de FAQ que inclui a base de conhecimento
-            log.debug("Gerando resposta com base no contexto e possível FAQ");
-            String faqPrompt = promptBuilderService.buildFaqPrompt(
+            // Uma única chamada estruturada traz resposta, intenção, entidades e handoff.
+            // Falhas de comunicação ou de cota não caem nas chamadas individuais: a exceção
+            // devolve a notificação à caixa de entrada, que a reprocessa mais tarde
+            String structuredPrompt = promptBuilderService.buildStructuredAnalysisPrompt(
                     userMessage.getContent(), 
                     formattedHistory, 
                     conversation.getContext());
-                    
-            responseContent = gptService.generateResponse(
-                    "",  // Histórico já está no prompt
-                    userMessage.getContent(), 
-                    faqPrompt);
+            analysis = gptCallOrchestrator.call(() -> asyncGptService.analyzeMessageAsync(
+                            formattedHistory, userMessage.getContent(), structuredPrompt))
+                    .orElse(null);
+            
+            if (analysis != null) {
+                if (analysis.isNeedsHuman()) {
+                    log.info("Transferindo para atendimento humano. Detectado por: análise GPT");
+                    return createHumanTransferMessage(context);
+                }
+                responseContent = analysis.getReply();
+            } else {
+                // Resposta estruturada inválida: usar as chamadas individuais, em paralelo
+                log.debug("Análise estruturada indisponível, usando chamadas individuais");
+                String content = userMessage.getContent();
+                
+                // Para outras mensagens, usamos o prompt de FAQ que inclui a base de conhecimento
+                String faqPrompt = promptBuilderService.buildFaqPrompt(
+                        content, 
+                        formattedHistory, 
+                        conversation.getContext());
+                
+                analysis = gptCallOrchestrator.analyze(
+                        () -> asyncGptService.requiresHumanInterventionAsync(content, formattedHistory),
+                        () -> asyncGptService.analyzeIntentAsync(content),
+                        () -> asyncGptService.extractEntitiesAsync(content),
+                        () -> asyncGptService.generateResponseAsync("", content, faqPrompt)); // Histórico já está no prompt
+                
+                if (analysis.isNeedsHuman()) {
+                    log.info("Transferindo para atendimento humano. Detectado por: análise GPT");
+                    return createHumanTransferMessage(context);
+                }
+                responseContent = analysis.getReply();
+            }
+            
+            if (cacheable) {
+                cacheResponse(userMessage.getContent(), analysis);
+            }
         }
         
-        // Salvar resposta
+        // Salvar a resposta uma única vez e colocá-la na fila de saída para envio
         Message savedResponse = contextService.saveAssistantResponse(
-                conversation, 
-                responseContent
+                context, 
+                responseContent,
+                null
         );
-        
-        // Enviar pelo WhatsApp
-        String whatsappMessageId = sendResponseViaWhatsapp(savedResponse, userMessage.getCustomerId());
-        if (whatsappMessageId != null) {
-            savedResponse.setWhatsappMessageId(whatsappMessageId);
-            messageRepository.save(savedResponse);
-        }
+        enqueueForDelivery(context, savedResponse);
         
         // Atualizar contexto com entidades e intenção detectadas
-        updateConversationContext(conversation, userMessage.getContent(), responseContent);
+        updateConversationContext(context, userMessage.getContent(), responseContent, analysis);
         
         return savedResponse;
     }
@@ -176,24 +363,44 @@ public class MessageService implements MessageProcessingUseCase {
      * @return true se for uma saudação, false caso contrário
      */
     private boolean isGreeting(String message) {
-        if (message == null || message.trim().isEmpty()) {
+        if (message == null || message.isBlank()) {
             return false;
         }
         
-        String normalized = message.toLowerCase().trim();
-        
-        // Verifica se é uma mensagem muito curta (típico de saudações)
-        if (normalized.split("\\s+").length <= 3) {
-            // Verificar padrões de saudação usando expressões regulares
-            for (String pattern : GREETING_PATTERNS) {
-                if (normalized.matches(".*" + pattern + ".*")) {
-                    log.debug("Saudação detectada com padrão: {}", pattern);
-                    return true;
-                }
-            }
+        // Verifica se é uma mensagem muito curta (típico de saudações) com alguma saudação conhecida
+        return KeywordMatcher.countWords(message) <= 3 
+                && KEYWORDS.matches(message, KeywordCategory.GREETING);
+    }
+    
+    /**
+     * Verifica se a conversa ainda não tem contexto que possa mudar a resposta: histórico
+     * curto, nenhuma entidade identificada e nenhum resumo.
+     * 
+     * @param conversation A conversa atual
+     * @param messageHistory Histórico de mensagens, incluindo a mensagem atual
+     * @return true se a resposta pode ser reaproveitada entre conversas
+     */
+    private boolean isContextFree(Conversation conversation, List<Message> messageHistory) {
+        ConversationContext context = conversation.getContext();
+        return responseCache.accepts(messageHistory.size())
+                && (context == null 
+                    || ((context.getIdentifiedEntities() == null || context.getIdentifiedEntities().isEmpty())
+                        && context.getConversationSummary() == null));
+    }
+    
+    /**
+     * Guarda a resposta do GPT no cache semântico. Respostas a mensagens com dados do
+     * cliente (nome, endereço, telefone...) não são guardadas.
+     */
+    private void cacheResponse(String userMessage, MessageAnalysis analysis) {
+        if (analysis.getEntities() != null && !analysis.getEntities().isEmpty()) {
+            return;
         }
-        
-        return false;
+        responseCache.put(userMessage, promptBuilderService.getPromptVersion(), MessageAnalysis.builder()
+                .reply(analysis.getReply())
+                .intent(analysis.getIntent())
+                .entities(List.of())
+                .build());
     }
     
     /**
@@ -231,40 +438,52 @@ public class MessageService implements MessageProcessingUseCase {
     /**
      * Atualiza o contexto da conversa com informações extraídas da mensagem atual.
      * 
-     * @param conversation A conversa a ser atualizada
+     * @param context Contexto de processamento da mensagem
+     * @param userMessage A mensagem do usuário
+     * @param responseContent A resposta gerada
+     */
+    private void updateConversationContext(MessageProcessingContext context, String userMessage, String responseContent) {
+        updateConversationContext(context, userMessage, responseContent, null);
+    }
+    
+    /**
+     * Atualiza o contexto da conversa reaproveitando a intenção e as entidades de uma
+     * análise estruturada, quando disponível, sem novas chamadas ao GPT.
+     * 
+     * @param context Contexto de processamento da mensagem
      * @param userMessage A mensagem do usuário
      * @param responseContent A resposta gerada
+     * @param analysis Análise estruturada da mensagem, ou null para analisar com chamadas individuais
      */
-    private void updateConversationContext(Conversation conversation, String userMessage, String responseContent) {
+    private void updateConversationContext(MessageProcessingContext context, String userMessage, String responseContent,
+                                           MessageAnalysis analysis) {
+        Conversation conversation = context.getConversation();
         try {
             // Analisar intenção
-            String intent = gptService.analyzeIntent(userMessage);
-            conversation.getContext().setCustomerIntent(intent);
-            conversation.getContext().setLastDetectedTopic(intent);
+            String intent = analysis != null ? analysis.getIntent() : gptService.analyzeIntent(userMessage);
             
             // Extrair entidades
-            List<String> entities = gptService.extractEntities(userMessage);
-            if (!entities.isEmpty()) {
-                conversation.getContext().getIdentifiedEntities().addAll(entities);
-            }
+            List<String> entities = analysis != null ? analysis.getEntities() : gptService.extractEntities(userMessage);
             
             // Atualizar timestamp da última interação
             LocalDateTime now = LocalDateTime.now();
-            conversation.getContext().setLastInteractionTime(now);
-            conversation.setLastActivityTime(now);
+            ConversationUpdate update = ConversationUpdate.create()
+                    .customerIntent(intent)
+                    .lastDetectedTopic(intent)
+                    .addIdentifiedEntities(entities, contextConfig.getMaxIdentifiedEntities())
+                    .lastInteractionTime(now)
+                    .lastActivityTime(now);
+            context.update(update);
             
             // Determinar o estado atual da conversa
             String currentState = determineConversationState(conversation, responseContent);
-            conversation.getContext().setConversationState(currentState);
+            context.update(ConversationUpdate.create().conversationState(currentState));
             
             // Se resumo automático estiver habilitado, gerar um resumo da conversa
             if (contextConfig.isSummaryEnabled()) {
-                generateConversationSummary(conversation);
+                generateConversationSummary(context);
             }
             
-            // Salvar contexto atualizado - usar o novo método que salva a conversa completa
-            conversationService.updateConversation(conversation);
-            
             log.debug("Contexto da conversa atualizado. Intenção: {}, Entidades: {}, Estado: {}", 
                     intent, entities, currentState);
         } catch (Exception e) {
@@ -293,9 +512,7 @@ public class MessageService implements MessageProcessingUseCase {
         }
         
         // Verifica se parece ser uma despedida
-        if (responseContent.toLowerCase().contains("até logo") ||
-            responseContent.toLowerCase().contains("adeus") ||
-            responseContent.toLowerCase().contains("tchau")) {
+        if (KEYWORDS.matches(responseContent, KeywordCategory.FAREWELL)) {
             return "FINALIZANDO";
         }
         
@@ -307,9 +524,10 @@ public class MessageService implements MessageProcessingUseCase {
      * Gera um resumo da conversa usando o serviço GPT.
      * Essa é uma funcionalidade avançada que pode ser ativada via configuração.
      * 
-     * @param conversation A conversa a ser resumida
+     * @param context Contexto de processamento com a conversa a ser resumida
      */
-    private void generateConversationSummary(Conversation conversation) {
+    private void generateConversationSummary(MessageProcessingContext context) {
+        Conversation conversation = context.getConversation();
         try {
             // Buscar as últimas mensagens para resumir (limitado a um número menor que o contexto normal)
             List<Message> messages = messageRepository.findByConversationId(conversation.getId());
@@ -328,12 +546,12 @@ public class MessageService implements MessageProcessingUseCase {
             // Usar o PromptBuilderService para construir o prompt de resumo
             String summaryPrompt = promptBuilderService.buildSummaryPrompt(messageHistory.toString());
             
-            // Chamar GPT para gerar o resumo
+            // Chamar GPT para gerar o resumo; ninguém aguarda por ele, então cede a vez às respostas
             String summary = gptService.generateResponse("", summaryPrompt, 
-                    "Você é um resumidor de conversas. Seja conciso e objetivo.");
+                    "Você é um resumidor de conversas. Seja conciso e objetivo.", GptCallPriority.BACKGROUND);
             
             // Atualizar o resumo na conversa
-            contextService.updateConversationSummary(conversation, summary);
+            contextService.updateConversationSummary(context, summary);
             
             log.debug("Resumo da conversa gerado: {}", summary);
         } catch (Exception e) {
@@ -370,20 +588,14 @@ public class MessageService implements MessageProcessingUseCase {
                 .content("Sua conversa foi transferida para um atendente humano. " +
                         "Em breve alguém entrará em contato. Motivo: " + reason)
                 .timestamp(LocalDateTime.now())
-                .status(MessageStatus.SENT)
+                .status(MessageStatus.PENDING)
                 .build();
         
         Message savedMessage = messageRepository.save(transferMessage);
         conversationService.addMessageToConversation(conversationId, savedMessage);
         
-        // Enviar pelo WhatsApp
-        String whatsappMessageId = whatsappService.sendTextMessage(
-                customer.getPhoneNumber(), transferMessage.getContent());
-        
-        if (whatsappMessageId != null) {
-            savedMessage.setWhatsappMessageId(whatsappMessageId);
-            messageRepository.save(savedMessage);
-        }
+        // Enviar pelo WhatsApp através da fila de saída
+        outboxDispatcher.enqueue(savedMessage, customer.getPhoneNumber());
         
         log.info("Conversa transferida com sucesso para atendimento humano: {}", conversationId);
         return true;
@@ -411,67 +623,43 @@ public class MessageService implements MessageProcessingUseCase {
      * @return true se contém palavras-chave de handoff
      */
     private boolean containsHandoffKeywords(String message) {
-        if (message == null || message.trim().isEmpty()) {
+        if (message == null || message.isBlank()) {
             return false;
         }
         
-        String normalized = message.toLowerCase().trim();
-        
-        // Lista de palavras-chave que indicam pedido explícito de atendimento humano
-        List<String> handoffKeywords = Arrays.asList(
-            "falar com atendente", "falar com humano", "atendente humano", 
-            "quero atendente", "quero falar com pessoa", "falar com pessoa",
-            "atendente por favor", "preciso de atendente", "pessoa real",
-            "quero falar com alguém", "falar com gente", "atendimento humano",
-            "ajuda de verdade", "suporte", "falar com suporte",
-            "pessoa de verdade", "sem bot", "não quero falar com robô"
-        );
-        
-        return handoffKeywords.stream().anyMatch(normalized::contains);
+        return KEYWORDS.matches(message, KeywordCategory.HANDOFF);
     }
     
     /**
      * Cria uma mensagem de transferência para atendimento humano.
      * 
-     * @param conversation A conversa a ser transferida
-     * @param customerId ID do cliente
+     * @param context Contexto de processamento com a conversa a ser transferida
      * @return Mensagem criada e salva
      */
-    private Message createHumanTransferMessage(Conversation conversation, String customerId) {
+    private Message createHumanTransferMessage(MessageProcessingContext context) {
         // Criar mensagem de transferência com o estilo "Urba"
         Message transferMessage = Message.builder()
-                .conversationId(conversation.getId())
-                .customerId(customerId)
+                .id(UUID.randomUUID().toString())
+                .conversationId(context.getConversation().getId())
+                .customerId(context.getConversation().getCustomerId())
                 .type(MessageType.TEXT)
                 .direction(MessageDirection.OUTBOUND)
                 .content("Entendi! 😉 Para te dar a atenção super especial que você merece nesse ponto, " +
                         "vou acionar nossa equipe de especialistas em decoração! 🧑‍🎨 Fica tranquilo(a) que " +
                         "em breve alguém entrará em contato por aqui para continuar a conversa. Até já! ✨💜")
                 .timestamp(LocalDateTime.now())
-                .status(MessageStatus.SENT)
+                .status(MessageStatus.PENDING)
                 .build();
         
-        Message savedMessage = messageRepository.save(transferMessage);
-        conversationService.addMessageToConversation(conversation.getId(), savedMessage);
+        Message savedMessage = saveAndEnqueue(context, transferMessage);
         
         // Atualizar status da conversa
-        conversation.setHandedOffToHuman(true);
-        conversation.getContext().setNeedsHumanIntervention(true);
-        conversation.getContext().setConversationState("AGUARDANDO_ATENDENTE");
-        conversation.setStatus(ConversationStatus.WAITING_FOR_AGENT);
-        conversationService.updateConversation(conversation);
-        
-        // Enviar pelo WhatsApp
-        Customer customer = customerService.findById(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Cliente não encontrado"));
-        
-        String whatsappMessageId = whatsappService.sendTextMessage(
-                customer.getPhoneNumber(), savedMessage.getContent());
-        
-        if (whatsappMessageId != null) {
-            savedMessage.setWhatsappMessageId(whatsappMessageId);
-            messageRepository.save(savedMessage);
-        }
+        context.update(ConversationUpdate.create()
+                .handedOffToHuman(true)
+                .needsHumanIntervention(true)
+                .conversationState("AGUARDANDO_ATENDENTE")
+                .status(ConversationStatus.WAITING_FOR_AGENT)
+                .lastActivityTime(LocalDateTime.now()));
         
         return savedMessage;
     }
@@ -479,74 +667,98 @@ public class MessageService implements MessageProcessingUseCase {
     /**
      * Cria uma mensagem de lembrete para o cliente que está aguardando atendimento humano.
      * 
-     * @param conversation A conversa em aguardo
-     * @param customerId ID do cliente
+     * @param context Contexto de processamento com a conversa em aguardo
      * @return Mensagem de lembrete
      */
-    private Message createHandoffReminderMessage(Conversation conversation, String customerId) {
+    private Message createHandoffReminderMessage(MessageProcessingContext context) {
         Message reminderMessage = Message.builder()
-                .conversationId(conversation.getId())
-                .customerId(customerId)
+                .id(UUID.randomUUID().toString())
+                .conversationId(context.getConversation().getId())
+                .customerId(context.getConversation().getCustomerId())
                 .type(MessageType.TEXT)
                 .direction(MessageDirection.OUTBOUND)
                 .content("Nossa equipe já foi notificada e entrará em contato em breve! 😊 " +
                         "Obrigada pela paciência. 💜")
                 .timestamp(LocalDateTime.now())
-                .status(MessageStatus.SENT)
+                .status(MessageStatus.PENDING)
                 .build();
         
-        Message savedMessage = messageRepository.save(reminderMessage);
+        return saveAndEnqueue(context, reminderMessage);
+    }
+    
+    /**
+     * Salva uma mensagem do sistema uma única vez, registrando-a na conversa do contexto
+     * de processamento, e a coloca na fila de saída para envio pelo WhatsApp.
+     * 
+     * @param context Contexto de processamento da mensagem
+     * @param message Mensagem a enviar
+     * @return Mensagem salva
+     */
+    private Message saveAndEnqueue(MessageProcessingContext context, Message message) {
+        Message savedMessage = messageRepository.insert(message);
         
-        // Enviar pelo WhatsApp
-        Customer customer = customerService.findByPhoneNumber(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Cliente não encontrado"));
+        context.update(ConversationUpdate.create()
+                .recordMessage(savedMessage.getId(), savedMessage.getTimestamp())
+                .addRecentMessage(RecentMessage.from(savedMessage), contextConfig.getMaxMessages()));
         
-        String whatsappMessageId = whatsappService.sendTextMessage(
-                customer.getPhoneNumber(), savedMessage.getContent());
+        enqueueForDelivery(context, savedMessage);
+        return savedMessage;
+    }
+    
+    /**
+     * Coloca uma mensagem já salva na fila de saída. O envio, as novas tentativas e o
+     * registro do ID do WhatsApp na mensagem ficam a cargo do {@link OutboxDispatcher}.
+     * <p>
+     * Falhas são propagadas, para que a entrada do webhook seja reprocessada; uma mensagem
+     * gravada que não chegou à fila é recolocada nela pela varredura do {@link OutboxDispatcher}.
+     * <p>
+     * As mensagens recebidas são marcadas como respondidas antes, assim que a resposta está
+     * gravada: o reprocessamento após uma falha daqui em diante não gera uma segunda resposta.
+     * 
+     * @param context Contexto de processamento com o cliente destinatário
+     * @param message Mensagem salva
+     */
+    private void enqueueForDelivery(MessageProcessingContext context, Message message) {
+        markResponded(context);
         
-        if (whatsappMessageId != null) {
-            savedMessage.setWhatsappMessageId(whatsappMessageId);
-            messageRepository.save(savedMessage);
+        Customer customer = context.getCustomer();
+        if (customer == null) {
+            throw new IllegalArgumentException("Cliente não encontrado");
         }
         
-        return savedMessage;
+        outboxDispatcher.enqueue(message, customer.getPhoneNumber());
     }
     
-    private String sendResponseViaWhatsapp(Message response, String customerId) {
-        try {
-            Customer customer = customerService.findById(customerId)
-                    .orElseThrow(() -> new IllegalArgumentException("Cliente não encontrado"));
-            
-            String messageId = whatsappService.sendTextMessage(
-                    customer.getPhoneNumber(), response.getContent());
-            
-            if (messageId == null) {
-                log.error("Falha ao enviar mensagem via WhatsApp para: {}", customer.getPhoneNumber());
-            } else {
-                log.info("Mensagem enviada com sucesso via WhatsApp. ID: {}", messageId);
-            }
-            
-            return messageId;
-        } catch (Exception e) {
-            log.error("Erro ao enviar resposta via WhatsApp: {}", e.getMessage(), e);
-            return null;
+    /**
+     * Marca como respondidas as mensagens recebidas do processamento, se ainda não foram.
+     * 
+     * @param context Contexto de processamento com as mensagens respondidas
+     */
+    private void markResponded(MessageProcessingContext context) {
+        List<String> respondedIds = context.drainRespondingTo();
+        if (!respondedIds.isEmpty()) {
+            messageRepository.markResponded(respondedIds, LocalDateTime.now());
         }
     }
 
     /**
      * Processa uma mensagem recebida, salvando nos repositórios apropriados
      * e gerando uma resposta utilizando a OpenAI.
+     * <p>
+     * A resposta, assim como a mensagem de transferência para atendimento humano, é
+     * enviada ao cliente pela fila de saída; o chamador não deve reenviar o texto devolvido.
      *
      * @param phoneNumber Número de telefone do cliente
      * @param messageContent Conteúdo da mensagem
      * @param whatsappMessageId ID da mensagem no WhatsApp (opcional)
-     * @return Resposta gerada para a mensagem
+     * @return Resposta gerada para a mensagem, já colocada na fila de saída
      */
     @Override
     public String processIncomingMessage(String phoneNumber, String messageContent, String whatsappMessageId) {
         log.debug("Processando mensagem de entrada: {}", messageContent);
         MDC.put("messageContent", messageContent);
         
+        MessageProcessingContext context = null;
         try {
             // 1. Buscar ou criar cliente e conversa
             Customer customer = contextService.getOrCreateCustomer(phoneNumber);
@@ -562,11 +774,14 @@ public class MessageService implements MessageProcessingUseCase {
             }
             
             // 3. Salvar mensagem do usuário
-            Message userMessage = contextService.saveUserMessage(conversation, messageContent, whatsappMessageId);
+            context = new MessageProcessingContext(customer, conversation);
+            Message userMessage = contextService.saveUserMessage(context, messageContent, whatsappMessageId);
+            context.respondTo(List.of(userMessage));
             
             // 4. Verificar se já está em handoff
             if (conversation.isHandedOffToHuman()) {
                 log.info("Conversa já transferida para atendimento humano. Ignorando processamento automático.");
+                markResponded(context);
                 return "Mensagem recebida. Aguardando atendimento humano.";
             }
             
@@ -578,38 +793,42 @@ public class MessageService implements MessageProcessingUseCase {
             boolean containsHandoffKeywords = containsHandoffKeywords(messageContent);
             if (containsHandoffKeywords) {
                 log.info("Palavras-chave de handoff detectadas. Transferindo para atendimento humano.");
-                createHumanTransferMessage(conversation, phoneNumber);
+                createHumanTransferMessage(context);
                 return "Transferindo para atendente humano...";
             }
             
-            // 7. Analisar a intenção do usuário
-            String intent = gptService.analyzeIntent(messageContent);
-            log.info("Intenção detectada: {}", intent);
+            // 7. Analisar intenção, entidades e intervenção humana e gerar a resposta em paralelo
+            MessageAnalysis analysis = gptCallOrchestrator.analyze(
+                    () -> asyncGptService.requiresHumanInterventionAsync(messageContent, formattedHistory),
+                    () -> asyncGptService.analyzeIntentAsync(messageContent),
+                    () -> asyncGptService.extractEntitiesAsync(messageContent),
+                    () -> asyncGptService.generateResponseAsync(formattedHistory, messageContent, SYSTEM_PROMPT));
             
             // 8. Verificar necessidade de intervenção humana via GPT
-            boolean needsHuman = gptService.requiresHumanIntervention(messageContent, formattedHistory);
-            if (needsHuman) {
+            if (analysis.isNeedsHuman()) {
                 log.info("Mensagem requer intervenção humana segundo análise do GPT");
-                createHumanTransferMessage(conversation, phoneNumber);
+                createHumanTransferMessage(context);
                 return "Transferindo para atendente humano...";
             }
             
-            // 9. Gerar resposta com GPT
-            String response = gptService.generateResponse(formattedHistory, messageContent, SYSTEM_PROMPT);
+            // 9. Resposta gerada pelo GPT
+            String intent = analysis.getIntent();
+            log.info("Intenção detectada: {}", intent);
+            String response = analysis.getReply();
             
-            // 10. Extrair entidades e atualizar contexto da conversa
-            List<String> entities = gptService.extractEntities(messageContent);
-            String entitiesStr = String.join(", ", entities);
+            // 10. Entidades extraídas para o contexto da conversa
+            String entitiesStr = String.join(", ", analysis.getEntities());
             
             // 11. Atualizar o contexto da conversa
             contextService.updateConversationContext(
-                    conversation, 
+                    context, 
                     intent, 
                     entitiesStr
             );
             
-            // 12. Salvar resposta do assistente
-            Message assistantMessage = contextService.saveAssistantResponse(conversation, response);
+            // 12. Salvar resposta do assistente e colocá-la na fila de saída para envio
+            Message savedResponse = contextService.saveAssistantResponse(context, response, null);
+            enqueueForDelivery(context, savedResponse);
             
             log.info("Resposta gerada com sucesso: {}", response);
             return response;
@@ -617,6 +836,9 @@ public class MessageService implements MessageProcessingUseCase {
             log.error("Erro ao processar mensagem: {}", e.getMessage(), e);
             return "Ops! 😅 Parece que tive um probleminha técnico. Poderia tentar me perguntar de novo? Ou, se preferir, diga 'falar com atendente' para chamar nossa equipe.";
         } finally {
+            if (context != null) {
+                contextService.flush(context);
+            }
             MDC.remove("messageContent");
             MDC.remove("customerId");
             MDC.remove("conversationId");
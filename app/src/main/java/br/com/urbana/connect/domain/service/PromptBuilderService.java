@@ -5,7 +5,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -20,6 +25,44 @@ public class PromptBuilderService {
     @Value("${openai.system-prompt:Você é Urba 😉, assistente virtual da Urbana do Brasil, especialista em Arquitetura e Decoração.}")
     private String defaultSystemPrompt;
     
+    /**
+     * Categorias de intenção reconhecidas nas análises de mensagens.
+     */
+    public static final List<String> INTENT_CATEGORIES = List.of(
+            "DUVIDA_SERVICO", "AGENDAMENTO", "RECLAMACAO", "CANCELAMENTO",
+            "CONTATO_HUMANO", "PRECO_PAGAMENTO", "ELOGIO", "OUTRO");
+    
+    /**
+     * Base de conhecimento de perguntas frequentes, no formato [PERGUNTA]/[RESPOSTA].
+     * Enviada ao GPT nos prompts de FAQ e indexada localmente pelo {@link FaqAnswerService}.
+     */
+    public static final String FAQ_KNOWLEDGE_BASE = """
+            ## Base de Conhecimento - Perguntas Frequentes
+            Consulte estas informações ANTES de responder. Se a pergunta do usuário for similar a alguma destas,
+            use a resposta correspondente como base, mantendo o tom e estilo da persona Urba.
+            
+            [PERGUNTA]: Quais serviços vocês oferecem?
+            [RESPOSTA]: Que legal que perguntou! 🎉 Oferecemos soluções de decoração super bacanas e sem quebra-quebra! Temos o Decor Interiores 🛋️, Decor Fachada 🏡 e Decor Pintura 🎨. Todos com preços fixos e sem necessidade de orçamentos! Quer saber mais sobre algum deles? 😉
+            
+            [PERGUNTA]: O que significa "sem quebra-quebra"?
+            [RESPOSTA]: Significa que nossas soluções focam em renovar seu espaço usando decoração, pintura, móveis e objetos, evitando grandes reformas estruturais, poeira e o stress de uma obra tradicional! ✨
+            
+            [PERGUNTA]: Como funciona o "faça você mesmo"?
+            [RESPOSTA]: Para o Decor Interiores e Decor Pintura, temos uma opção onde te entregamos um guia super detalhado com vídeos e tutoriais para você mesmo(a) colocar a mão na massa e economizar! 👷‍♀️👷‍♂️
+            
+            [PERGUNTA]: Qual o preço do Decor Interiores?
+            [RESPOSTA]: Nosso Decor Interiores tem um valor fixo de R$350 por ambiente (até 20m²)! 😊 O Decor Fachada e o Decor Pintura também têm valores pré-estabelecidos de R$350 por projeto. Não fazemos orçamentos personalizados, nossos preços são padronizados para facilitar! 💜
+            
+            [PERGUNTA]: Que informações vocês precisam para iniciar um projeto?
+            [RESPOSTA]: Para iniciar seu projeto, precisamos de fotos ou vídeos do espaço 📷, as medidas básicas (largura x comprimento) 📐 e uma descrição do que você deseja! Com isso já conseguimos começar! Bem simples e sem complicações! 😄
+            
+            [PERGUNTA]: Quais cidades/regiões vocês atendem?
+            [RESPOSTA]: Somos de Campina Grande, PB, com muito orgulho! 🌵 Atendemos principalmente a região do Nordeste, mas fala pra gente onde você está que vemos o que podemos fazer! 😉
+            """;
+    
+    // Calculada na primeira consulta, depois da injeção do prompt do sistema
+    private volatile String promptVersion;
+    
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withLocale(new Locale("pt", "BR"));
     
     /**
@@ -363,29 +406,7 @@ public class PromptBuilderService {
                 .append("\n\n");
         
         // Adicionar base de conhecimento (FAQ)
-        promptBuilder.append("""
-                ## Base de Conhecimento - Perguntas Frequentes
-                Consulte estas informações ANTES de responder. Se a pergunta do usuário for similar a alguma destas,
-                use a resposta correspondente como base, mantendo o tom e estilo da persona Urba.
-                
-                [PERGUNTA]: Quais serviços vocês oferecem?
-                [RESPOSTA]: Que legal que perguntou! 🎉 Oferecemos soluções de decoração super bacanas e sem quebra-quebra! Temos o Decor Interiores 🛋️, Decor Fachada 🏡 e Decor Pintura 🎨. Todos com preços fixos e sem necessidade de orçamentos! Quer saber mais sobre algum deles? 😉
-                
-                [PERGUNTA]: O que significa "sem quebra-quebra"?
-                [RESPOSTA]: Significa que nossas soluções focam em renovar seu espaço usando decoração, pintura, móveis e objetos, evitando grandes reformas estruturais, poeira e o stress de uma obra tradicional! ✨
-                
-                [PERGUNTA]: Como funciona o "faça você mesmo"?
-                [RESPOSTA]: Para o Decor Interiores e Decor Pintura, temos uma opção onde te entregamos um guia super detalhado com vídeos e tutoriais para você mesmo(a) colocar a mão na massa e economizar! 👷‍♀️👷‍♂️
-                
-                [PERGUNTA]: Qual o preço do Decor Interiores?
-                [RESPOSTA]: Nosso Decor Interiores tem um valor fixo de R$350 por ambiente (até 20m²)! 😊 O Decor Fachada e o Decor Pintura também têm valores pré-estabelecidos de R$350 por projeto. Não fazemos orçamentos personalizados, nossos preços são padronizados para facilitar! 💜
-                
-                [PERGUNTA]: Que informações vocês precisam para iniciar um projeto?
-                [RESPOSTA]: Para iniciar seu projeto, precisamos de fotos ou vídeos do espaço 📷, as medidas básicas (largura x comprimento) 📐 e uma descrição do que você deseja! Com isso já conseguimos começar! Bem simples e sem complicações! 😄
-                
-                [PERGUNTA]: Quais cidades/regiões vocês atendem?
-                [RESPOSTA]: Somos de Campina Grande, PB, com muito orgulho! 🌵 Atendemos principalmente a região do Nordeste, mas fala pra gente onde você está que vemos o que podemos fazer! 😉
-                """)
+        promptBuilder.append(FAQ_KNOWLEDGE_BASE)
                 .append("\n\n");
         
         // Adicionar contexto da conversa se disponível
@@ -407,4 +428,59 @@ public class PromptBuilderService {
         
         return promptBuilder.toString();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Constrói um prompt que pede, em uma única chamada, a resposta ao usuário
+     * junto com a intenção, as entidades e a necessidade de atendimento humano.
+     * Usa o mesmo conteúdo do prompt de FAQ, acrescido do formato JSON esperado.
+     * 
+     * @param userMessage Mensagem do usuário
+     * @param conversationHistory Histórico da conversa
+     * @param context Objeto de contexto da conversa (opcional)
+     * @return Prompt para análise estruturada da mensagem
+     */
+    public String buildStructuredAnalysisPrompt(String userMessage, String conversationHistory, ConversationContext context) {
+        return buildFaqPrompt(userMessage, conversationHistory, context) + "\n\n" + """
+                ## Tarefa: Análise Estruturada
+                Além de responder ao usuário, analise a mensagem atual.
+                Responda SOMENTE com um objeto JSON válido, sem nenhum texto fora dele, exatamente neste formato:
+                {"resposta": "texto", "intencao": "CATEGORIA", "entidades": ["categoria: valor"], "atendimentoHumano": false}
+                
+                ## Regras:
+                - resposta: a mensagem para o usuário, seguindo a persona Urba e a base de conhecimento
+                - intencao: exatamente uma destas categorias: %s
+                - entidades: informações explícitas na mensagem atual, no formato "categoria: valor"
+                  (categorias: nome, endereco, bairro, cidade, telefone, email, data, horario, servico,
+                  ambiente, estilo, valor, problema). Use uma lista vazia se não houver nenhuma.
+                - atendimentoHumano: true somente se a conversa deve ser transferida para um especialista humano
+                  (pedido explícito, frustração com o atendimento automático, detalhes técnicos complexos,
+                  agendamento de visita técnica, negociação de contrato ou valores específicos)
+                """.formatted(String.join(", ", INTENT_CATEGORIES));
+    }
+    
+    /**
+     * Identifica a versão das instruções do sistema, da base de conhecimento e do formato
+     * da análise estruturada. Muda sempre que algum deles for alterado (novo deploy ou
+     * nova configuração), o que invalida as respostas guardadas no cache semântico.
+     * Calculada uma única vez, pois o prompt não muda com a aplicação em execução.
+     * 
+     * @return Hash SHA-256 do prompt estruturado sem mensagem, histórico ou contexto
+     */
+    public String getPromptVersion() {
+        String version = promptVersion;
+        if (version == null) {
+            version = sha256(buildStructuredAnalysisPrompt("", "", null));
+            promptVersion = version;
+        }
+        return version;
+    }
+    
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
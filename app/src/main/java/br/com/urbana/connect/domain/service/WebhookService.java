@@ -1,12 +1,32 @@
 package br.com.urbana.connect.domain.service;
 
+import br.com.urbana.connect.application.config.InboxConfig;
+import br.com.urbana.connect.domain.exception.UniqueIndexViolationException;
 import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.WebhookEvent;
+import br.com.urbana.connect.domain.model.WebhookInboxEntry;
 import br.com.urbana.connect.domain.port.input.WebhookUseCase;
+import br.com.urbana.connect.domain.port.output.WebhookInboxRepository;
 import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import br.com.urbana.connect.infrastructure.dispatch.InboundMessageCoalescer;
+import br.com.urbana.connect.infrastructure.dispatch.InboundMessageDeduplicator;
+import br.com.urbana.connect.infrastructure.dispatch.PartitionedDispatcher;
+import br.com.urbana.connect.infrastructure.persistence.MessageStatusBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Implementação do caso de uso para processamento de webhooks.
  */
@@ -15,8 +35,17 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class WebhookService implements WebhookUseCase {
     
+    private static final String INBOX_METRIC = "urbana.webhook.inbox";
+    
     private final WhatsappServicePort whatsappServicePort;
     private final MessageService messageService;
+    private final PartitionedDispatcher dispatcher;
+    private final InboundMessageDeduplicator deduplicator;
+    private final InboundMessageCoalescer coalescer;
+    private final WebhookInboxRepository inboxRepository;
+    private final MessageStatusBuffer statusBuffer;
+    private final InboxConfig inboxConfig;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public boolean processWebhookNotification(String payload) {
@@ -33,13 +62,7 @@ public class WebhookService implements WebhookUseCase {
             
             log.info("Mensagem processada com sucesso. ID: {}", message.getId());
             
-            // Processar a mensagem
-            Message processedMessage = messageService.processInboundMessage(message);
-
-            log.info("Mensagem processada com sucesso. Content: {}", processedMessage.getContent());
-            
-            // Enviar a resposta para o cliente
-            whatsappServicePort.sendMessage(message.getCustomerId(), processedMessage);
+            processMessage(message);
 
             return true;
         } catch (Exception e) {
@@ -48,6 +71,272 @@ public class WebhookService implements WebhookUseCase {
         }
     }
     
+    @Override
+    public boolean enqueueWebhookNotification(String payload) {
+        log.debug("Enfileirando notificação de webhook: {}", payload);
+        
+        WebhookInboxEntry entry;
+        try {
+            // Persistir antes de confirmar: a notificação sobrevive a um reinício da aplicação
+            entry = inboxRepository.append(payload, inboxConfig.getInstanceId(), inboxConfig.getLeaseDuration());
+        } catch (Exception e) {
+            log.error("Erro ao armazenar notificação do webhook: {}", e.getMessage(), e);
+            return false;
+        }
+        
+        processInboxEntry(entry);
+        return true;
+    }
+    
+    @Override
+    public void processInboxEntry(WebhookInboxEntry entry) {
+        List<WebhookEvent> events;
+        try {
+            events = whatsappServicePort.processWebhookEvents(entry.getPayload());
+        } catch (Exception e) {
+            log.error("Erro ao interpretar notificação do webhook {}: {}", entry.getId(), e.getMessage(), e);
+            inboxRepository.markFailed(entry.getId(), e.getMessage());
+            return;
+        }
+        
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (WebhookEvent event : events) {
+            if (!event.isMessageEvent()) {
+                // Status são acumulados e gravados em lote; a entrada só é concluída após a gravação
+                pending.add(statusBuffer.submit(event.getWhatsappMessageId(), event.getStatus(), event.getTimestamp()));
+                continue;
+            }
+            
+            Message message = event.getMessage();
+            String whatsappMessageId = message.getWhatsappMessageId();
+            
+            // Reentregas do WhatsApp são descartadas antes de qualquer acesso ao banco
+            if (!deduplicator.markIfFirstSeen(whatsappMessageId)) {
+                continue;
+            }
+            
+            // Particionar pelo telefone garante a ordem das mensagens de cada cliente
+            CompletableFuture<Void> future = coalescer.isEnabled()
+                    ? submitToTurn(message)
+                    : dispatcher.submit(message.getCustomerId(), () -> processMessage(message));
+            future.whenComplete((result, error) -> {
+                if (causeOf(future) instanceof RejectedExecutionException) {
+                    deduplicator.release(whatsappMessageId);
+                }
+            });
+            pending.add(future);
+        }
+        
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]))
+                .whenComplete((result, error) -> completeInboxEntry(entry, pending));
+    }
+    
+    /**
+     * Conclui a entrada da caixa de entrada depois que todas as suas mensagens
+     * foram processadas, ou a devolve para nova tentativa em caso de erro.
+     * <p>
+     * Mensagens recusadas apenas por falta de espaço na partição do cliente não contam
+     * como tentativa: a entrada volta para a fila após uma espera, sem se aproximar do
+     * limite de tentativas, para que um cliente muito ativo não a leve a falhar.
+     */
+    private void completeInboxEntry(WebhookInboxEntry entry, List<CompletableFuture<Void>> pending) {
+        Throwable failure = null;
+        Throwable rejection = null;
+        for (CompletableFuture<Void> future : pending) {
+            Throwable cause = causeOf(future);
+            if (cause instanceof RejectedExecutionException) {
+                rejection = cause;
+            } else if (cause != null && failure == null) {
+                failure = cause;
+            }
+        }
+        
+        try {
+            if (failure == null && rejection == null) {
+                inboxRepository.markDone(entry.getId());
+                meterRegistry.counter(INBOX_METRIC, "result", "done").increment();
+                return;
+            }
+            
+            if (failure == null) {
+                log.warn("Notificação {} adiada: {}", entry.getId(), rejection.getMessage());
+                inboxRepository.defer(entry.getId(), rejection.getMessage(),
+                        LocalDateTime.now().plus(inboxConfig.getInitialBackoff()));
+                meterRegistry.counter(INBOX_METRIC, "result", "deferred").increment();
+            } else if (entry.getAttempts() >= inboxConfig.getMaxAttempts()) {
+                log.error("Notificação {} falhou após {} tentativas: {}", 
+                        entry.getId(), entry.getAttempts(), failure.getMessage());
+                inboxRepository.markFailed(entry.getId(), failure.getMessage());
+                meterRegistry.counter(INBOX_METRIC, "result", "failed").increment();
+            } else {
+                Duration backoff = backoffFor(entry.getAttempts());
+                log.warn("Notificação {} devolvida para nova tentativa em {} ms: {}",
+                        entry.getId(), backoff.toMillis(), failure.getMessage());
+                inboxRepository.release(entry.getId(), failure.getMessage(), LocalDateTime.now().plus(backoff));
+                meterRegistry.counter(INBOX_METRIC, "result", "released").increment();
+            }
+        } catch (Exception e) {
+            // A reserva expira e outra busca reprocessa a notificação
+            log.error("Erro ao atualizar a notificação {} na caixa de entrada: {}", entry.getId(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Espera antes da próxima tentativa: dobra a cada tentativa, até o máximo configurado.
+     */
+    private Duration backoffFor(int attempts) {
+        long initial = inboxConfig.getInitialBackoff().toMillis();
+        long max = inboxConfig.getMaxBackoff().toMillis();
+        int exponent = Math.min(Math.max(0, attempts - 1), 30);
+        return Duration.ofMillis(Math.min(max, initial << exponent));
+    }
+    
+    private static Throwable causeOf(CompletableFuture<Void> future) {
+        if (!future.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException | CancellationException e) {
+            return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        }
+    }
+    
+    private void processMessage(Message message) {
+        Message processedMessage;
+        try {
+            processedMessage = processOrResume(message);
+        } catch (RuntimeException e) {
+            // Permitir que uma nova entrega da mesma mensagem seja processada
+            deduplicator.release(message.getWhatsappMessageId());
+            throw e;
+        }
+        
+        logResponse(message, processedMessage);
+    }
+    
+    /**
+     * Salva e responde a mensagem. Se ela já havia sido gravada por uma entrega anterior
+     * que falhou antes de responder, retoma a resposta das mensagens que ficaram sem ela.
+     */
+    private Message processOrResume(Message message) {
+        try {
+            return messageService.processInboundMessage(message);
+        } catch (DuplicateKeyException e) {
+            if (!isDuplicateInboundMessage(e)) {
+                throw e;
+            }
+        }
+        
+        List<Message> unanswered = findUnansweredDuplicate(message);
+        if (unanswered.isEmpty()) {
+            return null;
+        }
+        return messageService.respondToInboundMessages(message.getCustomerId(), unanswered);
+    }
+    
+    /**
+     * Salva a mensagem na partição do cliente e a inclui no turno em formação, para que
+     * mensagens enviadas em sequência recebam uma única resposta. O future só é concluído
+     * depois que o turno inteiro tiver sido respondido.
+     */
+    private CompletableFuture<Void> submitToTurn(Message message) {
+        String customerId = message.getCustomerId();
+        String whatsappMessageId = message.getWhatsappMessageId();
+        CompletableFuture<Void> turn = new CompletableFuture<>();
+        
+        CompletableFuture<Void> saved = dispatcher.submit(customerId, () -> {
+            List<Message> unanswered = saveInboundMessage(message);
+            if (unanswered.isEmpty()) {
+                turn.complete(null);
+                return;
+            }
+            coalescer.addAll(customerId, unanswered, messages -> respondToTurn(customerId, messages))
+                    .whenComplete((result, error) -> {
+                        if (error == null) {
+                            turn.complete(null);
+                            return;
+                        }
+                        // A mensagem ficou gravada sem resposta: a nova entrega a inclui em outro turno
+                        deduplicator.release(whatsappMessageId);
+                        turn.completeExceptionally(error);
+                    });
+        });
+        return saved.thenCompose(result -> turn);
+    }
+    
+    /**
+     * Persiste a mensagem recebida, sem responder.
+     * 
+     * @return As mensagens a incluir no turno: a mensagem salva ou, se ela já havia sido
+     *         persistida por uma entrega anterior que falhou antes de respondê-la, as mensagens
+     *         da conversa que ficaram sem resposta; vazio se ela já foi respondida
+     */
+    private List<Message> saveInboundMessage(Message message) {
+        try {
+            return saveOrFindUnanswered(message);
+        } catch (RuntimeException e) {
+            // Permitir que uma nova entrega da mesma mensagem seja processada
+            deduplicator.release(message.getWhatsappMessageId());
+            throw e;
+        }
+    }
+    
+    private List<Message> saveOrFindUnanswered(Message message) {
+        try {
+            return List.of(messageService.saveInboundMessage(message));
+        } catch (DuplicateKeyException e) {
+            if (!isDuplicateInboundMessage(e)) {
+                throw e;
+            }
+        }
+        
+        return findUnansweredDuplicate(message);
+    }
+    
+    /**
+     * Trata uma mensagem barrada pelo índice único, já gravada em uma entrega anterior.
+     * 
+     * @return As mensagens da conversa que ficaram sem resposta, se a entrega anterior falhou
+     *         antes de respondê-la; vazio se ela já foi respondida
+     */
+    private List<Message> findUnansweredDuplicate(Message message) {
+        String whatsappMessageId = message.getWhatsappMessageId();
+        List<Message> unanswered = messageService.findAwaitingResponse(whatsappMessageId);
+        if (unanswered.isEmpty()) {
+            deduplicator.recordStoredDuplicate(whatsappMessageId);
+        } else {
+            log.warn("Mensagem {} gravada sem resposta em uma entrega anterior; retomando a resposta de {} mensagens",
+                    whatsappMessageId, unanswered.size());
+        }
+        return unanswered;
+    }
+    
+    private void respondToTurn(String customerId, List<Message> messages) {
+        Message lastMessage = messages.get(messages.size() - 1);
+        logResponse(lastMessage, messageService.respondToInboundMessages(customerId, messages));
+    }
+    
+    private void logResponse(Message message, Message processedMessage) {
+        if (processedMessage == null) {
+            log.info("Nenhuma resposta gerada para a mensagem {}", message.getId());
+            return;
+        }
+
+        // A resposta já foi colocada na fila de saída pelo MessageService
+        log.info("Mensagem processada com sucesso. Content: {}", processedMessage.getContent());
+    }
+    
+    /**
+     * Verifica se a violação de chave única se refere ao ID da mensagem do WhatsApp,
+     * ou seja, se a mensagem já havia sido persistida em uma entrega anterior.
+     */
+    private boolean isDuplicateInboundMessage(DuplicateKeyException e) {
+        return e instanceof UniqueIndexViolationException violation
+                && violation.isViolationOf(Message.WHATSAPP_MESSAGE_ID_INDEX);
+    }
+    
     @Override
     public String verifyWebhook(String token, String challenge) {
         log.debug("Verificando token de webhook: {}", token);
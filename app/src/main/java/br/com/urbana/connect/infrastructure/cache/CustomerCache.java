@@ -0,0 +1,132 @@
+package br.com.urbana.connect.infrastructure.cache;
+
+import br.com.urbana.connect.domain.model.Customer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache de leitura dos clientes, indexado pelo ID e pelo número de telefone.
+ * <p>
+ * Usa o cache {@value #CACHE_NAME} declarado em {@code CacheConfig}. As entradas são
+ * preenchidas na primeira leitura e removidas explicitamente sempre que o cliente é
+ * alterado; ausências não são guardadas. O cache guarda e devolve cópias, para que um
+ * chamador que altere o cliente recebido não mude a versão vista pelos demais.
+ * <p>
+ * As estatísticas do Caffeine (acertos, falhas, tamanho e remoções) são publicadas pelo
+ * Actuator como {@code cache.*} com a tag {@code cache=customer-data}; a taxa de acerto
+ * é publicada em {@code urbana.customer.cache.hit.ratio}.
+ */
+@Component
+@Slf4j
+public class CustomerCache {
+
+    public static final String CACHE_NAME = "customer-data";
+
+    private static final String ID_PREFIX = "id:";
+    private static final String PHONE_PREFIX = "phone:";
+
+    private final Cache cache;
+
+    public CustomerCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        if (this.cache == null) {
+            throw new IllegalStateException("Cache não configurado: " + CACHE_NAME);
+        }
+        Gauge.builder("urbana.customer.cache.hit.ratio", this, CustomerCache::hitRatio)
+                .description("Taxa de acerto do cache de clientes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca um cliente pelo ID, consultando a origem apenas se ele não estiver no cache.
+     *
+     * @param id ID do cliente
+     * @param loader Consulta à origem em caso de falha no cache
+     * @return Cliente encontrado ou vazio se não existir
+     */
+    public Optional<Customer> findById(String id, Function<String, Optional<Customer>> loader) {
+        return find(ID_PREFIX + id, id, loader);
+    }
+
+    /**
+     * Busca um cliente pelo número de telefone, consultando a origem apenas se ele não estiver no cache.
+     *
+     * @param phoneNumber Número de telefone do cliente
+     * @param loader Consulta à origem em caso de falha no cache
+     * @return Cliente encontrado ou vazio se não existir
+     */
+    public Optional<Customer> findByPhoneNumber(String phoneNumber, Function<String, Optional<Customer>> loader) {
+        return find(PHONE_PREFIX + phoneNumber, phoneNumber, loader);
+    }
+
+    /**
+     * Guarda um cliente no cache pelas duas chaves.
+     *
+     * @param customer Cliente a ser guardado
+     */
+    public void put(Customer customer) {
+        Customer copy = copyOf(customer);
+        if (copy.getId() != null) {
+            cache.put(ID_PREFIX + copy.getId(), copy);
+        }
+        if (copy.getPhoneNumber() != null) {
+            cache.put(PHONE_PREFIX + copy.getPhoneNumber(), copy);
+        }
+    }
+
+    /**
+     * Remove um cliente do cache pelas duas chaves. Deve ser chamado antes e depois de qualquer
+     * alteração do cliente.
+     *
+     * @param customer Cliente a ser removido
+     */
+    public void evict(Customer customer) {
+        if (customer.getId() != null) {
+            cache.evict(ID_PREFIX + customer.getId());
+        }
+        if (customer.getPhoneNumber() != null) {
+            cache.evict(PHONE_PREFIX + customer.getPhoneNumber());
+        }
+        log.debug("Cliente removido do cache: {}", customer.getId());
+    }
+
+    /**
+     * Remove todos os clientes do cache.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private Optional<Customer> find(String key, String value, Function<String, Optional<Customer>> loader) {
+        Customer cached = cache.get(key, Customer.class);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+
+        Optional<Customer> loaded = loader.apply(value);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    private static Customer copyOf(Customer customer) {
+        return customer.toBuilder()
+                .preferences(customer.getPreferences() == null ? null : new HashMap<>(customer.getPreferences()))
+                .build();
+    }
+
+    private double hitRatio() {
+        if (cache instanceof CaffeineCache caffeineCache) {
+            return caffeineCache.getNativeCache().stats().hitRate();
+        }
+        return Double.NaN;
+    }
+}
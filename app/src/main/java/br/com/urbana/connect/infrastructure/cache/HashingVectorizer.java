@@ -0,0 +1,161 @@
+package br.com.urbana.connect.infrastructure.cache;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Converte textos em vetores esparsos por hashing de n-gramas de caracteres, sem
+ * vocabulário nem serviço externo.
+ * <p>
+ * O texto é normalizado (minúsculas, sem acentos, sem pontuação nem emojis) e cada
+ * n-grama de 3 e 4 caracteres, com as bordas das palavras marcadas por espaço, é
+ * somado em uma posição do vetor escolhida pelo hash, com sinal também derivado do
+ * hash para que as colisões se compensem. O vetor é normalizado (norma L2 igual a 1),
+ * de modo que o cosseno entre dois vetores é o seu produto escalar.
+ */
+public class HashingVectorizer {
+
+    private static final int MIN_NGRAM = 3;
+    private static final int MAX_NGRAM = 4;
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final int mask;
+
+    /**
+     * @param dimensions Dimensão do vetor; arredondada para a próxima potência de dois
+     */
+    public HashingVectorizer(int dimensions) {
+        int size = Integer.highestOneBit(Math.max(2, dimensions));
+        if (size < dimensions) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Normaliza o texto: minúsculas, sem acentos e apenas letras e números separados
+     * por um único espaço.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD))
+                .replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutDiacritics).replaceAll(" ").trim();
+    }
+
+    /**
+     * Calcula o vetor de um texto.
+     *
+     * @param text Texto original
+     * @return Vetor esparso normalizado; vazio se o texto não tiver letras nem números
+     */
+    public SparseVector vectorize(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return SparseVector.EMPTY;
+        }
+
+        String padded = " " + normalized + " ";
+        Map<Integer, Double> features = new HashMap<>();
+        for (int n = MIN_NGRAM; n <= MAX_NGRAM; n++) {
+            for (int i = 0; i + n <= padded.length(); i++) {
+                int hash = mix(padded.substring(i, i + n).hashCode());
+                double sign = (hash & Integer.MIN_VALUE) == 0 ? 1.0 : -1.0;
+                features.merge(hash & mask, sign, Double::sum);
+            }
+        }
+        return SparseVector.of(features);
+    }
+
+    /**
+     * Espalha os bits do hash da String (finalizador do MurmurHash3), que sozinho
+     * concentra n-gramas parecidos em posições vizinhas.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Vetor esparso com índices em ordem crescente e norma L2 igual a 1.
+     */
+    public static final class SparseVector {
+
+        static final SparseVector EMPTY = new SparseVector(new int[0], new double[0]);
+
+        private final int[] indices;
+        private final double[] values;
+
+        private SparseVector(int[] indices, double[] values) {
+            this.indices = indices;
+            this.values = values;
+        }
+
+        private static SparseVector of(Map<Integer, Double> features) {
+            int[] indices = features.entrySet().stream()
+                    .filter(entry -> entry.getValue() != 0.0)
+                    .mapToInt(Map.Entry::getKey)
+                    .sorted()
+                    .toArray();
+            double[] values = new double[indices.length];
+            double norm = 0;
+            for (int i = 0; i < indices.length; i++) {
+                values[i] = features.get(indices[i]);
+                norm += values[i] * values[i];
+            }
+            if (norm == 0) {
+                return EMPTY;
+            }
+            norm = Math.sqrt(norm);
+            for (int i = 0; i < values.length; i++) {
+                values[i] /= norm;
+            }
+            return new SparseVector(indices, values);
+        }
+
+        public boolean isEmpty() {
+            return indices.length == 0;
+        }
+
+        public int size() {
+            return indices.length;
+        }
+
+        public int indexAt(int position) {
+            return indices[position];
+        }
+
+        public double valueAt(int position) {
+            return values[position];
+        }
+
+        /**
+         * Produto escalar, igual ao cosseno entre os dois vetores.
+         */
+        public double dot(SparseVector other) {
+            double sum = 0;
+            int i = 0;
+            int j = 0;
+            while (i < indices.length && j < other.indices.length) {
+                if (indices[i] == other.indices[j]) {
+                    sum += values[i++] * other.values[j++];
+                } else if (indices[i] < other.indices[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return sum;
+        }
+    }
+}
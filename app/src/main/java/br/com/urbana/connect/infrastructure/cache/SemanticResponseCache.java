@@ -0,0 +1,263 @@
+package br.com.urbana.connect.infrastructure.cache;
+
+import br.com.urbana.connect.application.config.ResponseCacheConfig;
+import br.com.urbana.connect.domain.model.MessageAnalysis;
+import br.com.urbana.connect.infrastructure.cache.HashingVectorizer.SparseVector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Cache semântico das respostas do GPT para mensagens sem contexto de conversa.
+ * <p>
+ * Cada resposta é guardada junto com o vetor da mensagem que a originou, calculado
+ * localmente pelo {@link HashingVectorizer}. Uma nova mensagem reaproveita a resposta
+ * da mensagem guardada mais parecida, desde que a similaridade de cosseno atinja o
+ * limite configurado. A busca usa um índice invertido das posições do vetor, de modo
+ * que só as entradas que compartilham algum n-grama com a mensagem são pontuadas.
+ * <p>
+ * As entradas expiram após o tempo de vida configurado e, quando o limite de tamanho
+ * é atingido, as mais antigas são descartadas. Toda resposta é associada à versão do
+ * prompt e da base de conhecimento em uso; ao receber uma versão diferente, o cache é
+ * esvaziado. Acertos e falhas são publicados em {@code urbana.response.cache.lookup}
+ * e a taxa de acerto em {@code urbana.response.cache.hit.ratio}.
+ */
+@Component
+@Slf4j
+public class SemanticResponseCache {
+
+    private static final String METRIC_PREFIX = "urbana.response.cache";
+
+    private final ResponseCacheConfig config;
+    private final HashingVectorizer vectorizer;
+    private final Object lock = new Object();
+
+    // Ordem de inserção: com tempo de vida fixo, as primeiras são também as primeiras a expirar
+    private final LinkedHashSet<Entry> entries = new LinkedHashSet<>();
+    private final Map<Integer, Map<Entry, Double>> invertedIndex = new HashMap<>();
+    private String promptVersion;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+    private final DistributionSummary similaritySummary;
+
+    public SemanticResponseCache(ResponseCacheConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.vectorizer = new HashingVectorizer(config.getDimensions());
+
+        this.hitCounter = Counter.builder(METRIC_PREFIX + ".lookup")
+                .description("Consultas ao cache semântico de respostas")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder(METRIC_PREFIX + ".lookup")
+                .description("Consultas ao cache semântico de respostas")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidationCounter = Counter.builder(METRIC_PREFIX + ".invalidations")
+                .description("Esvaziamentos do cache por mudança do prompt ou da base de conhecimento")
+                .register(meterRegistry);
+        this.similaritySummary = DistributionSummary.builder(METRIC_PREFIX + ".similarity")
+                .description("Similaridade da entrada mais próxima em cada consulta")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".hit.ratio", this, SemanticResponseCache::hitRatio)
+                .description("Fração das consultas respondidas pelo cache")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", this, SemanticResponseCache::size)
+                .description("Respostas guardadas no cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica se uma conversa com o histórico informado pode usar o cache.
+     *
+     * @param historySize Quantidade de mensagens no histórico, incluindo a atual
+     * @return true se o cache estiver habilitado e o histórico for curto o bastante
+     */
+    public boolean accepts(int historySize) {
+        return config.isEnabled() && historySize <= config.getMaxHistoryMessages();
+    }
+
+    /**
+     * Busca a resposta guardada para a mensagem mais parecida com a informada.
+     *
+     * @param userMessage Mensagem do usuário
+     * @param promptVersion Versão atual do prompt e da base de conhecimento
+     * @return Resposta guardada, ou vazio se nenhuma atingir a similaridade mínima
+     */
+    public Optional<MessageAnalysis> find(String userMessage, String promptVersion) {
+        SparseVector query = vectorizer.vectorize(userMessage);
+        if (query.isEmpty()) {
+            missCounter.increment();
+            return Optional.empty();
+        }
+
+        Entry best = null;
+        double bestScore = 0;
+        synchronized (lock) {
+            checkVersion(promptVersion);
+
+            // Produto escalar acumulado apenas nas posições presentes na mensagem
+            Map<Entry, Double> scores = new IdentityHashMap<>();
+            for (int i = 0; i < query.size(); i++) {
+                Map<Entry, Double> postings = invertedIndex.get(query.indexAt(i));
+                if (postings == null) {
+                    continue;
+                }
+                double weight = query.valueAt(i);
+                postings.forEach((entry, value) -> scores.merge(entry, weight * value, Double::sum));
+            }
+
+            long now = System.nanoTime();
+            for (Map.Entry<Entry, Double> score : scores.entrySet()) {
+                if (score.getValue() > bestScore && !score.getKey().isExpired(now)) {
+                    best = score.getKey();
+                    bestScore = score.getValue();
+                }
+            }
+        }
+
+        similaritySummary.record(bestScore);
+        if (best != null && bestScore >= config.getThreshold()) {
+            hitCounter.increment();
+            log.debug("Resposta reaproveitada do cache (similaridade {}): {}",
+                    String.format("%.2f", bestScore), best.normalizedMessage);
+            return Optional.of(best.analysis);
+        }
+
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Guarda a resposta gerada para uma mensagem.
+     *
+     * @param userMessage Mensagem do usuário
+     * @param promptVersion Versão do prompt e da base de conhecimento usada na resposta
+     * @param analysis Resposta e intenção geradas
+     */
+    public void put(String userMessage, String promptVersion, MessageAnalysis analysis) {
+        if (analysis == null || analysis.getReply() == null || analysis.getReply().isBlank()) {
+            return;
+        }
+        SparseVector vector = vectorizer.vectorize(userMessage);
+        if (vector.isEmpty()) {
+            return;
+        }
+
+        Entry entry = new Entry(HashingVectorizer.normalize(userMessage), vector, analysis,
+                System.nanoTime() + config.getTtl().toNanos());
+        synchronized (lock) {
+            checkVersion(promptVersion);
+            evictExpired(System.nanoTime());
+            while (!entries.isEmpty() && entries.size() >= config.getMaxEntries()) {
+                remove(entries.iterator().next());
+            }
+
+            entries.add(entry);
+            for (int i = 0; i < vector.size(); i++) {
+                invertedIndex.computeIfAbsent(vector.indexAt(i), index -> new IdentityHashMap<>())
+                        .put(entry, vector.valueAt(i));
+            }
+        }
+    }
+
+    /**
+     * Remove todas as respostas guardadas.
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            entries.clear();
+            invertedIndex.clear();
+        }
+        invalidationCounter.increment();
+        log.info("Cache semântico de respostas esvaziado");
+    }
+
+    /**
+     * Esvazia o cache se as respostas guardadas foram geradas com outra versão do prompt.
+     * Deve ser chamado com o lock adquirido.
+     */
+    private void checkVersion(String version) {
+        if (Objects.equals(promptVersion, version)) {
+            return;
+        }
+        if (!entries.isEmpty()) {
+            entries.clear();
+            invertedIndex.clear();
+            invalidationCounter.increment();
+            log.info("Prompt ou base de conhecimento alterados. Cache semântico de respostas esvaziado");
+        }
+        promptVersion = version;
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.isExpired(now)) {
+                break;
+            }
+            iterator.remove();
+            unindex(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry);
+        unindex(entry);
+    }
+
+    private void unindex(Entry entry) {
+        for (int i = 0; i < entry.vector.size(); i++) {
+            int index = entry.vector.indexAt(i);
+            Map<Entry, Double> postings = invertedIndex.get(index);
+            if (postings != null) {
+                postings.remove(entry);
+                if (postings.isEmpty()) {
+                    invertedIndex.remove(index);
+                }
+            }
+        }
+    }
+
+    private int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    private double hitRatio() {
+        double total = hitCounter.count() + missCounter.count();
+        return total == 0 ? 0.0 : hitCounter.count() / total;
+    }
+
+    private static final class Entry {
+        private final String normalizedMessage;
+        private final SparseVector vector;
+        private final MessageAnalysis analysis;
+        private final long expiresAt;
+
+        private Entry(String normalizedMessage, SparseVector vector, MessageAnalysis analysis, long expiresAt) {
+            this.normalizedMessage = normalizedMessage;
+            this.vector = vector;
+            this.analysis = analysis;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package br.com.urbana.connect.infrastructure.client;
+
+import br.com.urbana.connect.application.config.OpenAiClientConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatCompletionResult;
+import com.theokanning.openai.service.OpenAiService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cliente assíncrono do endpoint de chat completions da OpenAI.
+ * <p>
+ * Usa um único {@link HttpClient} HTTP/2 (conexões persistentes e multiplexadas) e
+ * limita as chamadas simultâneas sem bloquear threads: chamadas acima do limite
+ * aguardam em fila até que outra termine. Novas tentativas são agendadas com
+ * espera exponencial, também sem estacionar threads. Cada tentativa passa antes pelo
+ * {@link OpenAiRateLimiter}, que recebe de volta os cabeçalhos de cota de cada resposta.
+ * Todas as chamadas ao GPT, síncronas ou assíncronas, passam por este cliente.
+ */
+@Component
+@Slf4j
+public class OpenAiChatClient {
+
+    private final String apiKey;
+    private final OpenAiClientConfig config;
+    private final OpenAiRateLimiter rateLimiter;
+    private final URI completionsUri;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final Semaphore permits;
+    private final Queue<CompletableFuture<Void>> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer requestTimer;
+    private final Counter retryCounter;
+
+    public OpenAiChatClient(@Value("${openai.api-key}") String apiKey,
+                            OpenAiClientConfig config,
+                            OpenAiRateLimiter rateLimiter,
+                            MeterRegistry meterRegistry) {
+        this.apiKey = apiKey;
+        this.config = config;
+        this.rateLimiter = rateLimiter;
+        this.completionsUri = URI.create(config.getBaseUrl() + "/chat/completions");
+        // Mesmo mapeamento (snake_case, sem nulos) usado pelo cliente oficial
+        this.objectMapper = OpenAiService.defaultObjectMapper();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getIoThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "openai-io-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(config.getConnectTimeout())
+                .executor(executor)
+                .build();
+        this.permits = new Semaphore(Math.max(1, config.getMaxConcurrentRequests()));
+
+        this.requestTimer = Timer.builder("urbana.openai.request")
+                .description("Duração das chamadas à API da OpenAI")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("urbana.openai.retries")
+                .description("Novas tentativas de chamadas à API da OpenAI")
+                .register(meterRegistry);
+        Gauge.builder("urbana.openai.inflight", inFlight, AtomicInteger::get)
+                .description("Chamadas à API da OpenAI em andamento")
+                .register(meterRegistry);
+        Gauge.builder("urbana.openai.waiting", waiting, Queue::size)
+                .description("Chamadas aguardando vaga no limite de concorrência")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Envia uma requisição de chat completion com prioridade interativa.
+     *
+     * @param request Requisição no formato do cliente oficial
+     * @return Future com o resultado; falha com {@link OpenAiApiException} após esgotar as tentativas
+     */
+    public CompletableFuture<ChatCompletionResult> createChatCompletion(ChatCompletionRequest request) {
+        return createChatCompletion(request, OpenAiRateLimiter.Priority.INTERACTIVE);
+    }
+
+    /**
+     * Envia uma requisição de chat completion, aguardando cota conforme a prioridade.
+     * <p>
+     * Cancelar o future interrompe a chamada onde ela estiver: na fila de cota, na fila
+     * de concorrência, na requisição HTTP ou na espera por uma nova tentativa.
+     *
+     * @param request Requisição no formato do cliente oficial
+     * @param priority Prioridade na fila de cota da OpenAI
+     * @return Future com o resultado; falha com {@link OpenAiApiException} após esgotar as
+     *         tentativas ou se a cota não ficar disponível a tempo, sem nova tentativa
+     */
+    public CompletableFuture<ChatCompletionResult> createChatCompletion(ChatCompletionRequest request,
+                                                                        OpenAiRateLimiter.Priority priority) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Call call = new Call(body, OpenAiRateLimiter.estimateTokens(request), priority);
+        attempt(call, 0);
+        return call.result;
+    }
+
+    private void attempt(Call call, int attempt) {
+        if (call.result.isDone()) {
+            return;
+        }
+        HttpRequest httpRequest = HttpRequest.newBuilder(completionsUri)
+                .timeout(config.getRequestTimeout())
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(call.body))
+                .build();
+
+        call.track(rateLimiter.acquireAsync(call.estimatedTokens, call.priority))
+                .thenCompose(ignored -> send(call, httpRequest))
+                .whenComplete((response, error) -> {
+                    if (call.result.isDone()) {
+                        // Cancelada pelo chamador
+                        return;
+                    }
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof RejectedExecutionException) {
+                        // A espera pela cota já durou o máximo permitido: não há nova tentativa
+                        call.result.completeExceptionally(
+                                new OpenAiApiException("Cota da OpenAI indisponível: " + cause.getMessage(), cause));
+                        return;
+                    }
+                    if (response != null) {
+                        rateLimiter.updateFromHeaders(response.headers(), response.statusCode());
+                    }
+                    if (cause == null && response.statusCode() / 100 == 2) {
+                        try {
+                            call.result.complete(parse(response.body()));
+                        } catch (RuntimeException e) {
+                            call.result.completeExceptionally(e);
+                        }
+                        return;
+                    }
+
+                    boolean retryable = cause != null
+                            ? cause instanceof IOException
+                            : response.statusCode() == 429 || response.statusCode() >= 500;
+                    OpenAiApiException failure = cause != null
+                            ? new OpenAiApiException("Falha de comunicação com a OpenAI: " + cause.getMessage(), cause)
+                            : new OpenAiApiException(response.statusCode(), new String(response.body()));
+
+                    if (!retryable || attempt >= config.getMaxRetries()) {
+                        call.result.completeExceptionally(failure);
+                        return;
+                    }
+
+                    long delayMs = retryDelayMs(attempt, response);
+                    log.warn("Chamada à OpenAI falhou ({}). Nova tentativa {}/{} em {} ms",
+                            failure.getMessage(), attempt + 1, config.getMaxRetries(), delayMs);
+                    retryCounter.increment();
+                    call.track(CompletableFuture.runAsync(() -> attempt(call, attempt + 1),
+                            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, executor)));
+                });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(Call call, HttpRequest httpRequest) {
+        return call.track(acquire()).thenCompose(ignored -> {
+            inFlight.incrementAndGet();
+            long startedAt = System.nanoTime();
+            return call.track(httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray()))
+                    .whenComplete((response, error) -> {
+                        requestTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                        inFlight.decrementAndGet();
+                        release();
+                    });
+        });
+    }
+
+    private CompletableFuture<Void> acquire() {
+        if (permits.tryAcquire()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> turn = new CompletableFuture<>();
+        waiting.add(turn);
+        // Uma vaga pode ter sido liberada entre a tentativa e o enfileiramento
+        drainWaiting();
+        return turn;
+    }
+
+    private void release() {
+        permits.release();
+        drainWaiting();
+    }
+
+    private void drainWaiting() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            CompletableFuture<Void> next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            // Continua em outra thread para não aprofundar a pilha de quem liberou a vaga;
+            // se a chamada foi cancelada enquanto aguardava, a vaga passa para a próxima
+            executor.execute(() -> {
+                if (!next.complete(null)) {
+                    release();
+                }
+            });
+        }
+    }
+
+    private long retryDelayMs(int attempt, HttpResponse<byte[]> response) {
+        long backoff = config.getRetryBackoff().toMillis() << attempt;
+        if (response != null) {
+            // Respeitar o Retry-After informado pela API, quando maior que a espera calculada
+            long retryAfter = response.headers().firstValueAsLong("retry-after").orElse(0L);
+            backoff = Math.max(backoff, Duration.ofSeconds(retryAfter).toMillis());
+        }
+        return backoff;
+    }
+
+    private ChatCompletionResult parse(byte[] body) {
+        try {
+            return objectMapper.readValue(body, ChatCompletionResult.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Encerra as threads do cliente.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Uma chamada e a etapa em andamento, que é cancelada junto com o resultado.
+     */
+    private static final class Call {
+        private final byte[] body;
+        private final int estimatedTokens;
+        private final OpenAiRateLimiter.Priority priority;
+        private final CompletableFuture<ChatCompletionResult> result = new CompletableFuture<>();
+        private volatile CompletableFuture<?> stage;
+
+        private Call(byte[] body, int estimatedTokens, OpenAiRateLimiter.Priority priority) {
+            this.body = body;
+            this.estimatedTokens = estimatedTokens;
+            this.priority = priority;
+            result.whenComplete((ignored, error) -> {
+                CompletableFuture<?> current = stage;
+                if (result.isCancelled() && current != null) {
+                    current.cancel(true);
+                }
+            });
+        }
+
+        private <T> CompletableFuture<T> track(CompletableFuture<T> next) {
+            stage = next;
+            // O cancelamento pode ter chegado antes desta etapa ser registrada
+            if (result.isCancelled()) {
+                next.cancel(true);
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Erro de uma chamada à API da OpenAI após esgotar as tentativas.
+     */
+    public static class OpenAiApiException extends RuntimeException {
+
+        private final int statusCode;
+
+        public OpenAiApiException(int statusCode, String body) {
+            super("API da OpenAI respondeu com status " + statusCode + ": " + body);
+            this.statusCode = statusCode;
+        }
+
+        public OpenAiApiException(String message, Throwable cause) {
+            super(message, cause);
+            this.statusCode = 0;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
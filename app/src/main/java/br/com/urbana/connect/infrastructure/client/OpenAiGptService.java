@@ -1,32 +1,43 @@
 package br.com.urbana.connect.infrastructure.client;
 
 import br.com.urbana.connect.domain.model.ConversationContext;
+import br.com.urbana.connect.domain.enums.GptCallPriority;
+import br.com.urbana.connect.domain.enums.KeywordCategory;
+import br.com.urbana.connect.domain.model.MessageAnalysis;
+import br.com.urbana.connect.domain.port.output.AsyncGptServicePort;
 import br.com.urbana.connect.domain.port.output.GptServicePort;
+import br.com.urbana.connect.domain.service.KeywordMatcher;
 import br.com.urbana.connect.domain.service.PromptBuilderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatCompletionResult;
 import com.theokanning.openai.completion.chat.ChatMessage;
-import com.theokanning.openai.service.OpenAiService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Serviço de integração com a API do OpenAI GPT.
+ * <p>
+ * Todas as chamadas, síncronas ou assíncronas, passam pelo {@link OpenAiChatClient}.
  */
 @Service
 @Slf4j
-public class OpenAiGptService implements GptServicePort {
+public class OpenAiGptService implements GptServicePort, AsyncGptServicePort {
     
-    private final OpenAiService openAiService;
+    private final OpenAiChatClient chatClient;
     private final String model;
     private final int maxTokens;
     private final double temperature;
@@ -41,14 +52,14 @@ public class OpenAiGptService implements GptServicePort {
     private static final long RETRY_DELAY_MS = 1000;
     
     public OpenAiGptService(
-            @Value("${openai.api-key}") String apiKey,
             @Value("${openai.model}") String model,
             @Value("${openai.max-tokens}") int maxTokens,
             @Value("${openai.temperature}") double temperature,
             ObjectMapper objectMapper,
-            PromptBuilderService promptBuilderService) {
+            PromptBuilderService promptBuilderService,
+            OpenAiChatClient chatClient) {
         
-        this.openAiService = new OpenAiService(apiKey, Duration.ofSeconds(60));
+        this.chatClient = chatClient;
         this.model = model;
         this.maxTokens = maxTokens;
         this.temperature = temperature;
@@ -60,234 +71,431 @@ public class OpenAiGptService implements GptServicePort {
     
     @Override
     public String generateResponse(String conversationHistory, String userMessage, String systemPrompt) {
+        return generateResponse(conversationHistory, userMessage, systemPrompt, GptCallPriority.INTERACTIVE);
+    }
+    
+    @Override
+    public String generateResponse(String conversationHistory, String userMessage, String systemPrompt,
+                                   GptCallPriority priority) {
+        return await(generateResponseAsync(conversationHistory, userMessage, systemPrompt, priority), FALLBACK_MESSAGE);
+    }
+    
+    @Override
+    public String analyzeIntent(String message) {
+        return await(analyzeIntentAsync(message), FALLBACK_INTENT);
+    }
+    
+    @Override
+    public boolean requiresHumanIntervention(String message, String conversationHistory) {
+        // Em caso de erro, é mais seguro assumir que precisa de intervenção humana
+        return await(requiresHumanInterventionAsync(message, conversationHistory), true);
+    }
+    
+    @Override
+    public List<String> extractEntities(String message) {
+        return await(extractEntitiesAsync(message), FALLBACK_ENTITIES);
+    }
+    
+    /**
+     * Aguarda a versão assíncrona da chamada. As versões síncronas passam pelo mesmo
+     * {@link OpenAiChatClient}, e portanto pelo {@link OpenAiRateLimiter} e pelos
+     * cabeçalhos de cota de cada resposta. A espera pode ser interrompida: a chamada é
+     * cancelada, deixando a fila de cota se ainda não tiver sido admitida, e a
+     * interrupção é preservada.
+     */
+    private <T> T await(CompletableFuture<T> future, T fallback) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            log.warn("Interrompido aguardando resposta do GPT");
+            return fallback;
+        } catch (ExecutionException e) {
+            log.error("Erro na chamada ao GPT: {}", e.getCause().getMessage(), e.getCause());
+            return fallback;
+        }
+    }
+    
+    /**
+     * Verifica se a mensagem contém palavras-chave que indicam explicitamente 
+     * um desejo de falar com atendimento humano.
+     *
+     * @param message Mensagem do usuário
+     * @return true se contém palavras-chave de solicitação humana
+     */
+    private boolean containsHumanRequestKeywords(String message) {
+        return KeywordMatcher.getDefault().matches(message, KeywordCategory.HANDOFF);
+    }
+    
+    @Override
+    public CompletableFuture<String> generateResponseAsync(String conversationHistory, String userMessage, String systemPrompt) {
+        return generateResponseAsync(conversationHistory, userMessage, systemPrompt, GptCallPriority.INTERACTIVE);
+    }
+    
+    @Override
+    public CompletableFuture<String> generateResponseAsync(String conversationHistory, String userMessage, String systemPrompt,
+                                                           GptCallPriority priority) {
         log.debug("Gerando resposta com GPT para mensagem: {}", userMessage);
         
-        // Implementação de retry para resiliência
-        for (int attempt = 0; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                List<ChatMessage> messages = new ArrayList<>();
-                
-                // Se systemPrompt contém a string "## Tarefa: Gerar Saudação Inicial", é um prompt de saudação
-                // Se contém "## Base de Conhecimento - Perguntas Frequentes", é um prompt de FAQ 
-                // Em ambos os casos, o systemPrompt completo já está no formato necessário
-                if (systemPrompt != null && (
-                        systemPrompt.contains("## Tarefa: Gerar Saudação Inicial") ||
-                        systemPrompt.contains("## Base de Conhecimento - Perguntas Frequentes"))) {
-                    log.debug("Usando prompt especial: {}", 
-                            systemPrompt.contains("## Tarefa: Gerar Saudação Inicial") ? "Saudação" : "FAQ");
-                    
-                    // Para estes prompts especiais, enviamos tudo como uma única mensagem de usuário
-                    messages.add(new ChatMessage("user", systemPrompt));
-                } else {
-                    // Fluxo normal/original
-                    
-                    // Usar o PromptBuilderService para construir o prompt completo
-                    String fullPrompt = promptBuilderService.buildPrompt(userMessage, conversationHistory);
-                    
-                    // Adicionar prompt do sistema
-                    if (systemPrompt != null && !systemPrompt.isEmpty()) {
-                        messages.add(new ChatMessage("system", systemPrompt));
-                    }
-                    
-                    // Adicionar o prompt completo como mensagem do usuário
-                    messages.add(new ChatMessage("user", fullPrompt));
-                }
-                
-                // Criar requisição
-                ChatCompletionRequest request = ChatCompletionRequest.builder()
-                        .model(model)
-                        .messages(messages)
-                        .maxTokens(maxTokens)
-                        .temperature(temperature)
-                        .build();
-                
-                // Chamar API e obter resposta
-                ChatCompletionResult result = openAiService.createChatCompletion(request);
-                
-                String response = result.getChoices().get(0).getMessage().getContent();
-                
-                // Verificar se a resposta é válida (não vazia ou muito curta)
-                if (response == null || response.trim().isEmpty() || response.trim().length() < 5) {
-                    log.warn("Resposta da API vazia ou muito curta: '{}'", response);
-                    if (attempt < MAX_RETRIES) {
-                        log.info("Tentando novamente ({}/{})", attempt + 1, MAX_RETRIES);
-                        Thread.sleep(RETRY_DELAY_MS);
-                        continue;
-                    }
-                    return FALLBACK_MESSAGE;
-                }
-                
+        ChatCompletionRequest request;
+        try {
+            request = buildResponseRequest(conversationHistory, userMessage, systemPrompt);
+        } catch (Exception e) {
+            log.error("Erro ao montar requisição de resposta: {}", e.getMessage(), e);
+            return CompletableFuture.completedFuture(FALLBACK_MESSAGE);
+        }
+        CompletableFuture<String> response = new CompletableFuture<>();
+        requestResponse(request, OpenAiRateLimiter.Priority.valueOf(priority.name()), 0, response);
+        return response;
+    }
+    
+    /**
+     * Solicita a resposta e, se vier vazia ou muito curta, agenda uma nova tentativa
+     * sem bloquear nenhuma thread durante a espera. Falhas de rede e limites de uso
+     * já são tratados pelo {@link OpenAiChatClient}; uma falha aqui não é repetida.
+     */
+    private void requestResponse(ChatCompletionRequest request, OpenAiRateLimiter.Priority priority, int attempt,
+                                 CompletableFuture<String> response) {
+        if (response.isDone()) {
+            return;
+        }
+        CompletableFuture<ChatCompletionResult> call = chatClient.createChatCompletion(request, priority);
+        cancelsCall(call, response);
+        call.whenComplete((result, error) -> {
+            if (response.isDone()) {
+                return;
+            }
+            if (error != null) {
+                log.error("Erro ao gerar resposta com GPT: {}", error.getMessage(), error);
+                response.complete(FALLBACK_MESSAGE);
+                return;
+            }
+            String content = result.getChoices().get(0).getMessage().getContent();
+            if (isValidResponse(content)) {
                 log.info("Resposta gerada com sucesso pelo GPT");
-                return response;
-                
-            } catch (InterruptedException e) {
-                // Restaurar flag de interrupção
-                Thread.currentThread().interrupt();
-                log.error("Processo interrompido ao gerar resposta: {}", e.getMessage(), e);
-                return FALLBACK_MESSAGE;
-                
-            } catch (Exception e) {
-                log.error("Erro ao gerar resposta com GPT (tentativa {}/{}): {}", 
-                        attempt + 1, MAX_RETRIES + 1, e.getMessage(), e);
-                
-                // Se ainda temos tentativas disponíveis, esperar e tentar novamente
-                if (attempt < MAX_RETRIES) {
-                    try {
-                        log.info("Aguardando {} ms antes de tentar novamente", RETRY_DELAY_MS);
-                        Thread.sleep(RETRY_DELAY_MS);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        log.warn("Interrompido durante espera entre tentativas", ie);
-                        return FALLBACK_MESSAGE;
-                    }
-                } else {
-                    // Esgotamos as tentativas, retornar mensagem de fallback
-                    return FALLBACK_MESSAGE;
-                }
+                response.complete(content);
+                return;
             }
+            
+            log.warn("Resposta da API vazia ou muito curta: '{}'", content);
+            if (attempt >= MAX_RETRIES) {
+                response.complete(FALLBACK_MESSAGE);
+                return;
+            }
+            log.info("Tentando novamente ({}/{})", attempt + 1, MAX_RETRIES);
+            CompletableFuture.delayedExecutor(RETRY_DELAY_MS, TimeUnit.MILLISECONDS)
+                    .execute(() -> requestResponse(request, priority, attempt + 1, response));
+        });
+    }
+    
+    @Override
+    public CompletableFuture<String> analyzeIntentAsync(String message) {
+        log.debug("Analisando intenção da mensagem: {}", message);
+        
+        CompletableFuture<ChatCompletionResult> call = callAsync(() -> buildIntentRequest(message));
+        return cancelsCall(call, call
+                .thenApply(this::parseIntent)
+                .exceptionally(e -> {
+                    log.error("Erro ao analisar intenção: {}", e.getMessage(), e);
+                    return FALLBACK_INTENT;
+                }));
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> requiresHumanInterventionAsync(String message, String conversationHistory) {
+        log.debug("Verificando se mensagem requer intervenção humana: {}", message);
+        
+        if (containsHumanRequestKeywords(message)) {
+            log.info("Palavras-chave de solicitação humana detectadas na mensagem");
+            return CompletableFuture.completedFuture(true);
         }
         
-        // Se chegamos aqui, todas as tentativas falharam
-        return FALLBACK_MESSAGE;
+        CompletableFuture<ChatCompletionResult> call = callAsync(() -> buildHumanInterventionRequest(message, conversationHistory));
+        return cancelsCall(call, call
+                .thenApply(this::parseHumanIntervention)
+                .exceptionally(e -> {
+                    log.error("Erro ao verificar necessidade de intervenção humana: {}", e.getMessage(), e);
+                    // Em caso de erro, é mais seguro assumir que precisa de intervenção humana
+                    return true;
+                }));
     }
     
     @Override
-    public String analyzeIntent(String message) {
-        log.debug("Analisando intenção da mensagem: {}", message);
+    public CompletableFuture<List<String>> extractEntitiesAsync(String message) {
+        log.debug("Extraindo entidades da mensagem: {}", message);
+        
+        CompletableFuture<ChatCompletionResult> call = callAsync(() -> buildEntitiesRequest(message));
+        return cancelsCall(call, call
+                .thenApply(this::parseEntities)
+                .exceptionally(e -> {
+                    log.error("Erro ao extrair entidades: {}", e.getMessage(), e);
+                    return FALLBACK_ENTITIES;
+                }));
+    }
+    
+    @Override
+    public CompletableFuture<Optional<MessageAnalysis>> analyzeMessageAsync(String conversationHistory, String userMessage, String prompt) {
+        log.debug("Analisando mensagem de forma estruturada: {}", userMessage);
         
+        // Só a resposta fora do formato vira vazio; falhas de comunicação e de cota chegam
+        // ao chamador, que não deve multiplicar as chamadas com as análises individuais
+        CompletableFuture<ChatCompletionResult> call = callAsync(() -> buildAnalysisRequest(prompt));
+        return cancelsCall(call, call
+                .thenApply(result -> logAnalysis(contentOf(result)))
+                .whenComplete((analysis, e) -> {
+                    if (e != null) {
+                        log.error("Erro na análise estruturada da mensagem: {}", e.getMessage(), e);
+                    }
+                }));
+    }
+    
+    private String contentOf(ChatCompletionResult result) {
+        if (result.getChoices() == null || result.getChoices().isEmpty()
+                || result.getChoices().get(0).getMessage() == null) {
+            return null;
+        }
+        return result.getChoices().get(0).getMessage().getContent();
+    }
+    
+    private CompletableFuture<ChatCompletionResult> callAsync(Supplier<ChatCompletionRequest> requestBuilder) {
         try {
-            // Usar o PromptBuilderService para construir o prompt de análise de intenção
-            String prompt = promptBuilderService.buildIntentAnalysisPrompt(message);
-            
-            List<ChatMessage> messages = new ArrayList<>();
-            messages.add(new ChatMessage("system", "Você é um analisador de intenções de mensagens."));
-            messages.add(new ChatMessage("user", prompt));
+            return chatClient.createChatCompletion(requestBuilder.get(), OpenAiRateLimiter.Priority.INTERACTIVE);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Repassa à chamada do cliente o cancelamento do future devolvido ao chamador, para
+     * que ela saia da fila de cota ou interrompa a requisição em andamento.
+     */
+    private static <T> CompletableFuture<T> cancelsCall(CompletableFuture<ChatCompletionResult> call,
+                                                        CompletableFuture<T> future) {
+        future.whenComplete((ignored, error) -> {
+            if (future.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return future;
+    }
+    
+    private ChatCompletionRequest buildResponseRequest(String conversationHistory, String userMessage, String systemPrompt) {
+        List<ChatMessage> messages = new ArrayList<>();
+        
+        // Se systemPrompt contém a string "## Tarefa: Gerar Saudação Inicial", é um prompt de saudação
+        // Se contém "## Base de Conhecimento - Perguntas Frequentes", é um prompt de FAQ 
+        // Em ambos os casos, o systemPrompt completo já está no formato necessário
+        if (systemPrompt != null && (
+                systemPrompt.contains("## Tarefa: Gerar Saudação Inicial") ||
+                systemPrompt.contains("## Base de Conhecimento - Perguntas Frequentes"))) {
+            log.debug("Usando prompt especial: {}", 
+                    systemPrompt.contains("## Tarefa: Gerar Saudação Inicial") ? "Saudação" : "FAQ");
             
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model(model)
-                    .messages(messages)
-                    .maxTokens(50)
-                    .temperature(0.3)
-                    .build();
+            // Para estes prompts especiais, enviamos tudo como uma única mensagem de usuário
+            messages.add(new ChatMessage("user", systemPrompt));
+        } else {
+            // Fluxo normal/original
             
-            ChatCompletionResult result = openAiService.createChatCompletion(request);
-            String intent = result.getChoices().get(0).getMessage().getContent().trim();
+            // Usar o PromptBuilderService para construir o prompt completo
+            String fullPrompt = promptBuilderService.buildPrompt(userMessage, conversationHistory);
             
-            // Validar se a intenção não está vazia
-            if (intent == null || intent.trim().isEmpty()) {
-                log.warn("Intenção detectada vazia, usando fallback");
-                return FALLBACK_INTENT;
+            // Adicionar prompt do sistema
+            if (systemPrompt != null && !systemPrompt.isEmpty()) {
+                messages.add(new ChatMessage("system", systemPrompt));
             }
             
-            log.info("Intenção detectada: {}", intent);
-            return intent;
-        } catch (Exception e) {
-            log.error("Erro ao analisar intenção: {}", e.getMessage(), e);
+            // Adicionar o prompt completo como mensagem do usuário
+            messages.add(new ChatMessage("user", fullPrompt));
+        }
+        
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(messages)
+                .maxTokens(maxTokens)
+                .temperature(temperature)
+                .build();
+    }
+    
+    private boolean isValidResponse(String response) {
+        return response != null && response.trim().length() >= 5;
+    }
+    
+    private ChatCompletionRequest buildIntentRequest(String message) {
+        // Usar o PromptBuilderService para construir o prompt de análise de intenção
+        String prompt = promptBuilderService.buildIntentAnalysisPrompt(message);
+        
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system", "Você é um analisador de intenções de mensagens."));
+        messages.add(new ChatMessage("user", prompt));
+        
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(messages)
+                .maxTokens(50)
+                .temperature(0.3)
+                .build();
+    }
+    
+    private String parseIntent(ChatCompletionResult result) {
+        String intent = result.getChoices().get(0).getMessage().getContent().trim();
+        
+        // Validar se a intenção não está vazia
+        if (intent == null || intent.trim().isEmpty()) {
+            log.warn("Intenção detectada vazia, usando fallback");
             return FALLBACK_INTENT;
         }
+        
+        log.info("Intenção detectada: {}", intent);
+        return intent;
     }
     
-    @Override
-    public boolean requiresHumanIntervention(String message, String conversationHistory) {
-        log.debug("Verificando se mensagem requer intervenção humana: {}", message);
+    private ChatCompletionRequest buildHumanInterventionRequest(String message, String conversationHistory) {
+        // Usar o PromptBuilderService para construir o prompt de verificação de intervenção humana
+        String prompt = promptBuilderService.buildHumanInterventionPrompt(message, conversationHistory);
+        
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system", "Você é um analisador de mensagens para decidir se precisa de intervenção humana."));
+        messages.add(new ChatMessage("user", prompt));
+        
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(messages)
+                .maxTokens(10)
+                .temperature(0.2)
+                .build();
+    }
+    
+    private boolean parseHumanIntervention(ChatCompletionResult result) {
+        String response = result.getChoices().get(0).getMessage().getContent().trim().toLowerCase();
+        
+        boolean needsHuman = response.contains("sim");
+        log.info("Análise de intervenção humana: {}", needsHuman);
+        
+        return needsHuman;
+    }
+    
+    private ChatCompletionRequest buildEntitiesRequest(String message) {
+        // Usar o PromptBuilderService para construir o prompt de extração de entidades
+        String prompt = promptBuilderService.buildEntityExtractionPrompt(message);
+        
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system", "Você é um extrator de entidades de texto."));
+        messages.add(new ChatMessage("user", prompt));
         
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(messages)
+                .maxTokens(150)
+                .temperature(0.2)
+                .build();
+    }
+    
+    private List<String> parseEntities(ChatCompletionResult result) {
+        String jsonResponse = result.getChoices().get(0).getMessage().getContent().trim();
+        
+        log.info("Entidades extraídas: {}", jsonResponse);
+        
+        // Tentar converter o JSON em uma lista de strings
         try {
-            // Verificar palavras-chave específicas para atendimento humano
-            String normalizedMessage = message.toLowerCase().trim();
-            if (containsHumanRequestKeywords(normalizedMessage)) {
-                log.info("Palavras-chave de solicitação humana detectadas na mensagem");
-                return true;
-            }
-            
-            // Usar o PromptBuilderService para construir o prompt de verificação de intervenção humana
-            String prompt = promptBuilderService.buildHumanInterventionPrompt(message, conversationHistory);
-            
-            List<ChatMessage> messages = new ArrayList<>();
-            messages.add(new ChatMessage("system", "Você é um analisador de mensagens para decidir se precisa de intervenção humana."));
-            messages.add(new ChatMessage("user", prompt));
-            
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model(model)
-                    .messages(messages)
-                    .maxTokens(10)
-                    .temperature(0.2)
-                    .build();
-            
-            ChatCompletionResult result = openAiService.createChatCompletion(request);
-            String response = result.getChoices().get(0).getMessage().getContent().trim().toLowerCase();
-            
-            boolean needsHuman = response.contains("sim");
-            log.info("Análise de intervenção humana: {}", needsHuman);
-            
-            return needsHuman;
-        } catch (Exception e) {
-            log.error("Erro ao verificar necessidade de intervenção humana: {}", e.getMessage(), e);
-            // Em caso de erro, é mais seguro assumir que precisa de intervenção humana
-            return true;
+            // Filtrar apenas os valores não vazios do JSON
+            return Arrays.stream(jsonResponse.split("\n"))
+                    .filter(line -> line.contains(":") && !line.contains("null") && !line.contains("\\[\\]"))
+                    .map(line -> line.split(":", 2)[1].trim().replaceAll("[\",\\[\\]]", ""))
+                    .filter(value -> !value.isEmpty())
+                    .collect(Collectors.toList());
+        } catch (Exception ex) {
+            log.warn("Erro ao parsear JSON de entidades: {}", ex.getMessage());
+            // Se não conseguir parsear, retorna a string completa
+            return List.of(jsonResponse);
         }
     }
     
+    private ChatCompletionRequest buildAnalysisRequest(String prompt) {
+        // O prompt estruturado já contém o histórico, a base de conhecimento e a mensagem atual
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system", "Você é Urba, assistente virtual da Urbana do Brasil. Responda sempre com um único objeto JSON válido."));
+        messages.add(new ChatMessage("user", prompt));
+        
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(messages)
+                .maxTokens(maxTokens)
+                .temperature(temperature)
+                .build();
+    }
+    
+    private Optional<MessageAnalysis> logAnalysis(String content) {
+        Optional<MessageAnalysis> analysis = parseMessageAnalysis(content);
+        if (analysis.isEmpty()) {
+            log.warn("Resposta estruturada fora do formato esperado: {}", content);
+        } else {
+            log.info("Análise estruturada concluída. Intenção: {}, Humano: {}", 
+                    analysis.get().getIntent(), analysis.get().isNeedsHuman());
+        }
+        return analysis;
+    }
+    
     /**
-     * Verifica se a mensagem contém palavras-chave que indicam explicitamente 
-     * um desejo de falar com atendimento humano.
+     * Converte a resposta JSON do GPT em uma análise, validando estritamente o formato:
+     * todos os campos são obrigatórios e devem ter o tipo esperado.
      *
-     * @param message Mensagem normalizada (lowercase e trim)
-     * @return true se contém palavras-chave de solicitação humana
+     * @param content Conteúdo retornado pelo GPT
+     * @return Análise convertida, ou vazio se o conteúdo não seguir o formato
      */
-    private boolean containsHumanRequestKeywords(String message) {
-        // Lista de palavras-chave que indicam pedido de atendimento humano
-        List<String> humanKeywords = Arrays.asList(
-                "falar com atendente", "falar com humano", "atendente humano", 
-                "quero atendente", "quero falar com pessoa", "falar com pessoa",
-                "atendente por favor", "preciso de atendente", "pessoa real",
-                "quero falar com alguém", "falar com gente", "atendimento humano",
-                "quero falar com atendente", "por favor atendente", "chat humano",
-                "pessoa de verdade", "sem bot", "não quero falar com robô"
-        );
+    Optional<MessageAnalysis> parseMessageAnalysis(String content) {
+        if (content == null || content.isBlank()) {
+            return Optional.empty();
+        }
         
-        return humanKeywords.stream().anyMatch(message::contains);
-    }
-    
-    @Override
-    public List<String> extractEntities(String message) {
-        log.debug("Extraindo entidades da mensagem: {}", message);
+        // Alguns modelos envolvem o JSON em um bloco de código markdown
+        String json = content.trim();
+        if (json.startsWith("```")) {
+            json = json.replaceFirst("^```(?:json)?\\s*", "").replaceFirst("\\s*```$", "");
+        }
         
         try {
-            // Usar o PromptBuilderService para construir o prompt de extração de entidades
-            String prompt = promptBuilderService.buildEntityExtractionPrompt(message);
-            
-            List<ChatMessage> messages = new ArrayList<>();
-            messages.add(new ChatMessage("system", "Você é um extrator de entidades de texto."));
-            messages.add(new ChatMessage("user", prompt));
+            JsonNode root = objectMapper.readTree(json);
+            if (root == null || !root.isObject()) {
+                return Optional.empty();
+            }
             
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model(model)
-                    .messages(messages)
-                    .maxTokens(150)
-                    .temperature(0.2)
-                    .build();
+            JsonNode reply = root.get("resposta");
+            JsonNode intent = root.get("intencao");
+            JsonNode entities = root.get("entidades");
+            JsonNode needsHuman = root.get("atendimentoHumano");
             
-            ChatCompletionResult result = openAiService.createChatCompletion(request);
-            String jsonResponse = result.getChoices().get(0).getMessage().getContent().trim();
+            if (reply == null || !reply.isTextual() || reply.asText().isBlank()
+                    || intent == null || !intent.isTextual()
+                    || entities == null || !entities.isArray()
+                    || needsHuman == null || !needsHuman.isBoolean()) {
+                return Optional.empty();
+            }
             
-            log.info("Entidades extraídas: {}", jsonResponse);
+            List<String> entityList = new ArrayList<>();
+            for (JsonNode entity : entities) {
+                if (!entity.isTextual()) {
+                    return Optional.empty();
+                }
+                if (!entity.asText().isBlank()) {
+                    entityList.add(entity.asText().trim());
+                }
+            }
             
-            // Tentar converter o JSON em uma lista de strings
-            try {
-                // Filtrar apenas os valores não vazios do JSON
-                return Arrays.stream(jsonResponse.split("\n"))
-                        .filter(line -> line.contains(":") && !line.contains("null") && !line.contains("\\[\\]"))
-                        .map(line -> line.split(":", 2)[1].trim().replaceAll("[\",\\[\\]]", ""))
-                        .filter(value -> !value.isEmpty())
-                        .collect(Collectors.toList());
-            } catch (Exception ex) {
-                log.warn("Erro ao parsear JSON de entidades: {}", ex.getMessage());
-                // Se não conseguir parsear, retorna a string completa
-                return List.of(jsonResponse);
+            // Categorias desconhecidas são tratadas como OUTRO
+            String normalizedIntent = intent.asText().trim().toUpperCase();
+            if (!PromptBuilderService.INTENT_CATEGORIES.contains(normalizedIntent)) {
+                normalizedIntent = "OUTRO";
             }
-        } catch (Exception e) {
-            log.error("Erro ao extrair entidades: {}", e.getMessage(), e);
-            return FALLBACK_ENTITIES;
+            
+            return Optional.of(MessageAnalysis.builder()
+                    .reply(reply.asText().trim())
+                    .intent(normalizedIntent)
+                    .entities(entityList)
+                    .needsHuman(needsHuman.asBoolean())
+                    .build());
+        } catch (JsonProcessingException e) {
+            return Optional.empty();
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,431 @@
+package br.com.urbana.connect.infrastructure.client;
+
+import br.com.urbana.connect.application.config.GptCallConfig;
+import br.com.urbana.connect.application.config.OpenAiRateLimitConfig;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Controle de admissão das chamadas à API da OpenAI, respeitando as cotas de
+ * requisições por minuto (RPM) e de tokens por minuto (TPM).
+ * <p>
+ * Cada cota é um balde de fichas reabastecido continuamente. Antes de cada chamada
+ * o consumo de tokens é estimado (prompt + limite da resposta); se não houver saldo,
+ * a chamada aguarda em fila. Respostas ao cliente têm prioridade sobre tarefas de
+ * fundo, como resumos. Os saldos são ajustados pelos cabeçalhos {@code x-ratelimit-*}
+ * devolvidos pela API e zerados até o reset quando ela responde 429.
+ */
+@Component
+@Slf4j
+public class OpenAiRateLimiter {
+
+    /**
+     * Prioridade da chamada na fila de admissão.
+     */
+    public enum Priority {
+        /** Respostas que o cliente está aguardando. */
+        INTERACTIVE,
+        /** Tarefas de fundo, como resumos de conversa. */
+        BACKGROUND
+    }
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+    private static final long DEFAULT_PAUSE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long maxQueueWaitNanos;
+    private final Bucket requestBucket;
+    private final Bucket tokenBucket;
+    private final Map<Priority, Deque<Pending>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Counter rejectedCounter;
+    private final Counter cancelledCounter;
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> scheduledDrain;
+    private long scheduledDrainAt;
+
+    public OpenAiRateLimiter(OpenAiRateLimitConfig config, GptCallConfig gptCallConfig, MeterRegistry meterRegistry) {
+        this.maxQueueWaitNanos = maxQueueWait(config, gptCallConfig).toNanos();
+        long now = System.nanoTime();
+        this.requestBucket = new Bucket(Math.max(1, config.getRequestsPerMinute()), now);
+        this.tokenBucket = new Bucket(Math.max(1, config.getTokensPerMinute()), now);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "openai-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (Priority priority : Priority.values()) {
+            Deque<Pending> queue = new ArrayDeque<>();
+            queues.put(priority, queue);
+            waitTimers.put(priority, Timer.builder("urbana.openai.queue.wait")
+                    .description("Espera na fila de admissão da OpenAI")
+                    .tag("priority", priority.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            Gauge.builder("urbana.openai.queue.depth", this, limiter -> limiter.queueDepth(priority))
+                    .description("Chamadas aguardando cota da OpenAI")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        this.rejectedCounter = Counter.builder("urbana.openai.queue.rejected")
+                .description("Chamadas recusadas por esperar demais pela cota")
+                .register(meterRegistry);
+        this.cancelledCounter = Counter.builder("urbana.openai.queue.cancelled")
+                .description("Chamadas canceladas enquanto aguardavam a cota")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Espera máxima na fila, limitada à metade do prazo das análises de uma mensagem: a
+     * chamada é recusada pela fila antes de o chamador desistir dela, e ainda sobra
+     * tempo para a própria chamada.
+     */
+    private static Duration maxQueueWait(OpenAiRateLimitConfig config, GptCallConfig gptCallConfig) {
+        Duration limit = gptCallConfig.getDeadline().dividedBy(2);
+        if (config.getMaxQueueWait().compareTo(limit) <= 0) {
+            return config.getMaxQueueWait();
+        }
+        log.warn("Espera máxima na fila da OpenAI ({}) não cabe no prazo das análises ({}). Usando {}",
+                config.getMaxQueueWait(), gptCallConfig.getDeadline(), limit);
+        return limit;
+    }
+
+    /**
+     * Aguarda, sem bloquear threads, até haver cota para a chamada.
+     * <p>
+     * Cancelar o future retira a chamada da fila, sem consumir cota. Se ela já tinha
+     * sido admitida, a cota reservada é devolvida.
+     *
+     * @param estimatedTokens Tokens estimados da chamada (prompt + resposta)
+     * @param priority Prioridade da chamada
+     * @return Future completado quando a chamada for admitida; falha com
+     *         {@link RejectedExecutionException} se a espera ultrapassar o limite
+     */
+    public CompletableFuture<Void> acquireAsync(int estimatedTokens, Priority priority) {
+        Pending pending = new Pending(estimatedTokens, priority, System.nanoTime());
+        pending.future.whenComplete((ignored, error) -> {
+            if (pending.future.isCancelled()) {
+                withdraw(pending);
+            }
+        });
+        List<Runnable> completions;
+        synchronized (this) {
+            queues.get(priority).addLast(pending);
+            completions = drain();
+        }
+        completions.forEach(Runnable::run);
+        return pending.future;
+    }
+
+    /**
+     * Retira da fila uma chamada cancelada, liberando a vez das seguintes.
+     */
+    private void withdraw(Pending pending) {
+        List<Runnable> completions;
+        synchronized (this) {
+            if (!queues.get(pending.priority).remove(pending)) {
+                return;
+            }
+            cancelledCounter.increment();
+            completions = drain();
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    /**
+     * Devolve a cota de uma chamada admitida que foi cancelada antes de ser avisada.
+     */
+    private void refund(int tokens) {
+        List<Runnable> completions;
+        synchronized (this) {
+            long now = System.nanoTime();
+            requestBucket.give(1, now);
+            tokenBucket.give(tokens, now);
+            cancelledCounter.increment();
+            completions = drain();
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    /**
+     * Ajusta os saldos com os cabeçalhos de cota devolvidos pela API.
+     *
+     * @param headers Cabeçalhos da resposta
+     * @param statusCode Status HTTP da resposta
+     */
+    public void updateFromHeaders(HttpHeaders headers, int statusCode) {
+        List<Runnable> completions;
+        synchronized (this) {
+            long now = System.nanoTime();
+            Long remainingRequests = longHeader(headers, "x-ratelimit-remaining-requests");
+            Long remainingTokens = longHeader(headers, "x-ratelimit-remaining-tokens");
+
+            headers.firstValueAsLong("x-ratelimit-limit-requests").ifPresent(limit -> requestBucket.resize(limit, now));
+            headers.firstValueAsLong("x-ratelimit-limit-tokens").ifPresent(limit -> tokenBucket.resize(limit, now));
+            if (remainingRequests != null) {
+                requestBucket.limitTo(remainingRequests, now);
+            }
+            if (remainingTokens != null) {
+                tokenBucket.limitTo(remainingTokens, now);
+            }
+
+            if (statusCode == 429) {
+                long requestReset = parseDuration(headers.firstValue("x-ratelimit-reset-requests").orElse(null));
+                long tokenReset = parseDuration(headers.firstValue("x-ratelimit-reset-tokens").orElse(null));
+                boolean knownCause = false;
+                if (remainingRequests != null && remainingRequests == 0) {
+                    requestBucket.pauseUntil(now + Math.max(requestReset, DEFAULT_PAUSE_NANOS));
+                    knownCause = true;
+                }
+                if (remainingTokens != null && remainingTokens == 0) {
+                    tokenBucket.pauseUntil(now + Math.max(tokenReset, DEFAULT_PAUSE_NANOS));
+                    knownCause = true;
+                }
+                if (!knownCause) {
+                    onRateLimited();
+                }
+                log.warn("OpenAI respondeu 429. Restantes: requisições={}, tokens={}", remainingRequests, remainingTokens);
+            }
+            completions = drain();
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    /**
+     * Pausa as duas cotas por um intervalo padrão, quando a API recusa uma chamada
+     * sem informar qual cota foi excedida.
+     */
+    public synchronized void onRateLimited() {
+        long resumeAt = System.nanoTime() + DEFAULT_PAUSE_NANOS;
+        requestBucket.pauseUntil(resumeAt);
+        tokenBucket.pauseUntil(resumeAt);
+    }
+
+    /**
+     * Estima os tokens de uma chamada: cerca de quatro caracteres por token no
+     * prompt, mais o custo fixo de cada mensagem e o limite de tokens da resposta,
+     * que também é descontado da cota pela OpenAI.
+     */
+    public static int estimateTokens(ChatCompletionRequest request) {
+        int characters = 0;
+        int messages = 0;
+        if (request.getMessages() != null) {
+            for (ChatMessage message : request.getMessages()) {
+                messages++;
+                if (message.getContent() != null) {
+                    characters += message.getContent().length();
+                }
+            }
+        }
+        int completion = request.getMaxTokens() != null ? request.getMaxTokens() : 0;
+        return (characters + 3) / 4 + messages * 4 + 3 + completion;
+    }
+
+    /**
+     * Admite as chamadas que cabem nos saldos atuais, na ordem de prioridade, e agenda
+     * a próxima verificação. Devolve as conclusões para serem executadas fora do lock.
+     */
+    private List<Runnable> drain() {
+        long now = System.nanoTime();
+        requestBucket.refill(now);
+        tokenBucket.refill(now);
+        List<Runnable> completions = new ArrayList<>();
+        expire(now, completions);
+
+        for (Priority priority : Priority.values()) {
+            Deque<Pending> queue = queues.get(priority);
+            while (!queue.isEmpty()) {
+                Pending next = queue.peekFirst();
+                int tokens = (int) Math.min(next.tokens, tokenBucket.capacity);
+                long wait = Math.max(requestBucket.nanosUntil(1), tokenBucket.nanosUntil(tokens));
+                if (wait > 0) {
+                    // Prioridade estrita: chamadas de fundo não passam à frente de uma interativa em espera
+                    schedule(now, wait);
+                    return completions;
+                }
+                queue.pollFirst();
+                requestBucket.take(1);
+                tokenBucket.take(tokens);
+                waitTimers.get(priority).record(now - next.enqueuedAt, TimeUnit.NANOSECONDS);
+                completions.add(() -> {
+                    if (!next.future.complete(null)) {
+                        refund(tokens);
+                    }
+                });
+            }
+        }
+        return completions;
+    }
+
+    private void expire(long now, List<Runnable> completions) {
+        for (Deque<Pending> queue : queues.values()) {
+            while (!queue.isEmpty() && now - queue.peekFirst().enqueuedAt > maxQueueWaitNanos) {
+                Pending expired = queue.pollFirst();
+                rejectedCounter.increment();
+                completions.add(() -> expired.future.completeExceptionally(
+                        new RejectedExecutionException("Tempo de espera pela cota da OpenAI esgotado")));
+            }
+        }
+    }
+
+    private void schedule(long now, long wait) {
+        // Acordar também a tempo de recusar a chamada mais antiga que exceder a espera máxima
+        for (Deque<Pending> queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                wait = Math.min(wait, queue.peekFirst().enqueuedAt + maxQueueWaitNanos - now + 1);
+            }
+        }
+        long runAt = now + Math.max(0, wait);
+        if (scheduledDrain != null && !scheduledDrain.isDone() && scheduledDrainAt <= runAt) {
+            return;
+        }
+        if (scheduledDrain != null) {
+            scheduledDrain.cancel(false);
+        }
+        scheduledDrainAt = runAt;
+        scheduledDrain = scheduler.schedule(() -> {
+            List<Runnable> completions;
+            synchronized (this) {
+                completions = drain();
+            }
+            completions.forEach(Runnable::run);
+        }, Math.max(0, wait), TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized int queueDepth(Priority priority) {
+        return queues.get(priority).size();
+    }
+
+    private static Long longHeader(HttpHeaders headers, String name) {
+        OptionalLong value = headers.firstValueAsLong(name);
+        return value.isPresent() ? value.getAsLong() : null;
+    }
+
+    /**
+     * Converte durações no formato da OpenAI ({@code 1s}, {@code 6m0s}, {@code 20ms}) em nanossegundos.
+     */
+    static long parseDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        double nanos = 0;
+        Matcher matcher = DURATION_PART.matcher(value);
+        while (matcher.find()) {
+            double amount = Double.parseDouble(matcher.group(1));
+            nanos += switch (matcher.group(2)) {
+                case "h" -> amount * TimeUnit.HOURS.toNanos(1);
+                case "m" -> amount * TimeUnit.MINUTES.toNanos(1);
+                case "s" -> amount * TimeUnit.SECONDS.toNanos(1);
+                default -> amount * TimeUnit.MILLISECONDS.toNanos(1);
+            };
+        }
+        return (long) nanos;
+    }
+
+    /**
+     * Encerra o agendador de admissões.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Balde de fichas reabastecido continuamente até a capacidade de um minuto.
+     */
+    private static final class Bucket {
+        private double capacity;
+        private double refillPerNano;
+        private double available;
+        private long lastRefill;
+
+        private Bucket(long perMinute, long now) {
+            this.capacity = perMinute;
+            this.refillPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.available = perMinute;
+            this.lastRefill = now;
+        }
+
+        private void refill(long now) {
+            // Durante uma pausa (lastRefill no futuro) o saldo não cresce
+            if (now > lastRefill) {
+                available = Math.min(capacity, available + (now - lastRefill) * refillPerNano);
+                lastRefill = now;
+            }
+        }
+
+        private long nanosUntil(double amount) {
+            if (available >= amount) {
+                return 0;
+            }
+            long untilResume = Math.max(0, lastRefill - System.nanoTime());
+            return untilResume + (long) Math.ceil((amount - available) / refillPerNano);
+        }
+
+        private void take(double amount) {
+            available -= amount;
+        }
+
+        private void give(double amount, long now) {
+            refill(now);
+            available = Math.min(capacity, available + amount);
+        }
+
+        private void limitTo(double remaining, long now) {
+            refill(now);
+            available = Math.min(available, remaining);
+        }
+
+        private void resize(long perMinute, long now) {
+            if (perMinute > 0 && perMinute != (long) capacity) {
+                refill(now);
+                capacity = perMinute;
+                refillPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+                available = Math.min(available, capacity);
+            }
+        }
+
+        private void pauseUntil(long resumeAt) {
+            available = 0;
+            lastRefill = Math.max(lastRefill, resumeAt);
+        }
+    }
+
+    private static final class Pending {
+        private final int tokens;
+        private final Priority priority;
+        private final long enqueuedAt;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Pending(int tokens, Priority priority, long enqueuedAt) {
+            this.tokens = Math.max(1, tokens);
+            this.priority = priority;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.urbana.connect.infrastructure.client;
+
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.socket.LayeredConnectionSocketFactory;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+
+/**
+ * Fábrica de sockets que mede o tempo de cada nova conexão (TCP e, para HTTPS,
+ * o handshake TLS), delegando a criação à fábrica original.
+ * <p>
+ * Como as conexões são reaproveitadas pelo pool, a contagem do timer indica quantas
+ * conexões novas foram abertas; um número próximo ao de requisições indica que o
+ * pool não está mantendo as conexões vivas.
+ */
+public class TimedConnectionSocketFactory implements LayeredConnectionSocketFactory {
+
+    private final LayeredConnectionSocketFactory delegate;
+    private final Timer connectTimer;
+
+    public TimedConnectionSocketFactory(LayeredConnectionSocketFactory delegate, Timer connectTimer) {
+        this.delegate = delegate;
+        this.connectTimer = connectTimer;
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+        return delegate.createSocket(context);
+    }
+
+    @Override
+    public Socket connectSocket(TimeValue connectTimeout, Socket socket, HttpHost host,
+                                InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                                HttpContext context) throws IOException {
+        long startedAt = System.nanoTime();
+        try {
+            return delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+        } finally {
+            connectTimer.record(Duration.ofNanos(System.nanoTime() - startedAt));
+        }
+    }
+
+    @Override
+    public Socket connectSocket(Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                InetSocketAddress localAddress, Timeout connectTimeout, Object attachment,
+                                HttpContext context) throws IOException {
+        long startedAt = System.nanoTime();
+        try {
+            return delegate.connectSocket(socket, host, remoteAddress, localAddress, connectTimeout, attachment, context);
+        } finally {
+            connectTimer.record(Duration.ofNanos(System.nanoTime() - startedAt));
+        }
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+        return delegate.createLayeredSocket(socket, target, port, context);
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, Object attachment,
+                                      HttpContext context) throws IOException {
+        return delegate.createLayeredSocket(socket, target, port, attachment, context);
+    }
+}
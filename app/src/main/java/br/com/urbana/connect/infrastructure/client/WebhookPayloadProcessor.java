@@ -3,8 +3,12 @@ package br.com.urbana.connect.infrastructure.client;
 import br.com.urbana.connect.domain.enums.MessageDirection;
 import br.com.urbana.connect.domain.enums.MessageStatus;
 import br.com.urbana.connect.domain.enums.MessageType;
+import br.com.urbana.connect.domain.enums.WebhookEventType;
 import br.com.urbana.connect.domain.model.Message;
-import com.fasterxml.jackson.databind.JsonNode;
+import br.com.urbana.connect.domain.model.WebhookEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,85 +17,281 @@ import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Classe utilitária para processamento de payloads de webhook do WhatsApp.
  * Extrai a lógica comum entre a implementação real e a de teste.
+ * <p>
+ * O payload é lido em modo streaming (token a token), sem montar a árvore
+ * JSON em memória, percorrendo todas as entradas, alterações, mensagens e
+ * atualizações de status em uma única passada.
  */
 public class WebhookPayloadProcessor {
-    
+
     private static final Logger log = LoggerFactory.getLogger(WebhookPayloadProcessor.class);
-    private final ObjectMapper objectMapper;
-    
+    private final JsonFactory jsonFactory;
+
     public WebhookPayloadProcessor(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
     }
-    
+
     /**
-     * Processa um payload de webhook do WhatsApp e extrai uma mensagem.
-     * 
+     * Processa um payload de webhook do WhatsApp e extrai a primeira mensagem de texto.
+     *
      * @param payload JSON payload do webhook
      * @return Objeto Message extraído ou null se não for uma mensagem válida
      */
     public Message processPayload(String payload) {
-        try {
-            JsonNode rootNode = objectMapper.readTree(payload);
-            
-            // Verificar se é um payload válido
-            if (!rootNode.has("entry") || rootNode.path("entry").isEmpty() ||
-                !rootNode.path("entry").path(0).has("changes") || 
-                rootNode.path("entry").path(0).path("changes").isEmpty()) {
+        return extractEvents(payload).stream()
+                .filter(WebhookEvent::isMessageEvent)
+                .map(WebhookEvent::getMessage)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Extrai todos os eventos (mensagens de texto e atualizações de status)
+     * de um payload de webhook do WhatsApp.
+     *
+     * @param payload JSON payload do webhook
+     * @return Lista de eventos na ordem em que aparecem no payload (vazia se inválido)
+     */
+    public List<WebhookEvent> extractEvents(String payload) {
+        List<WebhookEvent> events = new ArrayList<>();
+
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
                 log.warn("Payload inválido");
-                return null;
-            }
-            
-            // Obter os dados da mensagem
-            JsonNode entryNode = rootNode.path("entry").path(0);
-            JsonNode valueNode = entryNode.path("changes").path(0).path("value");
-            
-            // Verificar se há mensagens
-            if (!valueNode.has("messages") || valueNode.path("messages").isEmpty()) {
-                log.warn("Não há mensagens no payload");
-                return null;
+                return events;
             }
-            
-            // Obter a mensagem
-            JsonNode messageNode = valueNode.path("messages").path(0);
-            
-            if (messageNode.has("type") && messageNode.path("type").asText().equals("text")) {
-                // Processar mensagem de texto
-                String messageId = messageNode.path("id").asText();
-                String phoneNumber = messageNode.path("from").asText();
-                String content = messageNode.path("text").path("body").asText();
-                long timestamp = messageNode.path("timestamp").asLong();
-                
-                // Converter timestamp para LocalDateTime
-                LocalDateTime messageTime = LocalDateTime.ofInstant(
-                        Instant.ofEpochSecond(timestamp), 
-                        ZoneId.systemDefault());
-                
-                // Criar a mensagem usando o padrão builder
-                Message message = Message.builder()
-                        .id(UUID.randomUUID().toString())
-                        .whatsappMessageId(messageId)
-                        .direction(MessageDirection.INBOUND)
-                        .customerId(phoneNumber) // Temporariamente usamos o telefone como ID do cliente
-                        .type(MessageType.TEXT)
-                        .content(content)
-                        .status(MessageStatus.SENT) // Mensagens recebidas são marcadas como SENT
-                        .timestamp(messageTime)
-                        .build();
-                
-                log.info("Mensagem processada: from={}, content={}", phoneNumber, content);
-                return message;
-            } else {
-                log.warn("Tipo de mensagem não suportado");
-                return null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+
+                if ("entry".equals(field) && token == JsonToken.START_ARRAY) {
+                    forEachObject(parser, p -> readEntry(p, events));
+                } else {
+                    parser.skipChildren();
+                }
             }
         } catch (IOException e) {
+            // Payload truncado ou malformado: nenhum evento é aproveitado, nem os já lidos
             log.error("Erro ao processar payload do webhook: {}", e.getMessage(), e);
+            return List.of();
+        }
+
+        if (events.isEmpty()) {
+            log.warn("Não há mensagens ou status no payload");
+        }
+        return events;
+    }
+
+    private void readEntry(JsonParser parser, List<WebhookEvent> events) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            if ("changes".equals(field) && token == JsonToken.START_ARRAY) {
+                forEachObject(parser, p -> readChange(p, events));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readChange(JsonParser parser, List<WebhookEvent> events) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            if ("value".equals(field) && token == JsonToken.START_OBJECT) {
+                readValue(parser, events);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readValue(JsonParser parser, List<WebhookEvent> events) throws IOException {
+        // O metadata pode aparecer depois das mensagens, então é aplicado ao final
+        int firstEvent = events.size();
+        String phoneNumberId = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            if ("metadata".equals(field) && token == JsonToken.START_OBJECT) {
+                phoneNumberId = readPhoneNumberId(parser);
+            } else if ("messages".equals(field) && token == JsonToken.START_ARRAY) {
+                forEachObject(parser, p -> readMessage(p, events));
+            } else if ("statuses".equals(field) && token == JsonToken.START_ARRAY) {
+                forEachObject(parser, p -> readStatus(p, events));
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        for (int i = firstEvent; i < events.size(); i++) {
+            events.get(i).setPhoneNumberId(phoneNumberId);
+        }
+    }
+
+    private String readPhoneNumberId(JsonParser parser) throws IOException {
+        String phoneNumberId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("phone_number_id".equals(field)) {
+                phoneNumberId = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return phoneNumberId;
+    }
+
+    private void readMessage(JsonParser parser, List<WebhookEvent> events) throws IOException {
+        String messageId = null;
+        String phoneNumber = null;
+        String type = null;
+        String content = null;
+        long timestamp = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            switch (field) {
+                case "id" -> messageId = parser.getValueAsString();
+                case "from" -> phoneNumber = parser.getValueAsString();
+                case "type" -> type = parser.getValueAsString();
+                case "timestamp" -> timestamp = parser.getValueAsLong();
+                case "text" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        content = readTextBody(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (!"text".equals(type) || content == null) {
+            log.warn("Tipo de mensagem não suportado: {}", type);
+            return;
+        }
+
+        LocalDateTime messageTime = toLocalDateTime(timestamp);
+
+        // Criar a mensagem usando o padrão builder
+        Message message = Message.builder()
+                .id(UUID.randomUUID().toString())
+                .whatsappMessageId(messageId)
+                .direction(MessageDirection.INBOUND)
+                .customerId(phoneNumber) // Temporariamente usamos o telefone como ID do cliente
+                .type(MessageType.TEXT)
+                .content(content)
+                .status(MessageStatus.SENT) // Mensagens recebidas são marcadas como SENT
+                .timestamp(messageTime)
+                .build();
+
+        events.add(WebhookEvent.builder()
+                .type(WebhookEventType.MESSAGE)
+                .message(message)
+                .whatsappMessageId(messageId)
+                .timestamp(messageTime)
+                .build());
+
+        log.info("Mensagem processada: from={}, content={}", phoneNumber, content);
+    }
+
+    private String readTextBody(JsonParser parser) throws IOException {
+        String body = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("body".equals(field)) {
+                body = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return body;
+    }
+
+    private void readStatus(JsonParser parser, List<WebhookEvent> events) throws IOException {
+        String messageId = null;
+        String status = null;
+        String recipientId = null;
+        long timestamp = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "id" -> messageId = parser.getValueAsString();
+                case "status" -> status = parser.getValueAsString();
+                case "recipient_id" -> recipientId = parser.getValueAsString();
+                case "timestamp" -> timestamp = parser.getValueAsLong();
+                default -> parser.skipChildren();
+            }
+        }
+
+        MessageStatus messageStatus = toMessageStatus(status);
+        if (messageId == null || messageStatus == null) {
+            log.warn("Atualização de status não suportada: id={}, status={}", messageId, status);
+            return;
+        }
+
+        events.add(WebhookEvent.builder()
+                .type(WebhookEventType.STATUS)
+                .whatsappMessageId(messageId)
+                .status(messageStatus)
+                .recipientId(recipientId)
+                .timestamp(toLocalDateTime(timestamp))
+                .build());
+    }
+
+    private MessageStatus toMessageStatus(String status) {
+        if (status == null) {
             return null;
         }
+        try {
+            return MessageStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(long epochSeconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneId.systemDefault());
+    }
+
+    /**
+     * Percorre os elementos de um array, entregando cada objeto ao handler
+     * e ignorando elementos de outros tipos.
+     * O parser deve estar posicionado no START_ARRAY.
+     */
+    private void forEachObject(JsonParser parser, ObjectHandler handler) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                handler.read(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ObjectHandler {
+        void read(JsonParser parser) throws IOException;
     }
-} 
\ No newline at end of file
+}
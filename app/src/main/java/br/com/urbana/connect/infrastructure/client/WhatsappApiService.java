@@ -1,9 +1,12 @@
 package br.com.urbana.connect.infrastructure.client;
 
 import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.WebhookEvent;
 import br.com.urbana.connect.domain.enums.MessageDirection;
 import br.com.urbana.connect.domain.enums.MessageType;
+import br.com.urbana.connect.domain.exception.WhatsappSendException;
 import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -15,10 +18,13 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -61,6 +67,16 @@ public class WhatsappApiService implements WhatsappServicePort {
     
     @Override
     public String sendTextMessage(String phoneNumber, String textContent) {
+        try {
+            return deliverTextMessage(phoneNumber, textContent);
+        } catch (Exception e) {
+            log.error("Erro ao enviar mensagem via WhatsApp: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+    
+    @Override
+    public String deliverTextMessage(String phoneNumber, String textContent) {
         log.debug("Enviando mensagem de texto para: {}", phoneNumber);
         
         try {
@@ -97,17 +113,23 @@ public class WhatsappApiService implements WhatsappServicePort {
             ResponseEntity<JsonNode> response = restTemplate.exchange(
                     url, HttpMethod.POST, entity, JsonNode.class);
             
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String messageId = response.getBody().path("messages").path(0).path("id").asText();
-                log.info("Mensagem enviada com sucesso. ID: {}", messageId);
-                return messageId;
-            } else {
-                log.error("Falha ao enviar mensagem. Status: {}", response.getStatusCode());
-                return null;
+            String messageId = response.getBody() != null
+                    ? response.getBody().path("messages").path(0).path("id").asText(null) : null;
+            if (!response.getStatusCode().is2xxSuccessful() || messageId == null) {
+                throw new WhatsappSendException(response.getStatusCode().value(), 
+                        "Resposta sem ID de mensagem. Status: " + response.getStatusCode());
             }
-        } catch (Exception e) {
-            log.error("Erro ao enviar mensagem via WhatsApp: {}", e.getMessage(), e);
-            return null;
+            
+            log.info("Mensagem enviada com sucesso. ID: {}", messageId);
+            return messageId;
+        } catch (HttpStatusCodeException e) {
+            throw new WhatsappSendException(e.getStatusCode().value(), 
+                    "API do WhatsApp respondeu com status " + e.getStatusCode().value() + ": " 
+                            + e.getResponseBodyAsString(), e);
+        } catch (ResourceAccessException e) {
+            throw new WhatsappSendException(0, "Falha de comunicação com a API do WhatsApp: " + e.getMessage(), e);
+        } catch (JsonProcessingException e) {
+            throw new WhatsappSendException(-1, "Erro ao montar a mensagem: " + e.getMessage(), e);
         }
     }
     
@@ -189,6 +211,12 @@ public class WhatsappApiService implements WhatsappServicePort {
         return webhookPayloadProcessor.processPayload(payload);
     }
     
+    @Override
+    public List<WebhookEvent> processWebhookEvents(String payload) {
+        log.debug("Extraindo eventos da notificação do webhook: {}", payload);
+        return webhookPayloadProcessor.extractEvents(payload);
+    }
+    
     /**
      * Sanitiza o número de telefone para o formato esperado pelo WhatsApp.
      */
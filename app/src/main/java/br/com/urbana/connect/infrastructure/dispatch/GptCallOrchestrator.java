@@ -0,0 +1,180 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.GptCallConfig;
+import br.com.urbana.connect.domain.model.MessageAnalysis;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Dispara em paralelo as chamadas independentes de análise ao GPT de uma mensagem
+ * (intervenção humana, intenção, entidades e resposta) e as aguarda sob um prazo
+ * compartilhado.
+ * <p>
+ * As chamadas vêm da porta assíncrona do GPT: nenhuma thread fica presa por chamada,
+ * apenas a do chamador aguarda os resultados. As chamadas vivem apenas dentro de
+ * {@link #analyze}: se a verificação de intervenção humana indicar transferência, ou
+ * se o prazo esgotar, as demais são canceladas.
+ */
+@Component
+@Slf4j
+public class GptCallOrchestrator {
+
+    static final String FALLBACK_INTENT = "OUTRO";
+
+    private final long deadlineNanos;
+    private final Timer fanOutTimer;
+    private final MeterRegistry meterRegistry;
+
+    public GptCallOrchestrator(GptCallConfig config, MeterRegistry meterRegistry) {
+        this.deadlineNanos = config.getDeadline().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.fanOutTimer = Timer.builder("urbana.gpt.fanout")
+                .description("Tempo total das análises paralelas de uma mensagem")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Dispara as quatro chamadas e junta os resultados.
+     *
+     * @param handoffCheck Verificação de necessidade de intervenção humana
+     * @param intentCall Análise de intenção
+     * @param entitiesCall Extração de entidades
+     * @param replyCall Geração da resposta ao cliente
+     * @return Análise consolidada; se {@code needsHuman} for true, os demais campos não são preenchidos
+     * @throws IllegalStateException se a resposta não puder ser gerada dentro do prazo
+     */
+    public MessageAnalysis analyze(Supplier<CompletableFuture<Boolean>> handoffCheck,
+                                   Supplier<CompletableFuture<String>> intentCall,
+                                   Supplier<CompletableFuture<List<String>>> entitiesCall,
+                                   Supplier<CompletableFuture<String>> replyCall) {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + deadlineNanos;
+
+        CompletableFuture<Boolean> handoff = start(handoffCheck);
+        CompletableFuture<String> intent = start(intentCall);
+        CompletableFuture<List<String>> entities = start(entitiesCall);
+        CompletableFuture<String> reply = start(replyCall);
+        List<CompletableFuture<?>> calls = List.of(handoff, intent, entities, reply);
+
+        try {
+            // Em caso de erro ou prazo esgotado, é mais seguro assumir que precisa de intervenção humana;
+            // já a recusa por falta de cota não diz nada sobre a mensagem e não transfere o cliente
+            boolean needsHuman = await(handoff, deadline, "intervenção humana", Boolean.TRUE, Boolean.FALSE);
+            if (needsHuman) {
+                cancelRemaining(calls, "handoff");
+                return MessageAnalysis.builder().needsHuman(true).build();
+            }
+
+            String replyContent = await(reply, deadline, "resposta", null);
+            if (replyContent == null) {
+                cancelRemaining(calls, "deadline");
+                throw new IllegalStateException("Não foi possível gerar a resposta dentro do prazo");
+            }
+
+            String detectedIntent = await(intent, deadline, "intenção", FALLBACK_INTENT);
+            List<String> detectedEntities = await(entities, deadline, "entidades", List.of());
+
+            return MessageAnalysis.builder()
+                    .reply(replyContent)
+                    .intent(detectedIntent)
+                    .entities(new ArrayList<>(detectedEntities))
+                    .needsHuman(false)
+                    .build();
+        } finally {
+            // Nenhuma chamada sobrevive ao escopo da mensagem
+            cancelRemaining(calls, "deadline");
+            fanOutTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Aguarda uma única chamada sob o mesmo prazo das análises paralelas.
+     *
+     * @param call Chamada ao GPT
+     * @return Resultado da chamada
+     * @throws IllegalStateException se a chamada não terminar dentro do prazo; neste caso ela é cancelada
+     */
+    public <T> T call(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> future = start(call);
+        try {
+            return future.get(deadlineNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancelRemaining(List.of(future), "deadline");
+            throw new IllegalStateException("A chamada ao GPT não terminou dentro do prazo", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a chamada ao GPT", e);
+        }
+    }
+
+    private <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> call, long deadline, String name, T fallback) {
+        return await(call, deadline, name, fallback, fallback);
+    }
+
+    /**
+     * Aguarda a chamada até o prazo; {@code whenRejected} é o resultado quando ela é
+     * recusada pela fila de cota da OpenAI, e {@code fallback} nas demais falhas.
+     */
+    private <T> T await(CompletableFuture<T> call, long deadline, String name, T fallback, T whenRejected) {
+        try {
+            T result = call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return result != null ? result : fallback;
+        } catch (TimeoutException e) {
+            log.warn("Prazo esgotado aguardando análise de {}", name);
+            return fallback;
+        } catch (ExecutionException e) {
+            if (isRejected(e.getCause())) {
+                log.warn("Análise de {} recusada por falta de cota: {}", name, e.getCause().getMessage());
+                return whenRejected;
+            }
+            log.error("Erro na análise de {}: {}", name, e.getCause().getMessage(), e.getCause());
+            return fallback;
+        } catch (CancellationException e) {
+            return fallback;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        }
+    }
+
+    private static boolean isRejected(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void cancelRemaining(List<CompletableFuture<?>> calls, String reason) {
+        for (CompletableFuture<?> call : calls) {
+            if (!call.isDone() && call.cancel(true)) {
+                meterRegistry.counter("urbana.gpt.fanout.cancelled", "reason", reason).increment();
+            }
+        }
+    }
+}
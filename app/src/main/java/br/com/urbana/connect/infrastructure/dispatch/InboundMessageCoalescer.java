@@ -0,0 +1,195 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.InboundCoalescingConfig;
+import br.com.urbana.connect.domain.model.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Agrupa as mensagens que um cliente envia em sequência em um único turno.
+ * <p>
+ * Cada mensagem recebida abre (ou prolonga) a janela do cliente; quando o cliente fica
+ * em silêncio pelo tempo da janela, ou quando a espera máxima é atingida, o turno é
+ * encerrado e entregue de uma só vez na partição do cliente no {@link PartitionedDispatcher},
+ * preservando a ordem em relação às próximas mensagens do mesmo cliente.
+ */
+@Component
+@Slf4j
+public class InboundMessageCoalescer {
+
+    private static final String METRIC_PREFIX = "urbana.inbound.coalescing";
+
+    private final PartitionedDispatcher dispatcher;
+    private final InboundCoalescingConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private final Map<String, Turn> turns = new HashMap<>();
+
+    private final Counter mergedCounter;
+    private final DistributionSummary turnSize;
+
+    public InboundMessageCoalescer(PartitionedDispatcher dispatcher, InboundCoalescingConfig config,
+                                   MeterRegistry meterRegistry) {
+        this.dispatcher = dispatcher;
+        this.config = config;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inbound-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.mergedCounter = Counter.builder(METRIC_PREFIX + ".merged")
+                .description("Mensagens incorporadas a um turno já aberto do mesmo cliente")
+                .register(meterRegistry);
+        this.turnSize = DistributionSummary.builder(METRIC_PREFIX + ".turn.size")
+                .description("Quantidade de mensagens respondidas em cada turno")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", this, InboundMessageCoalescer::pendingTurns)
+                .description("Turnos aguardando o fim da janela")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica se as mensagens devem ser agrupadas ou respondidas individualmente.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled() && !config.getWindow().isZero() && !config.getWindow().isNegative();
+    }
+
+    /**
+     * Inclui uma mensagem já persistida no turno aberto do cliente, abrindo um novo se necessário.
+     *
+     * @param key Chave do cliente (a mesma usada para particionar o despachante)
+     * @param message Mensagem recebida
+     * @param handler Processamento do turno; recebe as mensagens em ordem cronológica.
+     *                Quando o turno já existe, prevalece o processamento informado na abertura.
+     * @return Future concluído quando o turno inteiro tiver sido processado
+     */
+    public CompletableFuture<Void> add(String key, Message message, Consumer<List<Message>> handler) {
+        return addAll(key, List.of(message), handler);
+    }
+
+    /**
+     * Inclui de uma só vez várias mensagens já persistidas no turno aberto do cliente, como as
+     * que ficaram sem resposta em uma entrega anterior. Mensagens que já estão no turno (mesmo ID)
+     * são ignoradas, e o turno é mantido em ordem cronológica.
+     *
+     * @param key Chave do cliente (a mesma usada para particionar o despachante)
+     * @param messages Mensagens recebidas
+     * @param handler Processamento do turno, como em {@link #add}
+     * @return Future concluído quando o turno inteiro tiver sido processado
+     */
+    public CompletableFuture<Void> addAll(String key, List<Message> messages, Consumer<List<Message>> handler) {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            Turn turn = turns.get(key);
+            if (turn == null) {
+                turn = new Turn(handler, now + config.getMaxWait().toNanos());
+                turns.put(key, turn);
+            } else {
+                turn.timer.cancel(false);
+            }
+            for (Message message : messages) {
+                if (turn.contains(message)) {
+                    continue;
+                }
+                if (!turn.messages.isEmpty()) {
+                    mergedCounter.increment();
+                }
+                turn.messages.add(message);
+            }
+            // Mensagens retomadas são mais antigas que as já incluídas; a ordenação é estável
+            turn.messages.sort(Comparator.comparing(Message::getTimestamp,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+
+            // A janela recomeça a cada mensagem, limitada pela espera máxima do turno
+            long delay = Math.max(0, Math.min(config.getWindow().toNanos(), turn.deadline - now));
+            Turn scheduled = turn;
+            turn.timer = scheduler.schedule(() -> close(key, scheduled), delay, TimeUnit.NANOSECONDS);
+            return turn.future;
+        }
+    }
+
+    /**
+     * Encerra o turno e o envia para a partição do cliente. Chamadas para um turno já
+     * encerrado (timer cancelado tarde demais) são ignoradas.
+     */
+    private void close(String key, Turn turn) {
+        synchronized (lock) {
+            if (!turns.remove(key, turn)) {
+                return;
+            }
+        }
+
+        List<Message> messages = List.copyOf(turn.messages);
+        turnSize.record(messages.size());
+        if (messages.size() > 1) {
+            log.debug("Turno do cliente {} encerrado com {} mensagens", key, messages.size());
+        }
+
+        dispatcher.submit(key, () -> turn.handler.accept(messages))
+                .whenComplete((result, error) -> {
+                    if (error == null) {
+                        turn.future.complete(null);
+                    } else {
+                        turn.future.completeExceptionally(error);
+                    }
+                });
+    }
+
+    private int pendingTurns() {
+        synchronized (lock) {
+            return turns.size();
+        }
+    }
+
+    /**
+     * Encerra imediatamente os turnos abertos, enviando-os ao despachante antes
+     * que ele seja finalizado.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        List<Map.Entry<String, Turn>> remaining;
+        synchronized (lock) {
+            remaining = new ArrayList<>(turns.entrySet());
+        }
+        log.info("Encerrando agrupamento de mensagens. Turnos abertos: {}", remaining.size());
+        remaining.forEach(entry -> close(entry.getKey(), entry.getValue()));
+    }
+
+    private static class Turn {
+        final List<Message> messages = new ArrayList<>();
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final Consumer<List<Message>> handler;
+        final long deadline;
+        ScheduledFuture<?> timer;
+
+        Turn(Consumer<List<Message>> handler, long deadline) {
+            this.handler = handler;
+            this.deadline = deadline;
+        }
+
+        boolean contains(Message message) {
+            return message.getId() != null
+                    && messages.stream().anyMatch(queued -> message.getId().equals(queued.getId()));
+        }
+    }
+}
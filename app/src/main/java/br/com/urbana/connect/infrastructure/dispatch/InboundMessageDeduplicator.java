@@ -0,0 +1,91 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.DeduplicationConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conjunto limitado de IDs de mensagens do WhatsApp vistos recentemente.
+ * Barra reentregas do webhook antes de qualquer acesso ao MongoDB ou à OpenAI.
+ * O índice único em {@code Message.whatsappMessageId} cobre os IDs que já
+ * saíram da memória (ex.: após reinício da aplicação).
+ */
+@Component
+@Slf4j
+public class InboundMessageDeduplicator {
+
+    private static final String METRIC_NAME = "urbana.webhook.dedup";
+
+    private final Cache<String, Boolean> seenMessages;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter storeHitCounter;
+
+    public InboundMessageDeduplicator(DeduplicationConfig config, MeterRegistry meterRegistry) {
+        this.seenMessages = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .build();
+
+        this.hitCounter = Counter.builder(METRIC_NAME)
+                .description("Mensagens recebidas verificadas na deduplicação")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder(METRIC_NAME)
+                .description("Mensagens recebidas verificadas na deduplicação")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.storeHitCounter = Counter.builder(METRIC_NAME)
+                .description("Mensagens recebidas verificadas na deduplicação")
+                .tag("result", "store_hit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra o ID da mensagem se ainda não tiver sido visto.
+     *
+     * @param whatsappMessageId ID da mensagem no WhatsApp
+     * @return true se a mensagem é nova e deve ser processada, false se for duplicada
+     */
+    public boolean markIfFirstSeen(String whatsappMessageId) {
+        if (whatsappMessageId == null) {
+            // Sem ID não há como deduplicar
+            return true;
+        }
+
+        if (seenMessages.asMap().putIfAbsent(whatsappMessageId, Boolean.TRUE) != null) {
+            hitCounter.increment();
+            log.info("Mensagem duplicada ignorada: {}", whatsappMessageId);
+            return false;
+        }
+
+        missCounter.increment();
+        return true;
+    }
+
+    /**
+     * Esquece um ID, permitindo que uma nova entrega da mesma mensagem seja processada.
+     * Usado quando a mensagem não pôde ser enfileirada ou processada.
+     *
+     * @param whatsappMessageId ID da mensagem no WhatsApp
+     */
+    public void release(String whatsappMessageId) {
+        if (whatsappMessageId != null) {
+            seenMessages.invalidate(whatsappMessageId);
+        }
+    }
+
+    /**
+     * Registra uma duplicata que passou pela memória mas foi barrada pelo índice único.
+     *
+     * @param whatsappMessageId ID da mensagem no WhatsApp
+     */
+    public void recordStoredDuplicate(String whatsappMessageId) {
+        storeHitCounter.increment();
+        log.info("Mensagem {} já persistida anteriormente. Ignorando reentrega", whatsappMessageId);
+    }
+}
@@ -0,0 +1,340 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.OutboxConfig;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.enums.OutboxStatus;
+import br.com.urbana.connect.domain.exception.WhatsappSendException;
+import br.com.urbana.connect.domain.model.Customer;
+import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.OutboxEntry;
+import br.com.urbana.connect.domain.port.output.CustomerRepository;
+import br.com.urbana.connect.domain.port.output.MessageRepository;
+import br.com.urbana.connect.domain.port.output.OutboxRepository;
+import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia as mensagens da fila de saída para o WhatsApp.
+ * <p>
+ * Cada mensagem de saída é gravada na fila uma única vez (pelo ID da mensagem) e
+ * reservada por uma única instância de cada vez. Os envios respeitam um limite de
+ * mensagens por segundo por número remetente, de forma que picos de respostas são
+ * espalhados no tempo em vez de esbarrarem no limite da API. Falhas de rede, 429 e
+ * 5xx são reenviadas com espera exponencial; as demais falhas, ou o esgotamento das
+ * tentativas, marcam a mensagem como FAILED.
+ * <p>
+ * Mensagens para o mesmo destinatário são enviadas na ordem em que foram gravadas: uma
+ * mensagem só é reservada depois que as anteriores do destinatário forem enviadas ou
+ * falharem, inclusive enquanto uma delas aguarda nova tentativa ou está com outra instância.
+ * <p>
+ * Uma varredura periódica recoloca na fila as mensagens de saída gravadas como PENDING
+ * que não chegaram a entrar nela (falha ou queda entre as duas gravações).
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final String METRIC_PREFIX = "urbana.outbox";
+
+    private final OutboxRepository outboxRepository;
+    private final MessageRepository messageRepository;
+    private final CustomerRepository customerRepository;
+    private final WhatsappServicePort whatsappService;
+    private final OutboxConfig config;
+    private final String phoneNumberId;
+    private final ExecutorService senders;
+    private final Set<String> inFlightRecipients = ConcurrentHashMap.newKeySet();
+    private final Map<String, TokenBucket> rateLimits = new ConcurrentHashMap<>();
+    private final Object claimLock = new Object();
+    private volatile boolean running = true;
+
+    private final Timer sendTimer;
+    private final Timer throttleTimer;
+    private final MeterRegistry meterRegistry;
+
+    public OutboxDispatcher(OutboxRepository outboxRepository,
+                            MessageRepository messageRepository,
+                            CustomerRepository customerRepository,
+                            WhatsappServicePort whatsappService,
+                            OutboxConfig config,
+                            @Value("${whatsapp.phone-number-id}") String phoneNumberId,
+                            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.messageRepository = messageRepository;
+        this.customerRepository = customerRepository;
+        this.whatsappService = whatsappService;
+        this.config = config;
+        this.phoneNumberId = phoneNumberId;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, config.getConcurrency()), runnable -> {
+            Thread thread = new Thread(runnable, "outbox-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sendTimer = Timer.builder(METRIC_PREFIX + ".send")
+                .description("Duração dos envios de mensagens para a API do WhatsApp")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.throttleTimer = Timer.builder(METRIC_PREFIX + ".throttle")
+                .description("Espera imposta pelo limite de mensagens por segundo do número remetente")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".inflight", inFlightRecipients, Set::size)
+                .description("Envios em andamento nesta instância")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adiciona uma mensagem de saída já gravada à fila e dispara o envio.
+     * Uma mensagem que já está na fila não é adicionada novamente.
+     *
+     * @param message Mensagem gravada, com ID
+     * @param recipient Telefone do destinatário
+     * @return true se a mensagem foi adicionada, false se já estava na fila
+     */
+    public boolean enqueue(Message message, String recipient) {
+        boolean added = outboxRepository.enqueue(OutboxEntry.builder()
+                .id(message.getId())
+                .phoneNumberId(phoneNumberId)
+                .recipient(recipient)
+                .content(message.getContent())
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        if (!added) {
+            log.debug("Mensagem {} já estava na fila de saída", message.getId());
+            return false;
+        }
+        wakeUp();
+        return true;
+    }
+
+    /**
+     * Recoloca na fila as mensagens de saída gravadas e não enfileiradas. Só considera
+     * mensagens com mais de {@code recoveryDelay}, para não disputar com quem as gravou.
+     */
+    @Scheduled(fixedDelayString = "${urbana.outbox.recovery-interval:60000}")
+    public void recoverUnqueued() {
+        if (!running) {
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Message> unqueued = outboxRepository.findUnqueuedMessages(
+                    now.minus(config.getRecoveryMaxAge()), now.minus(config.getRecoveryDelay()),
+                    config.getRecoveryBatchSize());
+
+            for (Message message : unqueued) {
+                Optional<Customer> customer = customerRepository.findById(message.getCustomerId());
+                if (customer.isEmpty()) {
+                    log.error("Mensagem {} fora da fila de saída sem o cliente {}; marcada como falha",
+                            message.getId(), message.getCustomerId());
+                    messageRepository.updateStatus(message.getId(), MessageStatus.FAILED);
+                    count("failed");
+                    continue;
+                }
+                if (enqueue(message, customer.get().getPhoneNumber())) {
+                    log.warn("Mensagem {} gravada e não enfileirada; recolocada na fila de saída", message.getId());
+                    count("recovered");
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erro ao recolocar mensagens na fila de saída: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Busca periodicamente mensagens prontas para envio: novas, com reenvio vencido
+     * ou com reserva expirada (instância que caiu durante o envio).
+     */
+    @Scheduled(fixedDelayString = "${urbana.outbox.poll-interval:1000}")
+    public void poll() {
+        if (!running) {
+            return;
+        }
+
+        try {
+            synchronized (claimLock) {
+                while (running && inFlightRecipients.size() < config.getConcurrency()) {
+                    Optional<OutboxEntry> claimed = outboxRepository.claimNext(
+                            config.getInstanceId(), config.getLeaseDuration(), List.copyOf(inFlightRecipients));
+                    if (claimed.isEmpty()) {
+                        return;
+                    }
+
+                    OutboxEntry entry = claimed.get();
+                    inFlightRecipients.add(entry.getRecipient());
+                    try {
+                        senders.execute(() -> send(entry));
+                    } catch (RejectedExecutionException e) {
+                        // Encerrando: a reserva expira e a mensagem é enviada por outra instância
+                        inFlightRecipients.remove(entry.getRecipient());
+                        return;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erro ao buscar mensagens na fila de saída: {}", e.getMessage(), e);
+        }
+    }
+
+    private void wakeUp() {
+        try {
+            senders.execute(this::poll);
+        } catch (RejectedExecutionException e) {
+            log.debug("Fila de saída encerrada; a mensagem será enviada na próxima inicialização");
+        }
+    }
+
+    private void send(OutboxEntry entry) {
+        try {
+            throttle(entry.getPhoneNumberId());
+
+            long startedAt = System.nanoTime();
+            String whatsappMessageId;
+            try {
+                whatsappMessageId = whatsappService.deliverTextMessage(entry.getRecipient(), entry.getContent());
+            } finally {
+                sendTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+
+            outboxRepository.markSent(entry.getId(), whatsappMessageId);
+            messageRepository.markSent(entry.getId(), whatsappMessageId);
+            count("sent");
+            log.info("Mensagem {} enviada via WhatsApp. ID: {}", entry.getId(), whatsappMessageId);
+        } catch (Exception e) {
+            handleFailure(entry, e);
+        } finally {
+            inFlightRecipients.remove(entry.getRecipient());
+        }
+
+        // Continua drenando a fila sem esperar a próxima busca periódica
+        poll();
+    }
+
+    private void handleFailure(OutboxEntry entry, Exception error) {
+        boolean retryable = !(error instanceof WhatsappSendException sendError) || sendError.isRetryable();
+
+        try {
+            if (retryable && entry.getAttempts() < config.getMaxAttempts()) {
+                Duration backoff = backoffFor(entry.getAttempts());
+                log.warn("Falha ao enviar mensagem {} (tentativa {}). Nova tentativa em {} ms: {}",
+                        entry.getId(), entry.getAttempts(), backoff.toMillis(), error.getMessage());
+                outboxRepository.reschedule(entry.getId(), error.getMessage(), LocalDateTime.now().plus(backoff));
+                count("retried");
+                return;
+            }
+
+            log.error("Mensagem {} não enviada após {} tentativas: {}",
+                    entry.getId(), entry.getAttempts(), error.getMessage());
+            outboxRepository.markFailed(entry.getId(), error.getMessage());
+            messageRepository.updateStatus(entry.getId(), MessageStatus.FAILED);
+            count("failed");
+        } catch (Exception e) {
+            // A reserva expira e a mensagem é reenviada
+            log.error("Erro ao atualizar a mensagem {} na fila de saída: {}", entry.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Espera antes da próxima tentativa: dobra a cada tentativa, até o máximo configurado.
+     */
+    Duration backoffFor(int attempts) {
+        long initial = config.getInitialBackoff().toMillis();
+        long max = config.getMaxBackoff().toMillis();
+        int exponent = Math.min(Math.max(0, attempts - 1), 30);
+        return Duration.ofMillis(Math.min(max, initial << exponent));
+    }
+
+    /**
+     * Aguarda uma vaga no limite de mensagens por segundo do número remetente.
+     */
+    private void throttle(String senderId) throws InterruptedException {
+        TokenBucket bucket = rateLimits.computeIfAbsent(senderId == null ? "" : senderId,
+                id -> new TokenBucket(config.getMessagesPerSecond()));
+        long waitNanos = bucket.reserve();
+        throttleTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter(METRIC_PREFIX + ".messages", "result", result).increment();
+    }
+
+    /**
+     * Interrompe novas reservas e aguarda os envios em andamento. Mensagens reservadas
+     * e não enviadas voltam a ficar disponíveis quando a reserva expira.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(10, TimeUnit.SECONDS)) {
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            senders.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Limite de vazão por número remetente. Cada envio reserva a próxima vaga, de forma
+     * que envios simultâneos são espaçados em vez de saírem todos de uma vez.
+     */
+    static class TokenBucket {
+
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double permitsPerSecond) {
+            double rate = Math.max(permitsPerSecond, 0.001);
+            this.permitsPerNano = rate / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, rate);
+            this.tokens = capacity;
+        }
+
+        /**
+         * Reserva uma vaga.
+         *
+         * @return Tempo de espera até a vaga, em nanossegundos; zero se disponível agora
+         */
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.DispatcherConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Despachante de tarefas em memória, particionado por chave.
+ * Tarefas com a mesma chave (ex.: telefone do cliente) caem sempre na mesma
+ * partição e são executadas estritamente em ordem, enquanto chaves diferentes
+ * são processadas em paralelo. Cada partição tem uma fila limitada.
+ */
+@Component
+@Slf4j
+public class PartitionedDispatcher {
+
+    private final ThreadPoolExecutor[] partitions;
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+    private final Counter rejectedCounter;
+
+    public PartitionedDispatcher(DispatcherConfig config, MeterRegistry meterRegistry) {
+        int partitionCount = Math.max(1, config.getPartitions());
+        this.partitions = new ThreadPoolExecutor[partitionCount];
+
+        for (int i = 0; i < partitionCount; i++) {
+            String threadName = "webhook-partition-" + i;
+            partitions[i] = new ThreadPoolExecutor(
+                    1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        this.waitTimer = Timer.builder("urbana.dispatcher.wait")
+                .description("Tempo de espera na fila antes do processamento")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("urbana.dispatcher.processing")
+                .description("Tempo de processamento de cada tarefa")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("urbana.dispatcher.rejected")
+                .description("Tarefas recusadas por fila cheia")
+                .register(meterRegistry);
+        Gauge.builder("urbana.dispatcher.queue.depth", this, PartitionedDispatcher::queuedTasks)
+                .description("Total de tarefas aguardando em todas as partições")
+                .register(meterRegistry);
+        Gauge.builder("urbana.dispatcher.queue.max.depth", this, PartitionedDispatcher::deepestQueue)
+                .description("Profundidade da partição mais carregada")
+                .register(meterRegistry);
+
+        log.info("Despachante inicializado com {} partições (capacidade por fila: {})",
+                partitionCount, config.getQueueCapacity());
+    }
+
+    /**
+     * Enfileira uma tarefa na partição correspondente à chave.
+     *
+     * @param key Chave de particionamento (ex.: telefone do remetente)
+     * @param task Tarefa a ser executada
+     * @return true se a tarefa foi aceita, false se a fila da partição estiver cheia
+     */
+    public boolean dispatch(String key, Runnable task) {
+        int index = partitionFor(key);
+        long enqueuedAt = System.nanoTime();
+
+        try {
+            partitions[index].execute(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                processingTimer.record(() -> runSafely(task, key));
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Fila da partição {} cheia. Tarefa para a chave {} recusada", index, key);
+            return false;
+        }
+    }
+
+    /**
+     * Enfileira uma tarefa e devolve um future concluído quando ela terminar.
+     * Se a fila da partição estiver cheia, o future já é devolvido com
+     * {@link RejectedExecutionException}.
+     *
+     * @param key Chave de particionamento (ex.: telefone do remetente)
+     * @param task Tarefa a ser executada
+     * @return Future da execução da tarefa
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        boolean accepted = dispatch(key, () -> {
+            try {
+                task.run();
+                future.complete(null);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+        });
+
+        if (!accepted) {
+            future.completeExceptionally(new RejectedExecutionException("Fila da partição cheia"));
+        }
+        return future;
+    }
+
+    /**
+     * Calcula a partição de uma chave. Chaves nulas vão para a partição zero.
+     */
+    int partitionFor(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), partitions.length);
+    }
+
+    /**
+     * Total de tarefas aguardando em todas as partições.
+     */
+    public int queuedTasks() {
+        return Arrays.stream(partitions).mapToInt(p -> p.getQueue().size()).sum();
+    }
+
+    /**
+     * Espaço livre somado de todas as filas de partição.
+     */
+    public int remainingCapacity() {
+        return Arrays.stream(partitions).mapToInt(p -> p.getQueue().remainingCapacity()).sum();
+    }
+
+    private int deepestQueue() {
+        return Arrays.stream(partitions).mapToInt(p -> p.getQueue().size()).max().orElse(0);
+    }
+
+    private void runSafely(Runnable task, String key) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            // Não deixar a exceção derrubar a thread da partição
+            log.error("Erro ao processar tarefa para a chave {}: {}", key, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Encerra as partições, aguardando as tarefas já enfileiradas.
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("Encerrando despachante. Tarefas pendentes: {}", queuedTasks());
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+        for (ThreadPoolExecutor partition : partitions) {
+            try {
+                if (!partition.awaitTermination(10, TimeUnit.SECONDS)) {
+                    partition.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                partition.shutdownNow();
+            }
+        }
+    }
+}
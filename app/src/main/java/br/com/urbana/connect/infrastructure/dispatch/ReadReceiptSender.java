@@ -0,0 +1,228 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.ReadReceiptConfig;
+import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia as confirmações de leitura para o WhatsApp em segundo plano, fora do caminho
+ * crítico do processamento das mensagens.
+ * <p>
+ * Confirmar uma mensagem marca como lidas também as anteriores da mesma conversa, então,
+ * dentro de cada intervalo de envio, apenas a mensagem mais recente de cada cliente é
+ * confirmada. Falhas são repetidas com espera exponencial e baixa prioridade: só depois
+ * das confirmações novas e apenas se nenhuma confirmação mais recente do mesmo cliente
+ * tiver chegado nesse meio tempo.
+ * <p>
+ * As confirmações de cada envio são feitas em paralelo, em grupos de até
+ * {@link ReadReceiptConfig#getConcurrency()} chamadas sobre o cliente HTTP com pool de
+ * conexões, e cada chamada tem um prazo: a que não responder a tempo conta como falha e é
+ * repetida, sem atrasar as demais.
+ */
+@Component
+@Slf4j
+public class ReadReceiptSender {
+
+    private static final String METRIC_PREFIX = "urbana.read.receipts";
+
+    private final WhatsappServicePort whatsappService;
+    private final ReadReceiptConfig config;
+    private final ScheduledExecutorService executor;
+    private final ExecutorService sendExecutor;
+    private final Object lock = new Object();
+    private Map<String, String> pending = new LinkedHashMap<>();
+    private final Map<String, Retry> retries = new LinkedHashMap<>();
+
+    private final Counter coalescedCounter;
+    private final MeterRegistry meterRegistry;
+
+    public ReadReceiptSender(WhatsappServicePort whatsappService, ReadReceiptConfig config, MeterRegistry meterRegistry) {
+        this.whatsappService = whatsappService;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-receipts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Sem limite de threads: o paralelismo é limitado pelos grupos, e uma chamada que
+        // passou do prazo não impede o início das seguintes
+        AtomicInteger sendThreads = new AtomicInteger();
+        this.sendExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "read-receipts-send-" + sendThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.coalescedCounter = Counter.builder(METRIC_PREFIX + ".coalesced")
+                .description("Confirmações de leitura substituídas por uma mais recente do mesmo cliente")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", this, ReadReceiptSender::pendingCount)
+                .description("Confirmações de leitura aguardando envio, incluindo novas tentativas")
+                .register(meterRegistry);
+
+        long interval = Math.max(1, config.getFlushInterval().toMillis());
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Agenda a confirmação de leitura de uma mensagem recebida. Retorna imediatamente.
+     *
+     * @param customerId Cliente que enviou a mensagem
+     * @param whatsappMessageId ID da mensagem no WhatsApp
+     */
+    public void submit(String customerId, String whatsappMessageId) {
+        synchronized (lock) {
+            if (pending.put(customerId, whatsappMessageId) != null) {
+                coalescedCounter.increment();
+            }
+            // Uma confirmação mais recente cobre a que estava aguardando nova tentativa
+            if (retries.remove(customerId) != null) {
+                coalescedCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Envia as confirmações novas e, em seguida, as novas tentativas vencidas.
+     */
+    void flush() {
+        Map<String, String> batch;
+        List<Map.Entry<String, Retry>> dueRetries = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (lock) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+
+            Iterator<Map.Entry<String, Retry>> iterator = retries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Retry> entry = iterator.next();
+                if (entry.getValue().dueAt - now <= 0) {
+                    dueRetries.add(entry);
+                    iterator.remove();
+                }
+            }
+        }
+
+        List<Map.Entry<String, Retry>> receipts = new ArrayList<>(batch.size() + dueRetries.size());
+        batch.forEach((customerId, whatsappMessageId) -> receipts.add(Map.entry(customerId, new Retry(whatsappMessageId, 1, now))));
+        receipts.addAll(dueRetries);
+        sendAll(receipts);
+    }
+
+    private void sendAll(List<Map.Entry<String, Retry>> receipts) {
+        int concurrency = Math.max(1, config.getConcurrency());
+        for (int from = 0; from < receipts.size(); from += concurrency) {
+            CompletableFuture<?>[] group = receipts.subList(from, Math.min(from + concurrency, receipts.size()))
+                    .stream()
+                    .map(receipt -> send(receipt.getKey(), receipt.getValue()))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(group).join();
+        }
+    }
+
+    private CompletableFuture<Void> send(String customerId, Retry receipt) {
+        return CompletableFuture.supplyAsync(() -> whatsappService.markMessageAsRead(receipt.whatsappMessageId), sendExecutor)
+                .orTimeout(config.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((sent, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        log.warn("Erro ao enviar confirmação de leitura {}: {}", receipt.whatsappMessageId,
+                                cause instanceof TimeoutException ? "prazo esgotado" : cause.getMessage());
+                        return false;
+                    }
+                    return sent;
+                })
+                .thenAccept(sent -> handleResult(customerId, receipt, sent));
+    }
+
+    private void handleResult(String customerId, Retry receipt, boolean sent) {
+        if (sent) {
+            count("sent");
+            return;
+        }
+
+        if (receipt.attempts >= config.getMaxAttempts()) {
+            log.warn("Confirmação de leitura {} descartada após {} tentativas", 
+                    receipt.whatsappMessageId, receipt.attempts);
+            count("failed");
+            return;
+        }
+
+        long delay = config.getRetryDelay().toNanos() << Math.min(receipt.attempts - 1, 20);
+        Retry retry = new Retry(receipt.whatsappMessageId, receipt.attempts + 1, System.nanoTime() + delay);
+        synchronized (lock) {
+            // Se já chegou uma confirmação mais recente do cliente, a nova tentativa é desnecessária
+            if (!pending.containsKey(customerId)) {
+                retries.putIfAbsent(customerId, retry);
+            }
+        }
+        count("retried");
+    }
+
+    private void count(String result) {
+        meterRegistry.counter(METRIC_PREFIX + ".sent", "result", result).increment();
+    }
+
+    private int pendingCount() {
+        synchronized (lock) {
+            return pending.size() + retries.size();
+        }
+    }
+
+    /**
+     * Envia as confirmações novas ainda pendentes e encerra o envio em segundo plano.
+     * Novas tentativas pendentes são descartadas.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+            Map<String, String> remaining;
+            synchronized (lock) {
+                remaining = pending;
+                pending = new LinkedHashMap<>();
+            }
+            List<Map.Entry<String, Retry>> receipts = new ArrayList<>(remaining.size());
+            remaining.forEach((customerId, whatsappMessageId) ->
+                    receipts.add(Map.entry(customerId, new Retry(whatsappMessageId, config.getMaxAttempts(), 0))));
+            sendAll(receipts);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sendExecutor.shutdown();
+        }
+    }
+
+    private static class Retry {
+        final String whatsappMessageId;
+        final int attempts;
+        final long dueAt;
+
+        Retry(String whatsappMessageId, int attempts, long dueAt) {
+            this.whatsappMessageId = whatsappMessageId;
+            this.attempts = attempts;
+            this.dueAt = dueAt;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.InboxConfig;
+import br.com.urbana.connect.domain.model.WebhookInboxEntry;
+import br.com.urbana.connect.domain.port.input.WebhookUseCase;
+import br.com.urbana.connect.domain.port.output.WebhookInboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reprocessa notificações da caixa de entrada do webhook que não foram concluídas:
+ * entradas devolvidas após falha, entradas cuja reserva expirou (instância que
+ * caiu durante o processamento) e, na inicialização, entradas que esta própria
+ * instância havia reservado antes de reiniciar.
+ * <p>
+ * A retomada na inicialização depende de o identificador da instância ser o mesmo
+ * antes e depois do reinício. Quando não é (hostname aleatório), as entradas da
+ * instância anterior ficam reservadas até a reserva expirar e então são retomadas
+ * pela busca periódica.
+ */
+@Component
+@Slf4j
+public class WebhookInboxWorker {
+
+    private final WebhookInboxRepository inboxRepository;
+    private final WebhookUseCase webhookUseCase;
+    private final PartitionedDispatcher dispatcher;
+    private final InboxConfig config;
+    private final Counter replayedCounter;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+
+    public WebhookInboxWorker(WebhookInboxRepository inboxRepository,
+                              WebhookUseCase webhookUseCase,
+                              PartitionedDispatcher dispatcher,
+                              InboxConfig config,
+                              MeterRegistry meterRegistry) {
+        this.inboxRepository = inboxRepository;
+        this.webhookUseCase = webhookUseCase;
+        this.dispatcher = dispatcher;
+        this.config = config;
+        this.replayedCounter = Counter.builder("urbana.webhook.inbox.replayed")
+                .description("Notificações reprocessadas a partir da caixa de entrada")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Na inicialização, libera a busca periódica, que retoma primeiro as notificações que
+     * esta instância deixou pela metade, reconhecidas pelo identificador da instância.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        ready.set(true);
+        poll();
+    }
+
+    /**
+     * Busca periodicamente notificações pendentes ou com reserva expirada, começando
+     * pelas reservadas por esta instância antes de reiniciar. Cada busca reserva no máximo
+     * um lote, e só enquanto as filas do despachante conseguem absorvê-lo; o restante
+     * fica para as próximas buscas.
+     */
+    @Scheduled(fixedDelayString = "${urbana.inbox.poll-interval:1000}")
+    public void poll() {
+        if (!ready.get()) {
+            return;
+        }
+
+        try {
+            for (int i = 0; i < config.getBatchSize(); i++) {
+                // Não reservar mais do que as filas conseguem absorver
+                if (dispatcher.remainingCapacity() < config.getBatchSize()) {
+                    log.debug("Filas do despachante quase cheias. Adiando reprocessamento");
+                    return;
+                }
+
+                Optional<WebhookInboxEntry> entry = claimNext();
+                if (entry.isEmpty()) {
+                    return;
+                }
+                replay(entry.get());
+            }
+        } catch (Exception e) {
+            log.error("Erro ao buscar notificações na caixa de entrada: {}", e.getMessage(), e);
+        }
+    }
+
+    private Optional<WebhookInboxEntry> claimNext() {
+        Optional<WebhookInboxEntry> owned = inboxRepository.reclaimOwned(
+                config.getInstanceId(), startedAt, config.getLeaseDuration());
+        if (owned.isPresent()) {
+            log.info("Notificação {} retomada da caixa de entrada após reinício", owned.get().getId());
+            return owned;
+        }
+        return inboxRepository.claimNext(config.getInstanceId(), config.getLeaseDuration());
+    }
+
+    private void replay(WebhookInboxEntry entry) {
+        log.info("Reprocessando notificação {} (tentativa {})", entry.getId(), entry.getAttempts());
+        replayedCounter.increment();
+        webhookUseCase.processInboxEntry(entry);
+    }
+}
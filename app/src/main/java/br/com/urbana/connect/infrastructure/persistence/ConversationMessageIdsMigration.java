@@ -0,0 +1,136 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.MigrationConfig;
+import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.Message;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compacta as conversas gravadas antes da troca da lista {@code messageIds} pelo contador
+ * de mensagens: calcula a quantidade, a primeira e a última das mensagens da lista e
+ * remove a lista do documento.
+ * <p>
+ * A migração roda com a aplicação já atendendo, e as mensagens novas atualizam o contador
+ * sem passar pela lista. Por isso ela não sobrescreve os campos: soma a quantidade da lista
+ * ao contador ({@code $inc}) e só recua a primeira ou avança a última data ({@code $min} e
+ * {@code $max}). A remoção da lista vai na mesma atualização, filtrada pela existência da
+ * lista, então cada conversa é somada uma única vez e a migração pode ser interrompida e
+ * executada novamente sem efeitos colaterais.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationMessageIdsMigration {
+
+    private static final String LEGACY_FIELD = "messageIds";
+
+    private final MongoTemplate mongoTemplate;
+    private final MigrationConfig config;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!config.isCompactMessageIds()) {
+            return;
+        }
+
+        try {
+            int migrated = migrate();
+            if (migrated > 0) {
+                log.info("{} conversas migradas para o contador de mensagens", migrated);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao migrar conversas para o contador de mensagens: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Migra todas as conversas que ainda possuem a lista de IDs de mensagens.
+     *
+     * @return Quantidade de conversas migradas
+     */
+    public int migrate() {
+        int migrated = 0;
+        List<Document> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            migrated += migrateBatch(batch);
+        }
+        return migrated;
+    }
+
+    private List<Document> nextBatch() {
+        Query query = new Query(Criteria.where(LEGACY_FIELD).exists(true)).limit(config.getBatchSize());
+        query.fields().include("_id").include(LEGACY_FIELD);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Conversation.class));
+    }
+
+    private int migrateBatch(List<Document> conversations) {
+        List<String> legacyMessageIds = conversations.stream()
+                .flatMap(conversation -> conversation.getList(LEGACY_FIELD, String.class, List.of()).stream())
+                .collect(Collectors.toList());
+        Map<String, Document> statsByConversation = messageStats(legacyMessageIds);
+
+        // A última mensagem da lista só é a última da conversa se nenhuma mensagem nova chegou.
+        // Vai antes da remoção da lista para que uma execução interrompida a repita
+        BulkOperations lastMessages = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Conversation.class);
+        BulkOperations counters = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Conversation.class);
+        for (Document conversation : conversations) {
+            String conversationId = conversation.getString("_id");
+            Document stats = statsByConversation.get(conversationId);
+            Update update = new Update().unset(LEGACY_FIELD);
+            if (stats != null) {
+                lastMessages.updateOne(new Query(Criteria.where("_id").is(conversationId)
+                                .and(LEGACY_FIELD).exists(true)
+                                .and("lastMessageId").exists(false)),
+                        new Update().set("lastMessageId", stats.get("lastMessageId")));
+                update.inc("messageCount", ((Number) stats.get("messageCount")).longValue())
+                        .min("firstMessageAt", stats.get("firstMessageAt"))
+                        .max("lastMessageAt", stats.get("lastMessageAt"));
+            } else {
+                update.inc("messageCount", 0L);
+            }
+            counters.updateOne(new Query(Criteria.where("_id").is(conversationId).and(LEGACY_FIELD).exists(true)),
+                    update);
+        }
+
+        if (!statsByConversation.isEmpty()) {
+            lastMessages.execute();
+        }
+        return counters.execute().getModifiedCount();
+    }
+
+    /**
+     * Calcula, em uma única agregação, o resumo das mensagens da lista de cada conversa do lote.
+     */
+    private Map<String, Document> messageStats(List<String> messageIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").in(messageIds)),
+                Aggregation.sort(Sort.Direction.ASC, "conversationId", "timestamp"),
+                Aggregation.group("conversationId")
+                        .count().as("messageCount")
+                        .first("timestamp").as("firstMessageAt")
+                        .last("timestamp").as("lastMessageAt")
+                        .last("_id").as("lastMessageId"));
+
+        return mongoTemplate.aggregate(aggregation, Message.class, Document.class)
+                .getMappedResults()
+                .stream()
+                .collect(Collectors.toMap(document -> document.getString("_id"), Function.identity()));
+    }
+}
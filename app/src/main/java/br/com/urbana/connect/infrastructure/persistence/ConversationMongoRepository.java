@@ -5,15 +5,24 @@ import br.com.urbana.connect.domain.enums.ConversationStatus;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Interface Spring Data MongoDB para Conversation.
  */
 @Repository
-public interface ConversationMongoRepository extends MongoRepository<Conversation, String> {
+public interface ConversationMongoRepository extends MongoRepository<Conversation, String>, ConversationMongoRepositoryCustom {
     
     List<Conversation> findByCustomerIdOrderByStartTimeDesc(String customerId);
     
     List<Conversation> findByCustomerIdAndStatus(String customerId, ConversationStatus status);
+    
+    /**
+     * Busca a conversa mais recente do cliente com um dos status informados,
+     * usando o índice (customerId, status, startTime).
+     */
+    Optional<Conversation> findFirstByCustomerIdAndStatusInOrderByStartTimeDesc(
+            String customerId, Collection<ConversationStatus> statuses);
 } 
\ No newline at end of file
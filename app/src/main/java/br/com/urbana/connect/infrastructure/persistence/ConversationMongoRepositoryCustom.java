@@ -0,0 +1,39 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
+
+import java.util.Optional;
+
+/**
+ * Operações de conversa que exigem o MongoTemplate, expostas em {@link ConversationMongoRepository}.
+ */
+public interface ConversationMongoRepositoryCustom {
+    
+    /**
+     * Retorna a conversa em andamento do cliente ou cria uma nova a partir do modelo,
+     * em uma única operação atômica (findAndModify com upsert).
+     * 
+     * @param newConversation Conversa a ser inserida caso o cliente não tenha nenhuma em andamento
+     * @return Conversa em andamento existente ou a recém-criada
+     */
+    Conversation findOrCreateActive(Conversation newConversation);
+    
+    /**
+     * Grava apenas os campos alterados da conversa ($set e $push), sem regravar o documento.
+     * 
+     * @param conversationId ID da conversa
+     * @param update Alterações a serem aplicadas
+     * @return true se a conversa foi encontrada
+     */
+    boolean applyUpdate(String conversationId, ConversationUpdate update);
+    
+    /**
+     * Grava apenas os campos alterados e devolve a conversa resultante, na mesma operação.
+     * 
+     * @param conversationId ID da conversa
+     * @param update Alterações a serem aplicadas
+     * @return Conversa atualizada ou vazio se não existir
+     */
+    Optional<Conversation> applyUpdateAndGet(String conversationId, ConversationUpdate update);
+}
@@ -0,0 +1,103 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.domain.enums.ConversationStatus;
+import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+/**
+ * Implementação das operações customizadas de conversa.
+ * <p>
+ * A busca e a criação da conversa em andamento acontecem em um único findAndModify.
+ * Se dois webhooks do mesmo cliente chegarem juntos e ambos tentarem inserir, o índice
+ * único parcial de conversas ACTIVE recusa a segunda inserção, que é repetida e passa
+ * a encontrar a conversa criada pela primeira.
+ * <p>
+ * As atualizações gravam somente os campos informados em um {@link ConversationUpdate}.
+ */
+@Slf4j
+public class ConversationMongoRepositoryCustomImpl implements ConversationMongoRepositoryCustom {
+    
+    private static final int MAX_ATTEMPTS = 3;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public ConversationMongoRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public Conversation findOrCreateActive(Conversation newConversation) {
+        Query query = new Query(Criteria.where("customerId").is(newConversation.getCustomerId())
+                .and("status").in(ConversationStatus.openStatuses()))
+                .with(Sort.by(Sort.Direction.DESC, "startTime"));
+        
+        // Todos os campos do modelo só são gravados se o documento for inserido
+        Document document = new Document();
+        mongoTemplate.getConverter().write(newConversation, document);
+        document.remove("customerId");
+        Update update = new Update();
+        document.forEach(update::setOnInsert);
+        
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return mongoTemplate.findAndModify(query, update, options, Conversation.class);
+            } catch (DuplicateKeyException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Conversa ativa criada em paralelo para o cliente {}. Buscando novamente", 
+                        newConversation.getCustomerId());
+            }
+        }
+    }
+    
+    @Override
+    public boolean applyUpdate(String conversationId, ConversationUpdate update) {
+        if (update.isEmpty()) {
+            return mongoTemplate.exists(byId(conversationId), Conversation.class);
+        }
+        return mongoTemplate.updateFirst(byId(conversationId), toMongoUpdate(update), Conversation.class)
+                .getMatchedCount() > 0;
+    }
+    
+    @Override
+    public Optional<Conversation> applyUpdateAndGet(String conversationId, ConversationUpdate update) {
+        if (update.isEmpty()) {
+            return Optional.ofNullable(mongoTemplate.findById(conversationId, Conversation.class));
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(byId(conversationId), toMongoUpdate(update),
+                FindAndModifyOptions.options().returnNew(true), Conversation.class));
+    }
+    
+    private Update toMongoUpdate(ConversationUpdate conversationUpdate) {
+        Update update = new Update();
+        conversationUpdate.getFieldsToSet().forEach(update::set);
+        conversationUpdate.getFieldsToIncrement().forEach(update::inc);
+        conversationUpdate.getFieldsToMinimize().forEach(update::min);
+        conversationUpdate.getValuesToPush().forEach((path, push) -> {
+            Update.PushOperatorBuilder builder = update.push(path);
+            if (push.getKeepLast() > 0) {
+                // $slice negativo mantém apenas os itens mais recentes do fim da lista
+                builder.slice(-push.getKeepLast());
+            }
+            builder.each(push.getValues().toArray());
+        });
+        return update;
+    }
+    
+    private Query byId(String conversationId) {
+        return new Query(Criteria.where("_id").is(conversationId));
+    }
+}
@@ -12,7 +12,7 @@ import java.util.Optional;
  * Interface Spring Data MongoDB para Customer.
  */
 @Repository
-public interface CustomerMongoRepository extends MongoRepository<Customer, String> {
+public interface CustomerMongoRepository extends MongoRepository<Customer, String>, CustomerMongoRepositoryCustom {
     
     Optional<Customer> findByPhoneNumber(String phoneNumber);
     
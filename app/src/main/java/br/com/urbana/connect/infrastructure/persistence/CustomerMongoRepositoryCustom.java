@@ -0,0 +1,18 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.domain.model.Customer;
+
+/**
+ * Operações de cliente que exigem o MongoTemplate, expostas em {@link CustomerMongoRepository}.
+ */
+public interface CustomerMongoRepositoryCustom {
+    
+    /**
+     * Retorna o cliente com o número informado, criando-o se ainda não existir,
+     * em uma única operação atômica (findAndModify com upsert).
+     * 
+     * @param phoneNumber Número de telefone do cliente
+     * @return Cliente existente ou recém-criado
+     */
+    Customer findOrCreateByPhoneNumber(String phoneNumber);
+}
@@ -0,0 +1,57 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.domain.model.Customer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.UUID;
+
+/**
+ * Implementação das operações customizadas de cliente.
+ * <p>
+ * O upsert se apoia no índice único de phoneNumber: quando várias requisições do mesmo
+ * número novo chegam juntas, apenas uma insere e as demais encontram o documento criado.
+ * O próprio MongoDB repete o upsert que perde a corrida; a nova tentativa aqui cobre
+ * servidores que devolvem o erro de chave duplicada.
+ */
+@Slf4j
+public class CustomerMongoRepositoryCustomImpl implements CustomerMongoRepositoryCustom {
+    
+    private static final int MAX_ATTEMPTS = 3;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public CustomerMongoRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public Customer findOrCreateByPhoneNumber(String phoneNumber) {
+        Query query = new Query(Criteria.where("phoneNumber").is(phoneNumber));
+        
+        // O número vem da própria consulta; os demais campos só são gravados na criação
+        Update update = new Update()
+                .setOnInsert("_id", UUID.randomUUID().toString())
+                .setOnInsert("createdAt", LocalDateTime.now())
+                .setOnInsert("preferences", new HashMap<String, String>());
+        
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return mongoTemplate.findAndModify(query, update, options, Customer.class);
+            } catch (DuplicateKeyException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Cliente {} criado em paralelo. Buscando novamente", phoneNumber);
+            }
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package br.com.urbana.connect.infrastructure.persistence;
 
 import br.com.urbana.connect.domain.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +20,33 @@ public interface MessageMongoRepository extends MongoRepository<Message, String>
     
     List<Message> findByConversationIdOrderByTimestampAsc(String conversationId);
     
+    /**
+     * Busca uma página das mensagens de uma conversa pelo índice (conversationId, timestamp).
+     * Retorna lista em vez de página para não executar uma contagem a cada consulta:
+     * o total já está no contador da conversa.
+     */
+    List<Message> findByConversationId(String conversationId, Pageable pageable);
+    
+    /**
+     * Busca as mensagens mais recentes de uma conversa, da mais nova para a mais antiga,
+     * trazendo apenas os campos usados na montagem do histórico.
+     * Coberta pelo índice (conversationId, timestamp): o custo não cresce com o tamanho da conversa.
+     */
+    @Query(value = "{ 'conversationId': ?0 }",
+           fields = "{ 'direction': 1, 'content': 1, 'timestamp': 1 }",
+           sort = "{ 'timestamp': -1 }")
+    List<Message> findRecentHistory(String conversationId, Pageable pageable);
+    
     List<Message> findByCustomerIdOrderByTimestampDesc(String customerId);
     
     Optional<Message> findByWhatsappMessageId(String whatsappMessageId);
+    
+    /**
+     * Coberta pelo índice parcial das mensagens sem resposta, que só contém essas mensagens.
+     */
+    List<Message> findByConversationIdAndAwaitingResponseTrueOrderByTimestampAsc(String conversationId);
+    
+    @Query("{ '_id': { '$in': ?0 } }")
+    @Update("{ '$set': { 'awaitingResponse': false, 'respondedAt': ?1 } }")
+    void markResponded(Collection<String> ids, LocalDateTime respondedAt);
 } 
\ No newline at end of file
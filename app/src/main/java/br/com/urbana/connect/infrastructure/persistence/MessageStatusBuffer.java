@@ -0,0 +1,289 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.MessageStatusConfig;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.model.Message;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Acumula as atualizações de status das mensagens enviadas (enviada, entregue, lida)
+ * recebidas pelo webhook e as grava periodicamente em uma única operação em lote.
+ * <p>
+ * O WhatsApp envia três atualizações para cada resposta; dentro de um intervalo de
+ * gravação apenas o status mais avançado de cada mensagem é mantido, e cada mensagem
+ * recebe um único updateOne pelo ID do WhatsApp, sem leitura prévia. O filtro de cada
+ * atualização impede que um status atrasado sobrescreva um mais avançado já gravado.
+ * <p>
+ * O status de uma resposta pode chegar antes de o envio gravar o ID do WhatsApp na
+ * mensagem. Atualizações de mensagens ainda desconhecidas voltam para o próximo lote e
+ * são repetidas até {@link MessageStatusConfig#getUnmatchedGracePeriod()}; só então
+ * são descartadas. O future de cada atualização só é concluído quando ela é gravada ou
+ * descartada.
+ */
+@Component
+@Slf4j
+public class MessageStatusBuffer {
+
+    private static final String METRIC_PREFIX = "urbana.message.status";
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageStatusConfig config;
+    private final Object lock = new Object();
+    private Map<String, PendingStatus> pending = new LinkedHashMap<>();
+
+    private final Counter receivedCounter;
+    private final Counter coalescedCounter;
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private final Counter unmatchedRetriedCounter;
+    private final Counter unmatchedDroppedCounter;
+
+    public MessageStatusBuffer(MongoTemplate mongoTemplate, MessageStatusConfig config, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = config;
+        this.receivedCounter = Counter.builder(METRIC_PREFIX + ".received")
+                .description("Atualizações de status recebidas pelo webhook")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder(METRIC_PREFIX + ".coalesced")
+                .description("Atualizações de status substituídas por outra da mesma mensagem antes da gravação")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Mensagens atualizadas por lote")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC_PREFIX + ".flush")
+                .description("Tempo de gravação de cada lote de atualizações de status")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.unmatchedRetriedCounter = unmatchedCounter("retried", meterRegistry);
+        this.unmatchedDroppedCounter = unmatchedCounter("dropped", meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", this, MessageStatusBuffer::pendingCount)
+                .description("Mensagens com atualização de status aguardando gravação")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra uma atualização de status para a próxima gravação.
+     *
+     * @param whatsappMessageId ID da mensagem no WhatsApp
+     * @param status Novo status
+     * @param timestamp Momento do evento informado pelo WhatsApp (opcional)
+     * @return Future concluído quando a atualização for gravada
+     */
+    public CompletableFuture<Void> submit(String whatsappMessageId, MessageStatus status, LocalDateTime timestamp) {
+        receivedCounter.increment();
+        synchronized (lock) {
+            PendingStatus current = pending.get(whatsappMessageId);
+            if (current == null) {
+                current = new PendingStatus(status, timestamp);
+                pending.put(whatsappMessageId, current);
+            } else {
+                coalescedCounter.increment();
+                current.merge(status, timestamp);
+            }
+            return current.future;
+        }
+    }
+
+    /**
+     * Grava as atualizações acumuladas em uma única operação em lote, sem ordem.
+     */
+    @Scheduled(fixedDelayString = "${urbana.message-status.flush-interval:1000}")
+    public void flush() {
+        Map<String, PendingStatus> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        List<PendingStatus> statuses = new ArrayList<>(batch.values());
+        batchSize.record(statuses.size());
+        flushTimer.record(() -> execute(batch, statuses));
+    }
+
+    private void execute(Map<String, PendingStatus> batch, List<PendingStatus> statuses) {
+        Map<Integer, RuntimeException> failures = new LinkedHashMap<>();
+        int matched;
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+            batch.forEach((whatsappMessageId, status) -> bulk.updateOne(
+                    queryFor(whatsappMessageId, status.status), updateFor(status)));
+            matched = bulk.execute().getMatchedCount();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), new IllegalStateException(error.getMessage()));
+            }
+            matched = e.getResult().getMatchedCount();
+        } catch (RuntimeException e) {
+            log.error("Erro ao gravar {} atualizações de status: {}", statuses.size(), e.getMessage(), e);
+            statuses.forEach(status -> status.future.completeExceptionally(e));
+            return;
+        }
+
+        // Atualizações sem efeito: status já igual ou mais avançado, ou mensagem ainda desconhecida
+        Set<String> unknown = matched + failures.size() < statuses.size()
+                ? unknownMessages(batch.keySet())
+                : Set.of();
+
+        int i = 0;
+        for (Map.Entry<String, PendingStatus> entry : batch.entrySet()) {
+            RuntimeException failure = failures.get(i++);
+            PendingStatus status = entry.getValue();
+            if (failure != null) {
+                status.future.completeExceptionally(failure);
+            } else if (unknown.contains(entry.getKey())) {
+                retryOrDrop(entry.getKey(), status);
+            } else {
+                status.future.complete(null);
+            }
+        }
+    }
+
+    /**
+     * IDs do lote sem mensagem correspondente no banco.
+     */
+    private Set<String> unknownMessages(Set<String> whatsappMessageIds) {
+        Query query = Query.query(Criteria.where("whatsappMessageId").in(whatsappMessageIds));
+        query.fields().include("whatsappMessageId");
+        Set<String> unknown = new HashSet<>(whatsappMessageIds);
+        mongoTemplate.find(query, Message.class).forEach(message -> unknown.remove(message.getWhatsappMessageId()));
+        return unknown;
+    }
+
+    /**
+     * Devolve ao próximo lote a atualização de uma mensagem ainda desconhecida, unindo-a a
+     * uma atualização mais recente da mesma mensagem, ou a descarta após o prazo de espera.
+     */
+    private void retryOrDrop(String whatsappMessageId, PendingStatus status) {
+        if (System.nanoTime() - status.receivedAt >= config.getUnmatchedGracePeriod().toNanos()) {
+            log.debug("Atualização de status descartada: mensagem {} não encontrada", whatsappMessageId);
+            unmatchedDroppedCounter.increment();
+            status.future.complete(null);
+            return;
+        }
+
+        unmatchedRetriedCounter.increment();
+        synchronized (lock) {
+            PendingStatus newer = pending.putIfAbsent(whatsappMessageId, status);
+            if (newer != null) {
+                newer.absorb(status);
+            }
+        }
+    }
+
+    /**
+     * Seleciona a mensagem pelo ID do WhatsApp, desde que ainda não tenha um status
+     * igual ou mais avançado que o novo.
+     */
+    private Query queryFor(String whatsappMessageId, MessageStatus status) {
+        List<MessageStatus> notBefore = Arrays.stream(MessageStatus.values())
+                .filter(other -> rank(other) >= rank(status))
+                .toList();
+        return Query.query(Criteria.where("whatsappMessageId").is(whatsappMessageId)
+                .and("status").nin(notBefore));
+    }
+
+    private Update updateFor(PendingStatus status) {
+        Update update = new Update().set("status", status.status);
+        if (status.status == MessageStatus.READ) {
+            update.set("read", true)
+                    .set("readAt", status.timestamp != null ? status.timestamp : LocalDateTime.now());
+        }
+        return update;
+    }
+
+    /**
+     * Ordem dos status no ciclo de vida de uma mensagem enviada. A falha encerra o ciclo.
+     */
+    private static int rank(MessageStatus status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case SENT -> 1;
+            case DELIVERED -> 2;
+            case READ -> 3;
+            case FAILED -> 4;
+        };
+    }
+
+    private static Counter unmatchedCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder(METRIC_PREFIX + ".unmatched")
+                .description("Atualizações de status de mensagens ainda não encontradas")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Grava as atualizações pendentes antes do encerramento.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static class PendingStatus {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        MessageStatus status;
+        LocalDateTime timestamp;
+        long receivedAt = System.nanoTime();
+
+        PendingStatus(MessageStatus status, LocalDateTime timestamp) {
+            this.status = status;
+            this.timestamp = timestamp;
+        }
+
+        void merge(MessageStatus other, LocalDateTime otherTimestamp) {
+            if (rank(other) > rank(status)) {
+                status = other;
+                timestamp = otherTimestamp;
+            }
+        }
+
+        /**
+         * Incorpora uma atualização anterior da mesma mensagem, que passa a ser concluída junto com esta.
+         */
+        void absorb(PendingStatus older) {
+            merge(older.status, older.timestamp);
+            receivedAt = Math.min(receivedAt, older.receivedAt);
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    older.future.completeExceptionally(error);
+                } else {
+                    older.future.complete(null);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.MessageWriteConfig;
+import br.com.urbana.connect.domain.exception.UniqueIndexViolationException;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.model.Message;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Agrupa as gravações de mensagens em lotes (write-behind).
+ * <p>
+ * Inserções e atualizações de status feitas por threads diferentes (ex.: partições do
+ * despachante) entram em uma fila e são gravadas juntas, em uma única ida ao banco: as
+ * inserções em um insertMany e as atualizações em uma operação em lote, ambas sem ordem,
+ * para que a falha de um item não impeça os demais. Um lote é gravado quando atinge o
+ * tamanho máximo ou quando a primeira gravação completa a latência máxima.
+ * <p>
+ * Quem grava continua aguardando a confirmação do banco, de modo que uma mensagem
+ * nunca é dada como gravada (nem a resposta enviada) antes de estar no MongoDB. Erros
+ * por item, como a chave duplicada de uma reentrega, são devolvidos só ao seu autor.
+ * No encerramento, as gravações pendentes são concluídas antes da parada.
+ * <p>
+ * Se a confirmação não chegar dentro do prazo, uma gravação que ainda estava na fila é
+ * retirada dela e falha com {@link QueryTimeoutException}: nada foi gravado. Uma gravação
+ * que já estava em um lote falha com {@link UnconfirmedWriteException}, pois o banco ainda
+ * pode aplicá-la depois.
+ */
+@Component
+@Slf4j
+public class MessageWriteBuffer {
+
+    private static final String METRIC_PREFIX = "urbana.message.writes";
+    private static final long SHUTDOWN_CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int DUPLICATE_KEY_CODE = 11000;
+    private static final Pattern DUPLICATE_KEY_INDEX = Pattern.compile("index: (\\S+) dup key");
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageWriteConfig config;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Object lock = new Object();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread flusher;
+    private volatile boolean running;
+
+    private final DistributionSummary insertBatchSize;
+    private final DistributionSummary updateBatchSize;
+    private final Timer insertFlushTimer;
+    private final Timer updateFlushTimer;
+    private final Timer confirmTimer;
+    private final Counter directWriteCounter;
+
+    public MessageWriteBuffer(MongoTemplate mongoTemplate, MessageWriteConfig config, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = config;
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, config.getMaxBacklog()));
+
+        this.insertBatchSize = batchSize("insert", meterRegistry);
+        this.updateBatchSize = batchSize("update", meterRegistry);
+        this.insertFlushTimer = flushTimer("insert", meterRegistry);
+        this.updateFlushTimer = flushTimer("update", meterRegistry);
+        this.confirmTimer = Timer.builder(METRIC_PREFIX + ".confirm")
+                .description("Tempo entre o pedido de gravação e a confirmação do banco")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.directWriteCounter = Counter.builder(METRIC_PREFIX + ".direct")
+                .description("Gravações feitas fora do lote (lote desligado, cheio ou encerrado)")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".backlog", queue, BlockingQueue::size)
+                .description("Gravações aguardando lote")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", pending, AtomicInteger::get)
+                .description("Gravações aguardando a confirmação do banco")
+                .register(meterRegistry);
+
+        this.running = config.isEnabled();
+        if (running) {
+            this.flusher = new Thread(this::run, "message-write-buffer");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+            log.info("Gravação de mensagens em lote habilitada (até {} por lote, latência máxima de {} ms)",
+                    config.getMaxBatchSize(), config.getMaxLatency().toMillis());
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Insere uma nova mensagem, aguardando a confirmação do banco.
+     *
+     * @param message Mensagem a inserir; recebe um ID se ainda não tiver
+     * @return A própria mensagem, já gravada
+     * @throws UniqueIndexViolationException se a mensagem violar um índice único
+     * @throws UnconfirmedWriteException se o banco não confirmar a tempo; a mensagem ainda
+     *         pode ser gravada, e repetir a inserção resulta em chave duplicada no ID
+     */
+    public Message insert(Message message) {
+        if (message.getId() == null) {
+            message.setId(new ObjectId().toHexString());
+        }
+
+        PendingInsert write = new PendingInsert(message);
+        if (!enqueue(write)) {
+            directWriteCounter.increment();
+            try {
+                return mongoTemplate.insert(message);
+            } catch (DuplicateKeyException e) {
+                if (e.getCause() instanceof MongoWriteException writeException) {
+                    throw translateDuplicate(writeException.getError().getCode(),
+                            writeException.getError().getMessage(), e);
+                }
+                throw e;
+            }
+        }
+
+        await(write);
+        return message;
+    }
+
+    /**
+     * Atualiza o status de uma mensagem, aguardando a confirmação do banco.
+     * Uma mensagem inexistente é ignorada.
+     *
+     * @param messageId ID da mensagem
+     * @param status Novo status
+     */
+    public void updateStatus(String messageId, MessageStatus status) {
+        update(Query.query(Criteria.where("_id").is(messageId)), new Update().set("status", status));
+    }
+
+    /**
+     * Registra o envio de uma mensagem de saída, aguardando a confirmação do banco.
+     * Uma mensagem inexistente é ignorada.
+     *
+     * @param messageId ID da mensagem
+     * @param whatsappMessageId ID da mensagem no WhatsApp
+     */
+    public void markSent(String messageId, String whatsappMessageId) {
+        update(Query.query(Criteria.where("_id").is(messageId)), new Update()
+                .set("whatsappMessageId", whatsappMessageId)
+                .set("status", MessageStatus.SENT));
+    }
+
+    private void update(Query query, Update update) {
+        PendingUpdate write = new PendingUpdate(query, update);
+        if (!enqueue(write)) {
+            directWriteCounter.increment();
+            mongoTemplate.updateFirst(query, update, Message.class);
+            return;
+        }
+
+        await(write);
+    }
+
+    private boolean enqueue(PendingWrite write) {
+        // O bloqueio impede que uma gravação entre na fila depois da última drenagem do encerramento
+        synchronized (lock) {
+            if (!running || !queue.offer(write)) {
+                return false;
+            }
+        }
+        pending.incrementAndGet();
+        write.future.whenComplete((result, error) -> pending.decrementAndGet());
+        return true;
+    }
+
+    private void await(PendingWrite write) {
+        try {
+            write.future.get(config.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(write)) {
+                write.future.cancel(false);
+                throw new QueryTimeoutException("Tempo esgotado aguardando o lote; a mensagem não foi gravada");
+            }
+            throw new UnconfirmedWriteException("Tempo esgotado aguardando a confirmação; a mensagem ainda pode ser gravada");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a gravação da mensagem", e);
+        } finally {
+            confirmTimer.record(System.nanoTime() - write.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void run() {
+        int maxBatchSize = Math.max(1, config.getMaxBatchSize());
+        long maxLatency = config.getMaxLatency().toNanos();
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Aguardar outras gravações até encher o lote ou vencer a latência da primeira;
+                // no encerramento, gravar imediatamente o que já estiver na fila
+                long deadline = first.enqueuedAt + maxLatency;
+                while (batch.size() < maxBatchSize && running) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(Math.min(remaining, SHUTDOWN_CHECK_INTERVAL), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                log.debug("Espera do lote de mensagens interrompida");
+            }
+
+            if (!batch.isEmpty()) {
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<PendingInsert> inserts = new ArrayList<>();
+        List<PendingUpdate> updates = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            if (write instanceof PendingInsert insert) {
+                inserts.add(insert);
+            } else {
+                updates.add((PendingUpdate) write);
+            }
+        }
+
+        // Inserções primeiro: uma atualização pode se referir a uma mensagem do mesmo lote
+        if (!inserts.isEmpty()) {
+            insertBatchSize.record(inserts.size());
+            insertFlushTimer.record(() -> execute(inserts, bulk -> bulk.insert(
+                    inserts.stream().map(insert -> insert.message).toList())));
+        }
+        if (!updates.isEmpty()) {
+            updateBatchSize.record(updates.size());
+            updateFlushTimer.record(() -> execute(updates, bulk ->
+                    updates.forEach(update -> bulk.updateOne(update.query, update.update))));
+        }
+    }
+
+    private void execute(List<? extends PendingWrite> writes, Consumer<BulkOperations> operations) {
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+            operations.accept(bulk);
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Em lotes sem ordem os demais itens são gravados; só os que falharam recebem o erro
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), translate(error));
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro ao gravar lote de {} mensagens: {}", writes.size(), e.getMessage(), e);
+            writes.forEach(write -> write.future.completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < writes.size(); i++) {
+            RuntimeException failure = failures.get(i);
+            if (failure != null) {
+                writes.get(i).future.completeExceptionally(failure);
+            } else {
+                writes.get(i).future.complete(null);
+            }
+        }
+    }
+
+    private RuntimeException translate(BulkWriteError error) {
+        if (error.getCode() == DUPLICATE_KEY_CODE) {
+            return translateDuplicate(error.getCode(), error.getMessage(), null);
+        }
+        return new DataIntegrityViolationException(error.getMessage());
+    }
+
+    /**
+     * Converte um erro de chave duplicada, guardando o código e o nome do índice violado.
+     * O MongoDB só informa o índice no texto do erro ("... index: nome dup key: ...").
+     */
+    private static UniqueIndexViolationException translateDuplicate(int code, String message, Throwable cause) {
+        Matcher matcher = DUPLICATE_KEY_INDEX.matcher(message == null ? "" : message);
+        String indexName = matcher.find() ? matcher.group(1) : null;
+        return new UniqueIndexViolationException(code, indexName, message, cause);
+    }
+
+    private static DistributionSummary batchSize(String operation, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Gravações de mensagens por lote")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Timer flushTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder(METRIC_PREFIX + ".flush")
+                .description("Tempo de gravação de cada lote de mensagens")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Conclui as gravações pendentes e encerra o lote. Gravações posteriores
+     * são feitas diretamente no banco.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+
+        synchronized (lock) {
+            running = false;
+        }
+        log.info("Encerrando gravação de mensagens em lote. Gravações pendentes: {}", queue.size());
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Confirmação não recebida a tempo para uma gravação que já foi enviada ao banco:
+     * ela pode ter sido, ou ainda ser, aplicada.
+     */
+    public static class UnconfirmedWriteException extends QueryTimeoutException {
+
+        public UnconfirmedWriteException(String message) {
+            super(message);
+        }
+    }
+
+    private abstract static class PendingWrite {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final long enqueuedAt = System.nanoTime();
+    }
+
+    private static class PendingInsert extends PendingWrite {
+        final Message message;
+
+        PendingInsert(Message message) {
+            this.message = message;
+        }
+    }
+
+    private static class PendingUpdate extends PendingWrite {
+        final Query query;
+        final Update update;
+
+        PendingUpdate(Query query, Update update) {
+            this.query = query;
+            this.update = update;
+        }
+    }
+}
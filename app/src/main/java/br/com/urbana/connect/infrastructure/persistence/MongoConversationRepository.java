@@ -1,6 +1,7 @@
 package br.com.urbana.connect.infrastructure.persistence;
 
 import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
 import br.com.urbana.connect.domain.enums.ConversationStatus;
 import br.com.urbana.connect.domain.port.output.ConversationRepository;
 import org.springframework.stereotype.Repository;
@@ -42,35 +43,38 @@ public class MongoConversationRepository implements ConversationRepository {
     }
     
     @Override
-    public Conversation updateStatus(String id, ConversationStatus status) {
-        Conversation conversation = findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Conversa não encontrada"));
-        
-        conversation.setStatus(status);
-        conversation.setLastActivityTime(LocalDateTime.now());
-        
-        return repository.save(conversation);
+    public Optional<Conversation> findActiveByCustomerId(String customerId) {
+        return repository.findFirstByCustomerIdAndStatusInOrderByStartTimeDesc(
+                customerId, ConversationStatus.openStatuses());
     }
     
     @Override
-    public Conversation addMessageId(String conversationId, String messageId) {
-        Conversation conversation = findById(conversationId)
-                .orElseThrow(() -> new IllegalArgumentException("Conversa não encontrada"));
-        
-        conversation.getMessageIds().add(messageId);
-        conversation.setLastActivityTime(LocalDateTime.now());
+    public Conversation findOrCreateActive(Conversation newConversation) {
+        return repository.findOrCreateActive(newConversation);
+    }
+    
+    @Override
+    public boolean update(String conversationId, ConversationUpdate update) {
+        return repository.applyUpdate(conversationId, update);
+    }
+    
+    @Override
+    public Conversation updateStatus(String id, ConversationStatus status) {
+        ConversationUpdate update = ConversationUpdate.create()
+                .status(status)
+                .lastActivityTime(LocalDateTime.now());
         
-        return repository.save(conversation);
+        return repository.applyUpdateAndGet(id, update)
+                .orElseThrow(() -> new IllegalArgumentException("Conversa não encontrada"));
     }
     
     @Override
     public Conversation close(String id) {
-        Conversation conversation = findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Conversa não encontrada"));
-        
-        conversation.setStatus(ConversationStatus.CLOSED);
-        conversation.setEndTime(LocalDateTime.now());
+        ConversationUpdate update = ConversationUpdate.create()
+                .status(ConversationStatus.CLOSED)
+                .endTime(LocalDateTime.now());
         
-        return repository.save(conversation);
+        return repository.applyUpdateAndGet(id, update)
+                .orElseThrow(() -> new IllegalArgumentException("Conversa não encontrada"));
     }
 } 
\ No newline at end of file
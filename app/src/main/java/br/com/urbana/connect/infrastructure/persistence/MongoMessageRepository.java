@@ -3,8 +3,12 @@ package br.com.urbana.connect.infrastructure.persistence;
 import br.com.urbana.connect.domain.model.Message;
 import br.com.urbana.connect.domain.enums.MessageStatus;
 import br.com.urbana.connect.domain.port.output.MessageRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,9 +19,11 @@ import java.util.Optional;
 public class MongoMessageRepository implements MessageRepository {
     
     private final MessageMongoRepository repository;
+    private final MessageWriteBuffer writeBuffer;
     
-    public MongoMessageRepository(MessageMongoRepository repository) {
+    public MongoMessageRepository(MessageMongoRepository repository, MessageWriteBuffer writeBuffer) {
         this.repository = repository;
+        this.writeBuffer = writeBuffer;
     }
     
     @Override
@@ -25,6 +31,11 @@ public class MongoMessageRepository implements MessageRepository {
         return repository.save(message);
     }
     
+    @Override
+    public Message insert(Message message) {
+        return writeBuffer.insert(message);
+    }
+    
     @Override
     public Optional<Message> findById(String id) {
         return repository.findById(id);
@@ -35,6 +46,12 @@ public class MongoMessageRepository implements MessageRepository {
         return repository.findByConversationIdOrderByTimestampAsc(conversationId);
     }
     
+    @Override
+    public List<Message> findByConversationId(String conversationId, int page, int size) {
+        return repository.findByConversationId(conversationId,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "timestamp")));
+    }
+    
     @Override
     public List<Message> findByCustomerId(String customerId) {
         return repository.findByCustomerIdOrderByTimestampDesc(customerId);
@@ -42,15 +59,29 @@ public class MongoMessageRepository implements MessageRepository {
     
     @Override
     public Message updateStatus(String id, MessageStatus status) {
-        Message message = findById(id)
+        // Grava apenas o status, em lote, sem regravar a mensagem inteira
+        writeBuffer.updateStatus(id, status);
+        return findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Mensagem não encontrada"));
-        
-        message.setStatus(status);
-        return repository.save(message);
+    }
+    
+    @Override
+    public void markSent(String id, String whatsappMessageId) {
+        writeBuffer.markSent(id, whatsappMessageId);
     }
     
     @Override
     public Optional<Message> findByWhatsappMessageId(String whatsappMessageId) {
         return repository.findByWhatsappMessageId(whatsappMessageId);
     }
+    
+    @Override
+    public List<Message> findAwaitingResponse(String conversationId) {
+        return repository.findByConversationIdAndAwaitingResponseTrueOrderByTimestampAsc(conversationId);
+    }
+    
+    @Override
+    public void markResponded(Collection<String> ids, LocalDateTime respondedAt) {
+        repository.markResponded(ids, respondedAt);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,173 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.enums.OutboxStatus;
+import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.OutboxEntry;
+import br.com.urbana.connect.domain.port.output.OutboxRepository;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementação da fila de saída de mensagens usando MongoDB.
+ * As reservas são feitas com findAndModify, de forma que várias réplicas
+ * podem consumir a mesma coleção sem enviar a mesma mensagem em paralelo.
+ * Só é reservada a entrada mais antiga ainda não concluída de cada destinatário,
+ * o que mantém a ordem das mensagens entre réplicas e durante as novas tentativas.
+ */
+@Repository
+public class MongoOutboxRepository implements OutboxRepository {
+    
+    /**
+     * Destinatários examinados por reserva: se outra instância reservar a primeira entrada,
+     * tenta-se a seguinte.
+     */
+    private static final int CLAIM_CANDIDATES = 10;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public MongoOutboxRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public boolean enqueue(OutboxEntry entry) {
+        try {
+            mongoTemplate.insert(entry);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // A mensagem já está na fila
+            return false;
+        }
+    }
+    
+    @Override
+    public Optional<OutboxEntry> claimNext(String owner, Duration lease, Collection<String> excludedRecipients) {
+        LocalDateTime now = LocalDateTime.now();
+        
+        Update update = new Update()
+                .set("status", OutboxStatus.SENDING)
+                .set("leaseOwner", owner)
+                .set("leaseUntil", now.plus(lease))
+                .inc("attempts", 1);
+        
+        for (String candidateId : findClaimableHeads(now, excludedRecipients)) {
+            Query query = new Query(new Criteria().andOperator(Criteria.where("_id").is(candidateId), claimable(now)));
+            OutboxEntry claimed = mongoTemplate.findAndModify(
+                    query, update, FindAndModifyOptions.options().returnNew(true), OutboxEntry.class);
+            if (claimed != null) {
+                return Optional.of(claimed);
+            }
+            // Reservada por outra instância entre a busca e a reserva
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Busca a entrada não concluída mais antiga de cada destinatário, se estiver pronta
+     * para envio. Uma entrada nunca é reservada enquanto houver outra mais antiga para o
+     * mesmo destinatário pendente, aguardando nova tentativa ou em envio por outra instância.
+     */
+    private List<String> findClaimableHeads(LocalDateTime now, Collection<String> excludedRecipients) {
+        Criteria unfinished = Criteria.where("status").in(OutboxStatus.PENDING, OutboxStatus.SENDING);
+        if (!excludedRecipients.isEmpty()) {
+            unfinished = unfinished.and("recipient").nin(excludedRecipients);
+        }
+        
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(unfinished),
+                Aggregation.sort(Sort.by(Sort.Direction.ASC, "createdAt", "id")),
+                Aggregation.group("recipient")
+                        .first("id").as("entryId")
+                        .first("status").as("status")
+                        .first("nextAttemptAt").as("nextAttemptAt")
+                        .first("leaseUntil").as("leaseUntil")
+                        .first("createdAt").as("createdAt"),
+                Aggregation.match(claimable(now)),
+                Aggregation.sort(Sort.Direction.ASC, "createdAt"),
+                Aggregation.limit(CLAIM_CANDIDATES));
+        
+        return mongoTemplate.aggregate(aggregation, OutboxEntry.class, Document.class).getMappedResults().stream()
+                .map(head -> String.valueOf(head.get("entryId")))
+                .toList();
+    }
+    
+    /**
+     * Entrada pendente com a próxima tentativa vencida, ou em envio com reserva expirada.
+     */
+    private Criteria claimable(LocalDateTime now) {
+        return new Criteria().orOperator(
+                Criteria.where("status").is(OutboxStatus.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(OutboxStatus.SENDING).and("leaseUntil").lt(now));
+    }
+    
+    @Override
+    public void markSent(String id, String whatsappMessageId) {
+        Update update = new Update()
+                .set("status", OutboxStatus.SENT)
+                .set("whatsappMessageId", whatsappMessageId)
+                .set("sentAt", LocalDateTime.now())
+                .unset("leaseUntil")
+                .unset("lastError");
+        
+        mongoTemplate.updateFirst(byId(id), update, OutboxEntry.class);
+    }
+    
+    @Override
+    public void reschedule(String id, String error, LocalDateTime nextAttemptAt) {
+        Update update = new Update()
+                .set("status", OutboxStatus.PENDING)
+                .set("lastError", error)
+                .set("nextAttemptAt", nextAttemptAt)
+                .unset("leaseOwner")
+                .unset("leaseUntil");
+        
+        mongoTemplate.updateFirst(byId(id), update, OutboxEntry.class);
+    }
+    
+    @Override
+    public void markFailed(String id, String error) {
+        Update update = new Update()
+                .set("status", OutboxStatus.FAILED)
+                .set("lastError", error)
+                .unset("leaseUntil");
+        
+        mongoTemplate.updateFirst(byId(id), update, OutboxEntry.class);
+    }
+    
+    @Override
+    public List<Message> findUnqueuedMessages(LocalDateTime from, LocalDateTime until, int limit) {
+        String outboxCollection = mongoTemplate.getCollectionName(OutboxEntry.class);
+        
+        // O ID da entrada é o ID da mensagem: mensagens sem entrada correspondente ficaram fora da fila
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").is(MessageStatus.PENDING)
+                        .and("direction").is(MessageDirection.OUTBOUND)
+                        .and("timestamp").gte(from).lt(until)),
+                Aggregation.sort(Sort.Direction.ASC, "timestamp"),
+                Aggregation.lookup(outboxCollection, "_id", "_id", "outbox"),
+                Aggregation.match(Criteria.where("outbox").size(0)),
+                Aggregation.limit(limit));
+        
+        return mongoTemplate.aggregate(aggregation, Message.class, Message.class).getMappedResults();
+    }
+    
+    private Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
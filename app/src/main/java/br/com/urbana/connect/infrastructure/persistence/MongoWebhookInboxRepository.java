@@ -0,0 +1,130 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.domain.enums.WebhookInboxStatus;
+import br.com.urbana.connect.domain.model.WebhookInboxEntry;
+import br.com.urbana.connect.domain.port.output.WebhookInboxRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Implementação da caixa de entrada do webhook usando MongoDB.
+ * As reservas são feitas com findAndModify, de forma que várias réplicas
+ * podem consumir a mesma coleção sem processar a mesma entrada em paralelo.
+ */
+@Repository
+public class MongoWebhookInboxRepository implements WebhookInboxRepository {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public MongoWebhookInboxRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public WebhookInboxEntry append(String payload, String owner, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        
+        WebhookInboxEntry entry = WebhookInboxEntry.builder()
+                .payload(payload)
+                .status(WebhookInboxStatus.PROCESSING)
+                .attempts(1)
+                .leaseOwner(owner)
+                .claimedAt(now)
+                .leaseUntil(now.plus(lease))
+                .receivedAt(now)
+                .build();
+        
+        return mongoTemplate.insert(entry);
+    }
+    
+    @Override
+    public Optional<WebhookInboxEntry> claimNext(String owner, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        
+        Criteria claimable = new Criteria().orOperator(
+                // Entradas anteriores ao campo não têm nextAttemptAt e podem ser reservadas
+                Criteria.where("status").is(WebhookInboxStatus.PENDING).and("nextAttemptAt").not().gt(now),
+                Criteria.where("status").is(WebhookInboxStatus.PROCESSING).and("leaseUntil").lt(now));
+        
+        return claim(new Query(claimable), owner, lease, now);
+    }
+    
+    @Override
+    public Optional<WebhookInboxEntry> reclaimOwned(String owner, LocalDateTime claimedBefore, Duration lease) {
+        Query query = new Query(Criteria.where("status").is(WebhookInboxStatus.PROCESSING)
+                .and("leaseOwner").is(owner)
+                .and("claimedAt").lt(claimedBefore));
+        
+        return claim(query, owner, lease, LocalDateTime.now());
+    }
+    
+    private Optional<WebhookInboxEntry> claim(Query query, String owner, Duration lease, LocalDateTime now) {
+        query.with(Sort.by(Sort.Direction.ASC, "receivedAt"));
+        
+        Update update = new Update()
+                .set("status", WebhookInboxStatus.PROCESSING)
+                .set("leaseOwner", owner)
+                .set("claimedAt", now)
+                .set("leaseUntil", now.plus(lease))
+                .unset("nextAttemptAt")
+                .inc("attempts", 1);
+        
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), WebhookInboxEntry.class));
+    }
+    
+    @Override
+    public void markDone(String id) {
+        Update update = new Update()
+                .set("status", WebhookInboxStatus.DONE)
+                .set("processedAt", LocalDateTime.now())
+                .unset("leaseUntil")
+                .unset("lastError");
+        
+        mongoTemplate.updateFirst(byId(id), update, WebhookInboxEntry.class);
+    }
+    
+    @Override
+    public void release(String id, String error, LocalDateTime nextAttemptAt) {
+        mongoTemplate.updateFirst(byId(id), releaseUpdate(error, nextAttemptAt), WebhookInboxEntry.class);
+    }
+    
+    @Override
+    public void defer(String id, String error, LocalDateTime nextAttemptAt) {
+        Update update = releaseUpdate(error, nextAttemptAt).inc("attempts", -1);
+        
+        mongoTemplate.updateFirst(byId(id), update, WebhookInboxEntry.class);
+    }
+    
+    private Update releaseUpdate(String error, LocalDateTime nextAttemptAt) {
+        return new Update()
+                .set("status", WebhookInboxStatus.PENDING)
+                .set("lastError", error)
+                .set("nextAttemptAt", nextAttemptAt)
+                .unset("leaseOwner")
+                .unset("leaseUntil");
+    }
+    
+    @Override
+    public void markFailed(String id, String error) {
+        Update update = new Update()
+                .set("status", WebhookInboxStatus.FAILED)
+                .set("lastError", error)
+                .unset("leaseUntil");
+        
+        mongoTemplate.updateFirst(byId(id), update, WebhookInboxEntry.class);
+    }
+    
+    private Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
@@ -0,0 +1,214 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.MigrationConfig;
+import br.com.urbana.connect.domain.enums.ConversationStatus;
+import br.com.urbana.connect.domain.model.Message;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.AbstractDependsOnBeanFactoryPostProcessor;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Remove os documentos que impediriam a criação dos índices únicos.
+ * <p>
+ * Os índices declarados nas entidades são criados junto com o {@link MongoTemplate}, e um
+ * índice único não é criado se a coleção já tiver valores repetidos: a aplicação não sobe.
+ * Por isso esta migração roda antes do {@link MongoTemplate}, direto no driver, e só
+ * examina uma coleção enquanto o índice correspondente ainda não existe.
+ * <p>
+ * Mensagens com o mesmo ID do WhatsApp são reentregas do webhook gravadas antes do índice:
+ * fica a mais antiga, que foi a respondida, e as demais são removidas. Conversas ativas
+ * repetidas de um cliente vêm de requisições simultâneas: fica a de atividade mais recente
+ * e as demais são fechadas, sem perder as suas mensagens.
+ * <p>
+ * O índice único do ID do WhatsApp criado antes de ter nome próprio (com o nome gerado
+ * a partir do campo) é removido, para ser recriado como {@link Message#WHATSAPP_MESSAGE_ID_INDEX}:
+ * o MongoDB recusa um índice com as mesmas chaves e outro nome.
+ */
+@Component
+@Slf4j
+public class UniqueIndexMigration {
+
+    static final String MESSAGES = "messages";
+    static final String WHATSAPP_MESSAGE_ID = "whatsappMessageId";
+    static final String CONVERSATIONS = "conversations";
+    static final String ACTIVE_CONVERSATION_INDEX = "customer_active_unique_idx";
+
+    private final MongoDatabaseFactory databaseFactory;
+    private final MigrationConfig config;
+
+    public UniqueIndexMigration(MongoDatabaseFactory databaseFactory, MigrationConfig config) {
+        this.databaseFactory = databaseFactory;
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void migrateBeforeIndexes() {
+        try {
+            String dropped = dropOutdatedWhatsappMessageIdIndex();
+            if (dropped != null) {
+                log.info("Índice {} removido para ser recriado como {}", dropped, Message.WHATSAPP_MESSAGE_ID_INDEX);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao remover o índice antigo de {}: {}", WHATSAPP_MESSAGE_ID, e.getMessage(), e);
+        }
+
+        if (!config.isRemoveDuplicates()) {
+            return;
+        }
+
+        try {
+            int removed = removeDuplicateWhatsappMessageIds();
+            if (removed > 0) {
+                log.warn("{} mensagens repetidas removidas antes da criação do índice único de {}",
+                        removed, WHATSAPP_MESSAGE_ID);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao remover mensagens repetidas por {}: {}", WHATSAPP_MESSAGE_ID, e.getMessage(), e);
+        }
+
+        try {
+            int closed = closeDuplicateActiveConversations();
+            if (closed > 0) {
+                log.warn("{} conversas ativas repetidas fechadas antes da criação do índice {}",
+                        closed, ACTIVE_CONVERSATION_INDEX);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao fechar conversas ativas repetidas: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Remove as mensagens repetidas por ID do WhatsApp, mantendo a mais antiga de cada ID.
+     *
+     * @return Quantidade de mensagens removidas
+     */
+    public int removeDuplicateWhatsappMessageIds() {
+        MongoCollection<Document> messages = databaseFactory.getMongoDatabase().getCollection(MESSAGES);
+        if (hasUniqueIndex(messages, WHATSAPP_MESSAGE_ID)) {
+            return 0;
+        }
+
+        List<Object> duplicates = new ArrayList<>();
+        messages.aggregate(List.of(
+                        Aggregates.match(Filters.type(WHATSAPP_MESSAGE_ID, "string")),
+                        Aggregates.sort(Sorts.ascending(WHATSAPP_MESSAGE_ID, "timestamp", "_id")),
+                        Aggregates.group("$" + WHATSAPP_MESSAGE_ID,
+                                Accumulators.push("ids", "$_id"), Accumulators.sum("count", 1)),
+                        Aggregates.match(Filters.gt("count", 1))))
+                .allowDiskUse(true)
+                .forEach(group -> {
+                    List<?> ids = group.getList("ids", Object.class);
+                    log.info("Mensagem {} gravada {} vezes; removendo as cópias {}",
+                            group.get("_id"), ids.size(), ids.subList(1, ids.size()));
+                    duplicates.addAll(ids.subList(1, ids.size()));
+                });
+
+        if (duplicates.isEmpty()) {
+            return 0;
+        }
+        return (int) messages.deleteMany(Filters.in("_id", duplicates)).getDeletedCount();
+    }
+
+    /**
+     * Remove o índice do ID do WhatsApp que tenha outro nome que não {@link Message#WHATSAPP_MESSAGE_ID_INDEX}.
+     *
+     * @return Nome do índice removido, ou null se não havia nenhum
+     */
+    public String dropOutdatedWhatsappMessageIdIndex() {
+        MongoCollection<Document> messages = databaseFactory.getMongoDatabase().getCollection(MESSAGES);
+        for (Document index : messages.listIndexes()) {
+            Document key = index.get("key", Document.class);
+            String name = index.getString("name");
+            if (key.size() == 1 && key.containsKey(WHATSAPP_MESSAGE_ID)
+                    && !Message.WHATSAPP_MESSAGE_ID_INDEX.equals(name)) {
+                messages.dropIndex(name);
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fecha as conversas ativas excedentes de cada cliente, mantendo a de atividade mais recente.
+     *
+     * @return Quantidade de conversas fechadas
+     */
+    public int closeDuplicateActiveConversations() {
+        MongoCollection<Document> conversations = databaseFactory.getMongoDatabase().getCollection(CONVERSATIONS);
+        if (hasIndex(conversations, ACTIVE_CONVERSATION_INDEX)) {
+            return 0;
+        }
+
+        List<Object> duplicates = new ArrayList<>();
+        conversations.aggregate(List.of(
+                        Aggregates.match(Filters.eq("status", ConversationStatus.ACTIVE.name())),
+                        Aggregates.sort(Sorts.orderBy(Sorts.ascending("customerId"),
+                                Sorts.descending("lastActivityTime", "startTime", "_id"))),
+                        Aggregates.group("$customerId",
+                                Accumulators.push("ids", "$_id"), Accumulators.sum("count", 1)),
+                        Aggregates.match(Filters.gt("count", 1))))
+                .allowDiskUse(true)
+                .forEach(group -> {
+                    List<?> ids = group.getList("ids", Object.class);
+                    log.info("Cliente {} com {} conversas ativas; mantendo {} e fechando {}",
+                            group.get("_id"), ids.size(), ids.get(0), ids.subList(1, ids.size()));
+                    duplicates.addAll(ids.subList(1, ids.size()));
+                });
+
+        if (duplicates.isEmpty()) {
+            return 0;
+        }
+        Date now = new Date();
+        return (int) conversations.updateMany(
+                Filters.and(Filters.in("_id", duplicates), Filters.eq("status", ConversationStatus.ACTIVE.name())),
+                Updates.combine(
+                        Updates.set("status", ConversationStatus.CLOSED.name()),
+                        Updates.set("endTime", now),
+                        Updates.set("updatedAt", now)))
+                .getModifiedCount();
+    }
+
+    private boolean hasIndex(MongoCollection<Document> collection, String name) {
+        for (Document index : collection.listIndexes()) {
+            if (name.equals(index.getString("name"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasUniqueIndex(MongoCollection<Document> collection, String field) {
+        for (Document index : collection.listIndexes()) {
+            Document key = index.get("key", Document.class);
+            if (key.size() == 1 && key.containsKey(field) && index.getBoolean("unique", false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Faz o {@link MongoTemplate}, que cria os índices das entidades, esperar a migração.
+     */
+    @Component
+    static class MongoTemplateDependency extends AbstractDependsOnBeanFactoryPostProcessor {
+
+        MongoTemplateDependency() {
+            super(MongoTemplate.class, "uniqueIndexMigration");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package br.com.urbana.connect.application.config;
 
 import br.com.urbana.connect.domain.enums.MessageStatus;
 import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.WebhookEvent;
 import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
 import br.com.urbana.connect.domain.service.MessageService;
 import br.com.urbana.connect.infrastructure.client.WebhookPayloadProcessor;
@@ -9,6 +10,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 import java.util.logging.Logger;
 
@@ -46,6 +48,11 @@ public class TestWhatsappService implements WhatsappServicePort {
         return "test_msg_" + UUID.randomUUID().toString().substring(0, 8);
     }
 
+    @Override
+    public String deliverTextMessage(String phoneNumber, String textContent) {
+        return sendTextMessage(phoneNumber, textContent);
+    }
+
     @Override
     public String sendMessage(String phoneNumber, Message message) {
         logger.info("Simulando envio de mensagem para " + phoneNumber);
@@ -85,6 +92,12 @@ public class TestWhatsappService implements WhatsappServicePort {
         }
     }
     
+    @Override
+    public List<WebhookEvent> processWebhookEvents(String payload) {
+        logger.fine("Extraindo eventos do payload de teste: " + payload);
+        return webhookPayloadProcessor.extractEvents(payload);
+    }
+    
     /**
      * Verifica se o payload é uma atualização de status.
      */
@@ -4,11 +4,14 @@ import br.com.urbana.connect.application.config.AbstractIntegrationTest;
 import br.com.urbana.connect.application.config.TestWhatsappConfig;
 import br.com.urbana.connect.domain.enums.ConversationStatus;
 import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.enums.MessageStatus;
 import br.com.urbana.connect.domain.model.Conversation;
 import br.com.urbana.connect.domain.model.Customer;
 import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.port.output.AsyncGptServicePort;
 import br.com.urbana.connect.domain.port.output.GptServicePort;
 import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import br.com.urbana.connect.infrastructure.cache.CustomerCache;
 import br.com.urbana.connect.infrastructure.persistence.ConversationMongoRepository;
 import br.com.urbana.connect.infrastructure.persistence.CustomerMongoRepository;
 import br.com.urbana.connect.infrastructure.persistence.MessageMongoRepository;
@@ -26,9 +29,12 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -63,10 +69,14 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
     @Autowired
     private MessageMongoRepository messageRepository;
 
+    @Autowired
+    private CustomerCache customerCache;
+
     @Autowired
     private WhatsappServicePort whatsappService;
 
-    @MockBean
+    // O serviço da OpenAI implementa as duas portas; o mock também, para substituí-lo por inteiro
+    @MockBean(extraInterfaces = AsyncGptServicePort.class)
     private GptServicePort gptServicePort;
 
     private static final String TEST_PHONE_NUMBER = "+5511999999999";
@@ -107,6 +117,23 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
 
     @BeforeEach
     void setUp() {
+        // As chamadas assíncronas respondem com os valores configurados nas chamadas síncronas
+        AsyncGptServicePort asyncGptServicePort = (AsyncGptServicePort) gptServicePort;
+        when(asyncGptServicePort.analyzeMessageAsync(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(asyncGptServicePort.requiresHumanInterventionAsync(anyString(), anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(gptServicePort.requiresHumanIntervention(
+                        invocation.getArgument(0), invocation.getArgument(1))));
+        when(asyncGptServicePort.analyzeIntentAsync(anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        gptServicePort.analyzeIntent(invocation.getArgument(0))));
+        when(asyncGptServicePort.extractEntitiesAsync(anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        gptServicePort.extractEntities(invocation.getArgument(0))));
+        when(asyncGptServicePort.generateResponseAsync(anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(gptServicePort.generateResponse(
+                        invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2))));
+        
         // Configurar comportamento padrão dos mocks
         when(gptServicePort.generateResponse(anyString(), eq(TEST_MESSAGE_CONTENT), anyString()))
                 .thenReturn(GPT_RESPONSE);
@@ -160,6 +187,7 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
         messageRepository.deleteAll();
         conversationRepository.deleteAll();
         customerRepository.deleteAll();
+        customerCache.clear();
     }
 
     @Test
@@ -209,7 +237,8 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
         assertThat(outboundMessage.getContent()).isEqualTo(GPT_RESPONSE);
         assertThat(outboundMessage.getCustomerId()).isEqualTo(customer.getId());
         
-        // Verificar que o contexto da conversa foi atualizado
+        // Verificar que o contexto da conversa foi atualizado (processamento assíncrono)
+        await().atMost(5, TimeUnit.SECONDS).until(() -> hasDetectedTopic(conversation.getId()));
         Conversation updatedConversation = conversationRepository.findById(conversation.getId()).orElseThrow();
         assertThat(updatedConversation.getContext().getLastDetectedTopic()).isEqualTo("DUVIDA_SERVICO");
         assertThat(updatedConversation.getContext().getIdentifiedEntities()).contains("Tipo: decoração");
@@ -346,6 +375,89 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
         assertThat(thirdMessages.get(1).getContent()).isEqualTo(third_response);
     }
     
+    @Test
+    void shouldIgnoreRedeliveredWebhookNotification() throws Exception {
+        // Given - O WhatsApp reentrega o mesmo payload (mesmo wamid)
+        String webhookPayload = buildWebhookPayload(TEST_PHONE_NUMBER, TEST_MESSAGE_CONTENT);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/webhook")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(webhookPayload))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("EVENT_RECEIVED"));
+        }
+
+        // Then - Apenas uma mensagem de entrada e uma resposta
+        await().atMost(5, TimeUnit.SECONDS).until(() -> 
+            conversationRepository.findAll().stream().anyMatch(c -> hasDetectedTopic(c.getId())));
+        
+        assertThat(messageRepository.count()).isEqualTo(2);
+        verify(gptServicePort, times(1)).generateResponse(anyString(), eq(TEST_MESSAGE_CONTENT), anyString());
+    }
+    
+    @Test
+    void shouldResumeReplyWhenRetriedNotificationFindsMessageAlreadyStored() throws Exception {
+        // Given - A primeira tentativa grava a mensagem e falha na análise, antes de responder
+        when(((AsyncGptServicePort) gptServicePort).analyzeMessageAsync(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Cota da OpenAI esgotada")))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        String webhookPayload = buildWebhookPayload(TEST_PHONE_NUMBER, TEST_MESSAGE_CONTENT);
+
+        // When - A caixa de entrada reprocessa a notificação; a mensagem já está no banco
+        mockMvc.perform(post("/api/webhook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(webhookPayload))
+                .andExpect(status().isOk());
+
+        // Then - A resposta é retomada em vez de descartada como reentrega
+        await().atMost(10, TimeUnit.SECONDS).until(() -> messageRepository.count() == 2
+                && messageRepository.findAll().stream().anyMatch(message -> message.getRespondedAt() != null));
+        
+        List<Message> messages = messageRepository.findAll();
+        Message inboundMessage = messages.stream()
+                .filter(message -> message.getDirection() == MessageDirection.INBOUND)
+                .findFirst().orElseThrow();
+        assertThat(inboundMessage.isAwaitingResponse()).isFalse();
+        assertThat(inboundMessage.getRespondedAt()).isNotNull();
+        assertThat(messages).filteredOn(message -> message.getDirection() == MessageDirection.OUTBOUND)
+                .extracting(Message::getContent)
+                .containsExactly(GPT_RESPONSE);
+        verify((AsyncGptServicePort) gptServicePort, times(2))
+                .analyzeMessageAsync(anyString(), eq(TEST_MESSAGE_CONTENT), anyString());
+    }
+    
+    @Test
+    void shouldApplyLatestStatusUpdateToOutboundMessage() throws Exception {
+        // Given - Uma resposta já enviada ao cliente
+        Message outbound = messageRepository.save(Message.builder()
+                .conversationId("conv-status")
+                .customerId("cust-status")
+                .direction(MessageDirection.OUTBOUND)
+                .content(GPT_RESPONSE)
+                .status(MessageStatus.SENT)
+                .whatsappMessageId("wamid.status-test")
+                .timestamp(LocalDateTime.now())
+                .build());
+
+        // When - O WhatsApp notifica a leitura antes da entrega
+        for (String statusName : List.of("read", "delivered")) {
+            mockMvc.perform(post("/api/webhook")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(buildStatusUpdatePayload(outbound.getWhatsappMessageId(), statusName)))
+                    .andExpect(status().isOk());
+        }
+
+        // Then - Prevalece o status mais avançado
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+            messageRepository.findById(outbound.getId()).map(Message::isRead).orElse(false));
+        Message updated = messageRepository.findById(outbound.getId()).orElseThrow();
+        assertThat(updated.getStatus()).isEqualTo(MessageStatus.READ);
+        assertThat(updated.getReadAt()).isNotNull();
+        assertThat(updated.getContent()).isEqualTo(GPT_RESPONSE);
+    }
+    
     /**
      * Teste para verificar o processamento correto de uma conversa complexa
      * com análise detalhada de intenção e extração de múltiplas entidades.
@@ -363,6 +475,8 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
         // Aguardar processamento
         await().atMost(5, TimeUnit.SECONDS).until(() -> 
             messageRepository.count() >= 2);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> 
+            conversationRepository.findAll().stream().anyMatch(c -> hasDetectedTopic(c.getId())));
             
         // Verificar cliente e conversa
         Optional<Customer> customer = customerRepository.findByPhoneNumber(TEST_PHONE_NUMBER);
@@ -413,7 +527,9 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
 
         // Then - Verificar cliente e conversa criados
         await().atMost(5, TimeUnit.SECONDS).until(() -> 
-            customerRepository.findByPhoneNumber(TEST_PHONE_NUMBER).isPresent());
+            customerRepository.findByPhoneNumber(TEST_PHONE_NUMBER)
+                .map(c -> !conversationRepository.findByCustomerIdOrderByStartTimeDesc(c.getId()).isEmpty())
+                .orElse(false));
             
         Customer customer = customerRepository.findByPhoneNumber(TEST_PHONE_NUMBER).orElseThrow();
         Conversation conversation = conversationRepository.findByCustomerIdOrderByStartTimeDesc(customer.getId()).get(0);
@@ -466,7 +582,9 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
 
         // Then - Verificar cliente e conversa criados
         await().atMost(5, TimeUnit.SECONDS).until(() -> 
-            customerRepository.findByPhoneNumber(TEST_PHONE_NUMBER).isPresent());
+            customerRepository.findByPhoneNumber(TEST_PHONE_NUMBER)
+                .map(c -> !conversationRepository.findByCustomerIdOrderByStartTimeDesc(c.getId()).isEmpty())
+                .orElse(false));
             
         Customer customer = customerRepository.findByPhoneNumber(TEST_PHONE_NUMBER).orElseThrow();
         Conversation conversation = conversationRepository.findByCustomerIdOrderByStartTimeDesc(customer.getId()).get(0);
@@ -598,6 +716,17 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
         verify(gptServicePort, never()).generateResponse(anyString(), eq(POST_HANDOFF_MESSAGE), anyString());
     }
 
+    /**
+     * Verifica se o contexto da conversa já recebeu o tópico detectado,
+     * indicando que o processamento assíncrono da mensagem terminou.
+     */
+    private boolean hasDetectedTopic(String conversationId) {
+        return conversationRepository.findById(conversationId)
+                .map(Conversation::getContext)
+                .map(context -> context.getLastDetectedTopic() != null)
+                .orElse(false);
+    }
+
     /**
      * Constrói um payload de webhook simulando uma mensagem recebida do WhatsApp.
      * 
@@ -628,7 +757,7 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
                             }],
                             "messages": [{
                                 "from": "%s",
-                                "id": "wamid.123456789",
+                                "id": "wamid.%s",
                                 "timestamp": "%d",
                                 "text": {
                                     "body": "%s"
@@ -641,9 +770,9 @@ class WhatsappWebhookControllerIT extends AbstractIntegrationTest {
                 }]
             }
             """, 
-            phoneNumber, phoneNumber, timestamp, messageText);
+            phoneNumber, phoneNumber, UUID.randomUUID(), timestamp, messageText);
     }
-    
+
     /**
      * Constrói um payload de webhook simulando uma notificação de status do WhatsApp.
      * 
@@ -4,8 +4,6 @@ import br.com.urbana.connect.domain.enums.ConversationStatus;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,15 +14,15 @@ class ConversationTest {
         // Given
         LocalDateTime now = LocalDateTime.now();
         String customerId = "cust123";
-        List<String> messageIds = new ArrayList<>();
-        messageIds.add("msg1");
-        messageIds.add("msg2");
         
         // When
         Conversation conversation = Conversation.builder()
                 .id("conv456")
                 .customerId(customerId)
-                .messageIds(messageIds)
+                .messageCount(2)
+                .firstMessageAt(now)
+                .lastMessageId("msg2")
+                .lastMessageAt(now)
                 .status(ConversationStatus.ACTIVE)
                 .startTime(now)
                 .lastActivityTime(now)
@@ -36,9 +34,10 @@ class ConversationTest {
         assertNotNull(conversation);
         assertEquals("conv456", conversation.getId());
         assertEquals(customerId, conversation.getCustomerId());
-        assertEquals(2, conversation.getMessageIds().size());
-        assertTrue(conversation.getMessageIds().contains("msg1"));
-        assertTrue(conversation.getMessageIds().contains("msg2"));
+        assertEquals(2, conversation.getMessageCount());
+        assertEquals(now, conversation.getFirstMessageAt());
+        assertEquals("msg2", conversation.getLastMessageId());
+        assertEquals(now, conversation.getLastMessageAt());
         assertEquals(ConversationStatus.ACTIVE, conversation.getStatus());
         assertEquals(now, conversation.getStartTime());
         assertEquals(now, conversation.getLastActivityTime());
@@ -60,7 +59,8 @@ class ConversationTest {
         // Then
         assertNotNull(conversation);
         assertEquals(customerId, conversation.getCustomerId());
-        assertTrue(conversation.getMessageIds().isEmpty());
+        assertEquals(0, conversation.getMessageCount());
+        assertNull(conversation.getLastMessageId());
         assertEquals(ConversationStatus.ACTIVE, conversation.getStatus());
         assertNotNull(conversation.getContext());
     }
@@ -70,13 +70,11 @@ class ConversationTest {
         // Given
         Conversation conversation = new Conversation();
         LocalDateTime now = LocalDateTime.now();
-        List<String> messageIds = new ArrayList<>();
-        messageIds.add("msg3");
-        
         // When
         conversation.setId("conv789");
         conversation.setCustomerId("newCust456");
-        conversation.setMessageIds(messageIds);
+        conversation.setMessageCount(1);
+        conversation.setLastMessageId("msg3");
         conversation.setStatus(ConversationStatus.CLOSED);
         conversation.setStartTime(now);
         conversation.setEndTime(now);
@@ -86,8 +84,8 @@ class ConversationTest {
         // Then
         assertEquals("conv789", conversation.getId());
         assertEquals("newCust456", conversation.getCustomerId());
-        assertEquals(1, conversation.getMessageIds().size());
-        assertTrue(conversation.getMessageIds().contains("msg3"));
+        assertEquals(1, conversation.getMessageCount());
+        assertEquals("msg3", conversation.getLastMessageId());
         assertEquals(ConversationStatus.CLOSED, conversation.getStatus());
         assertEquals(now, conversation.getStartTime());
         assertEquals(now, conversation.getEndTime());
@@ -105,13 +103,17 @@ class ConversationTest {
                 .status(ConversationStatus.ACTIVE)
                 .build();
         
+        LocalDateTime timestamp = LocalDateTime.now();
+        
         // When
-        List<String> messageIds = new ArrayList<>(conversation.getMessageIds());
-        messageIds.add("newMsg1");
-        conversation.setMessageIds(messageIds);
+        ConversationUpdate.create()
+                .recordMessage("newMsg1", timestamp)
+                .applyTo(conversation);
         
         // Then
-        assertEquals(1, conversation.getMessageIds().size());
-        assertTrue(conversation.getMessageIds().contains("newMsg1"));
+        assertEquals(1, conversation.getMessageCount());
+        assertEquals("newMsg1", conversation.getLastMessageId());
+        assertEquals(timestamp, conversation.getFirstMessageAt());
+        assertEquals(timestamp, conversation.getLastMessageAt());
     }
 } 
\ No newline at end of file
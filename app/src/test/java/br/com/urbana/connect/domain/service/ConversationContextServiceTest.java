@@ -5,27 +5,37 @@ import br.com.urbana.connect.domain.enums.ConversationStatus;
 import br.com.urbana.connect.domain.enums.MessageDirection;
 import br.com.urbana.connect.domain.model.Conversation;
 import br.com.urbana.connect.domain.model.ConversationContext;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
 import br.com.urbana.connect.domain.model.Customer;
 import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.RecentMessage;
+import br.com.urbana.connect.infrastructure.cache.CustomerCache;
 import br.com.urbana.connect.infrastructure.persistence.ConversationMongoRepository;
 import br.com.urbana.connect.infrastructure.persistence.CustomerMongoRepository;
 import br.com.urbana.connect.infrastructure.persistence.MessageMongoRepository;
+import br.com.urbana.connect.infrastructure.persistence.MessageWriteBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,9 +50,16 @@ class ConversationContextServiceTest {
     @Mock
     private MessageMongoRepository messageRepository;
 
+    @Mock
+    private MessageWriteBuffer messageWriteBuffer;
+
     @Mock
     private ContextConfig contextConfig;
 
+    @Spy
+    private CustomerCache customerCache = new CustomerCache(
+            new ConcurrentMapCacheManager(CustomerCache.CACHE_NAME), new SimpleMeterRegistry());
+
     @InjectMocks
     private ConversationContextService contextService;
 
@@ -69,6 +86,7 @@ class ConversationContextServiceTest {
                 .status(ConversationStatus.ACTIVE)
                 .startTime(now)
                 .lastActivityTime(now)
+                .messageCount(4)
                 .context(new ConversationContext())
                 .build();
         
@@ -119,7 +137,7 @@ class ConversationContextServiceTest {
     @Test
     void getOrCreateCustomer_existingCustomer_returnsCustomer() {
         // Given
-        when(customerRepository.findByPhoneNumber(anyString())).thenReturn(Optional.of(testCustomer));
+        when(customerRepository.findOrCreateByPhoneNumber(anyString())).thenReturn(testCustomer);
         
         // When
         Customer result = contextService.getOrCreateCustomer(testCustomer.getPhoneNumber());
@@ -127,32 +145,80 @@ class ConversationContextServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(testCustomer.getId(), result.getId());
-        verify(customerRepository, times(1)).findByPhoneNumber(testCustomer.getPhoneNumber());
-        verify(customerRepository, never()).save(any(Customer.class));
+        verify(customerRepository, times(1)).findOrCreateByPhoneNumber(testCustomer.getPhoneNumber());
+    }
+
+    @Test
+    void getOrCreateCustomer_knownCustomer_servedFromCache() {
+        // Given
+        when(customerRepository.findOrCreateByPhoneNumber(testCustomer.getPhoneNumber())).thenReturn(testCustomer);
+        
+        // When
+        contextService.getOrCreateCustomer(testCustomer.getPhoneNumber());
+        Customer result = contextService.getOrCreateCustomer(testCustomer.getPhoneNumber());
+        
+        // Then
+        assertEquals(testCustomer.getId(), result.getId());
+        verify(customerRepository, times(1)).findOrCreateByPhoneNumber(testCustomer.getPhoneNumber());
     }
 
     @Test
-    void getOrCreateCustomer_newCustomer_createsAndReturnsCustomer() {
+    void getOrCreateCustomer_usesSingleUpsertInsteadOfFindThenSave() {
         // Given
-        when(customerRepository.findByPhoneNumber(anyString())).thenReturn(Optional.empty());
-        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Customer created = Customer.builder()
+                .id("new-customer")
+                .phoneNumber("+5511888888888")
+                .createdAt(now)
+                .build();
+        when(customerRepository.findOrCreateByPhoneNumber("+5511888888888")).thenReturn(created);
         
         // When
         Customer result = contextService.getOrCreateCustomer("+5511888888888");
         
         // Then
-        assertNotNull(result);
-        assertNotNull(result.getId());
         assertEquals("+5511888888888", result.getPhoneNumber());
-        verify(customerRepository, times(1)).findByPhoneNumber("+5511888888888");
-        verify(customerRepository, times(1)).save(any(Customer.class));
+        verify(customerRepository, never()).findByPhoneNumber(anyString());
+        verify(customerRepository, never()).save(any(Customer.class));
     }
 
     @Test
-    void getConversationHistory_returnsMessages() {
+    void getOrCreateActiveConversation_existingConversation_returnsIt() {
         // Given
-        when(messageRepository.findByConversationIdOrderByTimestampAsc(testConversation.getId()))
-                .thenReturn(testMessages);
+        when(conversationRepository.findOrCreateActive(any(Conversation.class))).thenReturn(testConversation);
+        
+        // When
+        Conversation result = contextService.getOrCreateActiveConversation(testCustomer);
+        
+        // Then
+        assertEquals(testConversation, result);
+        verify(conversationRepository, never()).findByCustomerIdOrderByStartTimeDesc(anyString());
+        verify(conversationRepository, never()).save(any(Conversation.class));
+    }
+
+    @Test
+    void getOrCreateActiveConversation_noConversation_createsInSingleOperation() {
+        // Given
+        when(conversationRepository.findOrCreateActive(any(Conversation.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        Conversation result = contextService.getOrCreateActiveConversation(testCustomer);
+        
+        // Then
+        assertNotNull(result.getId());
+        assertEquals(testCustomer.getId(), result.getCustomerId());
+        assertEquals(ConversationStatus.ACTIVE, result.getStatus());
+        assertEquals("INICIADA", result.getContext().getConversationState());
+        verify(conversationRepository, times(1)).findOrCreateActive(any(Conversation.class));
+    }
+
+    @Test
+    void getConversationHistory_returnsMessages() {
+        // Given: o repositório devolve da mais recente para a mais antiga
+        List<Message> newestFirst = new ArrayList<>(testMessages);
+        Collections.reverse(newestFirst);
+        when(messageRepository.findRecentHistory(testConversation.getId(), PageRequest.of(0, 10)))
+                .thenReturn(newestFirst);
         when(contextConfig.getMaxMessages()).thenReturn(10); // Configurar para retornar todas as mensagens
         
         // When
@@ -166,9 +232,9 @@ class ConversationContextServiceTest {
 
     @Test
     void getConversationHistory_withLimit_returnsLimitedMessages() {
-        // Given
-        when(messageRepository.findByConversationIdOrderByTimestampAsc(testConversation.getId()))
-                .thenReturn(testMessages);
+        // Given: o limite é aplicado na consulta, que traz só as duas mais recentes
+        when(messageRepository.findRecentHistory(testConversation.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(testMessages.get(3), testMessages.get(2)));
         when(contextConfig.getMaxMessages()).thenReturn(2); // Configurar para limitar a 2 mensagens
         
         // When
@@ -182,6 +248,88 @@ class ConversationContextServiceTest {
         assertEquals(testMessages.get(3).getId(), result.get(1).getId());
     }
 
+    @Test
+    void getConversationHistory_neverLoadsFullConversation() {
+        // Given
+        when(contextConfig.getMaxMessages()).thenReturn(2);
+        
+        // When
+        contextService.getConversationHistory(testConversation);
+        
+        // Then
+        verify(messageRepository).findRecentHistory(testConversation.getId(), PageRequest.of(0, 2));
+        verify(messageRepository, never()).findByConversationIdOrderByTimestampAsc(anyString());
+    }
+
+    @Test
+    void getConversationHistory_withRecentMessagesOnConversation_doesNotQueryMessages() {
+        // Given: a conversa já traz as mensagens recentes embutidas
+        testMessages.forEach(message -> testConversation.getRecentMessages().add(RecentMessage.from(message)));
+        when(contextConfig.getMaxMessages()).thenReturn(3);
+        
+        // When
+        List<Message> result = contextService.getConversationHistory(testConversation);
+        
+        // Then
+        assertEquals(3, result.size());
+        assertEquals(testMessages.get(1).getContent(), result.get(0).getContent());
+        assertEquals(testMessages.get(3).getContent(), result.get(2).getContent());
+        assertEquals(MessageDirection.OUTBOUND, result.get(2).getDirection());
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void saveUserMessage_appendsToCappedRecentMessages() {
+        // Given
+        testConversation.getRecentMessages().add(RecentMessage.from(testMessages.get(2)));
+        testConversation.getRecentMessages().add(RecentMessage.from(testMessages.get(3)));
+        when(contextConfig.getMaxMessages()).thenReturn(2);
+        when(messageWriteBuffer.insert(any(Message.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(conversationRepository.applyUpdate(eq(testConversation.getId()), any(ConversationUpdate.class))).thenReturn(true);
+        
+        // When
+        contextService.saveUserMessage(testConversation, "Vocês atendem aos sábados?", "wamid.123");
+        
+        // Then
+        List<RecentMessage> recentMessages = testConversation.getRecentMessages();
+        assertEquals(2, recentMessages.size());
+        assertEquals(testMessages.get(3).getContent(), recentMessages.get(0).getContent());
+        assertEquals("Vocês atendem aos sábados?", recentMessages.get(1).getContent());
+        assertEquals(MessageDirection.INBOUND, recentMessages.get(1).getDirection());
+        
+        ArgumentCaptor<ConversationUpdate> updateCaptor = ArgumentCaptor.forClass(ConversationUpdate.class);
+        verify(conversationRepository).applyUpdate(eq(testConversation.getId()), updateCaptor.capture());
+        assertEquals(2, updateCaptor.getValue().getValuesToPush().get("recentMessages").getKeepLast());
+    }
+
+    @Test
+    void flush_withProcessingContext_writesAccumulatedChangesOnce() {
+        // Given
+        when(contextConfig.getMaxMessages()).thenReturn(10);
+        when(messageWriteBuffer.insert(any(Message.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(conversationRepository.applyUpdate(eq(testConversation.getId()), any(ConversationUpdate.class))).thenReturn(true);
+        MessageProcessingContext context = new MessageProcessingContext(testCustomer, testConversation);
+
+        // When
+        contextService.saveUserMessage(context, "Vocês atendem aos sábados?", "wamid.123");
+        Message response = contextService.saveAssistantResponse(context, "Sim, das 9h às 13h! 😊", "wamid.456");
+        contextService.flush(context);
+        contextService.flush(context);
+
+        // Then
+        assertEquals("wamid.456", response.getWhatsappMessageId());
+        assertEquals(6, testConversation.getMessageCount());
+        assertEquals(response.getId(), testConversation.getLastMessageId());
+
+        ArgumentCaptor<ConversationUpdate> updateCaptor = ArgumentCaptor.forClass(ConversationUpdate.class);
+        verify(conversationRepository, times(1)).applyUpdate(eq(testConversation.getId()), updateCaptor.capture());
+        ConversationUpdate update = updateCaptor.getValue();
+        assertEquals(2L, update.getFieldsToIncrement().get("messageCount").longValue());
+        assertEquals(2, update.getValuesToPush().get("recentMessages").getValues().size());
+        assertEquals("AGUARDANDO_USUARIO", update.getFieldsToSet().get("context.conversationState"));
+        verify(messageWriteBuffer, times(2)).insert(any(Message.class));
+    }
+
     @Test
     void formatConversationHistory_formatsMessagesCorrectly() {
         // Given
@@ -220,7 +368,7 @@ class ConversationContextServiceTest {
         // Given
         String detectedTopic = "DUVIDA_SERVICO";
         String identifiedEntities = "decoração, interiores, custo";
-        when(conversationRepository.save(any(Conversation.class))).thenReturn(testConversation);
+        when(conversationRepository.applyUpdate(eq(testConversation.getId()), any(ConversationUpdate.class))).thenReturn(true);
         
         // When
         Conversation result = contextService.updateConversationContext(testConversation, detectedTopic, identifiedEntities);
@@ -230,7 +378,31 @@ class ConversationContextServiceTest {
         assertEquals(detectedTopic, result.getContext().getLastDetectedTopic());
         assertTrue(result.getContext().getIdentifiedEntities().contains(identifiedEntities));
         assertNotNull(result.getContext().getLastInteractionTime());
-        verify(conversationRepository, times(1)).save(testConversation);
+        
+        ArgumentCaptor<ConversationUpdate> updateCaptor = ArgumentCaptor.forClass(ConversationUpdate.class);
+        verify(conversationRepository).applyUpdate(eq(testConversation.getId()), updateCaptor.capture());
+        assertEquals(detectedTopic, updateCaptor.getValue().getFieldsToSet().get("context.lastDetectedTopic"));
+        assertEquals(List.of(identifiedEntities),
+                updateCaptor.getValue().getValuesToPush().get("context.identifiedEntities").getValues());
+        verify(conversationRepository, never()).save(any(Conversation.class));
+    }
+
+    @Test
+    void updateConversationContext_keepsOnlyMostRecentEntities() {
+        // Given
+        testConversation.getContext().setIdentifiedEntities(new ArrayList<>(List.of("sala", "quarto")));
+        when(contextConfig.getMaxIdentifiedEntities()).thenReturn(2);
+        when(conversationRepository.applyUpdate(eq(testConversation.getId()), any(ConversationUpdate.class))).thenReturn(true);
+        
+        // When
+        Conversation result = contextService.updateConversationContext(testConversation, "DUVIDA_SERVICO", "cozinha");
+        
+        // Then
+        assertEquals(List.of("quarto", "cozinha"), result.getContext().getIdentifiedEntities());
+        
+        ArgumentCaptor<ConversationUpdate> updateCaptor = ArgumentCaptor.forClass(ConversationUpdate.class);
+        verify(conversationRepository).applyUpdate(eq(testConversation.getId()), updateCaptor.capture());
+        assertEquals(2, updateCaptor.getValue().getValuesToPush().get("context.identifiedEntities").getKeepLast());
     }
 
     @Test
@@ -238,7 +410,7 @@ class ConversationContextServiceTest {
         // Given
         String summary = "Cliente perguntou sobre serviços de coleta e preços para residências pequenas.";
         when(contextConfig.isSummaryEnabled()).thenReturn(true);
-        when(conversationRepository.save(any(Conversation.class))).thenReturn(testConversation);
+        when(conversationRepository.applyUpdate(eq(testConversation.getId()), any(ConversationUpdate.class))).thenReturn(true);
         
         // When
         Conversation result = contextService.updateConversationSummary(testConversation, summary);
@@ -246,7 +418,8 @@ class ConversationContextServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(summary, result.getContext().getConversationSummary());
-        verify(conversationRepository, times(1)).save(testConversation);
+        verify(conversationRepository, times(1)).applyUpdate(eq(testConversation.getId()), any(ConversationUpdate.class));
+        verify(conversationRepository, never()).save(any(Conversation.class));
     }
 
     @Test
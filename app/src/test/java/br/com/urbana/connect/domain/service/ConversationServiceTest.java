@@ -4,6 +4,7 @@ import br.com.urbana.connect.domain.enums.ConversationStatus;
 import br.com.urbana.connect.domain.enums.MessageDirection;
 import br.com.urbana.connect.domain.model.Conversation;
 import br.com.urbana.connect.domain.model.ConversationContext;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
 import br.com.urbana.connect.domain.model.Message;
 import br.com.urbana.connect.domain.port.output.ConversationRepository;
 import br.com.urbana.connect.domain.port.output.MessageRepository;
@@ -16,7 +17,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +24,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -55,7 +56,6 @@ class ConversationServiceTest {
                 .startTime(now.minusDays(1))
                 .lastActivityTime(now.minusHours(1))
                 .handedOffToHuman(false)
-                .messageIds(new ArrayList<>())
                 .context(new ConversationContext())
                 .createdAt(now.minusDays(1))
                 .updatedAt(now.minusHours(1))
@@ -74,20 +74,15 @@ class ConversationServiceTest {
     @Test
     void createConversation_whenNoActiveConversation_shouldCreateNewConversation() {
         // Given
-        when(conversationRepository.findByCustomerIdAndStatus(CUSTOMER_ID, ConversationStatus.ACTIVE))
-                .thenReturn(Collections.emptyList());
-        when(conversationRepository.save(any(Conversation.class))).thenAnswer(invocation -> {
-            Conversation savedConversation = invocation.getArgument(0);
-            savedConversation.setId(CONVERSATION_ID);
-            return savedConversation;
-        });
+        when(conversationRepository.findOrCreateActive(any(Conversation.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         Conversation result = conversationService.createConversation(CUSTOMER_ID);
 
         // Then
         assertNotNull(result);
-        assertEquals(CONVERSATION_ID, result.getId());
+        assertNotNull(result.getId());
         assertEquals(CUSTOMER_ID, result.getCustomerId());
         assertEquals(ConversationStatus.ACTIVE, result.getStatus());
         assertNotNull(result.getStartTime());
@@ -95,7 +90,7 @@ class ConversationServiceTest {
         assertFalse(result.isHandedOffToHuman());
         
         ArgumentCaptor<Conversation> conversationCaptor = ArgumentCaptor.forClass(Conversation.class);
-        verify(conversationRepository).save(conversationCaptor.capture());
+        verify(conversationRepository).findOrCreateActive(conversationCaptor.capture());
         Conversation capturedConversation = conversationCaptor.getValue();
         
         assertEquals(CUSTOMER_ID, capturedConversation.getCustomerId());
@@ -106,8 +101,8 @@ class ConversationServiceTest {
     @Test
     void createConversation_whenActiveConversationExists_shouldReturnExistingConversation() {
         // Given
-        when(conversationRepository.findByCustomerIdAndStatus(CUSTOMER_ID, ConversationStatus.ACTIVE))
-                .thenReturn(List.of(testConversation));
+        when(conversationRepository.findOrCreateActive(any(Conversation.class)))
+                .thenReturn(testConversation);
 
         // When
         Conversation result = conversationService.createConversation(CUSTOMER_ID);
@@ -149,8 +144,8 @@ class ConversationServiceTest {
     @Test
     void findActiveConversation_whenExists_shouldReturnConversation() {
         // Given
-        when(conversationRepository.findByCustomerIdAndStatus(CUSTOMER_ID, ConversationStatus.ACTIVE))
-                .thenReturn(List.of(testConversation));
+        when(conversationRepository.findActiveByCustomerId(CUSTOMER_ID))
+                .thenReturn(Optional.of(testConversation));
 
         // When
         Optional<Conversation> result = conversationService.findActiveConversation(CUSTOMER_ID);
@@ -165,8 +160,8 @@ class ConversationServiceTest {
     @Test
     void findActiveConversation_whenNoConversations_shouldReturnEmpty() {
         // Given
-        when(conversationRepository.findByCustomerIdAndStatus(anyString(), any(ConversationStatus.class)))
-                .thenReturn(Collections.emptyList());
+        when(conversationRepository.findActiveByCustomerId(anyString()))
+                .thenReturn(Optional.empty());
 
         // When
         Optional<Conversation> result = conversationService.findActiveConversation(CUSTOMER_ID);
@@ -206,7 +201,13 @@ class ConversationServiceTest {
         assertEquals("Nova mensagem", capturedMessage.getContent());
         assertNotNull(capturedMessage.getTimestamp());
         
-        verify(conversationRepository).addMessageId(CONVERSATION_ID, MESSAGE_ID);
+        
+        ArgumentCaptor<ConversationUpdate> updateCaptor = ArgumentCaptor.forClass(ConversationUpdate.class);
+        verify(conversationRepository).update(eq(CONVERSATION_ID), updateCaptor.capture());
+        assertEquals(1L, updateCaptor.getValue().getFieldsToIncrement().get("messageCount"));
+        assertEquals(MESSAGE_ID, updateCaptor.getValue().getFieldsToSet().get("lastMessageId"));
+        assertEquals(1, result.getMessageCount());
+        verify(conversationRepository, never()).save(any(Conversation.class));
     }
 
     @Test
@@ -228,7 +229,7 @@ class ConversationServiceTest {
         
         assertEquals("Conversa não encontrada", exception.getMessage());
         verify(messageRepository, never()).save(any(Message.class));
-        verify(conversationRepository, never()).addMessageId(anyString(), anyString());
+        verify(conversationRepository, never()).update(anyString(), any(ConversationUpdate.class));
     }
 
     @Test
@@ -360,6 +361,37 @@ class ConversationServiceTest {
         verify(conversationRepository, never()).save(any(Conversation.class));
     }
 
+    @Test
+    void updateConversationFields_shouldWriteOnlyTheGivenUpdate() {
+        // Given
+        ConversationUpdate update = ConversationUpdate.create()
+                .conversationState("AGUARDANDO_USUARIO")
+                .lastActivityTime(LocalDateTime.now());
+        when(conversationRepository.update(CONVERSATION_ID, update)).thenReturn(true);
+
+        // When
+        conversationService.updateConversation(CONVERSATION_ID, update);
+
+        // Then
+        verify(conversationRepository).update(CONVERSATION_ID, update);
+        verify(conversationRepository, never()).save(any(Conversation.class));
+    }
+
+    @Test
+    void updateConversationFields_whenConversationNotExists_shouldThrowException() {
+        // Given
+        ConversationUpdate update = ConversationUpdate.create().conversationState("AGUARDANDO_USUARIO");
+        when(conversationRepository.update("non-existent-id", update)).thenReturn(false);
+
+        // When, Then
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> conversationService.updateConversation("non-existent-id", update)
+        );
+        
+        assertEquals("Conversa não encontrada", exception.getMessage());
+    }
+
     @Test
     void closeConversation_shouldUpdateStatusAndSetEndTime() {
         // Given
@@ -477,6 +509,19 @@ class ConversationServiceTest {
         verify(messageRepository, never()).findByConversationId(anyString());
     }
 
+    @Test
+    void getConversationMessagesPage_shouldQueryOnlyTheRequestedPage() {
+        // Given
+        when(messageRepository.findByConversationId(CONVERSATION_ID, 2, 20)).thenReturn(List.of(testMessage));
+
+        // When
+        List<Message> result = conversationService.getConversationMessages(CONVERSATION_ID, 2, 20);
+
+        // Then
+        assertEquals(List.of(testMessage), result);
+        verify(messageRepository, never()).findByConversationId(CONVERSATION_ID);
+    }
+
     @Test
     void findAll_shouldReturnEmptyList() {
         // Given - The method returns an empty list by default
@@ -3,13 +3,17 @@ package br.com.urbana.connect.domain.service;
 import br.com.urbana.connect.domain.enums.CustomerStatus;
 import br.com.urbana.connect.domain.model.Customer;
 import br.com.urbana.connect.domain.port.output.CustomerRepository;
+import br.com.urbana.connect.infrastructure.cache.CustomerCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -25,6 +29,10 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Spy
+    private CustomerCache customerCache = new CustomerCache(
+            new ConcurrentMapCacheManager(CustomerCache.CACHE_NAME), new SimpleMeterRegistry());
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -348,6 +356,108 @@ class CustomerServiceTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void findById_calledTwice_shouldQueryRepositoryOnce() {
+        // Given
+        when(customerRepository.findById(CUSTOMER_ID)).thenReturn(Optional.of(testCustomer));
+
+        // When
+        customerService.findById(CUSTOMER_ID);
+        Optional<Customer> result = customerService.findById(CUSTOMER_ID);
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(customerRepository, times(1)).findById(CUSTOMER_ID);
+    }
+
+    @Test
+    void findById_whenNotExists_shouldNotCacheAbsence() {
+        // Given
+        when(customerRepository.findById("non-existent-id")).thenReturn(Optional.empty());
+
+        // When
+        customerService.findById("non-existent-id");
+        customerService.findById("non-existent-id");
+
+        // Then
+        verify(customerRepository, times(2)).findById("non-existent-id");
+    }
+
+    @Test
+    void findCustomerByPhoneNumber_shouldAlsoCacheById() {
+        // Given
+        when(customerRepository.findByPhoneNumber(PHONE_NUMBER)).thenReturn(Optional.of(testCustomer));
+
+        // When
+        customerService.findCustomerByPhoneNumber(PHONE_NUMBER);
+        Optional<Customer> result = customerService.findById(CUSTOMER_ID);
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(customerRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void findById_changingTheReturnedCustomer_shouldNotChangeTheCachedOne() {
+        // Given
+        when(customerRepository.findById(CUSTOMER_ID)).thenReturn(Optional.of(testCustomer));
+        Customer first = customerService.findById(CUSTOMER_ID).orElseThrow();
+
+        // When
+        first.setName("Alterado sem gravar");
+        first.getPreferences().put("idioma", "en");
+        Customer second = customerService.findById(CUSTOMER_ID).orElseThrow();
+
+        // Then
+        assertEquals("Usuário Teste", second.getName());
+        assertFalse(second.getPreferences().containsKey("idioma"));
+        verify(customerRepository, times(1)).findById(CUSTOMER_ID);
+    }
+
+    @Test
+    void setCustomerOptIn_shouldEvictCachedCustomer() {
+        // Given
+        when(customerRepository.findById(CUSTOMER_ID)).thenReturn(Optional.of(testCustomer));
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        customerService.findById(CUSTOMER_ID);
+
+        // When
+        customerService.setCustomerOptIn(CUSTOMER_ID, false);
+        customerService.findById(CUSTOMER_ID);
+
+        // Then: leitura inicial, leitura da alteração e nova leitura após a remoção do cache
+        verify(customerRepository, times(3)).findById(CUSTOMER_ID);
+        verify(customerCache, times(2)).evict(testCustomer);
+    }
+
+    @Test
+    void updateCustomer_withNewPhoneNumber_shouldEvictOldAndNewKeys() {
+        // Given
+        when(customerRepository.findByPhoneNumber(PHONE_NUMBER)).thenReturn(Optional.of(testCustomer));
+        customerService.findCustomerByPhoneNumber(PHONE_NUMBER);
+
+        Customer changed = Customer.builder()
+                .id(CUSTOMER_ID)
+                .phoneNumber("+5511888888888")
+                .name("Usuário Teste")
+                .build();
+        Customer stored = Customer.builder()
+                .id(CUSTOMER_ID)
+                .phoneNumber(PHONE_NUMBER)
+                .build();
+        when(customerRepository.findById(CUSTOMER_ID)).thenReturn(Optional.of(stored));
+        when(customerRepository.save(changed)).thenReturn(changed);
+
+        // When
+        customerService.updateCustomer(changed);
+        customerService.findCustomerByPhoneNumber(PHONE_NUMBER);
+
+        // Then
+        verify(customerCache, times(2)).evict(stored);
+        verify(customerCache, times(2)).evict(changed);
+        verify(customerRepository, times(2)).findByPhoneNumber(PHONE_NUMBER);
+    }
+
     @Test
     void findByPhoneNumber_shouldCallFindCustomerByPhoneNumber() {
         // Given
@@ -0,0 +1,99 @@
+package br.com.urbana.connect.domain.service;
+
+import br.com.urbana.connect.application.config.FaqConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FaqAnswerServiceTest {
+
+    private FaqConfig faqConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private FaqAnswerService faqAnswerService;
+
+    @BeforeEach
+    void setUp() {
+        faqConfig = new FaqConfig();
+        meterRegistry = new SimpleMeterRegistry();
+        faqAnswerService = new FaqAnswerService(faqConfig, meterRegistry);
+    }
+
+    @Test
+    void findAnswer_withParaphrasedPriceQuestion_shouldAnswerLocally() {
+        // When
+        Optional<String> answer = faqAnswerService.findAnswer("Quanto custa o Decor Interiores?");
+
+        // Then
+        assertTrue(answer.isPresent());
+        assertTrue(answer.get().contains("R$350 por ambiente"));
+    }
+
+    @Test
+    void findAnswer_withAccentsAndCaseVariations_shouldAnswerLocally() {
+        // When
+        Optional<String> answer = faqAnswerService.findAnswer("QUAIS SERVICOS VOCÊS OFERECEM");
+
+        // Then
+        assertTrue(answer.isPresent());
+        assertTrue(answer.get().contains("Decor Interiores"));
+    }
+
+    @Test
+    void findAnswer_withLowConfidenceMatch_shouldFallThroughToGpt() {
+        // Compartilha termos com a pergunta de preço, mas trata de outro assunto
+        assertTrue(faqAnswerService.findAnswer("Quero cancelar o Decor Interiores que contratei").isEmpty());
+        assertTrue(faqAnswerService.findAnswer("Vocês fazem reforma de banheiro?").isEmpty());
+        assertTrue(faqAnswerService.findAnswer("oi").isEmpty());
+        assertTrue(faqAnswerService.findAnswer("").isEmpty());
+        assertTrue(faqAnswerService.findAnswer(null).isEmpty());
+    }
+
+    @Test
+    void findAnswer_shouldRespectConfiguredThreshold() {
+        // Given
+        String message = "Quanto custa o Decor Interiores para a minha sala?";
+        double score = faqAnswerService.bestScore(message);
+        assertTrue(score > 0 && score < 1);
+
+        // When / Then
+        faqConfig.setThreshold(score - 0.01);
+        assertTrue(faqAnswerService.findAnswer(message).isPresent());
+
+        faqConfig.setThreshold(score + 0.01);
+        assertTrue(faqAnswerService.findAnswer(message).isEmpty());
+    }
+
+    @Test
+    void findAnswer_whenDisabled_shouldNotAnswer() {
+        // Given
+        faqConfig.setEnabled(false);
+
+        // When / Then
+        assertTrue(faqAnswerService.findAnswer("Qual o preço do Decor Interiores?").isEmpty());
+    }
+
+    @Test
+    void findAnswer_shouldExposeHitRate() {
+        // When
+        faqAnswerService.findAnswer("Qual o preço do Decor Interiores?");
+        faqAnswerService.findAnswer("Vocês fazem reforma de banheiro?");
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("urbana.faq.lookup").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("urbana.faq.lookup").tag("result", "miss").counter().count());
+        assertEquals(0.5, meterRegistry.get("urbana.faq.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void tokenize_shouldNormalizeTerms() {
+        assertEquals(List.of("preco", "decor", "interiore"),
+                FaqAnswerService.tokenize("Quanto custa o Decor Interiores?"));
+        assertEquals(List.of("preco", "decor", "interiore"),
+                FaqAnswerService.tokenize("Qual o preço do Decor Interiores?"));
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.urbana.connect.domain.service;
+
+import br.com.urbana.connect.domain.enums.KeywordCategory;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    private final KeywordMatcher matcher = KeywordMatcher.getDefault();
+
+    @Test
+    void matches_shouldIgnoreCaseAndAccents() {
+        assertTrue(matcher.matches("Quero FALAR COM ATENDENTE!", KeywordCategory.HANDOFF));
+        assertTrue(matcher.matches("nao quero falar com robo", KeywordCategory.HANDOFF));
+        assertTrue(matcher.matches("NÃO QUERO FALAR COM ROBÔ", KeywordCategory.HANDOFF));
+        assertTrue(matcher.matches("Olá!", KeywordCategory.GREETING));
+        assertTrue(matcher.matches("Ate logo 👋", KeywordCategory.FAREWELL));
+    }
+
+    @Test
+    void matches_withGreetings_shouldOnlyMatchWholeWords() {
+        assertTrue(matcher.matches("oi", KeywordCategory.GREETING));
+        assertTrue(matcher.matches("oi, tudo bem?", KeywordCategory.GREETING));
+        assertTrue(matcher.matches("Bom   dia!!", KeywordCategory.GREETING));
+
+        assertFalse(matcher.matches("boi", KeywordCategory.GREETING));
+        assertFalse(matcher.matches("hipótese", KeywordCategory.GREETING));
+        assertFalse(matcher.matches("boato", KeywordCategory.GREETING));
+    }
+
+    @Test
+    void scan_shouldReportEveryCategoryInOnePass() {
+        // When
+        EnumSet<KeywordCategory> categories = matcher.categories("Oi! Obrigado, mas quero falar com pessoa. Tchau");
+
+        // Then
+        assertEquals(EnumSet.allOf(KeywordCategory.class), categories);
+        assertEquals(0, matcher.scan("Quero saber sobre decoração"));
+        assertEquals(0, matcher.scan(null));
+    }
+
+    @Test
+    void scan_withOverlappingKeywords_shouldFollowFailureLinks() {
+        // Given - Exemplo clássico do algoritmo: "she", "he" e "hers" terminam dentro de "ushers"
+        KeywordMatcher custom = KeywordMatcher.builder()
+                .phrases(KeywordCategory.GREETING, "she")
+                .phrases(KeywordCategory.HANDOFF, "he")
+                .phrases(KeywordCategory.FAREWELL, "hers")
+                .build();
+
+        // When / Then
+        assertEquals(EnumSet.allOf(KeywordCategory.class), custom.categories("ushers"));
+        assertEquals(EnumSet.of(KeywordCategory.HANDOFF), custom.categories("ahem"));
+    }
+
+    @Test
+    void builder_withKeywordWithoutLettersOrDigits_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> KeywordMatcher.builder().phrases(KeywordCategory.HANDOFF, " ?! ").build());
+    }
+
+    @Test
+    void countWords_shouldCountWhitespaceSeparatedWords() {
+        assertEquals(0, KeywordMatcher.countWords(null));
+        assertEquals(0, KeywordMatcher.countWords("   "));
+        assertEquals(1, KeywordMatcher.countWords("oi"));
+        assertEquals(3, KeywordMatcher.countWords("  bom dia\tpessoal \n"));
+    }
+}
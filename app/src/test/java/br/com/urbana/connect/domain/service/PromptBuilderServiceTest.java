@@ -318,4 +318,20 @@ class PromptBuilderServiceTest {
         assertThat(prompt).contains("### Mensagem atual:");
         assertThat(prompt).contains(userMessage);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPromptVersion_shouldChangeOnlyWhenInstructionsChange() {
+        // Given
+        String version = promptBuilderService.getPromptVersion();
+        PromptBuilderService otherInstructions = new PromptBuilderService();
+        ReflectionTestUtils.setField(otherInstructions, "defaultSystemPrompt", DEFAULT_SYSTEM_PROMPT + " Nova regra.");
+        PromptBuilderService sameInstructions = new PromptBuilderService();
+        ReflectionTestUtils.setField(sameInstructions, "defaultSystemPrompt", DEFAULT_SYSTEM_PROMPT);
+
+        // Then
+        assertThat(version).hasSize(64);
+        assertThat(promptBuilderService.getPromptVersion()).isEqualTo(version);
+        assertThat(sameInstructions.getPromptVersion()).isEqualTo(version);
+        assertThat(otherInstructions.getPromptVersion()).isNotEqualTo(version);
+    }
+}
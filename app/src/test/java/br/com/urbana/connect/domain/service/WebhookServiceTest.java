@@ -0,0 +1,184 @@
+package br.com.urbana.connect.domain.service;
+
+import br.com.urbana.connect.application.config.DeduplicationConfig;
+import br.com.urbana.connect.application.config.DispatcherConfig;
+import br.com.urbana.connect.application.config.InboundCoalescingConfig;
+import br.com.urbana.connect.application.config.InboxConfig;
+import br.com.urbana.connect.domain.enums.WebhookEventType;
+import br.com.urbana.connect.domain.exception.UniqueIndexViolationException;
+import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.WebhookEvent;
+import br.com.urbana.connect.domain.model.WebhookInboxEntry;
+import br.com.urbana.connect.domain.port.output.WebhookInboxRepository;
+import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import br.com.urbana.connect.infrastructure.dispatch.InboundMessageCoalescer;
+import br.com.urbana.connect.infrastructure.dispatch.InboundMessageDeduplicator;
+import br.com.urbana.connect.infrastructure.dispatch.PartitionedDispatcher;
+import br.com.urbana.connect.infrastructure.persistence.MessageStatusBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testa o processamento das notificações com o agrupamento de mensagens em turnos,
+ * usando o despachante, o agrupador e a deduplicação reais.
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookServiceTest {
+
+    private static final String PAYLOAD = "{}";
+    private static final String PHONE = "+5511999999999";
+    private static final String WHATSAPP_MESSAGE_ID = "wamid.1";
+
+    @Mock
+    private WhatsappServicePort whatsappServicePort;
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private WebhookInboxRepository inboxRepository;
+
+    @Mock
+    private MessageStatusBuffer statusBuffer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PartitionedDispatcher dispatcher;
+    private InboundMessageCoalescer coalescer;
+    private InboundMessageDeduplicator deduplicator;
+    private WebhookService webhookService;
+
+    @BeforeEach
+    void setUp() {
+        DispatcherConfig dispatcherConfig = new DispatcherConfig();
+        dispatcherConfig.setPartitions(2);
+        dispatcherConfig.setQueueCapacity(10);
+        dispatcher = new PartitionedDispatcher(dispatcherConfig, meterRegistry);
+
+        InboundCoalescingConfig coalescingConfig = new InboundCoalescingConfig();
+        coalescingConfig.setWindow(Duration.ofMillis(50));
+        coalescer = new InboundMessageCoalescer(dispatcher, coalescingConfig, meterRegistry);
+
+        deduplicator = new InboundMessageDeduplicator(new DeduplicationConfig(), meterRegistry);
+
+        webhookService = new WebhookService(whatsappServicePort, messageService, dispatcher, deduplicator,
+                coalescer, inboxRepository, statusBuffer, new InboxConfig(), meterRegistry);
+
+        when(whatsappServicePort.processWebhookEvents(PAYLOAD)).thenReturn(List.of(WebhookEvent.builder()
+                .type(WebhookEventType.MESSAGE)
+                .message(Message.builder()
+                        .whatsappMessageId(WHATSAPP_MESSAGE_ID)
+                        .customerId(PHONE)
+                        .content("queria saber o preço")
+                        .build())
+                .build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void processInboxEntry_whenTurnFails_shouldReleaseMessageForRetry() {
+        // Given
+        when(messageService.saveInboundMessage(any())).thenReturn(stored("msg-1", "queria saber o preço"));
+        when(messageService.respondToInboundMessages(eq(PHONE), anyList()))
+                .thenThrow(new IllegalStateException("falha no GPT"));
+
+        // When
+        webhookService.processInboxEntry(entry());
+
+        // Then
+        verify(inboxRepository, timeout(2000)).release(eq("entry-1"), anyString(), any());
+        verify(inboxRepository, never()).markDone(anyString());
+        assertTrue(deduplicator.markIfFirstSeen(WHATSAPP_MESSAGE_ID));
+    }
+
+    @Test
+    void processInboxEntry_whenPartitionRejectsMessage_shouldDeferWithoutConsumingAttempt() {
+        // Given - Última tentativa, mas a mensagem nem chegou a ser processada
+        dispatcher.shutdown();
+        WebhookInboxEntry entry = entry();
+        entry.setAttempts(new InboxConfig().getMaxAttempts());
+
+        // When
+        webhookService.processInboxEntry(entry);
+
+        // Then
+        verify(inboxRepository, timeout(2000)).defer(eq("entry-1"), anyString(), any());
+        verify(inboxRepository, never()).markFailed(anyString(), anyString());
+        verify(inboxRepository, never()).release(anyString(), anyString(), any());
+        assertTrue(deduplicator.markIfFirstSeen(WHATSAPP_MESSAGE_ID));
+    }
+
+    @Test
+    void processInboxEntry_whenStoredMessageIsUnanswered_shouldRequeueBacklogIntoOneTurn() {
+        // Given - A entrega anterior gravou as mensagens, mas falhou antes de responder
+        List<Message> unanswered = List.of(stored("msg-1", "oi"), stored("msg-2", "queria saber o preço"));
+        when(messageService.saveInboundMessage(any()))
+                .thenThrow(duplicateWhatsappMessageId());
+        when(messageService.findAwaitingResponse(WHATSAPP_MESSAGE_ID)).thenReturn(unanswered);
+
+        // When
+        webhookService.processInboxEntry(entry());
+
+        // Then
+        verify(inboxRepository, timeout(2000)).markDone("entry-1");
+        verify(messageService).respondToInboundMessages(PHONE, unanswered);
+    }
+
+    @Test
+    void processInboxEntry_whenStoredMessageWasAnswered_shouldNotRespondAgain() {
+        // Given
+        when(messageService.saveInboundMessage(any()))
+                .thenThrow(duplicateWhatsappMessageId());
+        when(messageService.findAwaitingResponse(WHATSAPP_MESSAGE_ID)).thenReturn(List.of());
+
+        // When
+        webhookService.processInboxEntry(entry());
+
+        // Then
+        verify(inboxRepository, timeout(2000)).markDone("entry-1");
+        verify(messageService, never()).respondToInboundMessages(anyString(), anyList());
+        assertFalse(deduplicator.markIfFirstSeen(WHATSAPP_MESSAGE_ID));
+    }
+
+    private UniqueIndexViolationException duplicateWhatsappMessageId() {
+        return new UniqueIndexViolationException(11000, Message.WHATSAPP_MESSAGE_ID_INDEX,
+                "E11000 duplicate key error collection: urbana.messages index: "
+                        + Message.WHATSAPP_MESSAGE_ID_INDEX + " dup key: { whatsappMessageId: \"wamid.1\" }", null);
+    }
+
+    private WebhookInboxEntry entry() {
+        return WebhookInboxEntry.builder()
+                .id("entry-1")
+                .payload(PAYLOAD)
+                .attempts(1)
+                .build();
+    }
+
+    private Message stored(String id, String content) {
+        return Message.builder()
+                .id(id)
+                .customerId("customer-1")
+                .content(content)
+                .timestamp(LocalDateTime.now())
+                .awaitingResponse(true)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.urbana.connect.infrastructure.cache;
+
+import br.com.urbana.connect.infrastructure.cache.HashingVectorizer.SparseVector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashingVectorizerTest {
+
+    private final HashingVectorizer vectorizer = new HashingVectorizer(1 << 18);
+
+    @Test
+    void normalize_shouldRemoveCaseAccentsPunctuationAndEmojis() {
+        assertEquals("qual o preco do decor interiores", 
+                HashingVectorizer.normalize("  Qual o PREÇO do Decor Interiores?? 🛋️"));
+    }
+
+    @Test
+    void vectorize_withSameNormalizedText_shouldHaveSimilarityOne() {
+        // Given
+        SparseVector first = vectorizer.vectorize("Qual o preço do Decor Interiores?");
+        SparseVector second = vectorizer.vectorize("qual o preco do decor interiores");
+
+        // Then
+        assertEquals(1.0, first.dot(second), 1e-9);
+        assertEquals(1.0, first.dot(first), 1e-9);
+    }
+
+    @Test
+    void vectorize_withDifferentTexts_shouldBeLessSimilarThanParaphrases() {
+        // Given
+        SparseVector question = vectorizer.vectorize("Qual o preço do Decor Interiores?");
+        SparseVector paraphrase = vectorizer.vectorize("Qual é o preço do Decor Interiores?");
+        SparseVector otherService = vectorizer.vectorize("Qual o preço do Decor Fachada?");
+        SparseVector unrelated = vectorizer.vectorize("Vocês atendem em Campina Grande?");
+
+        // Then
+        double paraphraseSimilarity = question.dot(paraphrase);
+        double otherServiceSimilarity = question.dot(otherService);
+        assertTrue(paraphraseSimilarity > 0.85);
+        assertTrue(otherServiceSimilarity < paraphraseSimilarity);
+        assertTrue(otherServiceSimilarity < 0.8);
+        assertTrue(question.dot(unrelated) < 0.3);
+    }
+
+    @Test
+    void vectorize_withoutLettersOrDigits_shouldReturnEmptyVector() {
+        assertTrue(vectorizer.vectorize("?! 😉").isEmpty());
+        assertTrue(vectorizer.vectorize(null).isEmpty());
+    }
+}
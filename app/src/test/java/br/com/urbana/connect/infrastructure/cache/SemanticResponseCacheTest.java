@@ -0,0 +1,163 @@
+package br.com.urbana.connect.infrastructure.cache;
+
+import br.com.urbana.connect.application.config.ResponseCacheConfig;
+import br.com.urbana.connect.domain.model.MessageAnalysis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SemanticResponseCacheTest {
+
+    private static final String VERSION = "v1";
+    private static final String PRICE_QUESTION = "Qual o preço do Decor Interiores?";
+    private static final String PRICE_REPLY = "O Decor Interiores custa R$350 por ambiente! 😊";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ResponseCacheConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new ResponseCacheConfig();
+        config.setThreshold(0.9);
+        config.setDimensions(1 << 16);
+    }
+
+    @Test
+    void find_withSameQuestionDifferentlyWritten_shouldReturnCachedResponse() {
+        // Given
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+        cache.put(PRICE_QUESTION, VERSION, analysis(PRICE_REPLY));
+
+        // When
+        Optional<MessageAnalysis> result = cache.find("qual o PRECO do decor interiores", VERSION);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(PRICE_REPLY, result.get().getReply());
+        assertEquals("PRECO_PAGAMENTO", result.get().getIntent());
+        assertEquals(1, meterRegistry.get("urbana.response.cache.lookup").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("urbana.response.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void find_withDifferentQuestion_shouldMiss() {
+        // Given
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+        cache.put(PRICE_QUESTION, VERSION, analysis(PRICE_REPLY));
+
+        // When
+        Optional<MessageAnalysis> result = cache.find("Qual o preço do Decor Fachada?", VERSION);
+
+        // Then
+        assertTrue(result.isEmpty());
+        assertEquals(1, meterRegistry.get("urbana.response.cache.lookup").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void find_shouldReturnNearestEntry() {
+        // Given
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+        cache.put("Qual o preço do Decor Fachada?", VERSION, analysis("Fachada: R$350"));
+        cache.put(PRICE_QUESTION, VERSION, analysis(PRICE_REPLY));
+        cache.put("Quais cidades vocês atendem?", VERSION, analysis("Campina Grande e região"));
+
+        // When
+        Optional<MessageAnalysis> result = cache.find("qual o preço do decor interiores", VERSION);
+
+        // Then
+        assertEquals(PRICE_REPLY, result.map(MessageAnalysis::getReply).orElse(null));
+    }
+
+    @Test
+    void find_afterTtl_shouldMiss() {
+        // Given
+        config.setTtl(Duration.ZERO);
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+        cache.put(PRICE_QUESTION, VERSION, analysis(PRICE_REPLY));
+
+        // Then
+        assertTrue(cache.find(PRICE_QUESTION, VERSION).isEmpty());
+    }
+
+    @Test
+    void find_withNewPromptVersion_shouldInvalidateCache() {
+        // Given
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+        cache.put(PRICE_QUESTION, VERSION, analysis(PRICE_REPLY));
+
+        // When
+        Optional<MessageAnalysis> result = cache.find(PRICE_QUESTION, "v2");
+
+        // Then
+        assertTrue(result.isEmpty());
+        assertEquals(0, meterRegistry.get("urbana.response.cache.size").gauge().value());
+        assertEquals(1, meterRegistry.get("urbana.response.cache.invalidations").counter().count());
+    }
+
+    @Test
+    void put_whenFull_shouldEvictOldestEntry() {
+        // Given
+        config.setMaxEntries(1);
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+        cache.put(PRICE_QUESTION, VERSION, analysis(PRICE_REPLY));
+
+        // When
+        cache.put("Quais cidades vocês atendem?", VERSION, analysis("Campina Grande e região"));
+
+        // Then
+        assertTrue(cache.find(PRICE_QUESTION, VERSION).isEmpty());
+        assertTrue(cache.find("Quais cidades vocês atendem?", VERSION).isPresent());
+        assertEquals(1, meterRegistry.get("urbana.response.cache.size").gauge().value());
+    }
+
+    @Test
+    void put_withoutReply_shouldNotCache() {
+        // Given
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+
+        // When
+        cache.put(PRICE_QUESTION, VERSION, analysis(" "));
+
+        // Then
+        assertTrue(cache.find(PRICE_QUESTION, VERSION).isEmpty());
+    }
+
+    @Test
+    void invalidateAll_shouldRemoveEveryEntry() {
+        // Given
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+        cache.put(PRICE_QUESTION, VERSION, analysis(PRICE_REPLY));
+
+        // When
+        cache.invalidateAll();
+
+        // Then
+        assertTrue(cache.find(PRICE_QUESTION, VERSION).isEmpty());
+    }
+
+    @Test
+    void accepts_shouldRequireEnabledCacheAndShortHistory() {
+        // Given
+        config.setMaxHistoryMessages(1);
+        SemanticResponseCache cache = new SemanticResponseCache(config, meterRegistry);
+
+        // Then
+        assertTrue(cache.accepts(1));
+        assertFalse(cache.accepts(2));
+
+        config.setEnabled(false);
+        assertFalse(cache.accepts(1));
+    }
+
+    private MessageAnalysis analysis(String reply) {
+        return MessageAnalysis.builder()
+                .reply(reply)
+                .intent("PRECO_PAGAMENTO")
+                .build();
+    }
+}
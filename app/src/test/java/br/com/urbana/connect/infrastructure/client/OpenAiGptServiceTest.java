@@ -1,12 +1,13 @@
 package br.com.urbana.connect.infrastructure.client;
 
+import br.com.urbana.connect.domain.enums.GptCallPriority;
+import br.com.urbana.connect.domain.model.MessageAnalysis;
 import br.com.urbana.connect.domain.service.PromptBuilderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatCompletionResult;
 import com.theokanning.openai.completion.chat.ChatCompletionChoice;
 import com.theokanning.openai.completion.chat.ChatMessage;
-import com.theokanning.openai.service.OpenAiService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +18,9 @@ import org.mockito.quality.Strictness;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,15 +30,15 @@ import static org.mockito.Mockito.*;
 @MockitoSettings(strictness = Strictness.LENIENT)
 class OpenAiGptServiceTest {
 
-    @Mock
-    private OpenAiService openAiService;
-
     @Mock
     private PromptBuilderService promptBuilderService;
 
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private OpenAiChatClient chatClient;
+
     private OpenAiGptService openAiGptService;
 
     private static final String FALLBACK_MESSAGE = "Ops! 😅 Parece que meu cérebro digital deu uma pequena pausa aqui... 🧠 Poderia tentar me perguntar de novo, talvez com outras palavras? Se não der certo, me avisa que eu chamo reforços humanos! 😉";
@@ -44,40 +48,16 @@ class OpenAiGptServiceTest {
     private static final String USER_MESSAGE = "Olá, como vai?";
     private static final String SYSTEM_PROMPT = "Você é Urba, assistente virtual da Urbana do Brasil";
 
-    // Classe estática para permitir testes
-    static class TestableOpenAiGptService extends OpenAiGptService {
-        public TestableOpenAiGptService(
-            String apiKey, String model, int maxTokens, double temperature,
-            ObjectMapper objectMapper, PromptBuilderService promptBuilderService) {
-            super(apiKey, model, maxTokens, temperature, objectMapper, promptBuilderService);
-        }
-        
-        // Métodos para facilitar testes
-        public void setOpenAiService(OpenAiService openAiService) {
-            try {
-                java.lang.reflect.Field field = OpenAiGptService.class.getDeclaredField("openAiService");
-                field.setAccessible(true);
-                field.set(this, openAiService);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to set openAiService", e);
-            }
-        }
-    }
-
     @BeforeEach
     void setUp() {
-        // Criar instância da versão testável
-        openAiGptService = new TestableOpenAiGptService(
-            "dummy-api-key", // API key
+        openAiGptService = new OpenAiGptService(
             "gpt-3.5-turbo",  // model
             1024,            // maxTokens
             0.7,             // temperature
             objectMapper,
-            promptBuilderService
+            promptBuilderService,
+            chatClient
         );
-        
-        // Substituir o openAiService pelo mock
-        ((TestableOpenAiGptService) openAiGptService).setOpenAiService(openAiService);
     }
 
     @Test
@@ -86,8 +66,8 @@ class OpenAiGptServiceTest {
         when(promptBuilderService.buildPrompt(anyString(), anyString())).thenReturn("prompt completo");
         
         // Simular exceção na chamada à API da OpenAI
-        when(openAiService.createChatCompletion(any(ChatCompletionRequest.class)))
-                .thenThrow(new RuntimeException("Erro simulado da API"));
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Erro simulado da API")));
         
         // Executar o método sob teste
         String result = openAiGptService.generateResponse(CONVERSATION_HISTORY, USER_MESSAGE, SYSTEM_PROMPT);
@@ -95,8 +75,8 @@ class OpenAiGptServiceTest {
         // Verificar o resultado
         assertEquals(FALLBACK_MESSAGE, result);
         
-        // Verificar se a API foi chamada (máximo 3 vezes devido ao retry)
-        verify(openAiService, atMost(3)).createChatCompletion(any(ChatCompletionRequest.class));
+        // Falhas de rede e limites de uso já são repetidos pelo cliente
+        verify(chatClient, times(1)).createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class));
     }
 
     @Test
@@ -106,7 +86,8 @@ class OpenAiGptServiceTest {
         
         // Configurar o resultado com resposta vazia
         ChatCompletionResult mockResult = createMockCompletionResult(EMPTY_RESPONSE);
-        when(openAiService.createChatCompletion(any(ChatCompletionRequest.class))).thenReturn(mockResult);
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResult));
         
         // Executar o método sob teste
         String result = openAiGptService.generateResponse(CONVERSATION_HISTORY, USER_MESSAGE, SYSTEM_PROMPT);
@@ -122,7 +103,8 @@ class OpenAiGptServiceTest {
         
         // Configurar o resultado com resposta válida
         ChatCompletionResult mockResult = createMockCompletionResult(VALID_RESPONSE);
-        when(openAiService.createChatCompletion(any(ChatCompletionRequest.class))).thenReturn(mockResult);
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResult));
         
         // Executar o método sob teste
         String result = openAiGptService.generateResponse(CONVERSATION_HISTORY, USER_MESSAGE, SYSTEM_PROMPT);
@@ -143,7 +125,7 @@ class OpenAiGptServiceTest {
         assertTrue(result);
         
         // Verificar que a API não foi chamada (porque a keyword já resolve)
-        verify(openAiService, never()).createChatCompletion(any(ChatCompletionRequest.class));
+        verifyNoInteractions(chatClient);
     }
     
     @Test
@@ -152,8 +134,8 @@ class OpenAiGptServiceTest {
         when(promptBuilderService.buildHumanInterventionPrompt(anyString(), anyString())).thenReturn("prompt de intervenção");
         
         // Simular exceção na chamada à API
-        when(openAiService.createChatCompletion(any(ChatCompletionRequest.class)))
-                .thenThrow(new RuntimeException("Erro simulado da API"));
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Erro simulado da API")));
         
         // Executar o método sob teste
         boolean result = openAiGptService.requiresHumanIntervention("Mensagem normal", CONVERSATION_HISTORY);
@@ -162,14 +144,102 @@ class OpenAiGptServiceTest {
         assertTrue(result);
     }
 
+    @Test
+    void analyzeMessageAsync_whenApiReturnsValidJson_shouldReturnAnalysis() {
+        // Usar um ObjectMapper real para a conversão do JSON
+        OpenAiGptService service = createServiceWithRealObjectMapper();
+        String json = """
+                {"resposta": "O Decor Pintura custa R$200! 🎨", "intencao": "preco_pagamento",
+                 "entidades": ["servico: Decor Pintura", ""], "atendimentoHumano": false}
+                """;
+        ChatCompletionResult mockResult = createMockCompletionResult(json);
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResult));
+        
+        // Executar o método sob teste
+        Optional<MessageAnalysis> result = service.analyzeMessageAsync(CONVERSATION_HISTORY, USER_MESSAGE, "prompt estruturado").join();
+        
+        // Verificar o resultado
+        assertTrue(result.isPresent());
+        assertEquals("O Decor Pintura custa R$200! 🎨", result.get().getReply());
+        assertEquals("PRECO_PAGAMENTO", result.get().getIntent());
+        assertEquals(List.of("servico: Decor Pintura"), result.get().getEntities());
+        assertFalse(result.get().isNeedsHuman());
+        
+        // Uma única chamada à API
+        verify(chatClient, times(1)).createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class));
+    }
+    
+    @Test
+    void parseMessageAnalysis_withInvalidFormats_shouldReturnEmpty() {
+        OpenAiGptService service = createServiceWithRealObjectMapper();
+        
+        assertTrue(service.parseMessageAnalysis(null).isEmpty());
+        assertTrue(service.parseMessageAnalysis("Olá! Como posso ajudar?").isEmpty());
+        assertTrue(service.parseMessageAnalysis("[]").isEmpty());
+        // Campo obrigatório ausente
+        assertTrue(service.parseMessageAnalysis(
+                "{\"resposta\": \"Oi\", \"intencao\": \"OUTRO\", \"entidades\": []}").isEmpty());
+        // Tipo incorreto
+        assertTrue(service.parseMessageAnalysis(
+                "{\"resposta\": \"Oi\", \"intencao\": \"OUTRO\", \"entidades\": [], \"atendimentoHumano\": \"sim\"}").isEmpty());
+        // Resposta vazia
+        assertTrue(service.parseMessageAnalysis(
+                "{\"resposta\": \" \", \"intencao\": \"OUTRO\", \"entidades\": [], \"atendimentoHumano\": false}").isEmpty());
+    }
+    
+    @Test
+    void parseMessageAnalysis_withMarkdownFenceAndUnknownIntent_shouldNormalize() {
+        OpenAiGptService service = createServiceWithRealObjectMapper();
+        String content = "```json\n{\"resposta\": \"Vou chamar alguém!\", \"intencao\": \"QUALQUER\", "
+                + "\"entidades\": [], \"atendimentoHumano\": true}\n```";
+        
+        Optional<MessageAnalysis> result = service.parseMessageAnalysis(content);
+        
+        assertTrue(result.isPresent());
+        assertEquals("OUTRO", result.get().getIntent());
+        assertTrue(result.get().isNeedsHuman());
+    }
+    
+    @Test
+    void analyzeMessageAsync_whenApiFails_shouldFailInsteadOfFallingBack() {
+        // Simular cota esgotada na chamada à API
+        OpenAiChatClient.OpenAiApiException quotaError = new OpenAiChatClient.OpenAiApiException(429, "rate limit");
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.failedFuture(quotaError));
+        
+        // Executar o método sob teste
+        CompletableFuture<Optional<MessageAnalysis>> result =
+                openAiGptService.analyzeMessageAsync(CONVERSATION_HISTORY, USER_MESSAGE, "prompt");
+        
+        // A falha chega ao chamador, que não deve repetir a consulta em chamadas individuais
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertSame(quotaError, error.getCause());
+    }
+    
+    @Test
+    void analyzeMessageAsync_whenResponseIsMalformed_shouldReturnEmpty() {
+        // Configurar
+        OpenAiGptService service = createServiceWithRealObjectMapper();
+        ChatCompletionResult result = createMockCompletionResult("Claro! Posso ajudar com isso.");
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(result));
+        
+        // Executar
+        Optional<MessageAnalysis> analysis = service.analyzeMessageAsync(CONVERSATION_HISTORY, USER_MESSAGE, "prompt").join();
+        
+        // Sem análise, o chamador usa as chamadas individuais
+        assertTrue(analysis.isEmpty());
+    }
+
     @Test
     void extractEntities_whenApiThrowsException_shouldReturnEmptyList() {
         // Configurar o mock do promptBuilderService
         when(promptBuilderService.buildEntityExtractionPrompt(anyString())).thenReturn("prompt de extração");
         
         // Simular exceção na chamada à API
-        when(openAiService.createChatCompletion(any(ChatCompletionRequest.class)))
-                .thenThrow(new RuntimeException("Erro simulado da API"));
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Erro simulado da API")));
         
         // Executar o método sob teste
         List<String> result = openAiGptService.extractEntities("Quero decorar meu apartamento");
@@ -180,6 +250,143 @@ class OpenAiGptServiceTest {
     }
 
     // Método auxiliar para criar um resultado de chat completion
+    @Test
+    void generateResponseAsync_whenFirstResponseIsTooShort_shouldRetryWithoutBlocking() {
+        // Configurar
+        when(promptBuilderService.buildPrompt(anyString(), anyString())).thenReturn("prompt completo");
+        ChatCompletionResult shortResult = createMockCompletionResult("ok");
+        ChatCompletionResult validResult = createMockCompletionResult(VALID_RESPONSE);
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(shortResult))
+                .thenReturn(CompletableFuture.completedFuture(validResult));
+        
+        // Executar
+        CompletableFuture<String> future = openAiGptService.generateResponseAsync(CONVERSATION_HISTORY, USER_MESSAGE, SYSTEM_PROMPT);
+        
+        // Verificar
+        assertEquals(VALID_RESPONSE, future.join());
+        verify(chatClient, times(2)).createChatCompletion(any(ChatCompletionRequest.class), eq(OpenAiRateLimiter.Priority.INTERACTIVE));
+    }
+    
+    @Test
+    void generateResponseAsync_whenClientFails_shouldCompleteWithFallbackMessage() {
+        // Configurar
+        when(promptBuilderService.buildPrompt(anyString(), anyString())).thenReturn("prompt completo");
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.failedFuture(new OpenAiChatClient.OpenAiApiException(503, "indisponível")));
+        
+        // Executar e verificar
+        assertEquals(FALLBACK_MESSAGE, openAiGptService.generateResponseAsync(CONVERSATION_HISTORY, USER_MESSAGE, SYSTEM_PROMPT).join());
+    }
+    
+    @Test
+    void analyzeIntentAsync_shouldReturnIntentOrFallback() {
+        // Configurar
+        when(promptBuilderService.buildIntentAnalysisPrompt(anyString())).thenReturn("prompt de intenção");
+        ChatCompletionResult result = createMockCompletionResult("AGENDAMENTO");
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(result))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Erro simulado")));
+        
+        // Executar e verificar
+        assertEquals("AGENDAMENTO", openAiGptService.analyzeIntentAsync(USER_MESSAGE).join());
+        assertEquals("intenção não identificada", openAiGptService.analyzeIntentAsync(USER_MESSAGE).join());
+    }
+    
+    @Test
+    void generateResponse_whenInterrupted_shouldCancelTheCallAndKeepTheInterrupt() {
+        // Configurar: a chamada ainda aguarda a cota
+        when(promptBuilderService.buildPrompt(anyString(), anyString())).thenReturn("prompt completo");
+        CompletableFuture<ChatCompletionResult> call = new CompletableFuture<>();
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(call);
+        
+        // Executar
+        Thread.currentThread().interrupt();
+        String result = openAiGptService.generateResponse(CONVERSATION_HISTORY, USER_MESSAGE, SYSTEM_PROMPT);
+        
+        // Verificar
+        assertTrue(Thread.interrupted());
+        assertEquals(FALLBACK_MESSAGE, result);
+        assertTrue(call.isCancelled());
+    }
+    
+    @Test
+    void analyzeIntentAsync_whenCancelled_shouldCancelTheClientCall() {
+        // Configurar
+        when(promptBuilderService.buildIntentAnalysisPrompt(anyString())).thenReturn("prompt de intenção");
+        CompletableFuture<ChatCompletionResult> call = new CompletableFuture<>();
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(call);
+        
+        // Executar
+        openAiGptService.analyzeIntentAsync(USER_MESSAGE).cancel(true);
+        
+        // Verificar
+        assertTrue(call.isCancelled());
+    }
+    
+    @Test
+    void requiresHumanInterventionAsync_withKeywords_shouldNotCallApi() {
+        // Executar
+        boolean result = openAiGptService.requiresHumanInterventionAsync("quero falar com atendente", CONVERSATION_HISTORY).join();
+        
+        // Verificar
+        assertTrue(result);
+        verifyNoInteractions(chatClient);
+    }
+    
+    @Test
+    void generateResponse_withBackgroundPriority_shouldQueueBehindReplies() {
+        // Configurar
+        when(promptBuilderService.buildPrompt(anyString(), anyString())).thenReturn("prompt completo");
+        ChatCompletionResult result = createMockCompletionResult(VALID_RESPONSE);
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(result));
+        
+        // Executar
+        openAiGptService.generateResponse("", "## Tarefa: Resumir Conversa\n...", "Você é um resumidor de conversas.",
+                GptCallPriority.BACKGROUND);
+        
+        // Verificar
+        verify(chatClient).createChatCompletion(any(ChatCompletionRequest.class), eq(OpenAiRateLimiter.Priority.BACKGROUND));
+    }
+    
+    @Test
+    void generateResponse_withoutPriority_shouldNotInferItFromThePrompt() {
+        // Configurar
+        when(promptBuilderService.buildPrompt(anyString(), anyString())).thenReturn("prompt completo");
+        ChatCompletionResult result = createMockCompletionResult(VALID_RESPONSE);
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(result));
+        
+        // Executar
+        openAiGptService.generateResponse("", "## Tarefa: Resumir Conversa\n...", "Você é um resumidor de conversas.");
+        
+        // Verificar
+        verify(chatClient).createChatCompletion(any(ChatCompletionRequest.class), eq(OpenAiRateLimiter.Priority.INTERACTIVE));
+    }
+    
+    @Test
+    void analyzeIntent_shouldCallApiThroughTheChatClient() {
+        // Configurar
+        when(promptBuilderService.buildIntentAnalysisPrompt(anyString())).thenReturn("prompt de intenção");
+        ChatCompletionResult result = createMockCompletionResult("AGENDAMENTO");
+        when(chatClient.createChatCompletion(any(ChatCompletionRequest.class), any(OpenAiRateLimiter.Priority.class)))
+                .thenReturn(CompletableFuture.completedFuture(result));
+        
+        // Executar
+        String intent = openAiGptService.analyzeIntent(USER_MESSAGE);
+        
+        // Verificar: o cliente é quem passa pela cota e repassa os cabeçalhos de cada resposta
+        assertEquals("AGENDAMENTO", intent);
+        verify(chatClient).createChatCompletion(any(ChatCompletionRequest.class), eq(OpenAiRateLimiter.Priority.INTERACTIVE));
+    }
+
+    private OpenAiGptService createServiceWithRealObjectMapper() {
+        return new OpenAiGptService("gpt-3.5-turbo", 1024, 0.7, new ObjectMapper(), promptBuilderService, chatClient);
+    }
+
     private ChatCompletionResult createMockCompletionResult(String content) {
         // Criar um mock do resultado da API
         ChatCompletionResult result = mock(ChatCompletionResult.class);
@@ -0,0 +1,170 @@
+package br.com.urbana.connect.infrastructure.client;
+
+import br.com.urbana.connect.application.config.GptCallConfig;
+import br.com.urbana.connect.application.config.OpenAiRateLimitConfig;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAiRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OpenAiRateLimiter limiter;
+
+    @AfterEach
+    void tearDown() {
+        if (limiter != null) {
+            limiter.shutdown();
+        }
+    }
+
+    @Test
+    void acquireAsync_withinBudget_shouldAdmitImmediately() {
+        // Configurar
+        limiter = createLimiter(60, 100_000, Duration.ofSeconds(5));
+
+        // Executar
+        CompletableFuture<Void> admitted = limiter.acquireAsync(500, OpenAiRateLimiter.Priority.INTERACTIVE);
+
+        // Verificar
+        assertTrue(admitted.isDone());
+    }
+
+    @Test
+    void acquireAsync_whenRequestBudgetIsExhausted_shouldWaitForRefill() {
+        // Configurar: 600 RPM = uma requisição a cada 100 ms
+        limiter = createLimiter(600, 1_000_000, Duration.ofSeconds(5));
+        for (int i = 0; i < 600; i++) {
+            limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+        }
+
+        // Executar
+        CompletableFuture<Void> queued = limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+
+        // Verificar
+        assertFalse(queued.isDone());
+        assertDoesNotThrow(() -> queued.get(2, TimeUnit.SECONDS));
+        assertEquals(601, meterRegistry.get("urbana.openai.queue.wait").tag("priority", "interactive").timer().count());
+    }
+
+    @Test
+    void acquireAsync_shouldAdmitInteractiveCallsBeforeBackgroundCalls() throws Exception {
+        // Configurar: 60 RPM = uma requisição por segundo
+        limiter = createLimiter(60, 1_000_000, Duration.ofSeconds(10));
+        for (int i = 0; i < 60; i++) {
+            limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+        }
+
+        // Executar: a tarefa de fundo chega primeiro
+        CompletableFuture<Void> background = limiter.acquireAsync(1, OpenAiRateLimiter.Priority.BACKGROUND);
+        CompletableFuture<Void> interactive = limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+
+        // Verificar
+        interactive.get(3, TimeUnit.SECONDS);
+        assertFalse(background.isDone());
+        background.get(3, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void acquireAsync_whenWaitExceedsLimit_shouldReject() {
+        // Configurar
+        limiter = createLimiter(1, 1_000_000, Duration.ofMillis(100));
+        limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+
+        // Executar
+        CompletableFuture<Void> queued = limiter.acquireAsync(1, OpenAiRateLimiter.Priority.BACKGROUND);
+
+        // Verificar
+        CompletionException error = assertThrows(CompletionException.class, queued::join);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(1.0, meterRegistry.get("urbana.openai.queue.rejected").counter().count());
+    }
+
+    @Test
+    void acquireAsync_whenCancelled_shouldLeaveTheQueueWithoutUsingQuota() throws Exception {
+        // Configurar: 60 RPM = uma requisição por segundo
+        limiter = createLimiter(60, 1_000_000, Duration.ofSeconds(10));
+        for (int i = 0; i < 60; i++) {
+            limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+        }
+        CompletableFuture<Void> abandoned = limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+        CompletableFuture<Void> next = limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+
+        // Executar
+        abandoned.cancel(true);
+
+        // Verificar: a chamada seguinte fica com a primeira vaga
+        assertEquals(1.0, meterRegistry.get("urbana.openai.queue.depth").tag("priority", "interactive").gauge().value());
+        assertEquals(1.0, meterRegistry.get("urbana.openai.queue.cancelled").counter().count());
+        next.get(1500, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void acquireAsync_whenTokenBudgetIsExhausted_shouldQueue() {
+        // Configurar
+        limiter = createLimiter(1_000, 1_000, Duration.ofSeconds(5));
+        limiter.acquireAsync(900, OpenAiRateLimiter.Priority.INTERACTIVE);
+
+        // Executar
+        CompletableFuture<Void> queued = limiter.acquireAsync(500, OpenAiRateLimiter.Priority.INTERACTIVE);
+
+        // Verificar
+        assertFalse(queued.isDone());
+    }
+
+    @Test
+    void updateFromHeaders_whenApiReportsNoRemainingRequests_shouldHoldNewCalls() {
+        // Configurar
+        limiter = createLimiter(500, 1_000_000, Duration.ofSeconds(5));
+        HttpHeaders headers = HttpHeaders.of(Map.of(
+                "x-ratelimit-remaining-requests", List.of("0"),
+                "x-ratelimit-reset-requests", List.of("2s")), (name, value) -> true);
+
+        // Executar
+        limiter.updateFromHeaders(headers, 429);
+        CompletableFuture<Void> queued = limiter.acquireAsync(1, OpenAiRateLimiter.Priority.INTERACTIVE);
+
+        // Verificar
+        assertFalse(queued.isDone());
+    }
+
+    @Test
+    void parseDuration_shouldUnderstandOpenAiFormats() {
+        assertEquals(TimeUnit.SECONDS.toNanos(360), OpenAiRateLimiter.parseDuration("6m0s"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1500), OpenAiRateLimiter.parseDuration("1.5s"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), OpenAiRateLimiter.parseDuration("20ms"));
+        assertEquals(0, OpenAiRateLimiter.parseDuration(null));
+    }
+
+    @Test
+    void estimateTokens_shouldCountPromptAndCompletionLimit() {
+        ChatCompletionRequest request = ChatCompletionRequest.builder()
+                .model("gpt-3.5-turbo")
+                .messages(List.of(new ChatMessage("user", "a".repeat(400))))
+                .maxTokens(100)
+                .build();
+
+        assertEquals(100 + 4 + 3 + 100, OpenAiRateLimiter.estimateTokens(request));
+    }
+
+    private OpenAiRateLimiter createLimiter(int rpm, int tpm, Duration maxQueueWait) {
+        OpenAiRateLimitConfig config = new OpenAiRateLimitConfig();
+        config.setRequestsPerMinute(rpm);
+        config.setTokensPerMinute(tpm);
+        config.setMaxQueueWait(maxQueueWait);
+        return new OpenAiRateLimiter(config, new GptCallConfig(), meterRegistry);
+    }
+}
@@ -0,0 +1,140 @@
+package br.com.urbana.connect.infrastructure.client;
+
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.enums.WebhookEventType;
+import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.WebhookEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookPayloadProcessorTest {
+
+    private final WebhookPayloadProcessor processor = new WebhookPayloadProcessor(new ObjectMapper());
+
+    @Test
+    void extractEvents_withBatchedPayload_shouldReturnEveryMessageAndStatus() {
+        // Given - Duas entradas, a primeira com duas mensagens e metadata depois das mensagens
+        String payload = """
+            {
+                "object": "whatsapp_business_account",
+                "entry": [{
+                    "id": "1",
+                    "changes": [{
+                        "value": {
+                            "messaging_product": "whatsapp",
+                            "contacts": [{"profile": {"name": "Cliente"}, "wa_id": "5511999999999"}],
+                            "messages": [
+                                {"from": "5511999999999", "id": "wamid.A", "timestamp": "1700000000",
+                                 "text": {"body": "Primeira"}, "type": "text"},
+                                {"from": "5511888888888", "id": "wamid.B", "timestamp": "1700000001",
+                                 "type": "text", "text": {"preview_url": false, "body": "Segunda"}}
+                            ],
+                            "metadata": {"display_phone_number": "5511111111111", "phone_number_id": "PN1"}
+                        },
+                        "field": "messages"
+                    }]
+                }, {
+                    "id": "2",
+                    "changes": [{
+                        "value": {
+                            "metadata": {"phone_number_id": "PN2"},
+                            "statuses": [
+                                {"id": "wamid.C", "status": "read", "timestamp": "1700000002",
+                                 "recipient_id": "5511999999999", "conversation": {"id": "x"}}
+                            ]
+                        },
+                        "field": "messages"
+                    }]
+                }]
+            }
+            """;
+
+        // When
+        List<WebhookEvent> events = processor.extractEvents(payload);
+
+        // Then
+        assertEquals(3, events.size());
+
+        WebhookEvent first = events.get(0);
+        assertEquals(WebhookEventType.MESSAGE, first.getType());
+        assertEquals("PN1", first.getPhoneNumberId());
+        assertEquals("wamid.A", first.getMessage().getWhatsappMessageId());
+        assertEquals("5511999999999", first.getMessage().getCustomerId());
+        assertEquals("Primeira", first.getMessage().getContent());
+        assertEquals(MessageDirection.INBOUND, first.getMessage().getDirection());
+
+        WebhookEvent second = events.get(1);
+        assertEquals("Segunda", second.getMessage().getContent());
+        assertEquals("5511888888888", second.getMessage().getCustomerId());
+
+        WebhookEvent status = events.get(2);
+        assertEquals(WebhookEventType.STATUS, status.getType());
+        assertEquals("PN2", status.getPhoneNumberId());
+        assertEquals("wamid.C", status.getWhatsappMessageId());
+        assertEquals(MessageStatus.READ, status.getStatus());
+        assertEquals("5511999999999", status.getRecipientId());
+    }
+
+    @Test
+    void extractEvents_withUnsupportedMessageType_shouldSkipIt() {
+        // Given
+        String payload = """
+            {"entry": [{"changes": [{"value": {"messages": [
+                {"from": "5511999999999", "id": "wamid.IMG", "type": "image", "image": {"id": "media"}},
+                {"from": "5511999999999", "id": "wamid.TXT", "type": "text", "text": {"body": "Olá"}}
+            ]}}]}]}
+            """;
+
+        // When
+        List<WebhookEvent> events = processor.extractEvents(payload);
+
+        // Then
+        assertEquals(1, events.size());
+        assertEquals("wamid.TXT", events.get(0).getWhatsappMessageId());
+    }
+
+    @Test
+    void extractEvents_withInvalidPayload_shouldReturnEmptyList() {
+        assertTrue(processor.extractEvents("[]").isEmpty());
+        assertTrue(processor.extractEvents("{\"object\": \"whatsapp_business_account\"}").isEmpty());
+        assertTrue(processor.extractEvents("{ invalid json").isEmpty());
+    }
+
+    @Test
+    void extractEvents_withTruncatedPayload_shouldNotReturnPartialEvents() {
+        // Given - A primeira mensagem é válida, mas o JSON termina no meio da segunda
+        String payload = """
+            {"entry": [{"changes": [{"value": {"messages": [
+                {"from": "5511999999999", "id": "wamid.A", "type": "text", "text": {"body": "Olá"}},
+                {"from": "5511999999999", "id": "wamid.B", "type": "text", "text": {"bo
+            """;
+
+        // Then
+        assertTrue(processor.extractEvents(payload).isEmpty());
+    }
+
+    @Test
+    void processPayload_shouldReturnFirstTextMessage() {
+        // Given
+        String payload = """
+            {"entry": [{"changes": [{"value": {
+                "statuses": [{"id": "wamid.S", "status": "delivered"}],
+                "messages": [{"from": "5511999999999", "id": "wamid.1", "timestamp": "1700000000",
+                              "type": "text", "text": {"body": "Olá"}}]
+            }}]}]}
+            """;
+
+        // When
+        Message message = processor.processPayload(payload);
+
+        // Then
+        assertNotNull(message);
+        assertEquals("wamid.1", message.getWhatsappMessageId());
+        assertEquals("Olá", message.getContent());
+    }
+}
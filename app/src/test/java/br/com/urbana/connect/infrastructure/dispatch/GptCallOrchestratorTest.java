@@ -0,0 +1,161 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.GptCallConfig;
+import br.com.urbana.connect.domain.model.MessageAnalysis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GptCallOrchestratorTest {
+
+    private GptCallOrchestrator createOrchestrator(Duration deadline) {
+        GptCallConfig config = new GptCallConfig();
+        config.setDeadline(deadline);
+        return new GptCallOrchestrator(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void analyze_shouldStartAllCallsBeforeWaitingAndJoinResults() {
+        // Given - Cada chamada só termina quando as quatro tiverem sido disparadas
+        GptCallOrchestrator orchestrator = createOrchestrator(Duration.ofSeconds(5));
+        CountDownLatch allStarted = new CountDownLatch(4);
+
+        // When
+        MessageAnalysis analysis = orchestrator.analyze(
+                rendezvous(allStarted, false),
+                rendezvous(allStarted, "AGENDAMENTO"),
+                rendezvous(allStarted, List.of("sala")),
+                rendezvous(allStarted, "Claro! Vamos agendar 😉"));
+
+        // Then
+        assertFalse(analysis.isNeedsHuman());
+        assertEquals("Claro! Vamos agendar 😉", analysis.getReply());
+        assertEquals("AGENDAMENTO", analysis.getIntent());
+        assertEquals(List.of("sala"), analysis.getEntities());
+    }
+
+    @Test
+    void analyze_whenHandoffIsRequired_shouldCancelRemainingCalls() {
+        // Given
+        GptCallOrchestrator orchestrator = createOrchestrator(Duration.ofSeconds(5));
+        CompletableFuture<String> reply = new CompletableFuture<>();
+
+        // When
+        MessageAnalysis analysis = orchestrator.analyze(
+                () -> CompletableFuture.completedFuture(true),
+                () -> CompletableFuture.completedFuture("RECLAMACAO"),
+                () -> CompletableFuture.completedFuture(List.of()),
+                () -> reply);
+
+        // Then
+        assertTrue(analysis.isNeedsHuman());
+        assertNull(analysis.getReply());
+        assertTrue(reply.isCancelled());
+    }
+
+    @Test
+    void analyze_whenReplyMissesDeadline_shouldThrowAndCancelIt() {
+        // Given
+        GptCallOrchestrator orchestrator = createOrchestrator(Duration.ofMillis(200));
+        CompletableFuture<String> reply = new CompletableFuture<>();
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> orchestrator.analyze(
+                () -> CompletableFuture.completedFuture(false),
+                () -> CompletableFuture.completedFuture("OUTRO"),
+                () -> CompletableFuture.completedFuture(List.of()),
+                () -> reply));
+        assertTrue(reply.isCancelled());
+    }
+
+    @Test
+    void analyze_whenSecondaryCallsFail_shouldUseFallbacks() {
+        // Given
+        GptCallOrchestrator orchestrator = createOrchestrator(Duration.ofSeconds(5));
+
+        // When
+        MessageAnalysis analysis = orchestrator.analyze(
+                () -> CompletableFuture.completedFuture(false),
+                () -> CompletableFuture.failedFuture(new RuntimeException("Falha na intenção")),
+                () -> { throw new RuntimeException("Falha nas entidades"); },
+                () -> CompletableFuture.completedFuture("Resposta"));
+
+        // Then
+        assertEquals("Resposta", analysis.getReply());
+        assertEquals(GptCallOrchestrator.FALLBACK_INTENT, analysis.getIntent());
+        assertTrue(analysis.getEntities().isEmpty());
+    }
+
+    @Test
+    void analyze_whenHandoffCheckFails_shouldAssumeHumanIsNeeded() {
+        // Given
+        GptCallOrchestrator orchestrator = createOrchestrator(Duration.ofSeconds(5));
+
+        // When
+        MessageAnalysis analysis = orchestrator.analyze(
+                () -> CompletableFuture.failedFuture(new RuntimeException("Falha na verificação")),
+                () -> CompletableFuture.completedFuture("OUTRO"),
+                () -> CompletableFuture.completedFuture(List.of()),
+                () -> CompletableFuture.completedFuture("Resposta"));
+
+        // Then
+        assertTrue(analysis.isNeedsHuman());
+    }
+
+    @Test
+    void analyze_whenHandoffCheckIsRejectedForQuota_shouldNotHandOff() {
+        // Given
+        GptCallOrchestrator orchestrator = createOrchestrator(Duration.ofSeconds(5));
+
+        // When
+        MessageAnalysis analysis = orchestrator.analyze(
+                () -> CompletableFuture.failedFuture(new IllegalStateException("Cota da OpenAI indisponível",
+                        new RejectedExecutionException("Tempo de espera pela cota da OpenAI esgotado"))),
+                () -> CompletableFuture.completedFuture("OUTRO"),
+                () -> CompletableFuture.completedFuture(List.of()),
+                () -> CompletableFuture.completedFuture("Resposta"));
+
+        // Then
+        assertFalse(analysis.isNeedsHuman());
+        assertEquals("Resposta", analysis.getReply());
+    }
+
+    @Test
+    void call_whenDeadlineExpires_shouldThrowAndCancelTheCall() {
+        // Given
+        GptCallOrchestrator orchestrator = createOrchestrator(Duration.ofMillis(200));
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> orchestrator.call(() -> call));
+        assertTrue(call.isCancelled());
+    }
+
+    /**
+     * Chamada que só completa, em outra thread, depois que as quatro forem disparadas.
+     */
+    private <T> Supplier<CompletableFuture<T>> rendezvous(CountDownLatch allStarted, T result) {
+        return () -> {
+            allStarted.countDown();
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    if (!allStarted.await(2, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("Chamadas não foram disparadas antes da espera");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return result;
+            });
+        };
+    }
+}
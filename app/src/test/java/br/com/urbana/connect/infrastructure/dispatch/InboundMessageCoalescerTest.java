@@ -0,0 +1,187 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.DispatcherConfig;
+import br.com.urbana.connect.application.config.InboundCoalescingConfig;
+import br.com.urbana.connect.domain.model.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InboundMessageCoalescerTest {
+
+    private static final String CUSTOMER = "+5511999999999";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<String>> turns = new CopyOnWriteArrayList<>();
+    private final Consumer<List<Message>> handler = messages ->
+            turns.add(messages.stream().map(Message::getContent).toList());
+    private PartitionedDispatcher dispatcher;
+    private InboundMessageCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    private InboundMessageCoalescer createCoalescer(Duration window, Duration maxWait) {
+        DispatcherConfig dispatcherConfig = new DispatcherConfig();
+        dispatcherConfig.setPartitions(2);
+        dispatcherConfig.setQueueCapacity(10);
+        dispatcher = new PartitionedDispatcher(dispatcherConfig, meterRegistry);
+
+        InboundCoalescingConfig config = new InboundCoalescingConfig();
+        config.setWindow(window);
+        config.setMaxWait(maxWait);
+        return new InboundMessageCoalescer(dispatcher, config, meterRegistry);
+    }
+
+    @Test
+    void add_withMessagesInsideWindow_shouldDeliverSingleTurn() throws Exception {
+        // Given
+        coalescer = createCoalescer(Duration.ofMillis(300), Duration.ofSeconds(5));
+
+        // When
+        CompletableFuture<Void> first = coalescer.add(CUSTOMER, message("oi"), handler);
+        CompletableFuture<Void> second = coalescer.add(CUSTOMER, message("tudo bem?"), handler);
+        CompletableFuture<Void> third = coalescer.add(CUSTOMER, message("queria saber o preço"), handler);
+
+        // Then
+        third.get(2, TimeUnit.SECONDS);
+        assertSame(first, third);
+        assertSame(second, third);
+        assertEquals(List.of(List.of("oi", "tudo bem?", "queria saber o preço")), turns);
+        assertEquals(2, meterRegistry.get("urbana.inbound.coalescing.merged").counter().count());
+        assertEquals(0, meterRegistry.get("urbana.inbound.coalescing.pending").gauge().value());
+    }
+
+    @Test
+    void add_afterWindowExpires_shouldStartNewTurn() throws Exception {
+        // Given
+        coalescer = createCoalescer(Duration.ofMillis(50), Duration.ofSeconds(5));
+        coalescer.add(CUSTOMER, message("oi"), handler).get(2, TimeUnit.SECONDS);
+
+        // When
+        coalescer.add(CUSTOMER, message("tudo bem?"), handler).get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(List.of(List.of("oi"), List.of("tudo bem?")), turns);
+    }
+
+    @Test
+    void add_withDifferentCustomers_shouldKeepSeparateTurns() throws Exception {
+        // Given
+        coalescer = createCoalescer(Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        // When
+        CompletableFuture<Void> first = coalescer.add(CUSTOMER, message("oi"), handler);
+        CompletableFuture<Void> second = coalescer.add("+5511888888888", message("olá"), handler);
+        CompletableFuture.allOf(first, second).get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals(2, turns.size());
+        assertTrue(turns.containsAll(List.of(List.of("oi"), List.of("olá"))));
+    }
+
+    @Test
+    void add_whenMaxWaitIsReached_shouldCloseTurnEvenIfCustomerKeepsTyping() throws Exception {
+        // Given - Janela longa, mas espera máxima curta
+        coalescer = createCoalescer(Duration.ofSeconds(30), Duration.ofMillis(200));
+
+        // When
+        CompletableFuture<Void> turn = coalescer.add(CUSTOMER, message("oi"), handler);
+        coalescer.add(CUSTOMER, message("tudo bem?"), handler);
+
+        // Then
+        turn.get(2, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("oi", "tudo bem?")), turns);
+    }
+
+    @Test
+    void add_whenHandlerFails_shouldCompleteTurnExceptionally() {
+        // Given
+        coalescer = createCoalescer(Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        // When
+        CompletableFuture<Void> turn = coalescer.add(CUSTOMER, message("oi"), messages -> {
+            throw new IllegalStateException("falha no GPT");
+        });
+
+        // Then
+        Exception error = assertThrows(Exception.class, () -> turn.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+    }
+
+    @Test
+    void addAll_withMessagesAlreadyInOpenTurn_shouldDeliverEachOnceInChronologicalOrder() throws Exception {
+        // Given - Nova mensagem do cliente já no turno quando a reentrega retoma as anteriores
+        coalescer = createCoalescer(Duration.ofMillis(200), Duration.ofSeconds(5));
+        LocalDateTime now = LocalDateTime.now();
+        Message first = message("msg-1", "oi", now.minusMinutes(2));
+        Message second = message("msg-2", "tudo bem?", now.minusMinutes(1));
+        Message third = message("msg-3", "queria saber o preço", now);
+        coalescer.add(CUSTOMER, third, handler);
+
+        // When
+        CompletableFuture<Void> turn = coalescer.addAll(CUSTOMER, List.of(first, second, third), handler);
+
+        // Then
+        turn.get(2, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("oi", "tudo bem?", "queria saber o preço")), turns);
+        assertEquals(2, meterRegistry.get("urbana.inbound.coalescing.merged").counter().count());
+    }
+
+    @Test
+    void shutdown_shouldDeliverOpenTurnsImmediately() throws Exception {
+        // Given
+        coalescer = createCoalescer(Duration.ofSeconds(30), Duration.ofSeconds(30));
+        CompletableFuture<Void> turn = coalescer.add(CUSTOMER, message("oi"), handler);
+
+        // When
+        coalescer.shutdown();
+
+        // Then
+        turn.get(2, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("oi")), turns);
+    }
+
+    @Test
+    void isEnabled_withZeroWindow_shouldBeDisabled() {
+        // Given
+        coalescer = createCoalescer(Duration.ZERO, Duration.ofSeconds(5));
+
+        // Then
+        assertFalse(coalescer.isEnabled());
+    }
+
+    private Message message(String content) {
+        return Message.builder()
+                .customerId(CUSTOMER)
+                .content(content)
+                .build();
+    }
+
+    private Message message(String id, String content, LocalDateTime timestamp) {
+        return Message.builder()
+                .id(id)
+                .customerId(CUSTOMER)
+                .content(content)
+                .timestamp(timestamp)
+                .build();
+    }
+}
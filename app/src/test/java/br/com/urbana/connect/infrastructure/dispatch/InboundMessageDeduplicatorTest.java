@@ -0,0 +1,45 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.DeduplicationConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InboundMessageDeduplicatorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InboundMessageDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = new InboundMessageDeduplicator(new DeduplicationConfig(), meterRegistry);
+    }
+
+    @Test
+    void markIfFirstSeen_whenSameIdArrivesTwice_shouldRejectSecond() {
+        assertTrue(deduplicator.markIfFirstSeen("wamid.1"));
+        assertFalse(deduplicator.markIfFirstSeen("wamid.1"));
+        assertTrue(deduplicator.markIfFirstSeen("wamid.2"));
+
+        assertEquals(1.0, meterRegistry.get("urbana.webhook.dedup").tag("result", "hit").counter().count());
+        assertEquals(2.0, meterRegistry.get("urbana.webhook.dedup").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void markIfFirstSeen_afterRelease_shouldAcceptAgain() {
+        assertTrue(deduplicator.markIfFirstSeen("wamid.1"));
+
+        deduplicator.release("wamid.1");
+
+        assertTrue(deduplicator.markIfFirstSeen("wamid.1"));
+    }
+
+    @Test
+    void markIfFirstSeen_withoutId_shouldAlwaysAccept() {
+        assertTrue(deduplicator.markIfFirstSeen(null));
+        assertTrue(deduplicator.markIfFirstSeen(null));
+    }
+}
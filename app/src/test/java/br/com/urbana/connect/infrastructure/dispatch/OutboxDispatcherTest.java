@@ -0,0 +1,220 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.OutboxConfig;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.enums.OutboxStatus;
+import br.com.urbana.connect.domain.exception.WhatsappSendException;
+import br.com.urbana.connect.domain.model.Customer;
+import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.OutboxEntry;
+import br.com.urbana.connect.domain.port.output.CustomerRepository;
+import br.com.urbana.connect.domain.port.output.MessageRepository;
+import br.com.urbana.connect.domain.port.output.OutboxRepository;
+import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxDispatcherTest {
+
+    private static final String RECIPIENT = "5511999999999";
+
+    private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final WhatsappServicePort whatsappService = mock(WhatsappServicePort.class);
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        OutboxConfig config = new OutboxConfig();
+        config.setInitialBackoff(Duration.ofSeconds(1));
+        config.setMaxBackoff(Duration.ofSeconds(30));
+        config.setMaxAttempts(3);
+        dispatcher = new OutboxDispatcher(outboxRepository, messageRepository, customerRepository, whatsappService,
+                config, "test-phone-id", new SimpleMeterRegistry());
+
+        when(outboxRepository.enqueue(any(OutboxEntry.class))).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void enqueue_shouldSendMessageAndRecordWhatsappId() {
+        // Given
+        when(outboxRepository.claimNext(anyString(), any(Duration.class), anyCollection()))
+                .thenReturn(Optional.of(claimed(1)), Optional.empty());
+        when(whatsappService.deliverTextMessage(RECIPIENT, "Olá!")).thenReturn("wamid.sent");
+
+        // When
+        dispatcher.enqueue(message(), RECIPIENT);
+
+        // Then
+        verify(outboxRepository, timeout(2000)).markSent("msg-1", "wamid.sent");
+        verify(messageRepository, timeout(2000)).markSent("msg-1", "wamid.sent");
+        ArgumentCaptor<OutboxEntry> entry = ArgumentCaptor.forClass(OutboxEntry.class);
+        verify(outboxRepository).enqueue(entry.capture());
+        assertEquals("msg-1", entry.getValue().getId());
+        assertEquals("test-phone-id", entry.getValue().getPhoneNumberId());
+        assertEquals(OutboxStatus.PENDING, entry.getValue().getStatus());
+    }
+
+    @Test
+    void enqueue_whenMessageIsAlreadyQueued_shouldNotSendAgain() {
+        // Given
+        when(outboxRepository.enqueue(any(OutboxEntry.class))).thenReturn(false);
+
+        // When
+        dispatcher.enqueue(message(), RECIPIENT);
+
+        // Then
+        verify(outboxRepository, after(200).never()).claimNext(anyString(), any(Duration.class), anyCollection());
+        verifyNoInteractions(whatsappService);
+    }
+
+    @Test
+    void recoverUnqueued_shouldQueueStoredMessagesMissingFromOutbox() {
+        // Given - Resposta gravada por uma instância que caiu antes de colocá-la na fila
+        when(outboxRepository.findUnqueuedMessages(any(LocalDateTime.class), any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(message()));
+        when(customerRepository.findById("customer-1"))
+                .thenReturn(Optional.of(Customer.builder().id("customer-1").phoneNumber(RECIPIENT).build()));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        dispatcher.recoverUnqueued();
+
+        // Then - Só mensagens com mais de um minuto, que não estão mais sendo enfileiradas
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).findUnqueuedMessages(any(LocalDateTime.class), until.capture(), eq(100));
+        assertFalse(until.getValue().isAfter(before.minusMinutes(1).plusSeconds(1)));
+        ArgumentCaptor<OutboxEntry> entry = ArgumentCaptor.forClass(OutboxEntry.class);
+        verify(outboxRepository).enqueue(entry.capture());
+        assertEquals("msg-1", entry.getValue().getId());
+        assertEquals(RECIPIENT, entry.getValue().getRecipient());
+    }
+
+    @Test
+    void recoverUnqueued_whenCustomerIsMissing_shouldFailMessage() {
+        // Given
+        when(outboxRepository.findUnqueuedMessages(any(LocalDateTime.class), any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(message()));
+        when(customerRepository.findById("customer-1")).thenReturn(Optional.empty());
+
+        // When
+        dispatcher.recoverUnqueued();
+
+        // Then
+        verify(messageRepository).updateStatus("msg-1", MessageStatus.FAILED);
+        verify(outboxRepository, never()).enqueue(any(OutboxEntry.class));
+    }
+
+    @Test
+    void send_whenRateLimited_shouldRescheduleWithBackoff() {
+        // Given
+        when(outboxRepository.claimNext(anyString(), any(Duration.class), anyCollection()))
+                .thenReturn(Optional.of(claimed(2)), Optional.empty());
+        when(whatsappService.deliverTextMessage(anyString(), anyString()))
+                .thenThrow(new WhatsappSendException(429, "Too many requests"));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        dispatcher.poll();
+
+        // Then - Segunda tentativa: espera de 2 segundos
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository, timeout(2000)).reschedule(eq("msg-1"), anyString(), nextAttempt.capture());
+        assertFalse(nextAttempt.getValue().isBefore(before.plusSeconds(2)));
+        verify(outboxRepository, never()).markFailed(anyString(), anyString());
+    }
+
+    @Test
+    void send_whenRejectedByApi_shouldFailWithoutRetrying() {
+        // Given
+        when(outboxRepository.claimNext(anyString(), any(Duration.class), anyCollection()))
+                .thenReturn(Optional.of(claimed(1)), Optional.empty());
+        when(whatsappService.deliverTextMessage(anyString(), anyString()))
+                .thenThrow(new WhatsappSendException(400, "Invalid recipient"));
+
+        // When
+        dispatcher.poll();
+
+        // Then
+        verify(outboxRepository, timeout(2000)).markFailed(eq("msg-1"), anyString());
+        verify(messageRepository, timeout(2000)).updateStatus("msg-1", MessageStatus.FAILED);
+        verify(outboxRepository, never()).reschedule(anyString(), anyString(), any());
+    }
+
+    @Test
+    void send_whenAttemptsAreExhausted_shouldFail() {
+        // Given
+        when(outboxRepository.claimNext(anyString(), any(Duration.class), anyCollection()))
+                .thenReturn(Optional.of(claimed(3)), Optional.empty());
+        when(whatsappService.deliverTextMessage(anyString(), anyString()))
+                .thenThrow(new WhatsappSendException(503, "Service unavailable"));
+
+        // When
+        dispatcher.poll();
+
+        // Then
+        verify(outboxRepository, timeout(2000)).markFailed(eq("msg-1"), anyString());
+    }
+
+    @Test
+    void backoffFor_shouldDoubleUpToMaximum() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoffFor(1));
+        assertEquals(Duration.ofSeconds(2), dispatcher.backoffFor(2));
+        assertEquals(Duration.ofSeconds(16), dispatcher.backoffFor(5));
+        assertEquals(Duration.ofSeconds(30), dispatcher.backoffFor(10));
+    }
+
+    @Test
+    void tokenBucket_shouldSpaceOutReservationsBeyondBurst() {
+        // Given - 10 mensagens por segundo, rajada de 10
+        OutboxDispatcher.TokenBucket bucket = new OutboxDispatcher.TokenBucket(10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, bucket.reserve());
+        }
+
+        // When
+        long firstWait = bucket.reserve();
+        long secondWait = bucket.reserve();
+
+        // Then - Cada vaga extra fica ~100 ms depois da anterior
+        assertTrue(firstWait > 0 && firstWait <= Duration.ofMillis(100).toNanos());
+        assertTrue(secondWait > firstWait);
+    }
+
+    private OutboxEntry claimed(int attempts) {
+        return OutboxEntry.builder()
+                .id("msg-1")
+                .phoneNumberId("test-phone-id")
+                .recipient(RECIPIENT)
+                .content("Olá!")
+                .status(OutboxStatus.SENDING)
+                .attempts(attempts)
+                .build();
+    }
+
+    private Message message() {
+        return Message.builder()
+                .id("msg-1")
+                .customerId("customer-1")
+                .content("Olá!")
+                .build();
+    }
+}
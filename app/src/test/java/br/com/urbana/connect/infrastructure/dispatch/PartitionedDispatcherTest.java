@@ -0,0 +1,112 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.DispatcherConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedDispatcherTest {
+
+    private PartitionedDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    private PartitionedDispatcher createDispatcher(int partitions, int queueCapacity) {
+        DispatcherConfig config = new DispatcherConfig();
+        config.setPartitions(partitions);
+        config.setQueueCapacity(queueCapacity);
+        return new PartitionedDispatcher(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void dispatch_withSameKey_shouldProcessTasksInOrder() throws InterruptedException {
+        // Given
+        dispatcher = createDispatcher(4, 100);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(50);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            final int value = i;
+            assertTrue(dispatcher.dispatch("+5511999999999", () -> {
+                processed.add(value);
+                done.countDown();
+            }));
+        }
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, processed.get(i));
+        }
+    }
+
+    @Test
+    void dispatch_whenPartitionQueueIsFull_shouldRejectTask() throws InterruptedException {
+        // Given - Uma partição com fila de uma posição e a thread ocupada
+        dispatcher = createDispatcher(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertTrue(dispatcher.dispatch("a", () -> {
+            started.countDown();
+            awaitQuietly(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.dispatch("a", () -> { }));
+
+        // When
+        boolean accepted = dispatcher.dispatch("a", () -> { });
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(1, dispatcher.queuedTasks());
+        release.countDown();
+    }
+
+    @Test
+    void dispatch_whenTaskThrowsException_shouldKeepProcessingNextTasks() throws InterruptedException {
+        // Given
+        dispatcher = createDispatcher(1, 10);
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        dispatcher.dispatch("a", () -> {
+            throw new IllegalStateException("Falha simulada");
+        });
+        dispatcher.dispatch("a", done::countDown);
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void partitionFor_shouldBeStableForTheSameKey() {
+        // Given
+        dispatcher = createDispatcher(8, 10);
+
+        // Then
+        assertEquals(dispatcher.partitionFor("+5511999999999"), dispatcher.partitionFor("+5511999999999"));
+        assertEquals(0, dispatcher.partitionFor(null));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
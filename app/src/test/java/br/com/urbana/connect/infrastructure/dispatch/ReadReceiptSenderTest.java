@@ -0,0 +1,135 @@
+package br.com.urbana.connect.infrastructure.dispatch;
+
+import br.com.urbana.connect.application.config.ReadReceiptConfig;
+import br.com.urbana.connect.domain.port.output.WhatsappServicePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReadReceiptSenderTest {
+
+    private final WhatsappServicePort whatsappService = mock(WhatsappServicePort.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadReceiptConfig config = new ReadReceiptConfig();
+    private ReadReceiptSender sender;
+
+    @BeforeEach
+    void setUp() {
+        // Envio manual nos testes
+        config.setFlushInterval(Duration.ofHours(1));
+        config.setMaxAttempts(2);
+        config.setRetryDelay(Duration.ZERO);
+        sender = new ReadReceiptSender(whatsappService, config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.shutdown();
+    }
+
+    @Test
+    void submit_shouldReturnWithoutCallingWhatsapp() {
+        // When
+        sender.submit("cust-1", "wamid.1");
+
+        // Then
+        verifyNoInteractions(whatsappService);
+        assertEquals(1, meterRegistry.get("urbana.read.receipts.pending").gauge().value());
+    }
+
+    @Test
+    void flush_shouldConfirmOnlyLatestMessageOfEachCustomer() {
+        // Given
+        when(whatsappService.markMessageAsRead(anyString())).thenReturn(true);
+        sender.submit("cust-1", "wamid.1");
+        sender.submit("cust-1", "wamid.2");
+        sender.submit("cust-2", "wamid.3");
+
+        // When
+        sender.flush();
+
+        // Then
+        verify(whatsappService).markMessageAsRead("wamid.2");
+        verify(whatsappService).markMessageAsRead("wamid.3");
+        verify(whatsappService, never()).markMessageAsRead("wamid.1");
+        assertEquals(0, meterRegistry.get("urbana.read.receipts.pending").gauge().value());
+    }
+
+    @Test
+    void flush_whenSendFails_shouldRetryUntilMaxAttempts() {
+        // Given
+        when(whatsappService.markMessageAsRead(anyString())).thenReturn(false);
+        sender.submit("cust-1", "wamid.1");
+
+        // When
+        sender.flush();
+        sender.flush();
+        sender.flush();
+
+        // Then
+        verify(whatsappService, times(2)).markMessageAsRead("wamid.1");
+        assertEquals(1, meterRegistry.get("urbana.read.receipts.sent").tag("result", "failed").counter().count());
+        assertEquals(0, meterRegistry.get("urbana.read.receipts.pending").gauge().value());
+    }
+
+    @Test
+    void flush_newerReceiptShouldReplacePendingRetry() {
+        // Given
+        when(whatsappService.markMessageAsRead("wamid.1")).thenReturn(false);
+        when(whatsappService.markMessageAsRead("wamid.2")).thenReturn(true);
+        sender.submit("cust-1", "wamid.1");
+        sender.flush();
+
+        // When
+        sender.submit("cust-1", "wamid.2");
+        sender.flush();
+
+        // Then
+        verify(whatsappService, times(1)).markMessageAsRead("wamid.1");
+        verify(whatsappService).markMessageAsRead("wamid.2");
+    }
+
+    @Test
+    void flush_shouldSendReceiptsConcurrently() {
+        // Given: cada chamada só termina quando as duas estiverem em andamento
+        CountDownLatch bothInFlight = new CountDownLatch(2);
+        when(whatsappService.markMessageAsRead(anyString())).thenAnswer(invocation -> {
+            bothInFlight.countDown();
+            return bothInFlight.await(2, TimeUnit.SECONDS);
+        });
+        sender.submit("cust-1", "wamid.1");
+        sender.submit("cust-2", "wamid.2");
+
+        // When
+        sender.flush();
+
+        // Then
+        assertEquals(2, meterRegistry.get("urbana.read.receipts.sent").tag("result", "sent").counter().count());
+    }
+
+    @Test
+    void flush_whenCallExceedsTimeout_shouldScheduleRetry() {
+        // Given
+        config.setSendTimeout(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        when(whatsappService.markMessageAsRead("wamid.slow")).thenAnswer(invocation -> release.await(2, TimeUnit.SECONDS));
+        sender.submit("cust-1", "wamid.slow");
+
+        // When
+        sender.flush();
+        release.countDown();
+
+        // Then
+        assertEquals(1, meterRegistry.get("urbana.read.receipts.sent").tag("result", "retried").counter().count());
+        assertEquals(1, meterRegistry.get("urbana.read.receipts.pending").gauge().value());
+    }
+}
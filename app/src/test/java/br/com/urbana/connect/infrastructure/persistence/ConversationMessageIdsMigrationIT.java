@@ -0,0 +1,130 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.AbstractIntegrationTest;
+import br.com.urbana.connect.application.config.MigrationConfig;
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.Message;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ActiveProfiles("test")
+class ConversationMessageIdsMigrationIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private ConversationMessageIdsMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), Conversation.class);
+        mongoTemplate.remove(new Query(), Message.class);
+
+        // Lotes de uma conversa para exercitar a paginação da migração
+        MigrationConfig config = new MigrationConfig();
+        config.setBatchSize(1);
+        migration = new ConversationMessageIdsMigration(mongoTemplate, config);
+    }
+
+    @Test
+    void migrate_shouldReplaceMessageIdsWithCounters() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        insertLegacyConversation("conv-1", List.of("m1", "m2", "m3"));
+        insertLegacyConversation("conv-2", List.of());
+        insertMessage("m1", "conv-1", start);
+        insertMessage("m2", "conv-1", start.plusMinutes(1));
+        insertMessage("m3", "conv-1", start.plusMinutes(2));
+
+        // When
+        int migrated = migration.migrate();
+
+        // Then
+        assertThat(migrated).isEqualTo(2);
+
+        Conversation withMessages = mongoTemplate.findById("conv-1", Conversation.class);
+        assertThat(withMessages.getMessageCount()).isEqualTo(3);
+        assertThat(withMessages.getFirstMessageAt()).isEqualTo(start);
+        assertThat(withMessages.getLastMessageAt()).isEqualTo(start.plusMinutes(2));
+        assertThat(withMessages.getLastMessageId()).isEqualTo("m3");
+
+        Conversation withoutMessages = mongoTemplate.findById("conv-2", Conversation.class);
+        assertThat(withoutMessages.getMessageCount()).isZero();
+
+        Document raw = mongoTemplate.getCollection("conversations").find(new Document("_id", "conv-1")).first();
+        assertThat(raw).doesNotContainKey("messageIds");
+    }
+
+    @Test
+    void migrate_runTwice_shouldNotTouchMigratedConversations() {
+        // Given
+        insertLegacyConversation("conv-1", List.of("m1"));
+        insertMessage("m1", "conv-1", LocalDateTime.now());
+        migration.migrate();
+
+        // When
+        int migrated = migration.migrate();
+
+        // Then
+        assertThat(migrated).isZero();
+    }
+
+    @Test
+    void migrate_withMessagesRecordedAfterTheDeploy_shouldKeepTheLiveCounters() {
+        // Given: conversa antiga que já recebeu uma mensagem pelo contador novo
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        insertLegacyConversation("conv-1", List.of("m1", "m2"));
+        insertMessage("m1", "conv-1", start);
+        insertMessage("m2", "conv-1", start.plusMinutes(1));
+        insertMessage("m3", "conv-1", start.plusMinutes(2));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is("conv-1")),
+                new Update().inc("messageCount", 1L)
+                        .min("firstMessageAt", start.plusMinutes(2))
+                        .set("lastMessageId", "m3")
+                        .set("lastMessageAt", start.plusMinutes(2)),
+                Conversation.class);
+
+        // When
+        migration.migrate();
+
+        // Then
+        Conversation migrated = mongoTemplate.findById("conv-1", Conversation.class);
+        assertThat(migrated.getMessageCount()).isEqualTo(3);
+        assertThat(migrated.getFirstMessageAt()).isEqualTo(start);
+        assertThat(migrated.getLastMessageAt()).isEqualTo(start.plusMinutes(2));
+        assertThat(migrated.getLastMessageId()).isEqualTo("m3");
+    }
+
+    private void insertLegacyConversation(String id, List<String> messageIds) {
+        mongoTemplate.getCollection("conversations").insertOne(new Document("_id", id)
+                .append("customerId", "customer-migration")
+                .append("status", "CLOSED")
+                .append("messageIds", messageIds));
+    }
+
+    private void insertMessage(String id, String conversationId, LocalDateTime timestamp) {
+        mongoTemplate.insert(Message.builder()
+                .id(id)
+                .conversationId(conversationId)
+                .direction(MessageDirection.INBOUND)
+                .content("mensagem " + id)
+                .timestamp(timestamp)
+                .build());
+    }
+}
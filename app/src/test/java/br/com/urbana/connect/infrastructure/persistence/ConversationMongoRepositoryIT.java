@@ -0,0 +1,197 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.AbstractIntegrationTest;
+import br.com.urbana.connect.domain.enums.ConversationStatus;
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.ConversationUpdate;
+import br.com.urbana.connect.domain.model.RecentMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ActiveProfiles("test")
+class ConversationMongoRepositoryIT extends AbstractIntegrationTest {
+
+    private static final String CUSTOMER_ID = "customer-it";
+
+    @Autowired
+    private ConversationMongoRepository conversationRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Remover apenas os documentos, preservando os índices criados na inicialização
+        mongoTemplate.remove(new Query(), Conversation.class);
+    }
+
+    @Test
+    void findOrCreateActive_withoutOpenConversation_shouldInsertTemplate() {
+        // Given
+        Conversation template = newConversation();
+
+        // When
+        Conversation result = conversationRepository.findOrCreateActive(template);
+
+        // Then
+        assertThat(result.getId()).isEqualTo(template.getId());
+        assertThat(result.getCustomerId()).isEqualTo(CUSTOMER_ID);
+        assertThat(result.getStatus()).isEqualTo(ConversationStatus.ACTIVE);
+        assertThat(result.getContext().getConversationState()).isEqualTo("INICIADA");
+    }
+
+    @Test
+    void findOrCreateActive_withConversationWaitingForAgent_shouldReturnIt() {
+        // Given
+        Conversation waiting = newConversation();
+        waiting.setStatus(ConversationStatus.WAITING_FOR_AGENT);
+        mongoTemplate.insert(waiting);
+
+        // When
+        Conversation result = conversationRepository.findOrCreateActive(newConversation());
+
+        // Then
+        assertThat(result.getId()).isEqualTo(waiting.getId());
+        assertThat(mongoTemplate.count(new Query(), Conversation.class)).isEqualTo(1);
+    }
+
+    @Test
+    void findOrCreateActive_shouldIgnoreClosedConversations() {
+        // Given
+        Conversation closed = newConversation();
+        closed.setStatus(ConversationStatus.CLOSED);
+        mongoTemplate.insert(closed);
+
+        // When
+        Conversation result = conversationRepository.findOrCreateActive(newConversation());
+
+        // Then
+        assertThat(result.getId()).isNotEqualTo(closed.getId());
+        assertThat(conversationRepository.findFirstByCustomerIdAndStatusInOrderByStartTimeDesc(
+                CUSTOMER_ID, ConversationStatus.openStatuses())).contains(result);
+    }
+
+    @Test
+    void findOrCreateActive_concurrentCalls_shouldCreateSingleConversation() throws Exception {
+        // Given
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Conversation>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Callable<Conversation> call = () -> {
+                start.await();
+                return conversationRepository.findOrCreateActive(newConversation());
+            };
+            futures.add(executor.submit(call));
+        }
+
+        // When
+        start.countDown();
+        Set<String> ids = new HashSet<>();
+        for (Future<Conversation> future : futures) {
+            ids.add(future.get().getId());
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(ids).hasSize(1);
+        List<Conversation> stored = mongoTemplate.findAll(Conversation.class);
+        assertThat(stored.stream().map(Conversation::getId).collect(Collectors.toSet())).isEqualTo(ids);
+    }
+
+    @Test
+    void applyUpdate_shouldTouchOnlyChangedFieldsAndCapEntities() {
+        // Given
+        Conversation stored = newConversation();
+        stored.setMessageCount(1);
+        stored.getContext().setIdentifiedEntities(new ArrayList<>(List.of("sala", "quarto")));
+        mongoTemplate.insert(stored);
+
+        ConversationUpdate update = ConversationUpdate.create()
+                .conversationState("AGUARDANDO_USUARIO")
+                .addIdentifiedEntities(List.of("cozinha", "varanda"), 3);
+
+        // When
+        boolean updated = conversationRepository.applyUpdate(stored.getId(), update);
+
+        // Then
+        assertThat(updated).isTrue();
+        Conversation result = mongoTemplate.findById(stored.getId(), Conversation.class);
+        assertThat(result.getContext().getConversationState()).isEqualTo("AGUARDANDO_USUARIO");
+        assertThat(result.getContext().getIdentifiedEntities()).containsExactly("quarto", "cozinha", "varanda");
+        assertThat(result.getMessageCount()).isEqualTo(1);
+        assertThat(result.getStatus()).isEqualTo(ConversationStatus.ACTIVE);
+    }
+
+    @Test
+    void applyUpdate_shouldKeepOnlyMostRecentMessagesOnTheConversation() {
+        // Given
+        Conversation stored = newConversation();
+        mongoTemplate.insert(stored);
+        LocalDateTime start = LocalDateTime.now();
+
+        // When
+        for (int i = 1; i <= 4; i++) {
+            RecentMessage message = RecentMessage.builder()
+                    .direction(i % 2 == 0 ? MessageDirection.OUTBOUND : MessageDirection.INBOUND)
+                    .content("mensagem " + i)
+                    .timestamp(start.plusSeconds(i))
+                    .build();
+            conversationRepository.applyUpdate(stored.getId(), ConversationUpdate.create()
+                    .recordMessage("msg-" + i, message.getTimestamp())
+                    .addRecentMessage(message, 3));
+        }
+
+        // Then
+        Conversation result = mongoTemplate.findById(stored.getId(), Conversation.class);
+        assertThat(result.getRecentMessages())
+                .extracting(RecentMessage::getContent)
+                .containsExactly("mensagem 2", "mensagem 3", "mensagem 4");
+        assertThat(result.getRecentMessages().get(2).getDirection()).isEqualTo(MessageDirection.OUTBOUND);
+        assertThat(result.getMessageCount()).isEqualTo(4);
+        assertThat(result.getLastMessageId()).isEqualTo("msg-4");
+    }
+
+    @Test
+    void applyUpdate_withUnknownConversation_shouldReturnFalse() {
+        ConversationUpdate update = ConversationUpdate.create().status(ConversationStatus.CLOSED);
+
+        assertThat(conversationRepository.applyUpdate("non-existent-id", update)).isFalse();
+        assertThat(conversationRepository.applyUpdateAndGet("non-existent-id", update)).isEmpty();
+    }
+
+    private Conversation newConversation() {
+        Conversation conversation = Conversation.builder()
+                .id(UUID.randomUUID().toString())
+                .customerId(CUSTOMER_ID)
+                .status(ConversationStatus.ACTIVE)
+                .startTime(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+        conversation.getContext().setConversationState("INICIADA");
+        return conversation;
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.AbstractIntegrationTest;
+import br.com.urbana.connect.domain.model.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ActiveProfiles("test")
+class CustomerMongoRepositoryIT extends AbstractIntegrationTest {
+
+    private static final String PHONE_NUMBER = "+5511977776666";
+
+    @Autowired
+    private CustomerMongoRepository customerRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Remover apenas os documentos, preservando o índice único de phoneNumber
+        mongoTemplate.remove(new Query(), Customer.class);
+    }
+
+    @Test
+    void findOrCreateByPhoneNumber_newNumber_shouldCreateCustomer() {
+        // When
+        Customer customer = customerRepository.findOrCreateByPhoneNumber(PHONE_NUMBER);
+
+        // Then
+        assertThat(customer.getId()).isNotBlank();
+        assertThat(customer.getPhoneNumber()).isEqualTo(PHONE_NUMBER);
+        assertThat(customer.getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    void findOrCreateByPhoneNumber_existingNumber_shouldKeepStoredData() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(10).withNano(0);
+        mongoTemplate.insert(Customer.builder()
+                .id("existing-customer")
+                .phoneNumber(PHONE_NUMBER)
+                .name("Maria")
+                .createdAt(createdAt)
+                .build());
+
+        // When
+        Customer customer = customerRepository.findOrCreateByPhoneNumber(PHONE_NUMBER);
+
+        // Then
+        assertThat(customer.getId()).isEqualTo("existing-customer");
+        assertThat(customer.getName()).isEqualTo("Maria");
+        assertThat(customer.getCreatedAt()).isEqualTo(createdAt);
+    }
+
+    @Test
+    void findOrCreateByPhoneNumber_concurrentCallsForNewNumber_shouldCreateSingleCustomer() throws Exception {
+        // Given
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Customer>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return customerRepository.findOrCreateByPhoneNumber(PHONE_NUMBER);
+            }));
+        }
+
+        // When
+        start.countDown();
+        Set<String> ids = new HashSet<>();
+        for (Future<Customer> future : futures) {
+            ids.add(future.get().getId());
+        }
+        executor.shutdown();
+
+        // Then - Nenhuma chamada falhou e todas receberam o mesmo cliente
+        assertThat(ids).hasSize(1);
+        assertThat(mongoTemplate.count(new Query(Criteria.where("phoneNumber").is(PHONE_NUMBER)), Customer.class))
+                .isEqualTo(1);
+    }
+}
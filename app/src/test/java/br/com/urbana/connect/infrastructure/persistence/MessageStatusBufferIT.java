@@ -0,0 +1,135 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.AbstractIntegrationTest;
+import br.com.urbana.connect.application.config.MessageStatusConfig;
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.model.Message;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ActiveProfiles("test")
+class MessageStatusBufferIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MessageStatusConfig config = new MessageStatusConfig();
+    private MessageStatusBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), Message.class);
+        buffer = new MessageStatusBuffer(mongoTemplate, config, meterRegistry);
+    }
+
+    @Test
+    void flush_multipleUpdatesForSameMessage_shouldWriteOnlyTheLatest() {
+        // Given
+        Message first = mongoTemplate.insert(message("wamid.1"));
+        Message second = mongoTemplate.insert(message("wamid.2"));
+        LocalDateTime readAt = LocalDateTime.now().withNano(0);
+
+        CompletableFuture<Void> delivered = buffer.submit("wamid.1", MessageStatus.DELIVERED, null);
+        CompletableFuture<Void> read = buffer.submit("wamid.1", MessageStatus.READ, readAt);
+        CompletableFuture<Void> other = buffer.submit("wamid.2", MessageStatus.DELIVERED, null);
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertThat(delivered).isCompleted();
+        assertThat(read).isCompleted();
+        assertThat(other).isCompleted();
+
+        Message updatedFirst = mongoTemplate.findById(first.getId(), Message.class);
+        assertThat(updatedFirst.getStatus()).isEqualTo(MessageStatus.READ);
+        assertThat(updatedFirst.isRead()).isTrue();
+        assertThat(updatedFirst.getReadAt()).isEqualTo(readAt);
+        assertThat(mongoTemplate.findById(second.getId(), Message.class).getStatus()).isEqualTo(MessageStatus.DELIVERED);
+
+        DistributionSummary batchSize = meterRegistry.get("urbana.message.status.batch.size").summary();
+        assertThat(batchSize.count()).isEqualTo(1);
+        assertThat(batchSize.totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_lateUpdate_shouldNotRegressStatus() {
+        // Given
+        Message saved = mongoTemplate.insert(message("wamid.late"));
+        buffer.submit("wamid.late", MessageStatus.READ, null);
+        buffer.flush();
+
+        // When - A confirmação de entrega chega depois da leitura
+        CompletableFuture<Void> late = buffer.submit("wamid.late", MessageStatus.DELIVERED, null);
+        buffer.flush();
+
+        // Then
+        assertThat(late).isCompleted();
+        assertThat(mongoTemplate.findById(saved.getId(), Message.class).getStatus()).isEqualTo(MessageStatus.READ);
+    }
+
+    @Test
+    void flush_unknownMessageAfterGracePeriod_shouldBeDropped() {
+        // Given
+        config.setUnmatchedGracePeriod(Duration.ZERO);
+        CompletableFuture<Void> unknown = buffer.submit("wamid.unknown", MessageStatus.DELIVERED, null);
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertThat(unknown).isCompleted();
+        assertThat(mongoTemplate.count(new Query(), Message.class)).isZero();
+        assertThat(meterRegistry.get("urbana.message.status.unmatched").tag("result", "dropped").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void flush_statusArrivingBeforeTheSendIsRecorded_shouldBeAppliedOnALaterFlush() {
+        // Given: o status chega antes de markSent gravar o ID do WhatsApp
+        CompletableFuture<Void> delivered = buffer.submit("wamid.early", MessageStatus.DELIVERED, null);
+        buffer.flush();
+        assertThat(delivered).isNotDone();
+
+        Message sent = mongoTemplate.insert(message("wamid.early"));
+        CompletableFuture<Void> read = buffer.submit("wamid.early", MessageStatus.READ, null);
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertThat(delivered).isCompleted();
+        assertThat(read).isCompleted();
+        assertThat(mongoTemplate.findById(sent.getId(), Message.class).getStatus()).isEqualTo(MessageStatus.READ);
+        assertThat(meterRegistry.get("urbana.message.status.unmatched").tag("result", "retried").counter().count())
+                .isEqualTo(1);
+    }
+
+    private Message message(String whatsappMessageId) {
+        return Message.builder()
+                .conversationId("conv-1")
+                .customerId("cust-1")
+                .direction(MessageDirection.OUTBOUND)
+                .content("Resposta " + whatsappMessageId)
+                .status(MessageStatus.SENT)
+                .whatsappMessageId(whatsappMessageId)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.AbstractIntegrationTest;
+import br.com.urbana.connect.application.config.MessageWriteConfig;
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.exception.UniqueIndexViolationException;
+import br.com.urbana.connect.domain.model.Message;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@DataMongoTest
+@ActiveProfiles("test")
+class MessageWriteBufferIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MessageWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), Message.class);
+        mongoTemplate.indexOps(Message.class).ensureIndex(new Index()
+                .on("whatsappMessageId", Sort.Direction.ASC)
+                .named(Message.WHATSAPP_MESSAGE_ID_INDEX)
+                .unique()
+                .sparse());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void insert_concurrentWrites_shouldBeGroupedInBatches() {
+        // Given
+        buffer = createBuffer(Duration.ofMillis(200));
+
+        // When
+        List<CompletableFuture<Message>> writes = IntStream.range(0, 5)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> buffer.insert(message("wamid." + i))))
+                .toList();
+        writes.forEach(CompletableFuture::join);
+
+        // Then
+        assertThat(mongoTemplate.count(new Query(), Message.class)).isEqualTo(5);
+        DistributionSummary batchSize = meterRegistry.get("urbana.message.writes.batch.size")
+                .tag("operation", "insert").summary();
+        assertThat(batchSize.totalAmount()).isEqualTo(5);
+        assertThat(batchSize.count()).isLessThan(5);
+    }
+
+    @Test
+    void insert_duplicateWhatsappMessageId_shouldFailOnlyThatWrite() {
+        // Given
+        buffer = createBuffer(Duration.ofMillis(200));
+        buffer.insert(message("wamid.original"));
+
+        // When
+        CompletableFuture<Message> duplicate = CompletableFuture.supplyAsync(() -> buffer.insert(message("wamid.original")));
+        CompletableFuture<Message> other = CompletableFuture.supplyAsync(() -> buffer.insert(message("wamid.other")));
+
+        // Then
+        assertThat(other.join().getId()).isNotNull();
+        assertThatThrownBy(duplicate::join)
+                .cause()
+                .isInstanceOf(UniqueIndexViolationException.class)
+                .extracting("indexName")
+                .isEqualTo(Message.WHATSAPP_MESSAGE_ID_INDEX);
+        assertThat(mongoTemplate.count(new Query(), Message.class)).isEqualTo(2);
+    }
+
+    @Test
+    void updateStatus_shouldChangeOnlyTheStatus() {
+        // Given
+        buffer = createBuffer(Duration.ofMillis(10));
+        Message saved = buffer.insert(message("wamid.status"));
+
+        // When
+        buffer.updateStatus(saved.getId(), MessageStatus.DELIVERED);
+
+        // Then
+        Message updated = mongoTemplate.findById(saved.getId(), Message.class);
+        assertThat(updated.getStatus()).isEqualTo(MessageStatus.DELIVERED);
+        assertThat(updated.getContent()).isEqualTo(saved.getContent());
+    }
+
+    @Test
+    void shutdown_shouldFlushPendingWritesWithoutWaitingForLatency() throws Exception {
+        // Given
+        buffer = createBuffer(Duration.ofSeconds(30));
+        CompletableFuture<Message> pending = CompletableFuture.supplyAsync(() -> buffer.insert(message("wamid.pending")));
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> meterRegistry.get("urbana.message.writes.pending").gauge().value() == 1);
+
+        // When
+        buffer.shutdown();
+
+        // Then
+        assertThat(pending.get(2, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThat(mongoTemplate.count(new Query(), Message.class)).isEqualTo(1);
+
+        // Depois do encerramento as gravações vão direto ao banco
+        buffer.insert(message("wamid.after-shutdown"));
+        assertThat(mongoTemplate.count(new Query(), Message.class)).isEqualTo(2);
+    }
+
+    @Test
+    void insert_confirmTimeoutWhileInBatch_shouldReportThatTheWriteMayStillBeApplied() {
+        // Given
+        MessageWriteConfig config = new MessageWriteConfig();
+        config.setMaxLatency(Duration.ofSeconds(30));
+        config.setConfirmTimeout(Duration.ofMillis(200));
+        buffer = new MessageWriteBuffer(mongoTemplate, config, meterRegistry);
+
+        // When / Then
+        assertThatThrownBy(() -> buffer.insert(message("wamid.unconfirmed")))
+                .isInstanceOf(MessageWriteBuffer.UnconfirmedWriteException.class);
+
+        // A gravação continua no lote e é aplicada no encerramento
+        buffer.shutdown();
+        assertThat(mongoTemplate.count(new Query(), Message.class)).isEqualTo(1);
+    }
+
+    private MessageWriteBuffer createBuffer(Duration maxLatency) {
+        MessageWriteConfig config = new MessageWriteConfig();
+        config.setMaxLatency(maxLatency);
+        config.setMaxBatchSize(10);
+        return new MessageWriteBuffer(mongoTemplate, config, meterRegistry);
+    }
+
+    private Message message(String whatsappMessageId) {
+        return Message.builder()
+                .conversationId("conv-1")
+                .customerId("cust-1")
+                .direction(MessageDirection.INBOUND)
+                .content("Mensagem " + whatsappMessageId)
+                .whatsappMessageId(whatsappMessageId)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.AbstractIntegrationTest;
+import br.com.urbana.connect.domain.enums.MessageDirection;
+import br.com.urbana.connect.domain.enums.MessageStatus;
+import br.com.urbana.connect.domain.enums.OutboxStatus;
+import br.com.urbana.connect.domain.model.Message;
+import br.com.urbana.connect.domain.model.OutboxEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ActiveProfiles("test")
+@Import(MongoOutboxRepository.class)
+class MongoOutboxRepositoryIT extends AbstractIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    @Autowired
+    private MongoOutboxRepository outboxRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(OutboxEntry.class);
+        mongoTemplate.dropCollection(Message.class);
+    }
+
+    @Test
+    void enqueue_sameMessageTwice_shouldKeepSingleEntry() {
+        // When
+        boolean first = outboxRepository.enqueue(entry("msg-1", "5511999999999"));
+        boolean second = outboxRepository.enqueue(entry("msg-1", "5511999999999"));
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(mongoTemplate.findAll(OutboxEntry.class)).hasSize(1);
+    }
+
+    @Test
+    void claimNext_shouldReturnEntryOnlyOnce() {
+        // Given
+        outboxRepository.enqueue(entry("msg-1", "5511999999999"));
+
+        // When
+        Optional<OutboxEntry> first = outboxRepository.claimNext("pod-a", LEASE, List.of());
+        Optional<OutboxEntry> second = outboxRepository.claimNext("pod-b", LEASE, List.of());
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(first.get().getStatus()).isEqualTo(OutboxStatus.SENDING);
+        assertThat(first.get().getAttempts()).isEqualTo(1);
+        assertThat(first.get().getLeaseOwner()).isEqualTo("pod-a");
+        assertThat(second).isEmpty();
+    }
+
+    @Test
+    void claimNext_shouldSkipExcludedRecipientsAndFutureAttempts() {
+        // Given
+        outboxRepository.enqueue(entry("msg-busy", "5511111111111"));
+        outboxRepository.enqueue(entry("msg-later", "5522222222222"));
+        outboxRepository.reschedule("msg-later", "429", LocalDateTime.now().plusMinutes(1));
+        outboxRepository.enqueue(entry("msg-ready", "5533333333333"));
+
+        // When
+        Optional<OutboxEntry> claimed = outboxRepository.claimNext("pod-a", LEASE, List.of("5511111111111"));
+
+        // Then
+        assertThat(claimed).map(OutboxEntry::getId).contains("msg-ready");
+    }
+
+    @Test
+    void claimNext_shouldTakeOverEntryWithExpiredLease() {
+        // Given - Instância que caiu durante o envio
+        outboxRepository.enqueue(entry("msg-1", "5511999999999"));
+        outboxRepository.claimNext("pod-a", Duration.ofMillis(-1), List.of());
+
+        // When
+        Optional<OutboxEntry> claimed = outboxRepository.claimNext("pod-b", LEASE, List.of());
+
+        // Then
+        assertThat(claimed).isPresent();
+        assertThat(claimed.get().getLeaseOwner()).isEqualTo("pod-b");
+        assertThat(claimed.get().getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void claimNext_whileOlderEntryAwaitsRetry_shouldHoldRecipient() {
+        // Given - A primeira resposta falhou e aguarda nova tentativa
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.enqueue(entry("msg-first", "5511999999999", now.minusSeconds(2)));
+        outboxRepository.enqueue(entry("msg-second", "5511999999999", now.minusSeconds(1)));
+        outboxRepository.claimNext("pod-a", LEASE, List.of());
+        outboxRepository.reschedule("msg-first", "429", now.plusMinutes(1));
+
+        // When
+        Optional<OutboxEntry> claimed = outboxRepository.claimNext("pod-a", LEASE, List.of());
+
+        // Then
+        assertThat(claimed).isEmpty();
+    }
+
+    @Test
+    void claimNext_whileOlderEntryIsSendingElsewhere_shouldHoldRecipientOnly() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.enqueue(entry("msg-first", "5511999999999", now.minusSeconds(3)));
+        outboxRepository.enqueue(entry("msg-second", "5511999999999", now.minusSeconds(2)));
+        outboxRepository.enqueue(entry("msg-other", "5522222222222", now.minusSeconds(1)));
+        Optional<OutboxEntry> first = outboxRepository.claimNext("pod-a", LEASE, List.of());
+
+        // When - Outra instância, sem envio em andamento para o destinatário
+        Optional<OutboxEntry> second = outboxRepository.claimNext("pod-b", LEASE, List.of());
+        outboxRepository.markSent("msg-first", "wamid.first");
+        Optional<OutboxEntry> third = outboxRepository.claimNext("pod-b", LEASE, List.of());
+
+        // Then
+        assertThat(first).map(OutboxEntry::getId).contains("msg-first");
+        assertThat(second).map(OutboxEntry::getId).contains("msg-other");
+        assertThat(third).map(OutboxEntry::getId).contains("msg-second");
+    }
+
+    @Test
+    void markSent_shouldStoreWhatsappMessageId() {
+        // Given
+        outboxRepository.enqueue(entry("msg-1", "5511999999999"));
+        outboxRepository.claimNext("pod-a", LEASE, List.of());
+
+        // When
+        outboxRepository.markSent("msg-1", "wamid.sent");
+
+        // Then
+        OutboxEntry sent = mongoTemplate.findById("msg-1", OutboxEntry.class);
+        assertThat(sent.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(sent.getWhatsappMessageId()).isEqualTo("wamid.sent");
+        assertThat(sent.getSentAt()).isNotNull();
+        assertThat(outboxRepository.claimNext("pod-a", LEASE, List.of())).isEmpty();
+    }
+
+    @Test
+    void findUnqueuedMessages_shouldReturnOnlyPendingOutboundMessagesMissingFromOutbox() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.insert(message("msg-unqueued", MessageDirection.OUTBOUND, MessageStatus.PENDING, now.minusMinutes(5)));
+        mongoTemplate.insert(message("msg-queued", MessageDirection.OUTBOUND, MessageStatus.PENDING, now.minusMinutes(5)));
+        outboxRepository.enqueue(entry("msg-queued", "5511999999999"));
+        mongoTemplate.insert(message("msg-sent", MessageDirection.OUTBOUND, MessageStatus.SENT, now.minusMinutes(5)));
+        mongoTemplate.insert(message("msg-inbound", MessageDirection.INBOUND, null, now.minusMinutes(5)));
+        mongoTemplate.insert(message("msg-recent", MessageDirection.OUTBOUND, MessageStatus.PENDING, now));
+
+        // When
+        List<Message> unqueued = outboxRepository.findUnqueuedMessages(now.minusDays(1), now.minusMinutes(1), 10);
+
+        // Then
+        assertThat(unqueued).extracting(Message::getId).containsExactly("msg-unqueued");
+    }
+
+    private Message message(String id, MessageDirection direction, MessageStatus status, LocalDateTime timestamp) {
+        return Message.builder()
+                .id(id)
+                .conversationId("conversation-1")
+                .customerId("customer-1")
+                .direction(direction)
+                .content("Olá!")
+                .status(status)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private OutboxEntry entry(String messageId, String recipient) {
+        return entry(messageId, recipient, LocalDateTime.now());
+    }
+
+    private OutboxEntry entry(String messageId, String recipient, LocalDateTime createdAt) {
+        return OutboxEntry.builder()
+                .id(messageId)
+                .phoneNumberId("test-phone-id")
+                .recipient(recipient)
+                .content("Olá!")
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.AbstractIntegrationTest;
+import br.com.urbana.connect.domain.enums.WebhookInboxStatus;
+import br.com.urbana.connect.domain.model.WebhookInboxEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ActiveProfiles("test")
+@Import(MongoWebhookInboxRepository.class)
+class MongoWebhookInboxRepositoryIT extends AbstractIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    @Autowired
+    private MongoWebhookInboxRepository inboxRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(WebhookInboxEntry.class);
+    }
+
+    @Test
+    void claimNext_shouldSkipEntriesWithActiveLease() {
+        // Given - Entrada recém-recebida já reservada pela instância que a recebeu
+        inboxRepository.append("{}", "pod-a", LEASE);
+
+        // When
+        Optional<WebhookInboxEntry> claimed = inboxRepository.claimNext("pod-b", LEASE);
+
+        // Then
+        assertThat(claimed).isEmpty();
+    }
+
+    @Test
+    void claimNext_shouldReturnReleasedEntryOnlyOnce() {
+        // Given
+        WebhookInboxEntry entry = inboxRepository.append("{}", "pod-a", LEASE);
+        inboxRepository.release(entry.getId(), "Erro no GPT", LocalDateTime.now());
+
+        // When
+        Optional<WebhookInboxEntry> first = inboxRepository.claimNext("pod-b", LEASE);
+        Optional<WebhookInboxEntry> second = inboxRepository.claimNext("pod-c", LEASE);
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(first.get().getLeaseOwner()).isEqualTo("pod-b");
+        assertThat(first.get().getAttempts()).isEqualTo(2);
+        assertThat(first.get().getStatus()).isEqualTo(WebhookInboxStatus.PROCESSING);
+        assertThat(second).isEmpty();
+    }
+
+    @Test
+    void claimNext_shouldWaitForNextAttemptOfReleasedEntry() {
+        // Given
+        WebhookInboxEntry entry = inboxRepository.append("{}", "pod-a", LEASE);
+        inboxRepository.release(entry.getId(), "Erro no GPT", LocalDateTime.now().plusMinutes(1));
+
+        // When
+        Optional<WebhookInboxEntry> claimed = inboxRepository.claimNext("pod-b", LEASE);
+
+        // Then
+        assertThat(claimed).isEmpty();
+    }
+
+    @Test
+    void defer_shouldReturnEntryWithoutConsumingAttempt() {
+        // Given
+        WebhookInboxEntry entry = inboxRepository.append("{}", "pod-a", LEASE);
+
+        // When
+        inboxRepository.defer(entry.getId(), "Fila cheia", LocalDateTime.now());
+        Optional<WebhookInboxEntry> claimed = inboxRepository.claimNext("pod-b", LEASE);
+
+        // Then
+        assertThat(claimed).isPresent();
+        assertThat(claimed.get().getAttempts()).isEqualTo(1);
+        assertThat(claimed.get().getNextAttemptAt()).isNull();
+    }
+
+    @Test
+    void claimNext_shouldTakeOverEntryWithExpiredLease() {
+        // Given - Instância que caiu durante o processamento
+        inboxRepository.append("{}", "pod-a", Duration.ofMillis(-1));
+
+        // When
+        Optional<WebhookInboxEntry> claimed = inboxRepository.claimNext("pod-b", LEASE);
+
+        // Then
+        assertThat(claimed).isPresent();
+        assertThat(claimed.get().getLeaseOwner()).isEqualTo("pod-b");
+    }
+
+    @Test
+    void reclaimOwned_shouldReturnEntriesClaimedBeforeRestart() throws InterruptedException {
+        // Given
+        WebhookInboxEntry entry = inboxRepository.append("{}", "pod-a", LEASE);
+        Thread.sleep(10);
+        LocalDateTime restartedAt = LocalDateTime.now();
+        Thread.sleep(10);
+
+        // When
+        Optional<WebhookInboxEntry> otherOwner = inboxRepository.reclaimOwned("pod-b", restartedAt, LEASE);
+        Optional<WebhookInboxEntry> reclaimed = inboxRepository.reclaimOwned("pod-a", restartedAt, LEASE);
+        Optional<WebhookInboxEntry> again = inboxRepository.reclaimOwned("pod-a", restartedAt, LEASE);
+
+        // Then
+        assertThat(otherOwner).isEmpty();
+        assertThat(reclaimed).isPresent();
+        assertThat(reclaimed.get().getId()).isEqualTo(entry.getId());
+        assertThat(again).isEmpty();
+    }
+
+    @Test
+    void markDone_shouldCompleteEntry() {
+        // Given
+        WebhookInboxEntry entry = inboxRepository.append("{}", "pod-a", LEASE);
+
+        // When
+        inboxRepository.markDone(entry.getId());
+
+        // Then
+        WebhookInboxEntry stored = mongoTemplate.findById(entry.getId(), WebhookInboxEntry.class);
+        assertThat(stored).isNotNull();
+        assertThat(stored.getStatus()).isEqualTo(WebhookInboxStatus.DONE);
+        assertThat(stored.getProcessedAt()).isNotNull();
+        assertThat(stored.getLeaseUntil()).isNull();
+    }
+}
@@ -0,0 +1,168 @@
+package br.com.urbana.connect.infrastructure.persistence;
+
+import br.com.urbana.connect.application.config.AbstractIntegrationTest;
+import br.com.urbana.connect.application.config.MigrationConfig;
+import br.com.urbana.connect.domain.enums.ConversationStatus;
+import br.com.urbana.connect.domain.model.Conversation;
+import br.com.urbana.connect.domain.model.Message;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@ActiveProfiles("test")
+class UniqueIndexMigrationIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoDatabaseFactory databaseFactory;
+
+    private UniqueIndexMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), Message.class);
+        mongoTemplate.remove(new Query(), Conversation.class);
+        // Simular uma base anterior aos índices únicos
+        mongoTemplate.indexOps(Message.class).getIndexInfo().stream()
+                .filter(index -> index.isIndexForFields(List.of("whatsappMessageId")))
+                .forEach(index -> mongoTemplate.indexOps(Message.class).dropIndex(index.getName()));
+        mongoTemplate.indexOps(Conversation.class).dropIndex(UniqueIndexMigration.ACTIVE_CONVERSATION_INDEX);
+        migration = new UniqueIndexMigration(databaseFactory, new MigrationConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        createIndexes(Message.class);
+        createIndexes(Conversation.class);
+    }
+
+    @Test
+    void removeDuplicateWhatsappMessageIds_shouldKeepTheOldestMessageOfEachId() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        insertMessage("m1", "wamid.repeated", now);
+        insertMessage("m2", "wamid.repeated", now.plusSeconds(5));
+        insertMessage("m3", "wamid.repeated", now.plusSeconds(10));
+        insertMessage("m4", "wamid.unique", now);
+        insertMessage("m5", null, now);
+        insertMessage("m6", null, now);
+
+        // When
+        int removed = migration.removeDuplicateWhatsappMessageIds();
+
+        // Then
+        assertThat(removed).isEqualTo(2);
+        assertThat(mongoTemplate.findAll(Message.class))
+                .extracting(Message::getId)
+                .containsExactlyInAnyOrder("m1", "m4", "m5", "m6");
+    }
+
+    @Test
+    void removeDuplicateWhatsappMessageIds_withUniqueIndex_shouldRemoveNothing() {
+        // Given
+        createIndexes(Message.class);
+        insertMessage("m1", "wamid.unique", LocalDateTime.now());
+
+        // When
+        int removed = migration.removeDuplicateWhatsappMessageIds();
+
+        // Then
+        assertThat(removed).isZero();
+        assertThat(mongoTemplate.count(new Query(), Message.class)).isEqualTo(1);
+    }
+
+    @Test
+    void dropOutdatedWhatsappMessageIdIndex_shouldLetTheNamedIndexBeCreated() {
+        // Given - Índice criado antes de ter nome próprio, com o nome gerado a partir do campo
+        mongoTemplate.indexOps(Message.class).ensureIndex(new Index()
+                .on("whatsappMessageId", Sort.Direction.ASC)
+                .named("whatsappMessageId")
+                .unique()
+                .sparse());
+
+        // When
+        String dropped = migration.dropOutdatedWhatsappMessageIdIndex();
+        createIndexes(Message.class);
+
+        // Then
+        assertThat(dropped).isEqualTo("whatsappMessageId");
+        assertThat(mongoTemplate.indexOps(Message.class).getIndexInfo())
+                .extracting(IndexInfo::getName)
+                .contains(Message.WHATSAPP_MESSAGE_ID_INDEX)
+                .doesNotContain("whatsappMessageId");
+        assertThat(migration.dropOutdatedWhatsappMessageIdIndex()).isNull();
+    }
+
+    @Test
+    void closeDuplicateActiveConversations_shouldKeepTheMostRecentlyActiveOne() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        insertConversation("conv-old", "cust-1", ConversationStatus.ACTIVE, now.minusHours(2));
+        insertConversation("conv-recent", "cust-1", ConversationStatus.ACTIVE, now);
+        insertConversation("conv-older", "cust-1", ConversationStatus.ACTIVE, now.minusDays(1));
+        insertConversation("conv-closed", "cust-1", ConversationStatus.CLOSED, now.minusDays(2));
+        insertConversation("conv-other", "cust-2", ConversationStatus.ACTIVE, now.minusDays(3));
+
+        // When
+        int closed = migration.closeDuplicateActiveConversations();
+
+        // Then
+        assertThat(closed).isEqualTo(2);
+        assertThat(mongoTemplate.findAll(Conversation.class))
+                .filteredOn(conversation -> conversation.getStatus() == ConversationStatus.ACTIVE)
+                .extracting(Conversation::getId)
+                .containsExactlyInAnyOrder("conv-recent", "conv-other");
+        assertThat(mongoTemplate.findById("conv-old", Conversation.class).getEndTime()).isNotNull();
+
+        // O índice único passa a poder ser criado
+        createIndexes(Conversation.class);
+    }
+
+    private void createIndexes(Class<?> entity) {
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(entity)
+                .forEach(indexOps::ensureIndex);
+    }
+
+    private void insertConversation(String id, String customerId, ConversationStatus status, LocalDateTime lastActivityTime) {
+        mongoTemplate.insert(Conversation.builder()
+                .id(id)
+                .customerId(customerId)
+                .status(status)
+                .startTime(lastActivityTime)
+                .lastActivityTime(lastActivityTime)
+                .build());
+    }
+
+    private void insertMessage(String id, String whatsappMessageId, LocalDateTime timestamp) {
+        Document document = new Document("_id", id)
+                .append("conversationId", "conv-1")
+                .append("direction", "INBOUND")
+                .append("timestamp", timestamp);
+        if (whatsappMessageId != null) {
+            document.append("whatsappMessageId", whatsappMessageId);
+        }
+        mongoTemplate.getCollection("messages").insertOne(document);
+    }
+}